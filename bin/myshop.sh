@@ -0,0 +1,26 @@
+#!/usr/bin/env sh
+# Launches MyShop from target/MyShop.jar built with: mvn -Pappcds package
+#   bin/myshop.sh [-cds] [main-class] [args...]
+# -cds maps the class-data-sharing archive target/myshop.jsa produced by the training run.
+set -e
+
+APP_HOME="$(cd "$(dirname "$0")/.." && pwd)"
+JAR="$APP_HOME/target/MyShop.jar"
+ARCHIVE="$APP_HOME/target/myshop.jsa"
+JAVA="${JAVA_HOME:+$JAVA_HOME/bin/}java"
+
+JAVA_OPTS="${JAVA_OPTS:--Dmyshop.profile=prod -Dlog4j2.configurationFile=log4j2-prod.xml}"
+
+if [ "$1" = "-cds" ]; then
+    shift
+    if [ ! -f "$ARCHIVE" ]; then
+        echo "CDS archive $ARCHIVE not found, run: mvn -Pappcds package" >&2
+        exit 1
+    fi
+    JAVA_OPTS="$JAVA_OPTS -XX:SharedArchiveFile=$ARCHIVE -Xshare:auto"
+fi
+
+MAIN_CLASS="${1:-myshop.MyShopApp}"
+[ $# -gt 0 ] && shift
+
+exec "$JAVA" $JAVA_OPTS -cp "$JAR" "$MAIN_CLASS" "$@"
@@ -0,0 +1,29 @@
+#!/usr/bin/env sh
+# Compares time-to-first-order of CdsTrainingRun with and without the CDS archive.
+#   mvn -Pappcds package && bin/startup-benchmark.sh [runs]
+set -e
+
+BIN_DIR="$(cd "$(dirname "$0")" && pwd)"
+RUNS="${1:-5}"
+# The training run writes orders: same throwaway database as the archive build, never the prod profile.
+CDS_DB_URL="${CDS_DB_URL:-jdbc:postgresql://localhost:5432/shop_db_cds}"
+export JAVA_OPTS="${JAVA_OPTS:--Dmyshop.profile=cds -Ddb.url=$CDS_DB_URL -Dlog4j2.configurationFile=log4j2-prod.xml}"
+
+measure() {
+    total=0
+    i=0
+    while [ "$i" -lt "$RUNS" ]; do
+        start=$(date +%s%N)
+        ms=$("$BIN_DIR/myshop.sh" $1 myshop.CdsTrainingRun | sed -n 's/^time-to-first-order-ms=//p')
+        end=$(date +%s%N)
+        echo "  run $((i + 1)): time-to-first-order ${ms} ms, process $(( (end - start) / 1000000 )) ms"
+        total=$((total + ms))
+        i=$((i + 1))
+    done
+    echo "  average time-to-first-order: $((total / RUNS)) ms"
+}
+
+echo "Without CDS archive:"
+measure ""
+echo "With CDS archive:"
+measure "-cds"
@@ -0,0 +1,179 @@
+package myshop;
+
+import lombok.extern.log4j.Log4j2;
+import myshop.cart.dao.HibernateShoppingCartDao;
+import myshop.cart.dao.PopularityTrackingShoppingCartDao;
+import myshop.cart.dao.ShoppingCartDao;
+import myshop.cart.model.ShoppingCart;
+import myshop.cart.popularity.CartPopularityReconciler;
+import myshop.cart.popularity.CartPopularityTracker;
+import myshop.common.config.ShopConfig;
+import myshop.common.db.ConnectionManager;
+import myshop.common.db.ReplicaRouting;
+import myshop.common.db.migration.SchemaMigrator;
+import myshop.common.jpa.JpaUtil;
+import myshop.common.jpa.JpaWarmUp;
+import myshop.common.jpa.JpaWarmUp.WarmUpQuery;
+import myshop.order.dao.HibernateOrderDao;
+import myshop.order.model.Order;
+import myshop.order.model.OrderView;
+import myshop.product.dao.HibernateProductDao;
+import myshop.product.dao.ProductDao;
+import myshop.product.dao.SearchIndexingProductDao;
+import myshop.product.model.Product;
+import myshop.product.model.ProductView;
+import myshop.report.dao.JdbcReportDao;
+import myshop.report.dao.ReportDao;
+import myshop.report.metrics.ReportMetrics;
+import myshop.report.summary.CartSummaryRefresher;
+import myshop.user.dao.BloomFilterRefresher;
+import myshop.user.dao.BloomFilteredUserDao;
+import myshop.user.dao.HibernateUserDao;
+import myshop.user.dao.HibernateUserDetailsDao;
+import myshop.user.dao.HibernateUserProfileDao;
+import myshop.user.model.User;
+import myshop.user.model.UserDetails;
+import myshop.user.model.UserProfile;
+import myshop.user.model.UserView;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+@Log4j2
+public class AppBootstrap {
+    private static final List<WarmUpQuery> HIBERNATE_DAO_QUERIES = List.of(
+            WarmUpQuery.select(HibernateProductDao.FIND_ALL_PRODUCTS_JPQL, Product.class),
+            WarmUpQuery.select(HibernateProductDao.FIND_ALL_PRODUCT_VIEWS_JPQL, ProductView.class),
+            WarmUpQuery.select(HibernateProductDao.FIND_BY_PRICE_RANGE_JPQL, Product.class),
+            WarmUpQuery.select(HibernateProductDao.FIND_TOP_BY_PRICE_JPQL, Product.class),
+            WarmUpQuery.select(HibernateProductDao.FIND_ABOVE_PRICE_JPQL, Product.class),
+            WarmUpQuery.select(HibernateProductDao.STREAM_ALL_PRODUCTS_JPQL, Product.class),
+            WarmUpQuery.select(HibernateUserDao.FIND_ALL_USERS_JPQL, User.class),
+            WarmUpQuery.select(HibernateUserDao.FIND_ALL_USER_VIEWS_JPQL, UserView.class),
+            WarmUpQuery.select(HibernateUserDao.FIND_BY_USERNAME_JPQL, User.class),
+            WarmUpQuery.select(HibernateUserDao.FIND_BY_EMAIL_JPQL, User.class),
+            WarmUpQuery.select(HibernateUserDao.COUNT_BY_USERNAME_JPQL, Long.class),
+            WarmUpQuery.select(HibernateUserDao.COUNT_BY_EMAIL_JPQL, Long.class),
+            WarmUpQuery.select(HibernateUserDetailsDao.FIND_ALL_USER_DETAILS_JPQL, UserDetails.class),
+            WarmUpQuery.select(HibernateUserProfileDao.FIND_BY_USER_ID_JPQL, UserProfile.class),
+            WarmUpQuery.select(HibernateUserProfileDao.FIND_PROFILES_JPQL, UserProfile.class),
+            WarmUpQuery.select(HibernateOrderDao.FIND_ALL_ORDERS_BY_USER_ID_JPQL, Order.class),
+            WarmUpQuery.select(HibernateOrderDao.FIND_ORDER_VIEWS_BY_USER_ID_JPQL, OrderView.class),
+            WarmUpQuery.select(HibernateOrderDao.FIND_ALL_ORDERS_JPQL, Order.class),
+            WarmUpQuery.select(HibernateOrderDao.STREAM_ALL_ORDERS_JPQL, Order.class),
+            WarmUpQuery.select(HibernateShoppingCartDao.FIND_BY_USER_ID_JPQL, ShoppingCart.class)
+    );
+
+    private static CartPopularityTracker cartPopularity;
+    private static CartPopularityReconciler cartPopularityReconciler;
+    private static ReportMetrics reportMetrics;
+    private static SearchIndexingProductDao productDao;
+    private static CartSummaryRefresher cartSummaryRefresher;
+    private static BloomFilteredUserDao userDao;
+    private static BloomFilterRefresher userFilterRefresher;
+
+    private AppBootstrap() {
+    }
+
+    public static CompletableFuture<Void> start() {
+        if (ShopConfig.get().getBoolean("db.migrate.enabled", false)) {
+            new SchemaMigrator().migrate();
+        }
+        startBackgroundJobs();
+        CompletableFuture<Void> ready = JpaUtil.initializeAsync();
+        if (ShopConfig.get().getBoolean("jpa.warmup.enabled", false)) {
+            ready = ready.thenRunAsync(() -> JpaWarmUp.warmUp(HIBERNATE_DAO_QUERIES));
+        }
+        return ready.whenComplete((ignored, e) -> {
+            if (e != null) {
+                log.error("Application bootstrap failed", e);
+            } else {
+                log.info("Application is ready");
+            }
+        });
+    }
+
+    // Cart changes made through the returned DAO keep the top-K popularity tracker current.
+    public static ShoppingCartDao shoppingCartDao(ShoppingCartDao dao) {
+        return new PopularityTrackingShoppingCartDao(dao, cartPopularity());
+    }
+
+    // One shared instance: every product write has to reach the same in-memory search index.
+    // Its find* reads go to a replica when one is configured.
+    public static synchronized SearchIndexingProductDao productDao() {
+        if (productDao == null) {
+            productDao = new SearchIndexingProductDao(
+                    ReplicaRouting.routeReads(ProductDao.class, new HibernateProductDao()));
+        }
+        return productDao;
+    }
+
+    // One shared instance: the background jobs build and refresh its Bloom filters.
+    public static synchronized BloomFilteredUserDao userDao() {
+        if (userDao == null) {
+            userDao = new BloomFilteredUserDao(new HibernateUserDao());
+        }
+        return userDao;
+    }
+
+    public static synchronized CartPopularityTracker cartPopularity() {
+        if (cartPopularity == null) {
+            cartPopularity = CartPopularityTracker.fromConfig();
+        }
+        return cartPopularity;
+    }
+
+    // Reports 3.12, 3.13, 3.15 and 3.17 read user_cart_summary, which only the background refresher keeps current.
+    // The reports read from a replica when one is configured; rebuildUserOrderStats writes to the primary.
+    public static ReportDao reportDao() {
+        return ReplicaRouting.routeReads(ReportDao.class, new JdbcReportDao(reportMetrics()));
+    }
+
+    public static synchronized ReportMetrics reportMetrics() {
+        if (reportMetrics == null) {
+            reportMetrics = new ReportMetrics();
+        }
+        return reportMetrics;
+    }
+
+    public static synchronized void shutdown() {
+        if (cartPopularityReconciler != null) {
+            cartPopularityReconciler.close();
+            cartPopularityReconciler = null;
+        }
+        if (cartSummaryRefresher != null) {
+            cartSummaryRefresher.close();
+            cartSummaryRefresher = null;
+        }
+        if (userFilterRefresher != null) {
+            userFilterRefresher.close();
+            userFilterRefresher = null;
+        }
+        productDao = null;
+        userDao = null;
+        JpaUtil.shutdown();
+        ConnectionManager.shutdown();
+    }
+
+    private static void startBackgroundJobs() {
+        ShopConfig config = ShopConfig.get();
+        startBackgroundJobs(Duration.ofSeconds(config.getLong("report.cart-summary.refresh-seconds", 60)),
+                Duration.ofSeconds(config.getLong("user.bloom.refresh-seconds", 300)));
+    }
+
+    static synchronized void startBackgroundJobs(Duration cartSummaryRefreshPeriod, Duration userFilterRefreshPeriod) {
+        if (cartPopularityReconciler == null) {
+            cartPopularityReconciler = new CartPopularityReconciler(cartPopularity(), reportDao());
+            cartPopularityReconciler.start();
+        }
+        if (cartSummaryRefresher == null) {
+            cartSummaryRefresher = new CartSummaryRefresher(reportMetrics());
+            cartSummaryRefresher.start(cartSummaryRefreshPeriod);
+        }
+        if (userFilterRefresher == null) {
+            userFilterRefresher = new BloomFilterRefresher(userDao());
+            userFilterRefresher.start(userFilterRefreshPeriod);
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package myshop;
+
+import lombok.extern.log4j.Log4j2;
+import myshop.cart.dao.HibernateShoppingCartDao;
+import myshop.cart.dao.JdbcShoppingCartDao;
+import myshop.cart.dao.ShoppingCartDao;
+import myshop.common.config.ShopConfig;
+import myshop.order.dao.HibernateOrderDao;
+import myshop.order.dao.JdbcOrderDao;
+import myshop.order.dao.OrderDao;
+import myshop.order.model.Order;
+import myshop.order.service.OrderService;
+import myshop.product.dao.JdbcProductDao;
+import myshop.product.dao.ProductDao;
+import myshop.product.model.Product;
+import myshop.user.dao.HibernateUserDao;
+import myshop.user.dao.HibernateUserDetailsDao;
+import myshop.user.dao.JdbcUserDao;
+import myshop.user.dao.JdbcUserDetailsDao;
+import myshop.user.dao.UserDao;
+import myshop.user.dao.UserDetailsDao;
+import myshop.user.model.User;
+import myshop.user.model.UserDetails;
+
+import java.lang.management.ManagementFactory;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Exercises the Jdbc and Hibernate DAOs and {@link OrderService} once, so that a run with
+ * {@code -XX:ArchiveClassesAtExit} records every class loaded on the checkout path.
+ * All rows it creates are removed before exit, but it still writes, so it refuses to run in the prod profile:
+ * {@code mvn -Pappcds package} points it at the throwaway database of the cds profile.
+ * <p>
+ * Prints {@code time-to-first-order-ms=<n>} measured from JVM start, which
+ * {@code bin/startup-benchmark.sh} uses to compare launches with and without the archive.
+ */
+@Log4j2
+public class CdsTrainingRun {
+    private static final String PROD_PROFILE = "prod";
+
+    public static void main(String[] args) {
+        Instant jvmStart = Instant.ofEpochMilli(ManagementFactory.getRuntimeMXBean().getStartTime());
+        String profile = ShopConfig.get().getProfile();
+        if (PROD_PROFILE.equals(profile)) {
+            throw new IllegalStateException("The training run creates users, products and orders; "
+                    + "run it with -Dmyshop.profile=cds against a throwaway database, not the prod profile");
+        }
+        AppBootstrap.start().join();
+
+        String suffix = Long.toString(System.nanoTime());
+        try {
+            Order firstOrder = checkout(new JdbcUserDao(), new JdbcUserDetailsDao(), new JdbcProductDao(),
+                    AppBootstrap.shoppingCartDao(new JdbcShoppingCartDao()), new JdbcOrderDao(), false,
+                    "jdbc_" + suffix);
+            long timeToFirstOrder = Duration.between(jvmStart, Instant.now()).toMillis();
+
+            checkout(new HibernateUserDao(), new HibernateUserDetailsDao(), AppBootstrap.productDao(),
+                    AppBootstrap.shoppingCartDao(new HibernateShoppingCartDao()), new HibernateOrderDao(), true,
+                    "hibernate_" + suffix);
+
+            log.info("Training run finished, first order id = {}", firstOrder.getId());
+            System.out.println("time-to-first-order-ms=" + timeToFirstOrder);
+        } finally {
+            AppBootstrap.shutdown();
+        }
+    }
+
+    private static Order checkout(UserDao userDao, UserDetailsDao userDetailsDao, ProductDao productDao,
+                                  ShoppingCartDao cartDao, OrderDao orderDao, boolean unitOfWork, String name) {
+        User user = userDao.createUser(new User(null, name, name + "@training.local"));
+        Product product = productDao.createProduct(new Product(null, name, new BigDecimal("10.00")));
+        try {
+            userDetailsDao.createUserDetails(new UserDetails(user.getId(), "Training", "Run", "-", "-"));
+            userDetailsDao.findByUserId(user.getId());
+            userDao.findById(user.getId());
+            productDao.findById(product.getId());
+            productDao.findAllProducts();
+
+            cartDao.addProduct(user.getId(), product.getId(), 2);
+            OrderService orderService = new OrderService(cartDao, productDao, orderDao, unitOfWork);
+            Order order = orderService.placeOrder(user.getId());
+            orderDao.findAllOrdersByUserId(user.getId());
+            return order;
+        } finally {
+            userDao.deleteById(user.getId());
+            productDao.deleteById(product.getId());
+        }
+    }
+}
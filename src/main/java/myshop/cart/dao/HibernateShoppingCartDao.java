@@ -5,15 +5,23 @@ import jakarta.persistence.EntityTransaction;
 import lombok.extern.log4j.Log4j2;
 import myshop.cart.model.ShoppingCart;
 import myshop.cart.model.ShoppingCartId;
+import myshop.common.db.OptimisticRetry;
+import myshop.common.db.SqlStatements;
 import myshop.common.exception.DaoException;
+import myshop.common.exception.OptimisticLockConflictException;
+import myshop.common.jfr.DaoOperationEvent;
+import myshop.common.jfr.TransactionCommitEvent;
 import myshop.common.jpa.JpaUtil;
+import org.hibernate.exception.ConstraintViolationException;
 
 import java.util.List;
 
 @Log4j2
 public class HibernateShoppingCartDao implements ShoppingCartDao {
+    public static final String FIND_BY_USER_ID_JPQL = "SELECT sc FROM ShoppingCart sc WHERE sc.userId = :userId";
+
     @Override
-    public void addProduct(Long userId, Long productId, Integer quantity) {
+    public boolean addProduct(Long userId, Long productId, Integer quantity) {
         if (userId == null || productId == null) {
             throw new IllegalArgumentException("userId and productId must not be null");
         }
@@ -23,6 +31,14 @@ public class HibernateShoppingCartDao implements ShoppingCartDao {
 
         log.debug("addProduct() called with userId = {}, productId = {}, quantity = {}.",
                 userId, productId, quantity);
+        return OptimisticRetry.execute("addProduct", () -> addProductOnce(userId, productId, quantity));
+    }
+
+    // One read-modify-write of the item; a concurrent increment (stale version) or a concurrent first
+    // insert of the same item (primary key violation) is reported as a conflict and retried by addProduct.
+    private boolean addProductOnce(Long userId, Long productId, Integer quantity) {
+        DaoOperationEvent event = DaoOperationEvent.begin(HibernateShoppingCartDao.class, "addProduct")
+                .userId(userId);
         EntityManager em = JpaUtil.getEntityManager();
         EntityTransaction transaction = em.getTransaction();
 
@@ -31,28 +47,36 @@ public class HibernateShoppingCartDao implements ShoppingCartDao {
 
             ShoppingCartId id = new ShoppingCartId(userId, productId);
             ShoppingCart shoppingCart = em.find(ShoppingCart.class, id);
+            boolean created = shoppingCart == null;
 
-            if (shoppingCart == null) {
+            if (created) {
                 shoppingCart = new ShoppingCart(userId, productId, quantity);
                 em.persist(shoppingCart);
-                log.info("ShoppingCart created: {}", shoppingCart);
+                log.debug("ShoppingCart created: {}", shoppingCart);
             } else {
                 shoppingCart.setQuantity(shoppingCart.getQuantity() + quantity);
-                em.merge(shoppingCart);
-                log.info("ShoppingCart updated (quantity increased): {}", shoppingCart);
+                log.debug("ShoppingCart updated (quantity increased): {}", shoppingCart);
             }
 
-            transaction.commit();
+            TransactionCommitEvent.commit(transaction, HibernateShoppingCartDao.class, "addProduct");
+            event.rowsAffected(1);
+            event.succeeded();
+            return created;
         } catch (Exception e) {
             if (transaction.isActive()) {
                 transaction.rollback();
             }
 
+            if (JpaUtil.isOptimisticLockFailure(e) || isDuplicateItem(e)) {
+                log.debug("Cart item (userId = {}, productId = {}) was changed concurrently", userId, productId);
+                throw new OptimisticLockConflictException("Error adding product to cart", e);
+            }
             log.error("Error adding product to cart (userId = {}, productId = {})",
                     userId, productId, e);
             throw new DaoException("Error adding product to cart", e);
         } finally {
             em.close();
+            event.finish();
         }
     }
 
@@ -63,6 +87,8 @@ public class HibernateShoppingCartDao implements ShoppingCartDao {
         }
 
         log.debug("removeProduct() called with userId = {}, productId = {}", userId, productId);
+        DaoOperationEvent event = DaoOperationEvent.begin(HibernateShoppingCartDao.class, "removeProduct")
+                .userId(userId);
 
         EntityManager em = JpaUtil.getEntityManager();
         EntityTransaction transaction = em.getTransaction();
@@ -79,8 +105,10 @@ public class HibernateShoppingCartDao implements ShoppingCartDao {
             }
 
             em.remove(shoppingCart);
-            transaction.commit();
-            log.info("ShoppingCart removed for userId = {}, productId = {}", userId, productId);
+            TransactionCommitEvent.commit(transaction, HibernateShoppingCartDao.class, "removeProduct");
+            event.rowsAffected(1);
+            log.debug("ShoppingCart removed for userId = {}, productId = {}", userId, productId);
+            event.succeeded();
         } catch (Exception e) {
             if (transaction.isActive()) {
                 transaction.rollback();
@@ -90,6 +118,7 @@ public class HibernateShoppingCartDao implements ShoppingCartDao {
             throw new DaoException("Error removing product from cart", e);
         } finally {
             em.close();
+            event.finish();
         }
     }
 
@@ -100,32 +129,83 @@ public class HibernateShoppingCartDao implements ShoppingCartDao {
         }
 
         log.debug("findByUserId() called with userId = {}", userId);
+        DaoOperationEvent event = DaoOperationEvent.begin(HibernateShoppingCartDao.class, "findByUserId")
+                .userId(userId);
 
         EntityManager em = JpaUtil.getEntityManager();
 
         try {
-            String jpql = "SELECT sc FROM ShoppingCart sc WHERE sc.userId = :userId";
-            List<ShoppingCart> items = em.createQuery(jpql, ShoppingCart.class)
+            List<ShoppingCart> items = em.createQuery(FIND_BY_USER_ID_JPQL, ShoppingCart.class)
                     .setParameter("userId", userId)
                     .getResultList();
 
-            log.info("{} cart items found for userId = {}", items.size(), userId);
+            event.rowsAffected(items.size());
+            log.debug("{} cart items found for userId = {}", items.size(), userId);
+            event.succeeded();
             return items;
         } catch (Exception e) {
             log.error("Error getting cart items for userId = {}", userId, e);
             throw new DaoException("Error getting cart items for userId = " + userId, e);
         } finally {
             em.close();
+            event.finish();
+        }
+    }
+
+    @Override
+    public void updateQuantity(ShoppingCart item) {
+        JdbcShoppingCartDao.checkQuantityUpdate(item);
+
+        log.debug("updateQuantity() called with item = {}", item);
+        DaoOperationEvent event = DaoOperationEvent.begin(HibernateShoppingCartDao.class, "updateQuantity")
+                .userId(item.getUserId());
+        EntityManager em = JpaUtil.getEntityManager();
+        EntityTransaction transaction = em.getTransaction();
+
+        try {
+            transaction.begin();
+
+            ShoppingCart current = em.find(ShoppingCart.class, new ShoppingCartId(item.getUserId(), item.getProductId()));
+            if (current == null) {
+                throw new DaoException("ShoppingCart not found for userId = " +
+                        item.getUserId() + ", productId = " + item.getProductId());
+            }
+            if (item.getVersion() != null && !item.getVersion().equals(current.getVersion())) {
+                throw new OptimisticLockConflictException("ShoppingCart was changed concurrently");
+            }
+
+            current.setQuantity(item.getQuantity());
+            TransactionCommitEvent.commit(transaction, HibernateShoppingCartDao.class, "updateQuantity");
+            item.setVersion(current.getVersion());
+            event.rowsAffected(1);
+            log.debug("ShoppingCart quantity updated: {}", item);
+            event.succeeded();
+        } catch (Exception e) {
+            if (transaction.isActive()) {
+                transaction.rollback();
+            }
+
+            if (JpaUtil.isOptimisticLockFailure(e)) {
+                log.debug("Cart item {} was changed concurrently", item);
+                throw new OptimisticLockConflictException("Error updating quantity of cart item", e);
+            }
+            log.error("Error updating quantity of cart item {}", item, e);
+            throw new DaoException("Error updating quantity of cart item", e);
+        } finally {
+            em.close();
+            event.finish();
         }
     }
 
     @Override
-    public void clearCart(Long userId) {
+    public List<Long> clearCart(Long userId) {
         if (userId == null) {
             throw new IllegalArgumentException("userId must not be null");
         }
 
         log.debug("clearCart() called with userId = {}", userId);
+        DaoOperationEvent event = DaoOperationEvent.begin(HibernateShoppingCartDao.class, "clearCart")
+                .userId(userId);
 
         EntityManager em = JpaUtil.getEntityManager();
         EntityTransaction tx = em.getTransaction();
@@ -133,13 +213,16 @@ public class HibernateShoppingCartDao implements ShoppingCartDao {
         try {
             tx.begin();
 
-            String jpql = "DELETE FROM ShoppingCart sc WHERE sc.userId = :userId";
-            int deleted = em.createQuery(jpql)
-                    .setParameter("userId", userId)
-                    .executeUpdate();
+            // Native DELETE ... RETURNING: a JPQL bulk delete cannot report which products it removed.
+            List<Long> deletedProductIds = em.createNativeQuery(SqlStatements.CART_CLEAR.sql(), Long.class)
+                    .setParameter(1, userId)
+                    .getResultList();
 
-            tx.commit();
-            log.info("Cart cleared for userId = {} ({} items deleted)", userId, deleted);
+            TransactionCommitEvent.commit(tx, HibernateShoppingCartDao.class, "clearCart");
+            event.rowsAffected(deletedProductIds.size());
+            log.debug("Cart cleared for userId = {} ({} items deleted)", userId, deletedProductIds.size());
+            event.succeeded();
+            return deletedProductIds;
         } catch (Exception e) {
             if (tx.isActive()) {
                 tx.rollback();
@@ -148,6 +231,17 @@ public class HibernateShoppingCartDao implements ShoppingCartDao {
             throw new DaoException("Error clearing cart for userId = " + userId, e);
         } finally {
             em.close();
+            event.finish();
+        }
+    }
+
+    private static boolean isDuplicateItem(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof ConstraintViolationException violation
+                    && violation.getKind() == ConstraintViolationException.ConstraintKind.UNIQUE) {
+                return true;
+            }
         }
+        return false;
     }
 }
\ No newline at end of file
@@ -3,7 +3,10 @@ package myshop.cart.dao;
 import lombok.extern.log4j.Log4j2;
 import myshop.cart.model.ShoppingCart;
 import myshop.common.db.ConnectionManager;
+import myshop.common.db.SqlStatements;
 import myshop.common.exception.DaoException;
+import myshop.common.exception.OptimisticLockConflictException;
+import myshop.common.jfr.DaoOperationEvent;
 
 import java.sql.Connection;
 import java.sql.PreparedStatement;
@@ -16,35 +19,43 @@ import java.util.List;
 public class JdbcShoppingCartDao implements ShoppingCartDao {
 
     @Override
-    public void addProduct(Long userId, Long productId, Integer quantity) {
-        String sql = "INSERT INTO shopping_cart (user_id, product_id, quantity) VALUES (?, ?, ?)";
+    public boolean addProduct(Long userId, Long productId, Integer quantity) {
         log.debug("addProduct() called with userId = {}, productId = {}, quantity = {}.",
                 userId, productId, quantity);
+        DaoOperationEvent event = DaoOperationEvent.begin(JdbcShoppingCartDao.class, "addProduct")
+                .userId(userId);
 
         try (Connection connection = ConnectionManager.getConnection();
-             PreparedStatement ps = connection.prepareStatement(sql)) {
+             PreparedStatement ps = SqlStatements.CART_INSERT.prepare(connection)) {
             ps.setLong(1, userId);
             ps.setLong(2, productId);
             ps.setInt(3, quantity);
             int inserted = ps.executeUpdate();
-            log.info("Products added to cart by userId = {}, productId = {}, quantity = {}, rows inserted: {}.",
+            event.rowsAffected(inserted);
+            log.debug("Products added to cart by userId = {}, productId = {}, quantity = {}, rows inserted: {}.",
                     userId, productId, quantity, inserted);
+            event.succeeded();
+            return inserted > 0;
         } catch (SQLException e) {
             log.error("SQL error when adding product to cart.", e);
             throw new DaoException("Error when adding product to cart", e);
+        } finally {
+            event.finish();
         }
     }
 
     @Override
     public void removeProduct(Long userId, Long productId) {
-        String sql = "DELETE FROM shopping_cart WHERE user_id = ? AND product_id = ?";
         log.debug("removeProduct() called with userId = {}, productId = {}.", userId, productId);
+        DaoOperationEvent event = DaoOperationEvent.begin(JdbcShoppingCartDao.class, "removeProduct")
+                .userId(userId);
 
         try (Connection connection = ConnectionManager.getConnection();
-             PreparedStatement ps = connection.prepareStatement(sql)) {
+             PreparedStatement ps = SqlStatements.CART_DELETE_ITEM.prepare(connection)) {
             ps.setLong(1, userId);
             ps.setLong(2, productId);
             int deletedRows = ps.executeUpdate();
+            event.rowsAffected(deletedRows);
             if (deletedRows == 0) {
                 log.warn("The product with productId = {} was not found" +
                                 " in the user's cart with userId = {}," +
@@ -53,52 +64,121 @@ public class JdbcShoppingCartDao implements ShoppingCartDao {
                 throw new DaoException("The product was not found in the user's cart and deletion failed.");
             }
 
-            log.info("The product with productId = {} was successfully removed from the user's cart with userId = {}.",
+            log.debug("The product with productId = {} was successfully removed from the user's cart with userId = {}.",
                     productId, userId);
+            event.succeeded();
         } catch (SQLException e) {
             log.error("SQL error deleting product with productId = {} from user's cart with userId = {}.",
                     productId, userId, e);
             throw new DaoException("Error deleting product from user's cart.", e);
+        } finally {
+            event.finish();
         }
     }
 
     @Override
     public List<ShoppingCart> findByUserId(Long userId) {
-        String sql = "SELECT user_id, product_id, quantity FROM shopping_cart WHERE user_id = ?";
         log.debug("findByUserId() called with userId = {}.", userId);
+        DaoOperationEvent event = DaoOperationEvent.begin(JdbcShoppingCartDao.class, "findByUserId")
+                .userId(userId);
 
         List<ShoppingCart> cartItems = new ArrayList<>();
         try (Connection connection = ConnectionManager.getConnection();
-             PreparedStatement ps = connection.prepareStatement(sql)) {
+             PreparedStatement ps = SqlStatements.CART_FIND_BY_USER_ID.prepare(connection)) {
             ps.setLong(1, userId);
             try (ResultSet rs = ps.executeQuery()) {
                 while (rs.next()) {
                     cartItems.add(mapRowToShoppingCart(rs));
                 }
 
-                log.info("{} products found in user's cart.", cartItems.size());
+                event.rowsAffected(cartItems.size());
+                log.debug("{} products found in user's cart.", cartItems.size());
             }
+            event.succeeded();
         } catch (SQLException e) {
             log.error("SQL error retrieving user's cart by userId = {}.", userId, e);
             throw new DaoException("Error retrieving user's cart by userId = " + userId, e);
+        } finally {
+            event.finish();
         }
         return cartItems;
     }
 
     @Override
-    public void clearCart(Long userId) {
-        String sql = "DELETE FROM shopping_cart WHERE user_id = ?";
+    public List<Long> clearCart(Long userId) {
         log.debug("clearCart() called with userId = {}.", userId);
+        DaoOperationEvent event = DaoOperationEvent.begin(JdbcShoppingCartDao.class, "clearCart")
+                .userId(userId);
 
         try (Connection connection = ConnectionManager.getConnection();
-             PreparedStatement ps = connection.prepareStatement(sql)) {
+             PreparedStatement ps = SqlStatements.CART_CLEAR.prepare(connection)) {
             ps.setLong(1, userId);
-            ps.executeUpdate();
+            List<Long> deletedProductIds = new ArrayList<>();
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    deletedProductIds.add(rs.getLong("product_id"));
+                }
+            }
+            event.rowsAffected(deletedProductIds.size());
 
-            log.info("The user's cart with userId = {} has been successfully emptied.", userId);
+            log.debug("The user's cart with userId = {} has been successfully emptied.", userId);
+            event.succeeded();
+            return deletedProductIds;
         } catch (SQLException e) {
             log.error("SQL error deleting user's cart by userId = {}.", userId, e);
             throw new DaoException("Error deleting user's cart by userId = " + userId, e);
+        } finally {
+            event.finish();
+        }
+    }
+
+    @Override
+    public void updateQuantity(ShoppingCart item) {
+        checkQuantityUpdate(item);
+
+        log.debug("updateQuantity() called with item = {}.", item);
+        DaoOperationEvent event = DaoOperationEvent.begin(JdbcShoppingCartDao.class, "updateQuantity")
+                .userId(item.getUserId());
+
+        boolean versioned = item.getVersion() != null;
+        try (Connection connection = ConnectionManager.getConnection();
+             PreparedStatement ps = (versioned ? SqlStatements.CART_UPDATE_QUANTITY_VERSIONED
+                     : SqlStatements.CART_UPDATE_QUANTITY).prepare(connection)) {
+            ps.setInt(1, item.getQuantity());
+            ps.setLong(2, item.getUserId());
+            ps.setLong(3, item.getProductId());
+            if (versioned) {
+                ps.setLong(4, item.getVersion());
+            }
+            try (ResultSet rs = ps.executeQuery()) {
+                if (!rs.next()) {
+                    if (versioned) {
+                        throw new OptimisticLockConflictException("The cart item was changed or removed " +
+                                "concurrently, quantity update failed.");
+                    }
+                    throw new DaoException("The product was not found in the user's cart, quantity update failed.");
+                }
+                item.setVersion(rs.getLong("version"));
+            }
+
+            event.rowsAffected(1);
+            log.debug("Quantity of productId = {} in the user's cart with userId = {} set to {}.",
+                    item.getProductId(), item.getUserId(), item.getQuantity());
+            event.succeeded();
+        } catch (SQLException e) {
+            log.error("SQL error updating quantity of cart item {}.", item, e);
+            throw new DaoException("Error updating quantity of cart item.", e);
+        } finally {
+            event.finish();
+        }
+    }
+
+    static void checkQuantityUpdate(ShoppingCart item) {
+        if (item == null || item.getUserId() == null || item.getProductId() == null) {
+            throw new IllegalArgumentException("item, userId and productId must not be null");
+        }
+        if (item.getQuantity() == null || item.getQuantity() <= 0) {
+            throw new IllegalArgumentException("quantity must be > 0");
         }
     }
 
@@ -106,7 +186,8 @@ public class JdbcShoppingCartDao implements ShoppingCartDao {
         return new ShoppingCart(
                 rs.getLong("user_id"),
                 rs.getLong("product_id"),
-                rs.getInt("quantity")
+                rs.getInt("quantity"),
+                rs.getLong("version")
         );
     }
 }
\ No newline at end of file
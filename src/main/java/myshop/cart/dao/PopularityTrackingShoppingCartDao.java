@@ -0,0 +1,50 @@
+package myshop.cart.dao;
+
+import myshop.cart.model.ShoppingCart;
+import myshop.cart.popularity.CartPopularityTracker;
+import myshop.common.jpa.UnitOfWork;
+
+import java.util.List;
+
+public class PopularityTrackingShoppingCartDao implements ShoppingCartDao {
+    private final ShoppingCartDao delegate;
+    private final CartPopularityTracker tracker;
+
+    public PopularityTrackingShoppingCartDao(ShoppingCartDao delegate, CartPopularityTracker tracker) {
+        this.delegate = delegate;
+        this.tracker = tracker;
+    }
+
+    @Override
+    public boolean addProduct(Long userId, Long productId, Integer quantity) {
+        boolean created = delegate.addProduct(userId, productId, quantity);
+        // A larger quantity of a product already in the cart is not one more cart holding it.
+        if (created) {
+            UnitOfWork.afterCommit(() -> tracker.increment(productId));
+        }
+        return created;
+    }
+
+    @Override
+    public void removeProduct(Long userId, Long productId) {
+        delegate.removeProduct(userId, productId);
+        UnitOfWork.afterCommit(() -> tracker.decrement(productId));
+    }
+
+    @Override
+    public List<ShoppingCart> findByUserId(Long userId) {
+        return delegate.findByUserId(userId);
+    }
+
+    @Override
+    public void updateQuantity(ShoppingCart item) {
+        delegate.updateQuantity(item);
+    }
+
+    @Override
+    public List<Long> clearCart(Long userId) {
+        List<Long> deletedProductIds = delegate.clearCart(userId);
+        UnitOfWork.afterCommit(() -> deletedProductIds.forEach(tracker::decrement));
+        return deletedProductIds;
+    }
+}
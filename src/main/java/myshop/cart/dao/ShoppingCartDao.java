@@ -1,15 +1,44 @@
 package myshop.cart.dao;
 
 import myshop.cart.model.ShoppingCart;
+import myshop.common.db.OptimisticRetry;
+import myshop.common.exception.DaoException;
 
 import java.util.List;
+import java.util.Objects;
+import java.util.function.IntUnaryOperator;
 
 public interface ShoppingCartDao {
-    void addProduct(Long userId, Long productId, Integer quantity);
+    // Returns true when the product was not in the cart yet and a new item was created, false when
+    // the quantity of an existing item was increased.
+    boolean addProduct(Long userId, Long productId, Integer quantity);
 
     void removeProduct(Long userId, Long productId);
 
     List<ShoppingCart> findByUserId(Long userId);
 
-    void clearCart(Long userId);
+    // Returns the ids of the products that were actually deleted from the cart.
+    List<Long> clearCart(Long userId);
+
+    // Sets the item's quantity. With a non-null version the write is checked like ProductDao.updateProduct
+    // and throws OptimisticLockConflictException if the item changed since it was read.
+    void updateQuantity(ShoppingCart item);
+
+    // Read-modify-write of one item's quantity, retried when a concurrent cart edit wins.
+    default ShoppingCart changeQuantity(Long userId, Long productId, IntUnaryOperator change) {
+        if (userId == null || productId == null || change == null) {
+            throw new IllegalArgumentException("userId, productId and change must not be null");
+        }
+
+        return OptimisticRetry.execute("changeQuantity", () -> {
+            ShoppingCart item = findByUserId(userId).stream()
+                    .filter(cartItem -> Objects.equals(cartItem.getProductId(), productId))
+                    .findFirst()
+                    .orElseThrow(() -> new DaoException("ShoppingCart not found for userId = " +
+                            userId + ", productId = " + productId));
+            item.setQuantity(change.applyAsInt(item.getQuantity()));
+            updateQuantity(item);
+            return item;
+        });
+    }
 }
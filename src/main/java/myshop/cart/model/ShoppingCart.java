@@ -22,4 +22,14 @@ public class ShoppingCart {
 
     @Column(name = "quantity", nullable = false)
     private Integer quantity;
+
+    @Version
+    @Column(name = "version", nullable = false)
+    private Long version;
+
+    public ShoppingCart(Long userId, Long productId, Integer quantity) {
+        this.userId = userId;
+        this.productId = productId;
+        this.quantity = quantity;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,67 @@
+package myshop.cart.popularity;
+
+import lombok.extern.log4j.Log4j2;
+import myshop.common.config.ShopConfig;
+import myshop.report.dao.ReportDao;
+import myshop.report.model.ProductUserCount;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+@Log4j2
+public class CartPopularityReconciler implements AutoCloseable {
+    private final CartPopularityTracker tracker;
+    private final ReportDao reportDao;
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "cart-popularity-reconciler");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public CartPopularityReconciler(CartPopularityTracker tracker, ReportDao reportDao) {
+        this.tracker = tracker;
+        this.reportDao = reportDao;
+    }
+
+    public void start() {
+        start(Duration.ofSeconds(ShopConfig.get().getLong("cart.popularity.reconcile-seconds", 300)));
+    }
+
+    public void start(Duration period) {
+        long millis = period.toMillis();
+        if (millis <= 0) {
+            throw new IllegalArgumentException("period must be positive");
+        }
+        scheduler.scheduleWithFixedDelay(this::reconcileQuietly, 0, millis, TimeUnit.MILLISECONDS);
+        log.debug("Cart popularity reconciliation scheduled every {} ms", millis);
+    }
+
+    public int reconcileNow() {
+        List<ProductUserCount> exact = reportDao.findTopCartedProducts(tracker.getCapacity());
+        Map<Long, Long> counts = new HashMap<>(exact.size() * 2);
+        for (ProductUserCount row : exact) {
+            counts.put(row.getProductId(), row.getUsersCount());
+        }
+        tracker.reconcile(counts);
+        log.debug("Cart popularity tracker reconciled with {} products", counts.size());
+        return counts.size();
+    }
+
+    @Override
+    public void close() {
+        scheduler.shutdownNow();
+    }
+
+    private void reconcileQuietly() {
+        try {
+            reconcileNow();
+        } catch (RuntimeException e) {
+            log.warn("Cart popularity reconciliation failed, keeping approximate counts", e);
+        }
+    }
+}
@@ -0,0 +1,223 @@
+package myshop.cart.popularity;
+
+import myshop.common.config.ShopConfig;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Space-Saving top-K counter of how many carts contain each product.
+ * At most {@code capacity} products are monitored; when a new product arrives and the table is full,
+ * the least counted product is replaced and its count becomes the error bound of the newcomer.
+ * Counters live in a stream-summary: buckets of equal count in a list ordered by count, so an increment,
+ * a decrement and finding the minimum are O(1) and the lock is held only for a few pointer updates.
+ * Counts may drift (e.g. removals of evicted products), so the table is periodically replaced
+ * with exact values by {@link CartPopularityReconciler}.
+ */
+public class CartPopularityTracker {
+    private static final Comparator<ProductPopularity> BY_COUNT_DESC =
+            Comparator.comparingLong(ProductPopularity::count).reversed()
+                    .thenComparingLong(ProductPopularity::productId);
+
+    private final int capacity;
+    private final Map<Long, Counter> counters;
+    private Bucket lowest;
+    private volatile List<ProductPopularity> ranking = List.of();
+    private volatile boolean dirty;
+
+    public CartPopularityTracker(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity must be > 0");
+        }
+        this.capacity = capacity;
+        this.counters = new HashMap<>(capacity * 2);
+    }
+
+    public static CartPopularityTracker fromConfig() {
+        return new CartPopularityTracker(ShopConfig.get().getInt("cart.popularity.capacity", 1000));
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public synchronized void increment(long productId) {
+        Counter counter = counters.get(productId);
+        if (counter != null) {
+            move(counter, higher(counter.bucket));
+        } else if (counters.size() < capacity) {
+            counter = new Counter(productId, 0);
+            counters.put(productId, counter);
+            attach(counter, lowest != null && lowest.count == 1 ? lowest : insertBucket(1, null, lowest));
+        } else {
+            Counter min = lowest.first;
+            Bucket target = higher(min.bucket);
+            detach(min);
+            counters.remove(min.productId);
+            counter = new Counter(productId, target.count - 1);
+            counters.put(productId, counter);
+            attach(counter, target);
+        }
+        dirty = true;
+    }
+
+    public synchronized void decrement(long productId) {
+        Counter counter = counters.get(productId);
+        if (counter == null) {
+            return;
+        }
+        long count = counter.bucket.count - 1;
+        if (count <= 0) {
+            detach(counter);
+            counters.remove(productId);
+        } else {
+            Bucket bucket = counter.bucket;
+            move(counter, bucket.lower != null && bucket.lower.count == count
+                    ? bucket.lower
+                    : insertBucket(count, bucket.lower, bucket));
+            if (counter.error > count) {
+                counter.error = count;
+            }
+        }
+        dirty = true;
+    }
+
+    public synchronized void reconcile(Map<Long, Long> exactCounts) {
+        counters.clear();
+        lowest = null;
+        // Ascending order lets every new bucket be appended after the previous one.
+        List<Map.Entry<Long, Long>> top = exactCounts.entrySet().stream()
+                .filter(entry -> entry.getValue() > 0)
+                .sorted(Map.Entry.<Long, Long>comparingByValue().reversed())
+                .limit(capacity)
+                .toList();
+        Bucket last = null;
+        for (int i = top.size() - 1; i >= 0; i--) {
+            Map.Entry<Long, Long> entry = top.get(i);
+            if (last == null || last.count != entry.getValue()) {
+                last = insertBucket(entry.getValue(), last, null);
+            }
+            Counter counter = new Counter(entry.getKey(), 0);
+            counters.put(entry.getKey(), counter);
+            attach(counter, last);
+        }
+        dirty = true;
+    }
+
+    public List<ProductPopularity> top(int n) {
+        if (n <= 0) {
+            throw new IllegalArgumentException("n must be > 0");
+        }
+
+        List<ProductPopularity> current = dirty ? rebuildRanking() : ranking;
+        return current.size() <= n ? current : current.subList(0, n);
+    }
+
+    public synchronized int size() {
+        return counters.size();
+    }
+
+    private synchronized List<ProductPopularity> rebuildRanking() {
+        if (dirty) {
+            List<ProductPopularity> result = new ArrayList<>(counters.size());
+            counters.values().forEach(counter ->
+                    result.add(new ProductPopularity(counter.productId, counter.bucket.count, counter.error)));
+            result.sort(BY_COUNT_DESC);
+            ranking = List.copyOf(result);
+            dirty = false;
+        }
+        return ranking;
+    }
+
+    private Bucket higher(Bucket bucket) {
+        long count = bucket.count + 1;
+        return bucket.higher != null && bucket.higher.count == count
+                ? bucket.higher
+                : insertBucket(count, bucket, bucket.higher);
+    }
+
+    // The target bucket is linked in before the counter leaves its old bucket, which may then be unlinked.
+    private void move(Counter counter, Bucket target) {
+        detach(counter);
+        attach(counter, target);
+    }
+
+    private Bucket insertBucket(long count, Bucket lower, Bucket higher) {
+        Bucket bucket = new Bucket(count);
+        bucket.lower = lower;
+        bucket.higher = higher;
+        if (lower != null) {
+            lower.higher = bucket;
+        } else {
+            lowest = bucket;
+        }
+        if (higher != null) {
+            higher.lower = bucket;
+        }
+        return bucket;
+    }
+
+    private void attach(Counter counter, Bucket bucket) {
+        counter.bucket = bucket;
+        counter.prev = null;
+        counter.next = bucket.first;
+        if (bucket.first != null) {
+            bucket.first.prev = counter;
+        }
+        bucket.first = counter;
+    }
+
+    private void detach(Counter counter) {
+        Bucket bucket = counter.bucket;
+        if (counter.prev != null) {
+            counter.prev.next = counter.next;
+        } else {
+            bucket.first = counter.next;
+        }
+        if (counter.next != null) {
+            counter.next.prev = counter.prev;
+        }
+        counter.prev = null;
+        counter.next = null;
+        counter.bucket = null;
+
+        if (bucket.first == null) {
+            if (bucket.lower != null) {
+                bucket.lower.higher = bucket.higher;
+            } else {
+                lowest = bucket.higher;
+            }
+            if (bucket.higher != null) {
+                bucket.higher.lower = bucket.lower;
+            }
+        }
+    }
+
+    private static class Counter {
+        private final long productId;
+        private long error;
+        private Bucket bucket;
+        private Counter prev;
+        private Counter next;
+
+        private Counter(long productId, long error) {
+            this.productId = productId;
+            this.error = error;
+        }
+    }
+
+    // All counters with the same count, linked between the neighbouring counts.
+    private static class Bucket {
+        private final long count;
+        private Bucket lower;
+        private Bucket higher;
+        private Counter first;
+
+        private Bucket(long count) {
+            this.count = count;
+        }
+    }
+}
@@ -0,0 +1,7 @@
+package myshop.cart.popularity;
+
+public record ProductPopularity(long productId, long count, long error) {
+    public long guaranteedCount() {
+        return count - error;
+    }
+}
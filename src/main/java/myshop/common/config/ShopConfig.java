@@ -0,0 +1,156 @@
+package myshop.common.config;
+
+import lombok.extern.log4j.Log4j2;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+
+@Log4j2
+public class ShopConfig {
+    public static final String PROFILE_PROPERTY = "myshop.profile";
+    private static final String ENV_PROFILE = "SHOP_PROFILE";
+    private static final String DEFAULT_PROFILE = "dev";
+
+    private static final String ENV_DB_URL = "SHOP_DB_URL";
+    private static final String ENV_DB_USER = "SHOP_DB_USER";
+    private static final String ENV_DB_PASSWORD = "SHOP_DB_PASSWORD";
+
+    private static final String BASE_RESOURCE = "config/application.properties";
+    private static final String PROFILE_RESOURCE = "config/application-%s.properties";
+
+    private final String profile;
+    private final Properties properties;
+
+    ShopConfig(String profile, Properties properties) {
+        this.profile = profile;
+        this.properties = properties;
+    }
+
+    public static ShopConfig get() {
+        return Holder.INSTANCE;
+    }
+
+    public String getProfile() {
+        return profile;
+    }
+
+    public String getDbUrl() {
+        return get("db.url");
+    }
+
+    public String getDbUser() {
+        return get("db.user");
+    }
+
+    // Only the dev profile ships a password; elsewhere it comes from SHOP_DB_PASSWORD or -Ddb.password.
+    public String getDbPassword() {
+        String password = get("db.password");
+        if (password == null) {
+            throw new IllegalStateException("Database password is not configured for profile '" + profile
+                    + "': set " + ENV_DB_PASSWORD + " or -Ddb.password");
+        }
+        return password;
+    }
+
+    public boolean isPoolEnabled() {
+        return getBoolean("db.pool.enabled", false);
+    }
+
+    public int getPoolSize() {
+        return getInt("db.pool.size", 10);
+    }
+
+    public String get(String key) {
+        return properties.getProperty(key);
+    }
+
+    public String get(String key, String defaultValue) {
+        return properties.getProperty(key, defaultValue);
+    }
+
+    public int getInt(String key, int defaultValue) {
+        String value = properties.getProperty(key);
+        return value == null ? defaultValue : Integer.parseInt(value.trim());
+    }
+
+    public long getLong(String key, long defaultValue) {
+        String value = properties.getProperty(key);
+        return value == null ? defaultValue : Long.parseLong(value.trim());
+    }
+
+    public boolean getBoolean(String key, boolean defaultValue) {
+        String value = properties.getProperty(key);
+        return value == null ? defaultValue : Boolean.parseBoolean(value.trim());
+    }
+
+    public Map<String, Object> getJpaProperties() {
+        Map<String, Object> jpaProperties = new HashMap<>();
+        for (String key : properties.stringPropertyNames()) {
+            if (key.startsWith("hibernate.") || key.startsWith("jakarta.persistence.")) {
+                jpaProperties.put(key, properties.getProperty(key));
+            }
+        }
+        return jpaProperties;
+    }
+
+    static ShopConfig load() {
+        return load(System.getenv(), System.getProperties());
+    }
+
+    static ShopConfig load(Map<String, String> env, Properties systemProperties) {
+        String profile = systemProperties.getProperty(PROFILE_PROPERTY, env.get(ENV_PROFILE));
+        if (profile == null || profile.isBlank()) {
+            profile = DEFAULT_PROFILE;
+        }
+
+        Properties properties = new Properties();
+        loadResource(properties, BASE_RESOURCE, true);
+        loadResource(properties, String.format(PROFILE_RESOURCE, profile), false);
+        overrideFromEnv(properties, env, "db.url", ENV_DB_URL);
+        overrideFromEnv(properties, env, "db.user", ENV_DB_USER);
+        overrideFromEnv(properties, env, "db.password", ENV_DB_PASSWORD);
+        Set<String> keys = new HashSet<>(properties.stringPropertyNames());
+        keys.addAll(List.of("db.url", "db.user", "db.password"));
+        for (String key : keys) {
+            String systemValue = systemProperties.getProperty(key);
+            if (systemValue != null) {
+                properties.setProperty(key, systemValue);
+            }
+        }
+
+        log.info("Configuration loaded for profile '{}'", profile);
+        return new ShopConfig(profile, properties);
+    }
+
+    private static void loadResource(Properties properties, String resource, boolean required) {
+        try (InputStream in = ShopConfig.class.getClassLoader().getResourceAsStream(resource)) {
+            if (in == null) {
+                if (required) {
+                    throw new IllegalStateException("Configuration resource " + resource + " not found");
+                }
+                log.warn("Configuration resource {} not found, using defaults", resource);
+                return;
+            }
+            properties.load(in);
+        } catch (IOException e) {
+            throw new IllegalStateException("Error reading configuration resource " + resource, e);
+        }
+    }
+
+    private static void overrideFromEnv(Properties properties, Map<String, String> env, String key, String envName) {
+        String value = env.get(envName);
+        if (value != null && !value.isBlank()) {
+            properties.setProperty(key, value);
+        }
+    }
+
+    private static class Holder {
+        private static final ShopConfig INSTANCE = load();
+    }
+}
@@ -1,20 +1,191 @@
 package myshop.common.db;
 
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.extern.log4j.Log4j2;
+import myshop.common.config.ShopConfig;
+import myshop.common.jfr.ConnectionAcquisitionEvent;
+import org.postgresql.ds.PGSimpleDataSource;
+
+import javax.sql.DataSource;
 import java.sql.Connection;
 import java.sql.DriverManager;
 import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
 
+@Log4j2
 public class ConnectionManager {
-    private static final String ENV_DB_URL = "SHOP_DB_URL";
-    private static final String ENV_DB_USER = "SHOP_DB_USER";
-    private static final String ENV_DB_PASSWORD = "SHOP_DB_PASSWORD";
+    private static volatile HikariDataSource dataSource;
+    private static volatile ReplicaRouter replicaRouter;
 
     private ConnectionManager() {
     }
+
+    // Inside a read scope of ReplicaRouting the connection comes from a replica when one is usable.
     public static Connection getConnection() throws SQLException {
-        String url = System.getenv(ENV_DB_URL);
-        String user = System.getenv(ENV_DB_USER);
-        String password = System.getenv(ENV_DB_PASSWORD);
-        return DriverManager.getConnection(url, user, password);
+        if (ReplicaRouting.isReplicaRead()) {
+            Connection replica = getReplicaRouter().getConnection();
+            if (replica != null) {
+                return replica;
+            }
+        }
+        return getPrimaryConnection();
+    }
+
+    public static Connection getPrimaryConnection() throws SQLException {
+        ShopConfig config = ShopConfig.get();
+        ConnectionAcquisitionEvent event = ConnectionAcquisitionEvent.begin(config.getDbUrl());
+        try {
+            DataSource pool = getDataSource();
+            if (pool != null) {
+                return pool.getConnection();
+            }
+            Properties properties = driverProperties(config);
+            properties.setProperty("user", config.getDbUser());
+            properties.setProperty("password", config.getDbPassword());
+            return DriverManager.getConnection(config.getDbUrl(), properties);
+        } catch (SQLException e) {
+            event.failed();
+            throw e;
+        } finally {
+            event.finish();
+        }
+    }
+
+    public static DataSource getDataSource() {
+        ShopConfig config = ShopConfig.get();
+        if (!config.isPoolEnabled()) {
+            return null;
+        }
+
+        HikariDataSource result = dataSource;
+        if (result == null) {
+            synchronized (ConnectionManager.class) {
+                result = dataSource;
+                if (result == null) {
+                    result = createDataSource(config);
+                    dataSource = result;
+                }
+            }
+        }
+        return result;
+    }
+
+    public static ReplicaRouter getReplicaRouter() {
+        ReplicaRouter result = replicaRouter;
+        if (result == null) {
+            synchronized (ConnectionManager.class) {
+                result = replicaRouter;
+                if (result == null) {
+                    result = createReplicaRouter(ShopConfig.get());
+                    replicaRouter = result;
+                }
+            }
+        }
+        return result;
+    }
+
+    // Data source for Hibernate when replicas are configured: every connection Hibernate acquires is routed.
+    public static DataSource getRoutingDataSource() {
+        return new RoutingDataSource();
+    }
+
+    public static void shutdown() {
+        synchronized (ConnectionManager.class) {
+            if (dataSource != null) {
+                dataSource.close();
+                dataSource = null;
+                log.info("Connection pool closed");
+            }
+            if (replicaRouter != null) {
+                for (ReplicaRouter.Replica replica : replicaRouter.getReplicas()) {
+                    if (replica.getDataSource() instanceof HikariDataSource pool) {
+                        pool.close();
+                    }
+                }
+                replicaRouter = null;
+            }
+        }
+    }
+
+    private static ReplicaRouter createReplicaRouter(ShopConfig config) {
+        List<ReplicaRouter.Replica> replicas = new ArrayList<>();
+        for (String url : config.get("db.replica.urls", "").split(",")) {
+            if (!url.isBlank()) {
+                replicas.add(new ReplicaRouter.Replica(url.trim(), createReplicaDataSource(config, url.trim(),
+                        "MyShopReplicaPool-" + (replicas.size() + 1))));
+            }
+        }
+        ReplicaRouter.Selection selection = ReplicaRouter.Selection.of(config.get("db.replica.selection", "round-robin"));
+        if (!replicas.isEmpty()) {
+            log.info("Routing reads to {} replicas ({})", replicas.size(), selection);
+        }
+        return new ReplicaRouter(replicas, selection,
+                config.getLong("db.replica.max-lag-ms", 5000), config.getLong("db.replica.lag-check-ms", 1000));
+    }
+
+    // Replica connections are read-only on the driver level, so a write routed there by mistake fails.
+    private static DataSource createReplicaDataSource(ShopConfig config, String url, String poolName) {
+        String user = config.get("db.replica.user", config.getDbUser());
+        String password = config.get("db.replica.password", config.getDbPassword());
+        Properties properties = driverProperties(config);
+        // A dead replica must fail fast: the read falls back to the primary only after this timeout.
+        long connectTimeoutMillis = config.getLong("db.replica.connect-timeout-ms", 1000);
+        if (config.isPoolEnabled()) {
+            HikariConfig hikariConfig = new HikariConfig();
+            hikariConfig.setPoolName(poolName);
+            hikariConfig.setJdbcUrl(url);
+            hikariConfig.setUsername(user);
+            hikariConfig.setPassword(password);
+            hikariConfig.setMaximumPoolSize(config.getPoolSize());
+            hikariConfig.setReadOnly(true);
+            hikariConfig.setInitializationFailTimeout(-1);
+            hikariConfig.setConnectionTimeout(Math.max(250, connectTimeoutMillis));
+            hikariConfig.setDataSourceProperties(properties);
+            return new HikariDataSource(hikariConfig);
+        }
+
+        PGSimpleDataSource simple = new PGSimpleDataSource();
+        simple.setURL(url);
+        simple.setUser(user);
+        simple.setPassword(password);
+        simple.setReadOnly(true);
+        simple.setConnectTimeout((int) Math.max(1, (connectTimeoutMillis + 999) / 1000));
+        properties.forEach((key, value) -> {
+            try {
+                simple.setProperty((String) key, (String) value);
+            } catch (SQLException e) {
+                throw new IllegalStateException("Unsupported driver property " + key, e);
+            }
+        });
+        return simple;
+    }
+
+    private static HikariDataSource createDataSource(ShopConfig config) {
+        HikariConfig hikariConfig = new HikariConfig();
+        hikariConfig.setPoolName("MyShopPool");
+        hikariConfig.setJdbcUrl(config.getDbUrl());
+        hikariConfig.setUsername(config.getDbUser());
+        hikariConfig.setPassword(config.getDbPassword());
+        hikariConfig.setMaximumPoolSize(config.getPoolSize());
+        hikariConfig.setDataSourceProperties(driverProperties(config));
+        log.info("Creating connection pool '{}' with maximumPoolSize = {}",
+                hikariConfig.getPoolName(), config.getPoolSize());
+        return new HikariDataSource(hikariConfig);
+    }
+
+    // pgJDBC caches prepared statements per physical connection, so pooled connections keep their server-side plans.
+    public static Properties driverProperties(ShopConfig config) {
+        Properties properties = new Properties();
+        properties.setProperty("prepareThreshold", String.valueOf(config.getInt("db.prepare-threshold", 5)));
+        properties.setProperty("preparedStatementCacheQueries",
+                String.valueOf(config.getInt("db.statement-cache.queries", 256)));
+        properties.setProperty("preparedStatementCacheSizeMiB",
+                String.valueOf(config.getInt("db.statement-cache.size-mib", 5)));
+        properties.setProperty("reWriteBatchedInserts",
+                String.valueOf(config.getBoolean("db.rewrite-batched-inserts", true)));
+        return properties;
     }
 }
@@ -0,0 +1,31 @@
+package myshop.common.db;
+
+import org.postgresql.PGStatement;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+
+/**
+ * SQL statement registered in {@link SqlStatements}. The PostgreSQL driver keeps prepared statements
+ * per physical connection (see db.statement-cache.* and db.prepare-threshold) and switches a statement
+ * to a server-side prepared plan after prepareThreshold executions; hot statements switch on the first one.
+ */
+public record NamedSql(String name, String sql, boolean hot) {
+
+    public static NamedSql of(String name, String sql) {
+        return new NamedSql(name, sql, false);
+    }
+
+    public static NamedSql hot(String name, String sql) {
+        return new NamedSql(name, sql, true);
+    }
+
+    public PreparedStatement prepare(Connection connection) throws SQLException {
+        PreparedStatement ps = connection.prepareStatement(sql);
+        if (hot && ps.isWrapperFor(PGStatement.class)) {
+            ps.unwrap(PGStatement.class).setPrepareThreshold(1);
+        }
+        return ps;
+    }
+}
@@ -0,0 +1,56 @@
+package myshop.common.db;
+
+import lombok.extern.log4j.Log4j2;
+import myshop.common.config.ShopConfig;
+import myshop.common.exception.OptimisticLockConflictException;
+import myshop.common.jpa.UnitOfWork;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+/**
+ * Re-runs a read-modify-write attempt when it fails with {@link OptimisticLockConflictException}, up to
+ * db.optimistic.max-attempts times with a jittered exponential pause. Inside a {@link UnitOfWork} the
+ * transaction is already marked rollback-only, so the conflict is rethrown at once and the caller retries the unit.
+ */
+@Log4j2
+public final class OptimisticRetry {
+
+    private OptimisticRetry() {
+    }
+
+    public static <T> T execute(String operation, Supplier<T> attempt) {
+        int maxAttempts = maxAttempts();
+        for (int attemptNumber = 1; ; attemptNumber++) {
+            try {
+                return attempt.get();
+            } catch (OptimisticLockConflictException e) {
+                if (attemptNumber >= maxAttempts || UnitOfWork.isActive()) {
+                    log.warn("{}: concurrent update conflict, giving up after {} attempts", operation, attemptNumber);
+                    throw e;
+                }
+                log.debug("{}: concurrent update conflict, retrying (attempt {} of {})",
+                        operation, attemptNumber + 1, maxAttempts);
+                pause(attemptNumber, e);
+            }
+        }
+    }
+
+    static int maxAttempts() {
+        return Math.max(1, ShopConfig.get().getInt("db.optimistic.max-attempts", 5));
+    }
+
+    private static void pause(int attemptNumber, OptimisticLockConflictException conflict) {
+        long base = ShopConfig.get().getInt("db.optimistic.backoff-ms", 5);
+        long bound = base << Math.min(attemptNumber - 1, 10);
+        if (bound <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextLong(bound + 1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw conflict;
+        }
+    }
+}
@@ -0,0 +1,210 @@
+package myshop.common.db;
+
+import lombok.extern.log4j.Log4j2;
+import myshop.common.jfr.ConnectionAcquisitionEvent;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Picks a read replica for a connection: round-robin or the replica with the fewest connections handed out.
+ * A replica whose replication lag exceeds maxLagMillis, or which refused a connection, is skipped for
+ * lagCheckMillis; lag is measured on an acquired connection at most once per lagCheckMillis.
+ * {@link #getConnection()} returns null when no replica is usable, and the caller reads from the primary.
+ */
+@Log4j2
+public class ReplicaRouter {
+    // 0 when replay has caught up with everything received (an idle primary does not look like lag)
+    // and on a server that is not in recovery at all (a stand-in replica).
+    static final String REPLICATION_LAG_SQL = "SELECT CASE "
+            + "WHEN NOT pg_is_in_recovery() OR pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0 "
+            + "ELSE COALESCE(EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()) * 1000, 0)::bigint END";
+
+    public enum Selection {
+        ROUND_ROBIN, LEAST_LOADED;
+
+        public static Selection of(String value) {
+            return valueOf(value.trim().toUpperCase().replace('-', '_'));
+        }
+    }
+
+    @FunctionalInterface
+    interface LagProbe {
+        long lagMillis(Connection connection) throws SQLException;
+    }
+
+    private final List<Replica> replicas;
+    private final Selection selection;
+    private final long maxLagMillis;
+    private final long lagCheckMillis;
+    private final LagProbe lagProbe;
+    private final AtomicInteger next = new AtomicInteger();
+
+    public ReplicaRouter(List<Replica> replicas, Selection selection, long maxLagMillis, long lagCheckMillis) {
+        this(replicas, selection, maxLagMillis, lagCheckMillis, ReplicaRouter::queryLag);
+    }
+
+    ReplicaRouter(List<Replica> replicas, Selection selection, long maxLagMillis, long lagCheckMillis,
+                  LagProbe lagProbe) {
+        this.replicas = List.copyOf(replicas);
+        this.selection = selection;
+        this.maxLagMillis = maxLagMillis;
+        this.lagCheckMillis = lagCheckMillis;
+        this.lagProbe = lagProbe;
+    }
+
+    public boolean hasReplicas() {
+        return !replicas.isEmpty();
+    }
+
+    public List<Replica> getReplicas() {
+        return replicas;
+    }
+
+    public Connection getConnection() {
+        for (Replica replica : candidates()) {
+            Connection connection = tryConnect(replica);
+            if (connection != null) {
+                return connection;
+            }
+        }
+        if (!replicas.isEmpty()) {
+            log.debug("No replica is usable, reading from the primary");
+        }
+        return null;
+    }
+
+    private List<Replica> candidates() {
+        long now = System.currentTimeMillis();
+        List<Replica> usable = new ArrayList<>(replicas.size());
+        for (Replica replica : replicas) {
+            if (replica.skippedUntil <= now) {
+                usable.add(replica);
+            }
+        }
+        if (usable.size() < 2) {
+            return usable;
+        }
+
+        if (selection == Selection.LEAST_LOADED) {
+            usable.sort(Comparator.comparingInt(replica -> replica.inUse.get()));
+            return usable;
+        }
+        int start = Math.floorMod(next.getAndIncrement(), usable.size());
+        List<Replica> ordered = new ArrayList<>(usable.size());
+        for (int i = 0; i < usable.size(); i++) {
+            ordered.add(usable.get((start + i) % usable.size()));
+        }
+        return ordered;
+    }
+
+    private Connection tryConnect(Replica replica) {
+        Connection connection;
+        ConnectionAcquisitionEvent event = ConnectionAcquisitionEvent.begin(replica.name);
+        try {
+            connection = replica.dataSource.getConnection();
+        } catch (SQLException e) {
+            event.failed();
+            replica.skippedUntil = System.currentTimeMillis() + lagCheckMillis;
+            log.warn("Replica {} is unavailable, skipped for {} ms", replica.name, lagCheckMillis, e);
+            return null;
+        } finally {
+            event.finish();
+        }
+
+        try {
+            long now = System.currentTimeMillis();
+            if (now - replica.lagCheckedAt >= lagCheckMillis) {
+                replica.lagMillis = lagProbe.lagMillis(connection);
+                replica.lagCheckedAt = now;
+                if (replica.lagMillis > maxLagMillis) {
+                    replica.skippedUntil = now + lagCheckMillis;
+                    log.warn("Replica {} lags {} ms behind the primary (max {} ms), skipped for {} ms",
+                            replica.name, replica.lagMillis, maxLagMillis, lagCheckMillis);
+                    connection.close();
+                    return null;
+                }
+            }
+        } catch (SQLException e) {
+            replica.skippedUntil = System.currentTimeMillis() + lagCheckMillis;
+            log.warn("Error checking replication lag of replica {}, skipped for {} ms", replica.name, lagCheckMillis, e);
+            closeQuietly(connection);
+            return null;
+        }
+
+        replica.inUse.incrementAndGet();
+        return tracked(connection, replica);
+    }
+
+    // Counts the connection against the replica until it is closed (least-loaded selection).
+    private static Connection tracked(Connection connection, Replica replica) {
+        AtomicBoolean closed = new AtomicBoolean();
+        return (Connection) Proxy.newProxyInstance(ReplicaRouter.class.getClassLoader(),
+                new Class<?>[]{Connection.class}, (proxy, method, args) -> {
+                    if ("close".equals(method.getName()) && closed.compareAndSet(false, true)) {
+                        replica.inUse.decrementAndGet();
+                    }
+                    try {
+                        return method.invoke(connection, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+                });
+    }
+
+    private static long queryLag(Connection connection) throws SQLException {
+        try (Statement st = connection.createStatement();
+             ResultSet rs = st.executeQuery(REPLICATION_LAG_SQL)) {
+            rs.next();
+            return rs.getLong(1);
+        }
+    }
+
+    private static void closeQuietly(Connection connection) {
+        try {
+            connection.close();
+        } catch (SQLException e) {
+            log.debug("Error closing replica connection", e);
+        }
+    }
+
+    public static final class Replica {
+        private final String name;
+        private final DataSource dataSource;
+        private final AtomicInteger inUse = new AtomicInteger();
+        private volatile long lagMillis;
+        private volatile long lagCheckedAt = Long.MIN_VALUE / 2;
+        private volatile long skippedUntil;
+
+        public Replica(String name, DataSource dataSource) {
+            this.name = name;
+            this.dataSource = dataSource;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public DataSource getDataSource() {
+            return dataSource;
+        }
+
+        public int getConnectionsInUse() {
+            return inUse.get();
+        }
+
+        public long getLagMillis() {
+            return lagMillis;
+        }
+    }
+}
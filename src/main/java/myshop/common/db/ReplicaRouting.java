@@ -0,0 +1,75 @@
+package myshop.common.db;
+
+import myshop.common.jpa.UnitOfWork;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.function.Supplier;
+
+/**
+ * Marks which connections of the current thread may come from a read replica. Only find* and stream* calls
+ * of a DAO wrapped by {@link #routeReads} read from a replica; everything else, everything inside
+ * {@link #onPrimary} (checkout) and everything inside a {@link UnitOfWork} uses the primary.
+ */
+public final class ReplicaRouting {
+    private enum Target { REPLICA, PRIMARY }
+
+    private static final ThreadLocal<Target> SCOPE = new ThreadLocal<>();
+
+    private ReplicaRouting() {
+    }
+
+    // Works for JDBC and Hibernate DAOs alike: ConnectionManager and the Hibernate data source both ask isReplicaRead().
+    @SuppressWarnings("unchecked")
+    public static <T> T routeReads(Class<T> daoType, T dao) {
+        return (T) Proxy.newProxyInstance(daoType.getClassLoader(), new Class<?>[]{daoType},
+                (proxy, method, args) -> {
+                    if (method.getDeclaringClass() == Object.class) {
+                        return method.invoke(dao, args);
+                    }
+                    Target outer = enter(isRead(method) ? Target.REPLICA : Target.PRIMARY);
+                    try {
+                        return method.invoke(dao, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    } finally {
+                        exit(outer);
+                    }
+                });
+    }
+
+    // Reads inside the work see the primary's data, even through DAOs wrapped by routeReads().
+    public static <T> T onPrimary(Supplier<T> work) {
+        Target outer = enter(Target.PRIMARY);
+        try {
+            return work.get();
+        } finally {
+            exit(outer);
+        }
+    }
+
+    public static boolean isReplicaRead() {
+        return SCOPE.get() == Target.REPLICA && !UnitOfWork.isActive();
+    }
+
+    static boolean isRead(Method method) {
+        String name = method.getName();
+        return name.startsWith("find") || name.startsWith("stream");
+    }
+
+    // The primary wins over a nested replica scope: a read inside checkout must see the checkout's writes.
+    private static Target enter(Target target) {
+        Target outer = SCOPE.get();
+        SCOPE.set(outer == Target.PRIMARY ? Target.PRIMARY : target);
+        return outer;
+    }
+
+    private static void exit(Target outer) {
+        if (outer == null) {
+            SCOPE.remove();
+        } else {
+            SCOPE.set(outer);
+        }
+    }
+}
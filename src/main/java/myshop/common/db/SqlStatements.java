@@ -0,0 +1,143 @@
+package myshop.common.db;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * SQL of the JDBC DAOs. Hot statements (lookups by id and by user) are server-side prepared on their first
+ * execution on a connection, the rest after db.prepare-threshold executions.
+ */
+public final class SqlStatements {
+
+    public static final NamedSql USER_INSERT = NamedSql.of("user.insert",
+            "INSERT INTO users (username, email) VALUES (?, ?) RETURNING id");
+    public static final NamedSql USER_FIND_ALL = NamedSql.of("user.findAll",
+            "SELECT id, username, email FROM users");
+    public static final NamedSql USER_FIND_BY_ID = NamedSql.hot("user.findById",
+            "SELECT id, username, email FROM users WHERE id = ?");
+    public static final NamedSql USER_FIND_BY_USERNAME = NamedSql.hot("user.findByUsername",
+            "SELECT id, username, email FROM users WHERE username = ?");
+    public static final NamedSql USER_FIND_BY_EMAIL = NamedSql.hot("user.findByEmail",
+            "SELECT id, username, email FROM users WHERE email = ?");
+    public static final NamedSql USER_EXISTS_BY_USERNAME = NamedSql.hot("user.existsByUsername",
+            "SELECT EXISTS (SELECT 1 FROM users WHERE username = ?)");
+    public static final NamedSql USER_EXISTS_BY_EMAIL = NamedSql.hot("user.existsByEmail",
+            "SELECT EXISTS (SELECT 1 FROM users WHERE email = ?)");
+    public static final NamedSql USER_UPDATE = NamedSql.of("user.update",
+            "UPDATE users SET username = ?, email = ? WHERE id = ?");
+    public static final NamedSql USER_DELETE = NamedSql.of("user.delete",
+            "DELETE FROM users WHERE id = ?");
+
+    public static final NamedSql USER_DETAILS_INSERT = NamedSql.of("userDetails.insert",
+            "INSERT INTO user_details (user_id, first_name, last_name, address, phone) VALUES (?, ?, ?, ?, ?)");
+    public static final NamedSql USER_DETAILS_FIND_ALL = NamedSql.of("userDetails.findAll",
+            "SELECT user_id, first_name, last_name, address, phone FROM user_details");
+    public static final NamedSql USER_DETAILS_FIND_BY_USER_ID = NamedSql.hot("userDetails.findByUserId",
+            "SELECT user_id, first_name, last_name, address, phone FROM user_details WHERE user_id = ?");
+    public static final NamedSql USER_DETAILS_UPDATE = NamedSql.of("userDetails.update",
+            "UPDATE user_details SET first_name = ?, last_name = ?, address = ?, phone = ? WHERE user_id = ?");
+    public static final NamedSql USER_DETAILS_DELETE = NamedSql.of("userDetails.delete",
+            "DELETE FROM user_details WHERE user_id = ?");
+
+    private static final String SELECT_PROFILE = "SELECT u.id, u.username, u.email, "
+            + "d.first_name, d.last_name, d.address, d.phone "
+            + "FROM users u LEFT JOIN user_details d ON d.user_id = u.id ";
+    public static final NamedSql USER_PROFILE_FIND_BY_USER_ID = NamedSql.hot("userProfile.findByUserId",
+            SELECT_PROFILE + "WHERE u.id = ?");
+    public static final NamedSql USER_PROFILE_FIND_PAGE = NamedSql.of("userProfile.findPage",
+            SELECT_PROFILE + "WHERE u.id > ? ORDER BY u.id LIMIT ?");
+
+    public static final NamedSql PRODUCT_INSERT = NamedSql.of("product.insert",
+            "INSERT INTO products (product_name, price) VALUES (?, ?) RETURNING id, version");
+    public static final NamedSql PRODUCT_FIND_ALL = NamedSql.of("product.findAll",
+            "SELECT id, product_name, price, version FROM products");
+    public static final NamedSql PRODUCT_FIND_BY_ID = NamedSql.hot("product.findById",
+            "SELECT id, product_name, price, version FROM products WHERE id = ?");
+    public static final NamedSql PRODUCT_FIND_BY_PRICE_RANGE = NamedSql.of("product.findByPriceRange",
+            "SELECT id, product_name, price, version FROM products WHERE price BETWEEN ? AND ? ORDER BY price, id");
+    public static final NamedSql PRODUCT_FIND_TOP_BY_PRICE = NamedSql.of("product.findTopByPrice",
+            "SELECT id, product_name, price, version FROM products ORDER BY price DESC, id LIMIT ?");
+    public static final NamedSql PRODUCT_FIND_ABOVE_PRICE = NamedSql.of("product.findAbovePrice",
+            "SELECT id, product_name, price, version FROM products WHERE price > ? ORDER BY price, id");
+    public static final NamedSql PRODUCT_UPDATE = NamedSql.of("product.update",
+            "UPDATE products SET product_name = ?, price = ?, version = version + 1 WHERE id = ? RETURNING version");
+    public static final NamedSql PRODUCT_UPDATE_VERSIONED = NamedSql.of("product.updateVersioned",
+            "UPDATE products SET product_name = ?, price = ?, version = version + 1 WHERE id = ? AND version = ? "
+                    + "RETURNING version");
+    public static final NamedSql PRODUCT_DELETE = NamedSql.of("product.delete",
+            "DELETE FROM products WHERE id = ?");
+    public static final NamedSql PRODUCT_UPDATE_PRICES = NamedSql.of("product.updatePrices",
+            "UPDATE products p SET price = u.price, version = p.version + 1 "
+                    + "FROM unnest(?::bigint[], ?::numeric[]) AS u(id, price) WHERE p.id = u.id");
+    public static final NamedSql PRODUCT_APPLY_PRICE_RULE = NamedSql.of("product.applyPriceRule",
+            "UPDATE products SET price = ROUND(price * ?, 2), version = version + 1 "
+                    + "WHERE id IN (SELECT id FROM products WHERE id > ? AND price BETWEEN ? AND ? ORDER BY id LIMIT ?) "
+                    + "RETURNING id");
+    public static final NamedSql PRODUCT_SEARCH_TRIGRAM = NamedSql.of("product.searchTrigram",
+            "SELECT id FROM products WHERE ? <% product_name "
+                    + "ORDER BY word_similarity(?, product_name) DESC, id LIMIT ?");
+
+    public static final NamedSql CART_INSERT = NamedSql.of("cart.insert",
+            "INSERT INTO shopping_cart (user_id, product_id, quantity) VALUES (?, ?, ?)");
+    public static final NamedSql CART_DELETE_ITEM = NamedSql.of("cart.deleteItem",
+            "DELETE FROM shopping_cart WHERE user_id = ? AND product_id = ?");
+    public static final NamedSql CART_FIND_BY_USER_ID = NamedSql.hot("cart.findByUserId",
+            "SELECT user_id, product_id, quantity, version FROM shopping_cart WHERE user_id = ?");
+    public static final NamedSql CART_UPDATE_QUANTITY = NamedSql.of("cart.updateQuantity",
+            "UPDATE shopping_cart SET quantity = ?, version = version + 1 WHERE user_id = ? AND product_id = ? "
+                    + "RETURNING version");
+    public static final NamedSql CART_UPDATE_QUANTITY_VERSIONED = NamedSql.of("cart.updateQuantityVersioned",
+            "UPDATE shopping_cart SET quantity = ?, version = version + 1 "
+                    + "WHERE user_id = ? AND product_id = ? AND version = ? RETURNING version");
+    public static final NamedSql CART_CLEAR = NamedSql.of("cart.clear",
+            "DELETE FROM shopping_cart WHERE user_id = ? RETURNING product_id");
+
+    public static final NamedSql ORDER_INSERT = NamedSql.of("order.insert",
+            "INSERT INTO orders (user_id, ordered_products, total_amount) VALUES (?, ?, ?) RETURNING id");
+    public static final NamedSql ORDER_FIND_BY_USER_ID = NamedSql.hot("order.findByUserId",
+            "SELECT id, user_id, ordered_products, total_amount FROM orders WHERE user_id = ?");
+    public static final NamedSql ORDER_FIND_ALL = NamedSql.of("order.findAll",
+            "SELECT id, user_id, ordered_products, total_amount FROM orders");
+    public static final NamedSql ORDER_STREAM_COLUMNS_CREATED_AFTER = NamedSql.of("order.streamColumnsCreatedAfter",
+            "SELECT id, user_id, total_amount, created_at FROM orders WHERE created_at > ? ORDER BY created_at, id");
+    public static final NamedSql ORDER_FIND_ID_RANGE = NamedSql.of("order.findIdRange",
+            "SELECT MIN(id) AS min_id, MAX(id) AS max_id FROM orders");
+    public static final NamedSql ORDER_FIND_BY_ID_RANGE = NamedSql.of("order.findByIdRange",
+            "SELECT user_id, total_amount FROM orders WHERE id BETWEEN ? AND ?");
+    public static final NamedSql USER_ORDER_STATS_UPSERT = NamedSql.hot("userOrderStats.upsert",
+            "INSERT INTO user_order_stats (user_id, total_amount, orders_count) VALUES (?, ?, 1) "
+                    + "ON CONFLICT (user_id) DO UPDATE SET "
+                    + "total_amount = user_order_stats.total_amount + EXCLUDED.total_amount, "
+                    + "orders_count = user_order_stats.orders_count + 1");
+    public static final NamedSql USER_ORDER_STATS_UPSERT_BULK = NamedSql.of("userOrderStats.upsertBulk",
+            "INSERT INTO user_order_stats (user_id, total_amount, orders_count) "
+                    + "SELECT * FROM unnest(?::bigint[], ?::numeric[], ?::int[]) "
+                    + "ON CONFLICT (user_id) DO UPDATE SET "
+                    + "total_amount = user_order_stats.total_amount + EXCLUDED.total_amount, "
+                    + "orders_count = user_order_stats.orders_count + EXCLUDED.orders_count");
+
+    private static final List<NamedSql> ALL = collect();
+
+    private SqlStatements() {
+    }
+
+    public static List<NamedSql> all() {
+        return ALL;
+    }
+
+    private static List<NamedSql> collect() {
+        List<NamedSql> statements = new ArrayList<>();
+        for (Field field : SqlStatements.class.getDeclaredFields()) {
+            if (Modifier.isStatic(field.getModifiers()) && field.getType() == NamedSql.class) {
+                try {
+                    statements.add((NamedSql) field.get(null));
+                } catch (IllegalAccessException e) {
+                    throw new IllegalStateException("Cannot read statement " + field.getName(), e);
+                }
+            }
+        }
+        return List.copyOf(statements);
+    }
+}
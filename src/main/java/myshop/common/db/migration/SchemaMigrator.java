@@ -0,0 +1,174 @@
+package myshop.common.db.migration;
+
+import lombok.extern.log4j.Log4j2;
+import myshop.common.db.ConnectionManager;
+import myshop.common.exception.DaoException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.CRC32;
+
+/**
+ * Applies the versioned scripts listed in {@code db/migration/migrations.txt} on top of {@code 01_schema.sql}.
+ * Each script runs in its own transaction and is recorded in {@code schema_version}.
+ */
+@Log4j2
+public class SchemaMigrator {
+    private static final String MIGRATION_DIR = "db/migration/";
+    private static final String MIGRATION_LIST = MIGRATION_DIR + "migrations.txt";
+    private static final Pattern FILE_NAME = Pattern.compile("V(\\d+)__(\\w+)\\.sql");
+    // Serializes concurrent migrators started by several application instances.
+    private static final long ADVISORY_LOCK_KEY = 0x6D7973686F70L;
+
+    public int migrate() {
+        List<Migration> migrations = loadMigrations();
+        log.debug("migrate() called, {} migrations known", migrations.size());
+
+        try (Connection connection = ConnectionManager.getConnection()) {
+            createVersionTable(connection);
+            Map<Integer, Long> applied = findAppliedChecksums(connection);
+
+            int count = 0;
+            for (Migration migration : migrations) {
+                Long checksum = applied.get(migration.version());
+                if (checksum == null) {
+                    if (apply(connection, migration)) {
+                        count++;
+                    }
+                } else if (checksum != migration.checksum()) {
+                    log.warn("Migration V{} ({}) was changed after it had been applied",
+                            migration.version(), migration.description());
+                }
+            }
+            log.info("Schema is at version {}, {} migrations applied", currentVersion(connection), count);
+            return count;
+        } catch (SQLException e) {
+            log.error("SQL error migrating schema", e);
+            throw new DaoException("Error migrating schema", e);
+        }
+    }
+
+    public int currentVersion() {
+        try (Connection connection = ConnectionManager.getConnection()) {
+            createVersionTable(connection);
+            return currentVersion(connection);
+        } catch (SQLException e) {
+            log.error("SQL error reading schema version", e);
+            throw new DaoException("Error reading schema version", e);
+        }
+    }
+
+    private boolean apply(Connection connection, Migration migration) throws SQLException {
+        boolean autoCommit = connection.getAutoCommit();
+        connection.setAutoCommit(false);
+        try (Statement st = connection.createStatement();
+             PreparedStatement insert = connection.prepareStatement(
+                     "INSERT INTO schema_version (version, description, checksum) VALUES (?, ?, ?) " +
+                             "ON CONFLICT (version) DO NOTHING")) {
+            st.execute("SELECT pg_advisory_xact_lock(" + ADVISORY_LOCK_KEY + ")");
+            insert.setInt(1, migration.version());
+            insert.setString(2, migration.description());
+            insert.setLong(3, migration.checksum());
+            if (insert.executeUpdate() == 0) {
+                connection.rollback();
+                log.debug("Migration V{} was applied concurrently", migration.version());
+                return false;
+            }
+
+            long start = System.nanoTime();
+            st.execute(migration.script());
+            connection.commit();
+            log.info("Migration V{} ({}) applied in {} ms", migration.version(), migration.description(),
+                    (System.nanoTime() - start) / 1_000_000);
+            return true;
+        } catch (SQLException | RuntimeException e) {
+            connection.rollback();
+            log.error("Migration V{} ({}) failed", migration.version(), migration.description());
+            throw e;
+        } finally {
+            connection.setAutoCommit(autoCommit);
+        }
+    }
+
+    private static void createVersionTable(Connection connection) throws SQLException {
+        try (Statement st = connection.createStatement()) {
+            st.execute("CREATE TABLE IF NOT EXISTS schema_version (" +
+                    "version INTEGER PRIMARY KEY, " +
+                    "description VARCHAR(200) NOT NULL, " +
+                    "checksum BIGINT NOT NULL, " +
+                    "applied_at TIMESTAMP NOT NULL DEFAULT now())");
+        }
+    }
+
+    private static Map<Integer, Long> findAppliedChecksums(Connection connection) throws SQLException {
+        Map<Integer, Long> applied = new HashMap<>();
+        try (Statement st = connection.createStatement();
+             ResultSet rs = st.executeQuery("SELECT version, checksum FROM schema_version")) {
+            while (rs.next()) {
+                applied.put(rs.getInt("version"), rs.getLong("checksum"));
+            }
+        }
+        return applied;
+    }
+
+    private static int currentVersion(Connection connection) throws SQLException {
+        try (Statement st = connection.createStatement();
+             ResultSet rs = st.executeQuery("SELECT COALESCE(MAX(version), 0) FROM schema_version")) {
+            rs.next();
+            return rs.getInt(1);
+        }
+    }
+
+    static List<Migration> loadMigrations() {
+        List<Migration> migrations = new ArrayList<>();
+        int previousVersion = 0;
+        for (String line : readResource(MIGRATION_LIST).split("\\R")) {
+            String fileName = line.strip();
+            if (fileName.isEmpty() || fileName.startsWith("#")) {
+                continue;
+            }
+
+            Matcher matcher = FILE_NAME.matcher(fileName);
+            if (!matcher.matches()) {
+                throw new IllegalStateException("Invalid migration file name: " + fileName);
+            }
+            int version = Integer.parseInt(matcher.group(1));
+            if (version <= previousVersion) {
+                throw new IllegalStateException("Migrations must be listed in ascending version order: " + fileName);
+            }
+            previousVersion = version;
+
+            String script = readResource(MIGRATION_DIR + fileName);
+            CRC32 crc = new CRC32();
+            crc.update(script.getBytes(StandardCharsets.UTF_8));
+            migrations.add(new Migration(version, matcher.group(2).replace('_', ' '), script, crc.getValue()));
+        }
+        return migrations;
+    }
+
+    private static String readResource(String name) {
+        try (InputStream in = SchemaMigrator.class.getClassLoader().getResourceAsStream(name)) {
+            if (in == null) {
+                throw new IllegalStateException("Migration resource not found: " + name);
+            }
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new IllegalStateException("Cannot read migration resource: " + name, e);
+        }
+    }
+
+    record Migration(int version, String description, String script, long checksum) {
+    }
+}
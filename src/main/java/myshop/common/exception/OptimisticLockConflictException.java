@@ -0,0 +1,12 @@
+package myshop.common.exception;
+
+// The row was changed by another transaction after it had been read; re-reading and retrying may succeed.
+public class OptimisticLockConflictException extends DaoException {
+    public OptimisticLockConflictException(String message) {
+        super(message);
+    }
+
+    public OptimisticLockConflictException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
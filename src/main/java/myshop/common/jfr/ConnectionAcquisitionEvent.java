@@ -0,0 +1,39 @@
+package myshop.common.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("myshop.ConnectionAcquisition")
+@Label("Connection Acquisition")
+@Description("Time spent obtaining a JDBC connection from ConnectionManager")
+@Category({"MyShop", "JDBC"})
+@StackTrace(false)
+public class ConnectionAcquisitionEvent extends Event {
+    @Label("URL")
+    private String url;
+
+    @Label("Failed")
+    private boolean failed;
+
+    public static ConnectionAcquisitionEvent begin(String url) {
+        ConnectionAcquisitionEvent event = new ConnectionAcquisitionEvent();
+        event.url = url;
+        event.begin();
+        return event;
+    }
+
+    public void failed() {
+        this.failed = true;
+    }
+
+    public void finish() {
+        end();
+        if (shouldCommit()) {
+            commit();
+        }
+    }
+}
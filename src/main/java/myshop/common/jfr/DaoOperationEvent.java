@@ -0,0 +1,64 @@
+package myshop.common.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("myshop.DaoOperation")
+@Label("DAO Operation")
+@Description("A single call to a Jdbc*/Hibernate* DAO method")
+@Category({"MyShop", "DAO"})
+@StackTrace(false)
+public class DaoOperationEvent extends Event {
+    @Label("DAO")
+    private Class<?> dao;
+
+    @Label("Operation")
+    private String operation;
+
+    @Label("User Id")
+    private long userId;
+
+    @Label("Rows Affected")
+    private int rowsAffected;
+
+    @Label("Failed")
+    private boolean failed;
+
+    private transient boolean succeeded;
+
+    public static DaoOperationEvent begin(Class<?> dao, String operation) {
+        DaoOperationEvent event = new DaoOperationEvent();
+        event.dao = dao;
+        event.operation = operation;
+        event.begin();
+        return event;
+    }
+
+    public DaoOperationEvent userId(Long userId) {
+        if (userId != null) {
+            this.userId = userId;
+        }
+        return this;
+    }
+
+    public void rowsAffected(int rowsAffected) {
+        this.rowsAffected = rowsAffected;
+    }
+
+    // Called as the last step of a successful call; any other exit, an exception included, is recorded as failed.
+    public void succeeded() {
+        this.succeeded = true;
+    }
+
+    public void finish() {
+        this.failed = !succeeded;
+        end();
+        if (shouldCommit()) {
+            commit();
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package myshop.common.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+import java.math.BigDecimal;
+
+@Name("myshop.PlaceOrder")
+@Label("Place Order")
+@Description("Checkout of a user's cart by OrderService.placeOrder")
+@Category({"MyShop", "Service"})
+@StackTrace(false)
+public class PlaceOrderEvent extends Event {
+    @Label("User Id")
+    private long userId;
+
+    @Label("Item Count")
+    private int itemCount;
+
+    @Label("Order Id")
+    private long orderId;
+
+    @Label("Total Amount")
+    private double totalAmount;
+
+    @Label("Failed")
+    private boolean failed;
+
+    public static PlaceOrderEvent begin(Long userId) {
+        PlaceOrderEvent event = new PlaceOrderEvent();
+        if (userId != null) {
+            event.userId = userId;
+        }
+        event.begin();
+        return event;
+    }
+
+    public void itemCount(int itemCount) {
+        this.itemCount = itemCount;
+    }
+
+    public void placed(Long orderId, BigDecimal totalAmount) {
+        if (orderId != null) {
+            this.orderId = orderId;
+        }
+        if (totalAmount != null) {
+            this.totalAmount = totalAmount.doubleValue();
+        }
+    }
+
+    public void failed() {
+        this.failed = true;
+    }
+
+    public void finish() {
+        end();
+        if (shouldCommit()) {
+            commit();
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package myshop.common.jfr;
+
+import jakarta.persistence.EntityTransaction;
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("myshop.TransactionCommit")
+@Label("Transaction Commit")
+@Description("Commit of a JPA resource-local transaction, including the flush")
+@Category({"MyShop", "JPA"})
+@StackTrace(false)
+public class TransactionCommitEvent extends Event {
+    @Label("DAO")
+    private Class<?> dao;
+
+    @Label("Operation")
+    private String operation;
+
+    @Label("Failed")
+    private boolean failed;
+
+    public static void commit(EntityTransaction transaction, Class<?> dao, String operation) {
+        TransactionCommitEvent event = new TransactionCommitEvent();
+        event.dao = dao;
+        event.operation = operation;
+        event.begin();
+        try {
+            transaction.commit();
+        } catch (RuntimeException e) {
+            event.failed = true;
+            throw e;
+        } finally {
+            event.end();
+            if (event.shouldCommit()) {
+                event.commit();
+            }
+        }
+    }
+}
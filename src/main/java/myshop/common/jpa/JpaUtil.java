@@ -2,25 +2,170 @@ package myshop.common.jpa;
 
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.OptimisticLockException;
 import jakarta.persistence.Persistence;
+import jakarta.persistence.Query;
 import lombok.extern.log4j.Log4j2;
+import myshop.common.config.ShopConfig;
+import myshop.common.db.ConnectionManager;
+import myshop.common.exception.OptimisticLockConflictException;
+import org.hibernate.SessionFactory;
+import org.hibernate.StaleStateException;
+import org.hibernate.StatelessSession;
+import org.hibernate.jpa.HibernateHints;
+
+import javax.sql.DataSource;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicReference;
 
 @Log4j2
 public class JpaUtil {
     private static final String PERSISTENCE_UNIT_NAME = "MyShopPU";
-    private static final EntityManagerFactory ENTITY_MANAGER_FACTORY = buildEntityManagerFactory();
+    // Current bootstrap attempt; a failed attempt is cleared, so the next call (e.g. once the DB is up) retries.
+    private static final AtomicReference<CompletableFuture<EntityManagerFactory>> ENTITY_MANAGER_FACTORY =
+            new AtomicReference<>();
+
+    private JpaUtil() {
+    }
+
+    public static CompletableFuture<Void> initializeAsync() {
+        return bootstrap(true).thenApply(emf -> null);
+    }
+
+    public static boolean isReady() {
+        CompletableFuture<EntityManagerFactory> attempt = ENTITY_MANAGER_FACTORY.get();
+        return attempt != null && attempt.isDone() && !attempt.isCompletedExceptionally();
+    }
+
+    // Inside a UnitOfWork returns the EntityManager shared by all DAO calls of that unit.
+    public static EntityManager getEntityManager() {
+        EntityManager shared = UnitOfWork.current();
+        if (shared != null) {
+            return shared;
+        }
+        return createEntityManager();
+    }
+
+    static EntityManager createEntityManager() {
+        return getEntityManagerFactory().createEntityManager();
+    }
+
+    // Entities loaded outside a UnitOfWork are detached by em.close() right away, so they need no snapshots.
+    public static void setReadOnlyOutsideUnitOfWork(Query query) {
+        if (!UnitOfWork.isActive()) {
+            query.setHint(HibernateHints.HINT_READ_ONLY, true);
+        }
+    }
+
+    // Stale @Version at flush (Hibernate or JPA flavour, possibly wrapped in RollbackException) or a conflict
+    // already detected by the DAO.
+    public static boolean isOptimisticLockFailure(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof OptimisticLockException
+                    || cause instanceof StaleStateException
+                    || cause instanceof OptimisticLockConflictException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // No persistence context, no dirty checking; inserts are sent in JDBC batches of jpa.bulk.batch-size.
+    public static StatelessSession openStatelessSession() {
+        StatelessSession session = getEntityManagerFactory().unwrap(SessionFactory.class).openStatelessSession();
+        session.setJdbcBatchSize(bulkBatchSize());
+        return session;
+    }
 
-    private static EntityManagerFactory buildEntityManagerFactory() {
+    public static int bulkBatchSize() {
+        return ShopConfig.get().getInt("jpa.bulk.batch-size", 500);
+    }
+
+    public static int bulkFetchSize() {
+        return ShopConfig.get().getInt("jpa.bulk.fetch-size", 1000);
+    }
+
+    public static void shutdown() {
+        CompletableFuture<EntityManagerFactory> attempt = ENTITY_MANAGER_FACTORY.get();
+        if (isReady() && ENTITY_MANAGER_FACTORY.compareAndSet(attempt, null)) {
+            attempt.join().close();
+            log.info("EntityManagerFactory for persistence unit '{}' closed", PERSISTENCE_UNIT_NAME);
+        }
+    }
+
+    private static EntityManagerFactory getEntityManagerFactory() {
+        try {
+            return bootstrap(false).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private static CompletableFuture<EntityManagerFactory> bootstrap(boolean async) {
+        while (true) {
+            CompletableFuture<EntityManagerFactory> current = ENTITY_MANAGER_FACTORY.get();
+            if (current != null) {
+                return current;
+            }
+            CompletableFuture<EntityManagerFactory> attempt = new CompletableFuture<>();
+            if (ENTITY_MANAGER_FACTORY.compareAndSet(null, attempt)) {
+                if (async) {
+                    Thread bootstrapThread = new Thread(() -> initialize(attempt), "jpa-bootstrap");
+                    bootstrapThread.setDaemon(true);
+                    bootstrapThread.start();
+                } else {
+                    initialize(attempt);
+                }
+                return attempt;
+            }
+        }
+    }
+
+    private static void initialize(CompletableFuture<EntityManagerFactory> attempt) {
+        try {
+            attempt.complete(buildEntityManagerFactory());
+        } catch (RuntimeException e) {
+            // Cleared before completing, so callers woken by the failure already start a fresh attempt.
+            ENTITY_MANAGER_FACTORY.compareAndSet(attempt, null);
+            attempt.completeExceptionally(e);
+        }
+    }
+
+    static EntityManagerFactory buildEntityManagerFactory() {
         try {
-            log.info("Initializing EntityManagerFactory for persistence unit '{}'", PERSISTENCE_UNIT_NAME);
-            return Persistence.createEntityManagerFactory(PERSISTENCE_UNIT_NAME);
+            ShopConfig config = ShopConfig.get();
+            log.info("Initializing EntityManagerFactory for persistence unit '{}' (profile '{}')",
+                    PERSISTENCE_UNIT_NAME, config.getProfile());
+            long start = System.nanoTime();
+            EntityManagerFactory emf = Persistence.createEntityManagerFactory(PERSISTENCE_UNIT_NAME,
+                    buildProperties(config));
+            log.info("EntityManagerFactory initialized in {} ms", (System.nanoTime() - start) / 1_000_000);
+            return emf;
         } catch (Exception e) {
             log.error("Error creating EntityManagerFactory", e);
             throw new RuntimeException("Failed to initialize EntityManagerFactory", e);
         }
     }
 
-    public static EntityManager getEntityManager() {
-        return ENTITY_MANAGER_FACTORY.createEntityManager();
+    static Map<String, Object> buildProperties(ShopConfig config) {
+        Map<String, Object> properties = config.getJpaProperties();
+        DataSource dataSource = ConnectionManager.getReplicaRouter().hasReplicas()
+                ? ConnectionManager.getRoutingDataSource()
+                : ConnectionManager.getDataSource();
+        if (dataSource != null) {
+            properties.put("jakarta.persistence.nonJtaDataSource", dataSource);
+        } else {
+            properties.put("jakarta.persistence.jdbc.url", config.getDbUrl());
+            properties.put("jakarta.persistence.jdbc.user", config.getDbUser());
+            properties.put("jakarta.persistence.jdbc.password", config.getDbPassword());
+            ConnectionManager.driverProperties(config)
+                    .forEach((key, value) -> properties.put("hibernate.connection." + key, value));
+        }
+        return properties;
     }
 }
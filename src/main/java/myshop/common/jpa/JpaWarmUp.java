@@ -0,0 +1,74 @@
+package myshop.common.jpa;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Parameter;
+import jakarta.persistence.Query;
+import lombok.extern.log4j.Log4j2;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+@Log4j2
+public class JpaWarmUp {
+
+    public record WarmUpQuery(String jpql, Class<?> resultType) {
+        public static WarmUpQuery select(String jpql, Class<?> resultType) {
+            return new WarmUpQuery(jpql, resultType);
+        }
+
+        public static WarmUpQuery update(String jpql) {
+            return new WarmUpQuery(jpql, null);
+        }
+    }
+
+    private JpaWarmUp() {
+    }
+
+    public static void warmUp(List<WarmUpQuery> queries) {
+        log.info("JPA warm-up started for {} queries", queries.size());
+        long start = System.nanoTime();
+        EntityManager em = JpaUtil.getEntityManager();
+
+        try {
+            for (WarmUpQuery warmUpQuery : queries) {
+                try {
+                    if (warmUpQuery.resultType() == null) {
+                        em.createQuery(warmUpQuery.jpql());
+                    } else {
+                        Query query = em.createQuery(warmUpQuery.jpql(), warmUpQuery.resultType())
+                                .setMaxResults(1);
+                        bindDummyParameters(query);
+                        query.getResultList();
+                    }
+                } catch (Exception e) {
+                    log.warn("JPA warm-up failed for query '{}'", warmUpQuery.jpql(), e);
+                }
+            }
+        } finally {
+            em.close();
+        }
+
+        log.info("JPA warm-up finished in {} ms", (System.nanoTime() - start) / 1_000_000);
+    }
+
+    private static void bindDummyParameters(Query query) {
+        for (Parameter<?> parameter : query.getParameters()) {
+            Class<?> type = parameter.getParameterType();
+            Object value;
+            if (type == Integer.class) {
+                value = -1;
+            } else if (type == BigDecimal.class) {
+                value = BigDecimal.ONE.negate();
+            } else if (type == String.class) {
+                value = "";
+            } else {
+                value = -1L;
+            }
+            if (parameter.getName() != null) {
+                query.setParameter(parameter.getName(), value);
+            } else {
+                query.setParameter(parameter.getPosition(), value);
+            }
+        }
+    }
+}
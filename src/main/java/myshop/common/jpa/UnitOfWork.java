@@ -0,0 +1,145 @@
+package myshop.common.jpa;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityTransaction;
+import lombok.extern.log4j.Log4j2;
+import myshop.common.jfr.TransactionCommitEvent;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Binds one EntityManager and one transaction to the current thread. While a unit of work is active,
+ * {@link JpaUtil#getEntityManager()} returns the shared EntityManager: DAO begin/commit only flush,
+ * DAO rollback marks the transaction rollback-only and close() is ignored. Nested units join the outer one.
+ * Actions registered with {@link #afterCommit(Runnable)} run once the outermost unit has committed.
+ */
+@Log4j2
+public final class UnitOfWork {
+    private static final ThreadLocal<EntityManager> CURRENT = new ThreadLocal<>();
+    private static final ThreadLocal<List<Runnable>> AFTER_COMMIT = new ThreadLocal<>();
+
+    private UnitOfWork() {
+    }
+
+    public static <T> T execute(Supplier<T> work) {
+        if (CURRENT.get() != null) {
+            return work.get();
+        }
+
+        EntityManager em = JpaUtil.createEntityManager();
+        EntityTransaction transaction = em.getTransaction();
+        List<Runnable> afterCommit = new ArrayList<>();
+        CURRENT.set(shared(em, transaction));
+        AFTER_COMMIT.set(afterCommit);
+        T result;
+        try {
+            transaction.begin();
+            result = work.get();
+            TransactionCommitEvent.commit(transaction, UnitOfWork.class, "execute");
+            log.debug("Unit of work committed");
+        } catch (RuntimeException e) {
+            if (transaction.isActive()) {
+                transaction.rollback();
+            }
+            log.debug("Unit of work rolled back", e);
+            throw e;
+        } finally {
+            CURRENT.remove();
+            AFTER_COMMIT.remove();
+            em.close();
+        }
+
+        afterCommit.forEach(Runnable::run);
+        return result;
+    }
+
+    // Outside a unit of work the action runs at once; inside one it is dropped if the unit rolls back.
+    public static void afterCommit(Runnable action) {
+        List<Runnable> actions = AFTER_COMMIT.get();
+        if (actions == null) {
+            action.run();
+        } else {
+            actions.add(action);
+        }
+    }
+
+    public static void run(Runnable work) {
+        execute(() -> {
+            work.run();
+            return null;
+        });
+    }
+
+    public static boolean isActive() {
+        return CURRENT.get() != null;
+    }
+
+    static EntityManager current() {
+        return CURRENT.get();
+    }
+
+    private static EntityManager shared(EntityManager em, EntityTransaction transaction) {
+        EntityTransaction joined = new JoinedTransaction(em, transaction);
+        return (EntityManager) Proxy.newProxyInstance(UnitOfWork.class.getClassLoader(),
+                new Class<?>[]{EntityManager.class}, (proxy, method, args) -> switch (method.getName()) {
+                    case "close" -> null;
+                    case "getTransaction" -> joined;
+                    case "equals" -> proxy == args[0];
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "toString" -> "UnitOfWork" + em;
+                    default -> {
+                        try {
+                            yield method.invoke(em, args);
+                        } catch (InvocationTargetException e) {
+                            throw e.getCause();
+                        }
+                    }
+                });
+    }
+
+    private record JoinedTransaction(EntityManager em, EntityTransaction transaction) implements EntityTransaction {
+
+        @Override
+        public void begin() {
+        }
+
+        @Override
+        public void commit() {
+            em.flush();
+        }
+
+        @Override
+        public void rollback() {
+            transaction.setRollbackOnly();
+        }
+
+        @Override
+        public void setRollbackOnly() {
+            transaction.setRollbackOnly();
+        }
+
+        @Override
+        public boolean getRollbackOnly() {
+            return transaction.getRollbackOnly();
+        }
+
+        @Override
+        public boolean isActive() {
+            return transaction.isActive();
+        }
+
+        @Override
+        public void setTimeout(Integer timeout) {
+            transaction.setTimeout(timeout);
+        }
+
+        @Override
+        public Integer getTimeout() {
+            return transaction.getTimeout();
+        }
+    }
+}
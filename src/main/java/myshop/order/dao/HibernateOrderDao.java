@@ -2,15 +2,31 @@ package myshop.order.dao;
 
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.EntityTransaction;
+import jakarta.persistence.TypedQuery;
 import lombok.extern.log4j.Log4j2;
+import myshop.common.db.SqlStatements;
 import myshop.common.exception.DaoException;
+import myshop.common.jfr.DaoOperationEvent;
+import myshop.common.jfr.TransactionCommitEvent;
 import myshop.common.jpa.JpaUtil;
 import myshop.order.model.Order;
+import myshop.order.model.OrderView;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
+import org.hibernate.StatelessSession;
+import org.hibernate.Transaction;
 
 import java.util.List;
+import java.util.function.Consumer;
 
 @Log4j2
 public class HibernateOrderDao implements OrderDao {
+    public static final String FIND_ALL_ORDERS_BY_USER_ID_JPQL = "SELECT o FROM Order o WHERE o.userId = :userId";
+    public static final String FIND_ORDER_VIEWS_BY_USER_ID_JPQL = "SELECT new myshop.order.model.OrderView("
+            + "o.id, o.userId, o.orderedProducts, o.totalAmount) FROM Order o WHERE o.userId = :userId";
+    public static final String FIND_ALL_ORDERS_JPQL = "SELECT o FROM Order o";
+    public static final String STREAM_ALL_ORDERS_JPQL = "SELECT o FROM Order o ORDER BY o.id";
+
     @Override
     public Order saveOrder(Order order) {
         if (order.getId() != null) {
@@ -18,14 +34,22 @@ public class HibernateOrderDao implements OrderDao {
         }
 
         log.debug("saveOrder() called with order = {}", order);
+        DaoOperationEvent event = DaoOperationEvent.begin(HibernateOrderDao.class, "saveOrder")
+                .userId(order.getUserId());
         EntityManager em = JpaUtil.getEntityManager();
         EntityTransaction transaction = em.getTransaction();
 
         try {
             transaction.begin();
             em.persist(order);
-            transaction.commit();
-            log.info("Order successfully created, id = {}", order.getId());
+            em.createNativeQuery(SqlStatements.USER_ORDER_STATS_UPSERT.sql())
+                    .setParameter(1, order.getUserId())
+                    .setParameter(2, order.getTotalAmount())
+                    .executeUpdate();
+            TransactionCommitEvent.commit(transaction, HibernateOrderDao.class, "saveOrder");
+            event.rowsAffected(1);
+            log.debug("Order successfully created, id = {}", order.getId());
+            event.succeeded();
             return order;
         } catch (Exception e) {
             if (transaction.isActive()) {
@@ -36,6 +60,7 @@ public class HibernateOrderDao implements OrderDao {
             throw new DaoException("Error saving order: " + order, e);
         } finally {
             em.close();
+            event.finish();
         }
     }
 
@@ -46,38 +71,148 @@ public class HibernateOrderDao implements OrderDao {
         }
 
         log.debug("findAllOrdersByUserId() called with userId = {}", userId);
+        DaoOperationEvent event = DaoOperationEvent.begin(HibernateOrderDao.class, "findAllOrdersByUserId")
+                .userId(userId);
         EntityManager em = JpaUtil.getEntityManager();
 
         try {
-            String jpql = "SELECT o FROM Order o WHERE o.userId = :userId";
-            List<Order> userOrders = em.createQuery(jpql, Order.class)
-                    .setParameter("userId", userId)
-                    .getResultList();
-            log.info("{} userOrders found", userOrders.size());
+            TypedQuery<Order> query = em.createQuery(FIND_ALL_ORDERS_BY_USER_ID_JPQL, Order.class)
+                    .setParameter("userId", userId);
+            JpaUtil.setReadOnlyOutsideUnitOfWork(query);
+            List<Order> userOrders = query.getResultList();
+            event.rowsAffected(userOrders.size());
+            log.debug("{} userOrders found", userOrders.size());
+            event.succeeded();
             return userOrders;
         } catch (Exception e) {
             log.error("Error getting all userOrders by userId = {}", userId, e);
             throw new DaoException("Error getting all userOrders by userId = " + userId, e);
         } finally {
             em.close();
+            event.finish();
+        }
+    }
+
+    // Order history variant of findAllOrdersByUserId() that skips entity hydration and snapshots.
+    public List<OrderView> findOrderViewsByUserId(Long userId) {
+        if (userId == null) {
+            throw new IllegalArgumentException("userId must not be null");
+        }
+
+        log.debug("findOrderViewsByUserId() called with userId = {}", userId);
+        DaoOperationEvent event = DaoOperationEvent.begin(HibernateOrderDao.class, "findOrderViewsByUserId").userId(userId);
+        EntityManager em = JpaUtil.getEntityManager();
+
+        try {
+            List<OrderView> views = em.createQuery(FIND_ORDER_VIEWS_BY_USER_ID_JPQL, OrderView.class)
+                    .setParameter("userId", userId)
+                    .getResultList();
+            event.rowsAffected(views.size());
+            log.debug("{} order views found for userId = {}", views.size(), userId);
+            event.succeeded();
+            return views;
+        } catch (Exception e) {
+            log.error("Error getting order views by userId = {}", userId, e);
+            throw new DaoException("Error getting order views by userId = " + userId, e);
+        } finally {
+            em.close();
+            event.finish();
         }
     }
 
     @Override
     public List<Order> findAllOrders() {
         log.debug("findAllOrders() called");
+        DaoOperationEvent event = DaoOperationEvent.begin(HibernateOrderDao.class, "findAllOrders");
         EntityManager em = JpaUtil.getEntityManager();
 
         try {
-            String jpql = "SELECT o FROM Order o";
-            List<Order> orders = em.createQuery(jpql, Order.class).getResultList();
-            log.info("{} orders found", orders.size());
+            List<Order> orders = em.createQuery(FIND_ALL_ORDERS_JPQL, Order.class).getResultList();
+            event.rowsAffected(orders.size());
+            log.debug("{} orders found", orders.size());
+            event.succeeded();
             return orders;
         } catch (Exception e) {
             log.error("Error receiving all orders", e);
             throw new DaoException("Error receiving all orders", e);
         } finally {
             em.close();
+            event.finish();
+        }
+    }
+
+    // Bulk insert through a StatelessSession in one transaction: orders go in JDBC batches,
+    // user_order_stats is updated with one statement for all users.
+    public int saveOrders(List<Order> orders) {
+        for (Order order : orders) {
+            if (order.getId() != null) {
+                throw new IllegalArgumentException("When creating an order, the id must be null");
+            }
+        }
+        if (orders.isEmpty()) {
+            return 0;
+        }
+
+        log.debug("saveOrders() called for {} orders", orders.size());
+        DaoOperationEvent event = DaoOperationEvent.begin(HibernateOrderDao.class, "saveOrders");
+
+        try (StatelessSession session = JpaUtil.openStatelessSession()) {
+            Transaction transaction = session.beginTransaction();
+            try {
+                session.insertMultiple(orders);
+                session.doWork(connection -> JdbcOrderDao.updateUserOrderStats(connection, orders));
+                TransactionCommitEvent.commit(transaction, HibernateOrderDao.class, "saveOrders");
+            } catch (RuntimeException e) {
+                if (transaction.isActive()) {
+                    transaction.rollback();
+                }
+                orders.forEach(order -> order.setId(null));
+                throw e;
+            }
+
+            event.rowsAffected(orders.size());
+            log.debug("{} orders successfully created", orders.size());
+            event.succeeded();
+            return orders.size();
+        } catch (Exception e) {
+            log.error("Error saving {} orders", orders.size(), e);
+            throw new DaoException("Error saving " + orders.size() + " orders", e);
+        } finally {
+            event.finish();
+        }
+    }
+
+    // Export read through a StatelessSession: rows are passed to the consumer as they are fetched and are not kept.
+    public int streamAllOrders(Consumer<Order> consumer) {
+        log.debug("streamAllOrders() called");
+        DaoOperationEvent event = DaoOperationEvent.begin(HibernateOrderDao.class, "streamAllOrders");
+
+        int count = 0;
+        try (StatelessSession session = JpaUtil.openStatelessSession()) {
+            Transaction transaction = session.beginTransaction();
+            try (ScrollableResults<Order> results = session
+                    .createSelectionQuery(STREAM_ALL_ORDERS_JPQL, Order.class)
+                    .setFetchSize(JpaUtil.bulkFetchSize())
+                    .scroll(ScrollMode.FORWARD_ONLY)) {
+                while (results.next()) {
+                    consumer.accept(results.get());
+                    count++;
+                }
+            } catch (RuntimeException e) {
+                transaction.rollback();
+                throw e;
+            }
+            transaction.commit();
+
+            event.rowsAffected(count);
+            log.debug("{} orders streamed", count);
+            event.succeeded();
+            return count;
+        } catch (Exception e) {
+            log.error("Error streaming orders after {} rows", count, e);
+            throw new DaoException("Error streaming orders", e);
+        } finally {
+            event.finish();
         }
     }
-}
\ No newline at end of file
+}
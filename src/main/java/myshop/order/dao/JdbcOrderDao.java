@@ -2,92 +2,201 @@ package myshop.order.dao;
 
 import lombok.extern.log4j.Log4j2;
 import myshop.common.db.ConnectionManager;
+import myshop.common.db.SqlStatements;
 import myshop.common.exception.DaoException;
+import myshop.common.jfr.DaoOperationEvent;
 import myshop.order.model.Order;
 
+import java.math.BigDecimal;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 @Log4j2
 public class JdbcOrderDao implements OrderDao {
+    private static final int STREAM_FETCH_SIZE = 1000;
+
     @Override
     public Order saveOrder(Order order) {
         if (order.getId() != null) {
             throw new IllegalArgumentException("When creating an order, the id must be null");
         }
-        String sql = "INSERT INTO orders (user_id, ordered_products, total_amount) " +
-                "VALUES (?, ?, ?) RETURNING id";
 
         log.debug("saveOrder() called with order = {}", order);
+        DaoOperationEvent event = DaoOperationEvent.begin(JdbcOrderDao.class, "saveOrder")
+                .userId(order.getUserId());
 
-        try (Connection connection = ConnectionManager.getConnection();
-             PreparedStatement ps = connection.prepareStatement(sql)) {
+        try (Connection connection = ConnectionManager.getConnection()) {
+            boolean autoCommit = connection.getAutoCommit();
+            connection.setAutoCommit(false);
+            try {
+                insertOrder(connection, order);
+                updateUserOrderStats(connection, order);
+                connection.commit();
+                event.rowsAffected(1);
+                log.debug("Order successfully created, id = {}", order.getId());
+                event.succeeded();
+                return order;
+            } catch (SQLException | RuntimeException e) {
+                connection.rollback();
+                order.setId(null);
+                throw e;
+            } finally {
+                connection.setAutoCommit(autoCommit);
+            }
+        } catch (SQLException e) {
+            log.error("SQL error saving order: {}", order, e);
+            throw new DaoException("Error saving order: " + order, e);
+        } finally {
+            event.finish();
+        }
+    }
+
+    private static void insertOrder(Connection connection, Order order) throws SQLException {
+        try (PreparedStatement ps = SqlStatements.ORDER_INSERT.prepare(connection)) {
             ps.setLong(1, order.getUserId());
             ps.setString(2, order.getOrderedProducts());
             ps.setBigDecimal(3, order.getTotalAmount());
             try (ResultSet rs = ps.executeQuery()) {
                 if (rs.next()) {
-                    Long generatedId = rs.getLong("id");
-                    order.setId(generatedId);
-                    log.info("Order successfully created, id = {}", generatedId);
-                    return order;
+                    order.setId(rs.getLong("id"));
                 } else {
                     log.error("ResultSet is empty when creating order: {}", order);
                     throw new DaoException("Failed to get generated id for order");
                 }
             }
-        } catch (SQLException e) {
-            log.error("SQL error saving order: {}", order, e);
-            throw new DaoException("Error saving order: " + order, e);
+        }
+    }
+
+    private static void updateUserOrderStats(Connection connection, Order order) throws SQLException {
+        try (PreparedStatement ps = SqlStatements.USER_ORDER_STATS_UPSERT.prepare(connection)) {
+            ps.setLong(1, order.getUserId());
+            ps.setBigDecimal(2, order.getTotalAmount());
+            ps.executeUpdate();
+        }
+    }
+
+    // One upsert for all users of the given orders, in the caller's transaction.
+    static void updateUserOrderStats(Connection connection, List<Order> orders) throws SQLException {
+        Map<Long, BigDecimal> totals = new LinkedHashMap<>();
+        Map<Long, Integer> counts = new LinkedHashMap<>();
+        for (Order order : orders) {
+            totals.merge(order.getUserId(), order.getTotalAmount(), BigDecimal::add);
+            counts.merge(order.getUserId(), 1, Integer::sum);
+        }
+
+        try (PreparedStatement ps = SqlStatements.USER_ORDER_STATS_UPSERT_BULK.prepare(connection)) {
+            ps.setArray(1, connection.createArrayOf("bigint", totals.keySet().toArray()));
+            ps.setArray(2, connection.createArrayOf("numeric", totals.values().toArray()));
+            ps.setArray(3, connection.createArrayOf("integer", counts.values().toArray()));
+            ps.executeUpdate();
         }
     }
 
     @Override
     public List<Order> findAllOrdersByUserId(Long userId) {
-        String sql = "SELECT id, user_id, ordered_products, total_amount FROM orders WHERE user_id = ?";
         log.debug("findAllOrdersByUserId() called with userId = {}", userId);
+        DaoOperationEvent event = DaoOperationEvent.begin(JdbcOrderDao.class, "findAllOrdersByUserId")
+                .userId(userId);
 
         List<Order> userOrders = new ArrayList<>();
         try (Connection connection = ConnectionManager.getConnection();
-             PreparedStatement ps = connection.prepareStatement(sql)) {
+             PreparedStatement ps = SqlStatements.ORDER_FIND_BY_USER_ID.prepare(connection)) {
             ps.setLong(1, userId);
             try (ResultSet rs = ps.executeQuery()) {
                 while (rs.next()) {
                     userOrders.add(mapRowToOrder(rs));
                 }
-                log.info("{} userOrders found", userOrders.size());
+                event.rowsAffected(userOrders.size());
+                log.debug("{} userOrders found", userOrders.size());
             }
+            event.succeeded();
         } catch (SQLException e) {
             log.error("SQL error getting all userOrders by userId = {}", userId, e);
             throw new DaoException("Error getting all userOrders by userId = " + userId, e);
+        } finally {
+            event.finish();
         }
         return userOrders;
     }
 
     @Override
     public List<Order> findAllOrders() {
-        String sql = "SELECT id, user_id, ordered_products, total_amount FROM orders";
         log.debug("findAllOrders() called");
+        DaoOperationEvent event = DaoOperationEvent.begin(JdbcOrderDao.class, "findAllOrders");
 
         List<Order> orders = new ArrayList<>();
         try (Connection connection = ConnectionManager.getConnection();
-             PreparedStatement ps = connection.prepareStatement(sql);
+             PreparedStatement ps = SqlStatements.ORDER_FIND_ALL.prepare(connection);
              ResultSet rs = ps.executeQuery()) {
             while (rs.next()) {
                 orders.add(mapRowToOrder(rs));
             }
-            log.info("{} orders found", orders.size());
+            event.rowsAffected(orders.size());
+            log.debug("{} orders found", orders.size());
+            event.succeeded();
         } catch (SQLException e) {
             log.error("SQL error receiving all orders", e);
             throw new DaoException("Error receiving all orders", e);
+        } finally {
+            event.finish();
         }
         return orders;
     }
 
+    // Timestamps are microseconds since the epoch, the precision of timestamptz.
+    public int streamOrderColumnsCreatedAfter(long createdAfterMicros, OrderColumnsConsumer consumer) {
+        log.debug("streamOrderColumnsCreatedAfter() called with createdAfterMicros = {}", createdAfterMicros);
+        DaoOperationEvent event = DaoOperationEvent.begin(JdbcOrderDao.class, "streamOrderColumnsCreatedAfter");
+
+        int rows = 0;
+        try (Connection connection = ConnectionManager.getConnection()) {
+            boolean autoCommit = connection.getAutoCommit();
+            connection.setAutoCommit(false);
+            try (PreparedStatement ps = SqlStatements.ORDER_STREAM_COLUMNS_CREATED_AFTER.prepare(connection)) {
+                ps.setFetchSize(STREAM_FETCH_SIZE);
+                ps.setObject(1, OffsetDateTime.ofInstant(
+                        Instant.EPOCH.plus(createdAfterMicros, ChronoUnit.MICROS), ZoneOffset.UTC));
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        consumer.accept(
+                                rs.getLong("id"),
+                                rs.getLong("user_id"),
+                                rs.getBigDecimal("total_amount").movePointRight(2).longValueExact(),
+                                ChronoUnit.MICROS.between(Instant.EPOCH,
+                                        rs.getObject("created_at", OffsetDateTime.class).toInstant())
+                        );
+                        rows++;
+                    }
+                }
+                connection.commit();
+            } catch (SQLException | RuntimeException e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                connection.setAutoCommit(autoCommit);
+            }
+            event.rowsAffected(rows);
+            log.debug("{} orders streamed created after {} us", rows, createdAfterMicros);
+            event.succeeded();
+            return rows;
+        } catch (SQLException e) {
+            log.error("SQL error streaming orders created after {} us", createdAfterMicros, e);
+            throw new DaoException("Error streaming orders created after " + createdAfterMicros + " us", e);
+        } finally {
+            event.finish();
+        }
+    }
+
     private static Order mapRowToOrder(ResultSet rs) throws SQLException {
         return new Order(
                 rs.getLong("id"),
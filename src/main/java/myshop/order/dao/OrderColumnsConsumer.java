@@ -0,0 +1,6 @@
+package myshop.order.dao;
+
+@FunctionalInterface
+public interface OrderColumnsConsumer {
+    void accept(long id, long userId, long totalAmountCents, long createdAtMicros);
+}
@@ -13,8 +13,11 @@ import java.math.BigDecimal;
 @AllArgsConstructor
 @NoArgsConstructor
 public class Order {
+    // Each instance takes ids from its own block of 50, so ids are not in commit order and must not serve
+    // as a "new orders" watermark (OrdersColumnarSnapshot follows created_at instead).
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "orders_id_seq")
+    @SequenceGenerator(name = "orders_id_seq", sequenceName = "orders_id_seq", allocationSize = 50)
     private Long id;
 
     @Column(name = "user_id", nullable = false)
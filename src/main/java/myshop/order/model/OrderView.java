@@ -0,0 +1,18 @@
+package myshop.order.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+// Unmanaged order row for listing pages, filled by a JPQL constructor expression.
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderView {
+    private Long id;
+    private Long userId;
+    private String orderedProducts;
+    private BigDecimal totalAmount;
+}
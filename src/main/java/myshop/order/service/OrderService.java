@@ -3,6 +3,9 @@ package myshop.order.service;
 import lombok.extern.log4j.Log4j2;
 import myshop.cart.dao.ShoppingCartDao;
 import myshop.cart.model.ShoppingCart;
+import myshop.common.db.ReplicaRouting;
+import myshop.common.jfr.PlaceOrderEvent;
+import myshop.common.jpa.UnitOfWork;
 import myshop.order.dao.OrderDao;
 import myshop.order.model.Order;
 import myshop.product.dao.ProductDao;
@@ -18,17 +21,45 @@ public class OrderService {
     private final ShoppingCartDao cartDao;
     private final ProductDao productDao;
     private final OrderDao orderDao;
+    private final boolean unitOfWork;
 
     public OrderService(ShoppingCartDao cartDao, ProductDao productDao, OrderDao orderDao) {
+        this(cartDao, productDao, orderDao, false);
+    }
+
+    // unitOfWork = true runs checkout with Hibernate DAOs in one persistence context and one commit.
+    public OrderService(ShoppingCartDao cartDao, ProductDao productDao, OrderDao orderDao, boolean unitOfWork) {
         this.cartDao = cartDao;
         this.productDao = productDao;
         this.orderDao = orderDao;
+        this.unitOfWork = unitOfWork;
     }
 
     public Order placeOrder(Long userId) {
         log.debug("placeOrder() called with userId = {}", userId);
+        PlaceOrderEvent event = PlaceOrderEvent.begin(userId);
 
+        try {
+            // Checkout reads the cart and prices it is about to act on, so none of it may come from a replica.
+            Order savedOrder = ReplicaRouting.onPrimary(() -> unitOfWork
+                    ? UnitOfWork.execute(() -> checkout(userId, event))
+                    : checkout(userId, event));
+            log.info("Order {} successfully placed for user {}. Total amount = {}.",
+                    savedOrder.getId(), userId, savedOrder.getTotalAmount());
+
+            event.placed(savedOrder.getId(), savedOrder.getTotalAmount());
+            return savedOrder;
+        } catch (RuntimeException e) {
+            event.failed();
+            throw e;
+        } finally {
+            event.finish();
+        }
+    }
+
+    private Order checkout(Long userId, PlaceOrderEvent event) {
         List<ShoppingCart> userCarts = cartDao.findByUserId(userId);
+        event.itemCount(userCarts.size());
 
         StringBuilder builder = new StringBuilder();
         BigDecimal totalAmount = BigDecimal.ZERO;
@@ -53,9 +84,6 @@ public class OrderService {
         log.debug("Order object before saving: {}", order);
         Order savedOrder = orderDao.saveOrder(order);
         cartDao.clearCart(userId);
-        log.info("Order {} successfully placed for user {}. Total amount = {}.",
-                savedOrder.getId(), userId, totalAmount);
-
         return savedOrder;
     }
 }
\ No newline at end of file
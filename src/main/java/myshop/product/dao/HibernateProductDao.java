@@ -2,15 +2,39 @@ package myshop.product.dao;
 
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.EntityTransaction;
+import jakarta.persistence.TypedQuery;
 import lombok.extern.log4j.Log4j2;
 import myshop.common.exception.DaoException;
+import myshop.common.exception.OptimisticLockConflictException;
+import myshop.common.jfr.DaoOperationEvent;
+import myshop.common.jfr.TransactionCommitEvent;
 import myshop.common.jpa.JpaUtil;
+import myshop.product.model.PriceRule;
 import myshop.product.model.Product;
+import myshop.product.model.ProductView;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
+import org.hibernate.Session;
+import org.hibernate.StatelessSession;
+import org.hibernate.Transaction;
 
+import java.math.BigDecimal;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
 
 @Log4j2
 public class HibernateProductDao implements ProductDao {
+    public static final String FIND_ALL_PRODUCTS_JPQL = "SELECT p FROM Product p";
+    public static final String FIND_ALL_PRODUCT_VIEWS_JPQL =
+            "SELECT new myshop.product.model.ProductView(p.id, p.productName, p.price) FROM Product p";
+    public static final String FIND_BY_PRICE_RANGE_JPQL =
+            "SELECT p FROM Product p WHERE p.price BETWEEN :minPrice AND :maxPrice ORDER BY p.price, p.id";
+    public static final String FIND_TOP_BY_PRICE_JPQL = "SELECT p FROM Product p ORDER BY p.price DESC, p.id";
+    public static final String FIND_ABOVE_PRICE_JPQL =
+            "SELECT p FROM Product p WHERE p.price > :price ORDER BY p.price, p.id";
+    public static final String STREAM_ALL_PRODUCTS_JPQL = "SELECT p FROM Product p ORDER BY p.id";
+
     @Override
     public Product createProduct(Product product) {
         if (product.getId() != null) {
@@ -18,6 +42,7 @@ public class HibernateProductDao implements ProductDao {
         }
 
         log.debug("createProduct() called with product = {}", product);
+        DaoOperationEvent event = DaoOperationEvent.begin(HibernateProductDao.class, "createProduct");
 
         EntityManager em = JpaUtil.getEntityManager();
         EntityTransaction transaction = em.getTransaction();
@@ -25,8 +50,10 @@ public class HibernateProductDao implements ProductDao {
         try {
             transaction.begin();
             em.persist(product);
-            transaction.commit();
-            log.info("Product successfully created with id = {}", product.getId());
+            TransactionCommitEvent.commit(transaction, HibernateProductDao.class, "createProduct");
+            event.rowsAffected(1);
+            log.debug("Product successfully created with id = {}", product.getId());
+            event.succeeded();
             return product;
         } catch (Exception e) {
             if (transaction.isActive()) {
@@ -37,30 +64,58 @@ public class HibernateProductDao implements ProductDao {
             throw new DaoException("Error creating product: " + product, e);
         } finally {
             em.close();
+            event.finish();
         }
     }
 
     @Override
     public List<Product> findAllProducts() {
         log.debug("findAllProducts() called");
+        DaoOperationEvent event = DaoOperationEvent.begin(HibernateProductDao.class, "findAllProducts");
         EntityManager em = JpaUtil.getEntityManager();
 
         try {
-            String jpql = "SELECT p FROM Product p";
-            List<Product> productList = em.createQuery(jpql, Product.class).getResultList();
-            log.info("{} products found", productList.size());
+            TypedQuery<Product> query = em.createQuery(FIND_ALL_PRODUCTS_JPQL, Product.class);
+            JpaUtil.setReadOnlyOutsideUnitOfWork(query);
+            List<Product> productList = query.getResultList();
+            event.rowsAffected(productList.size());
+            log.debug("{} products found", productList.size());
+            event.succeeded();
             return productList;
         } catch (Exception e) {
             log.error("Error getting all products", e);
             throw new DaoException("Error getting all products", e);
         } finally {
             em.close();
+            event.finish();
+        }
+    }
+
+    // Listing variant of findAllProducts(): a constructor expression, so no managed entities are created.
+    public List<ProductView> findAllProductViews() {
+        log.debug("findAllProductViews() called");
+        DaoOperationEvent event = DaoOperationEvent.begin(HibernateProductDao.class, "findAllProductViews");
+        EntityManager em = JpaUtil.getEntityManager();
+
+        try {
+            List<ProductView> views = em.createQuery(FIND_ALL_PRODUCT_VIEWS_JPQL, ProductView.class).getResultList();
+            event.rowsAffected(views.size());
+            log.debug("{} product views found", views.size());
+            event.succeeded();
+            return views;
+        } catch (Exception e) {
+            log.error("Error getting all product views", e);
+            throw new DaoException("Error getting all product views", e);
+        } finally {
+            em.close();
+            event.finish();
         }
     }
 
     @Override
     public Product findById(Long id) {
         log.debug("findById() called with id = {}", id);
+        DaoOperationEvent event = DaoOperationEvent.begin(HibernateProductDao.class, "findById");
         EntityManager em = JpaUtil.getEntityManager();
 
         try {
@@ -69,13 +124,101 @@ public class HibernateProductDao implements ProductDao {
                 throw new DaoException("Product with id = " + id + " not found");
             }
 
-            log.info("Product with id = {} found: {}", id, foundProduct);
+            event.rowsAffected(1);
+            log.debug("Product with id = {} found: {}", id, foundProduct);
+            event.succeeded();
             return foundProduct;
         } catch (Exception e) {
             log.error("Error finding product by id = {}", id, e);
             throw new DaoException("Error finding product by id = " + id, e);
         } finally {
             em.close();
+            event.finish();
+        }
+    }
+
+    @Override
+    public List<Product> findByPriceRange(BigDecimal minPrice, BigDecimal maxPrice) {
+        if (minPrice == null || maxPrice == null) {
+            throw new IllegalArgumentException("minPrice and maxPrice must not be null");
+        }
+        if (minPrice.compareTo(maxPrice) > 0) {
+            throw new IllegalArgumentException("minPrice must not be greater than maxPrice");
+        }
+
+        log.debug("findByPriceRange() called with minPrice = {}, maxPrice = {}", minPrice, maxPrice);
+        DaoOperationEvent event = DaoOperationEvent.begin(HibernateProductDao.class, "findByPriceRange");
+        EntityManager em = JpaUtil.getEntityManager();
+
+        try {
+            List<Product> products = em.createQuery(FIND_BY_PRICE_RANGE_JPQL, Product.class)
+                    .setParameter("minPrice", minPrice)
+                    .setParameter("maxPrice", maxPrice)
+                    .getResultList();
+            event.rowsAffected(products.size());
+            log.debug("{} products found in price range [{}, {}]", products.size(), minPrice, maxPrice);
+            event.succeeded();
+            return products;
+        } catch (Exception e) {
+            log.error("Error finding products in price range [{}, {}]", minPrice, maxPrice, e);
+            throw new DaoException("Error finding products in price range [" + minPrice + ", " + maxPrice + "]", e);
+        } finally {
+            em.close();
+            event.finish();
+        }
+    }
+
+    @Override
+    public List<Product> findTopByPrice(int n) {
+        if (n <= 0) {
+            throw new IllegalArgumentException("n must be > 0");
+        }
+
+        log.debug("findTopByPrice() called with n = {}", n);
+        DaoOperationEvent event = DaoOperationEvent.begin(HibernateProductDao.class, "findTopByPrice");
+        EntityManager em = JpaUtil.getEntityManager();
+
+        try {
+            List<Product> products = em.createQuery(FIND_TOP_BY_PRICE_JPQL, Product.class)
+                    .setMaxResults(n)
+                    .getResultList();
+            event.rowsAffected(products.size());
+            log.debug("{} most expensive products found", products.size());
+            event.succeeded();
+            return products;
+        } catch (Exception e) {
+            log.error("Error finding {} most expensive products", n, e);
+            throw new DaoException("Error finding " + n + " most expensive products", e);
+        } finally {
+            em.close();
+            event.finish();
+        }
+    }
+
+    @Override
+    public List<Product> findAbovePrice(BigDecimal price) {
+        if (price == null) {
+            throw new IllegalArgumentException("price must not be null");
+        }
+
+        log.debug("findAbovePrice() called with price = {}", price);
+        DaoOperationEvent event = DaoOperationEvent.begin(HibernateProductDao.class, "findAbovePrice");
+        EntityManager em = JpaUtil.getEntityManager();
+
+        try {
+            List<Product> products = em.createQuery(FIND_ABOVE_PRICE_JPQL, Product.class)
+                    .setParameter("price", price)
+                    .getResultList();
+            event.rowsAffected(products.size());
+            log.debug("{} products found priced above {}", products.size(), price);
+            event.succeeded();
+            return products;
+        } catch (Exception e) {
+            log.error("Error finding products priced above {}", price, e);
+            throw new DaoException("Error finding products priced above " + price, e);
+        } finally {
+            em.close();
+            event.finish();
         }
     }
 
@@ -86,29 +229,118 @@ public class HibernateProductDao implements ProductDao {
         }
 
         log.debug("updateProduct() called for product = {}", product);
+        DaoOperationEvent event = DaoOperationEvent.begin(HibernateProductDao.class, "updateProduct");
         EntityManager em = JpaUtil.getEntityManager();
         EntityTransaction transaction = em.getTransaction();
 
         try {
             transaction.begin();
-            em.merge(product);
-            transaction.commit();
-            log.info("Product with id = {} successfully updated", product.getId());
+
+            Product current = em.find(Product.class, product.getId());
+            if (current == null) {
+                throw new DaoException("Product with id = " + product.getId() + " not found, update failed");
+            }
+            if (product.getVersion() != null && !product.getVersion().equals(current.getVersion())) {
+                throw new OptimisticLockConflictException("Product with id = " + product.getId() +
+                        " was changed concurrently, update failed");
+            }
+
+            // The UPDATE at flush is checked against the version read above, so a write in between fails too.
+            current.setProductName(product.getProductName());
+            current.setPrice(product.getPrice());
+            TransactionCommitEvent.commit(transaction, HibernateProductDao.class, "updateProduct");
+            product.setVersion(current.getVersion());
+            event.rowsAffected(1);
+            log.debug("Product with id = {} successfully updated", product.getId());
+            event.succeeded();
         } catch (Exception e) {
             if (transaction.isActive()) {
                 transaction.rollback();
-                log.error("Error updating product: {}", product, e);
-                throw new DaoException("Error updating product: " + product, e);
             }
+
+            if (JpaUtil.isOptimisticLockFailure(e)) {
+                log.debug("Product with id = {} was changed concurrently", product.getId());
+                throw new OptimisticLockConflictException("Error updating product: " + product, e);
+            }
+            log.error("Error updating product: {}", product, e);
+            throw new DaoException("Error updating product: " + product, e);
         } finally {
             em.close();
+            event.finish();
         }
+    }
 
+    @Override
+    public int updatePrices(Map<Long, BigDecimal> prices) {
+        JdbcProductDao.checkPrices(prices);
+        if (prices.isEmpty()) {
+            return 0;
+        }
+
+        log.debug("updatePrices() called for {} products", prices.size());
+        DaoOperationEvent event = DaoOperationEvent.begin(HibernateProductDao.class, "updatePrices");
+        EntityManager em = JpaUtil.getEntityManager();
+        EntityTransaction transaction = em.getTransaction();
+
+        try {
+            transaction.begin();
+            int updated = em.unwrap(Session.class).doReturningWork(connection ->
+                    JdbcProductDao.updatePriceChunks(connection, prices, JdbcProductDao.bulkChunkSize()));
+            TransactionCommitEvent.commit(transaction, HibernateProductDao.class, "updatePrices");
+            event.rowsAffected(updated);
+            log.debug("Prices of {} products updated", updated);
+            event.succeeded();
+            return updated;
+        } catch (Exception e) {
+            if (transaction.isActive()) {
+                transaction.rollback();
+            }
+
+            log.error("Error updating prices of {} products", prices.size(), e);
+            throw new DaoException("Error updating prices of " + prices.size() + " products", e);
+        } finally {
+            em.close();
+            event.finish();
+        }
+    }
+
+    @Override
+    public int applyPriceRule(PriceRule rule) {
+        if (rule == null) {
+            throw new IllegalArgumentException("rule must not be null");
+        }
+
+        log.debug("applyPriceRule() called with rule = {}", rule);
+        DaoOperationEvent event = DaoOperationEvent.begin(HibernateProductDao.class, "applyPriceRule");
+        EntityManager em = JpaUtil.getEntityManager();
+        EntityTransaction transaction = em.getTransaction();
+
+        try {
+            transaction.begin();
+            int updated = em.unwrap(Session.class).doReturningWork(connection ->
+                    JdbcProductDao.applyPriceRuleChunks(connection, rule, JdbcProductDao.bulkChunkSize()));
+            TransactionCommitEvent.commit(transaction, HibernateProductDao.class, "applyPriceRule");
+            event.rowsAffected(updated);
+            log.debug("Price rule {} applied to {} products", rule, updated);
+            event.succeeded();
+            return updated;
+        } catch (Exception e) {
+            if (transaction.isActive()) {
+                transaction.rollback();
+            }
+
+            log.error("Error applying price rule {}", rule, e);
+            throw new DaoException("Error applying price rule " + rule, e);
+        } finally {
+            em.close();
+            event.finish();
+        }
     }
 
     @Override
     public void deleteById(Long id) {
         log.debug("deleteById() called with id = {}", id);
+        DaoOperationEvent event = DaoOperationEvent.begin(HibernateProductDao.class, "deleteById");
         EntityManager em = JpaUtil.getEntityManager();
         EntityTransaction transaction = em.getTransaction();
 
@@ -121,8 +353,10 @@ public class HibernateProductDao implements ProductDao {
             }
 
             em.remove(productToDelete);
-            transaction.commit();
-            log.info("Product with id = {} successfully deleted", id);
+            TransactionCommitEvent.commit(transaction, HibernateProductDao.class, "deleteById");
+            event.rowsAffected(1);
+            log.debug("Product with id = {} successfully deleted", id);
+            event.succeeded();
         } catch (Exception e) {
             if (transaction.isActive()) {
                 transaction.rollback();
@@ -131,6 +365,80 @@ public class HibernateProductDao implements ProductDao {
             throw new DaoException("Error deleting product by id = " + id, e);
         } finally {
             em.close();
+            event.finish();
+        }
+    }
+
+    // Bulk insert through a StatelessSession: ids come from the pooled sequence, INSERTs go in JDBC batches.
+    public int createProducts(List<Product> products) {
+        for (Product product : products) {
+            if (product.getId() != null) {
+                throw new IllegalArgumentException("When creating a product, the id must be null");
+            }
+        }
+        if (products.isEmpty()) {
+            return 0;
+        }
+
+        log.debug("createProducts() called for {} products", products.size());
+        DaoOperationEvent event = DaoOperationEvent.begin(HibernateProductDao.class, "createProducts");
+
+        try (StatelessSession session = JpaUtil.openStatelessSession()) {
+            Transaction transaction = session.beginTransaction();
+            try {
+                session.insertMultiple(products);
+                TransactionCommitEvent.commit(transaction, HibernateProductDao.class, "createProducts");
+            } catch (RuntimeException e) {
+                if (transaction.isActive()) {
+                    transaction.rollback();
+                }
+                products.forEach(product -> product.setId(null));
+                throw e;
+            }
+
+            event.rowsAffected(products.size());
+            log.debug("{} products successfully created", products.size());
+            event.succeeded();
+            return products.size();
+        } catch (Exception e) {
+            log.error("Error creating {} products", products.size(), e);
+            throw new DaoException("Error creating " + products.size() + " products", e);
+        } finally {
+            event.finish();
+        }
+    }
+
+    // Export read through a StatelessSession: rows are passed to the consumer as they are fetched and are not kept.
+    public int streamAllProducts(Consumer<Product> consumer) {
+        log.debug("streamAllProducts() called");
+        DaoOperationEvent event = DaoOperationEvent.begin(HibernateProductDao.class, "streamAllProducts");
+
+        int count = 0;
+        try (StatelessSession session = JpaUtil.openStatelessSession()) {
+            Transaction transaction = session.beginTransaction();
+            try (ScrollableResults<Product> results = session
+                    .createSelectionQuery(STREAM_ALL_PRODUCTS_JPQL, Product.class)
+                    .setFetchSize(JpaUtil.bulkFetchSize())
+                    .scroll(ScrollMode.FORWARD_ONLY)) {
+                while (results.next()) {
+                    consumer.accept(results.get());
+                    count++;
+                }
+            } catch (RuntimeException e) {
+                transaction.rollback();
+                throw e;
+            }
+            transaction.commit();
+
+            event.rowsAffected(count);
+            log.debug("{} products streamed", count);
+            event.succeeded();
+            return count;
+        } catch (Exception e) {
+            log.error("Error streaming products after {} rows", count, e);
+            throw new DaoException("Error streaming products", e);
+        } finally {
+            event.finish();
         }
     }
-}
\ No newline at end of file
+}
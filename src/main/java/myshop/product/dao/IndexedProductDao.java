@@ -0,0 +1,159 @@
+package myshop.product.dao;
+
+import lombok.extern.log4j.Log4j2;
+import myshop.product.index.ProductPriceIndex;
+import myshop.product.model.PriceRule;
+import myshop.product.model.Product;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+@Log4j2
+public class IndexedProductDao implements ProductDao {
+    private final ProductDao delegate;
+    private final ProductPriceIndex index;
+    private final Object reloadLock = new Object();
+    // Guarded by this: bumped after every write through this DAO, so a reload can tell its snapshot may miss one.
+    private long generation;
+    private volatile boolean loaded;
+
+    public IndexedProductDao(ProductDao delegate) {
+        this(delegate, new ProductPriceIndex());
+    }
+
+    public IndexedProductDao(ProductDao delegate, ProductPriceIndex index) {
+        this.delegate = delegate;
+        this.index = index;
+    }
+
+    // Re-reads all products, e.g. after changes made outside this DAO. Returns false without publishing
+    // when a write through this DAO finished while the products were being read.
+    public boolean reload() {
+        synchronized (reloadLock) {
+            long started;
+            synchronized (this) {
+                started = generation;
+            }
+            List<Product> products = delegate.findAllProducts();
+            synchronized (this) {
+                if (generation != started) {
+                    log.debug("Product price index reload discarded: products changed while reading");
+                    return false;
+                }
+                index.load(products);
+                loaded = true;
+            }
+            log.debug("Product price index loaded with {} products", products.size());
+            return true;
+        }
+    }
+
+    @Override
+    public Product createProduct(Product product) {
+        Product created = delegate.createProduct(product);
+        written(index -> index.put(created));
+        return created;
+    }
+
+    @Override
+    public List<Product> findAllProducts() {
+        return delegate.findAllProducts();
+    }
+
+    @Override
+    public Product findById(Long id) {
+        return delegate.findById(id);
+    }
+
+    @Override
+    public List<Product> findByPriceRange(BigDecimal minPrice, BigDecimal maxPrice) {
+        if (minPrice == null || maxPrice == null) {
+            throw new IllegalArgumentException("minPrice and maxPrice must not be null");
+        }
+        if (minPrice.compareTo(maxPrice) > 0) {
+            throw new IllegalArgumentException("minPrice must not be greater than maxPrice");
+        }
+
+        ProductPriceIndex current = index();
+        return current != null
+                ? current.findByPriceRange(minPrice, maxPrice)
+                : delegate.findByPriceRange(minPrice, maxPrice);
+    }
+
+    @Override
+    public List<Product> findTopByPrice(int n) {
+        if (n <= 0) {
+            throw new IllegalArgumentException("n must be > 0");
+        }
+
+        ProductPriceIndex current = index();
+        return current != null ? current.findTopByPrice(n) : delegate.findTopByPrice(n);
+    }
+
+    @Override
+    public List<Product> findAbovePrice(BigDecimal price) {
+        if (price == null) {
+            throw new IllegalArgumentException("price must not be null");
+        }
+
+        ProductPriceIndex current = index();
+        return current != null ? current.findAbovePrice(price) : delegate.findAbovePrice(price);
+    }
+
+    @Override
+    public void updateProduct(Product product) {
+        delegate.updateProduct(product);
+        written(index -> index.put(product));
+    }
+
+    // Bulk price changes drop the whole index; it is reloaded by the next price query.
+    @Override
+    public int updatePrices(Map<Long, BigDecimal> prices) {
+        try {
+            return delegate.updatePrices(prices);
+        } finally {
+            invalidate();
+        }
+    }
+
+    @Override
+    public int applyPriceRule(PriceRule rule) {
+        try {
+            return delegate.applyPriceRule(rule);
+        } finally {
+            invalidate();
+        }
+    }
+
+    @Override
+    public void deleteById(Long id) {
+        delegate.deleteById(id);
+        written(index -> index.remove(id));
+    }
+
+    private synchronized void written(Consumer<ProductPriceIndex> change) {
+        generation++;
+        if (loaded) {
+            change.accept(index);
+        }
+    }
+
+    private synchronized void invalidate() {
+        generation++;
+        loaded = false;
+    }
+
+    // Null when the index could not be loaded without missing a concurrent write; the query then goes to the delegate.
+    private ProductPriceIndex index() {
+        if (!loaded) {
+            synchronized (reloadLock) {
+                if (!loaded && !reload()) {
+                    return null;
+                }
+            }
+        }
+        return index;
+    }
+}
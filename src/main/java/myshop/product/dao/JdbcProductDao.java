@@ -1,39 +1,50 @@
 package myshop.product.dao;
 
 import lombok.extern.log4j.Log4j2;
+import myshop.common.config.ShopConfig;
 import myshop.common.db.ConnectionManager;
+import myshop.common.db.SqlStatements;
 import myshop.common.exception.DaoException;
+import myshop.common.exception.OptimisticLockConflictException;
+import myshop.common.jfr.DaoOperationEvent;
+import myshop.product.model.PriceRule;
 import myshop.product.model.Product;
 
+import java.math.BigDecimal;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
 
 @Log4j2
 public class JdbcProductDao implements ProductDao {
-
     @Override
     public Product createProduct(Product product) {
         if (product.getId() != null) {
             throw new IllegalArgumentException("When creating a product, the id must be null");
         }
 
-        String sql = "INSERT INTO products (product_name, price) VALUES (?, ?) RETURNING id";
 
         log.debug("createProduct() called with product = {}", product);
+        DaoOperationEvent event = DaoOperationEvent.begin(JdbcProductDao.class, "createProduct");
 
         try (Connection connection = ConnectionManager.getConnection();
-             PreparedStatement ps = connection.prepareStatement(sql)) {
+             PreparedStatement ps = SqlStatements.PRODUCT_INSERT.prepare(connection)) {
             ps.setString(1, product.getProductName());
             ps.setBigDecimal(2, product.getPrice());
             try (ResultSet rs = ps.executeQuery()) {
                 if (rs.next()) {
                     Long generatedId = rs.getLong("id");
                     product.setId(generatedId);
-                    log.info("Product successfully created, id = {}", generatedId);
+                    product.setVersion(rs.getLong("version"));
+                    event.rowsAffected(1);
+                    log.debug("Product successfully created, id = {}", generatedId);
+                    event.succeeded();
                     return product;
                 } else {
                     log.error("ResultSet is empty when creating product: {}", product);
@@ -43,52 +54,160 @@ public class JdbcProductDao implements ProductDao {
         } catch (SQLException e) {
             log.error("SQL error creating product: {}", product, e);
             throw new DaoException("Error creating product: " + product, e);
+        } finally {
+            event.finish();
         }
     }
 
     @Override
     public List<Product> findAllProducts() {
-        String sql = "SELECT id, product_name, price FROM products";
         log.debug("findAllProducts() called");
+        DaoOperationEvent event = DaoOperationEvent.begin(JdbcProductDao.class, "findAllProducts");
 
         List<Product> products = new ArrayList<>();
         try (Connection connection = ConnectionManager.getConnection();
-             PreparedStatement ps = connection.prepareStatement(sql);
+             PreparedStatement ps = SqlStatements.PRODUCT_FIND_ALL.prepare(connection);
              ResultSet rs = ps.executeQuery()) {
             while (rs.next()) {
                 products.add(mapRowToProduct(rs));
             }
 
-            log.info("{} products found", products.size());
+            event.rowsAffected(products.size());
+            log.debug("{} products found", products.size());
+            event.succeeded();
         } catch (SQLException e) {
             log.error("SQL error while getting all products", e);
             throw new DaoException("Error receiving all products", e);
+        } finally {
+            event.finish();
         }
         return products;
     }
 
     @Override
     public Product findById(Long id) {
-        String sql = "SELECT id, product_name, price FROM products WHERE id = ?";
         log.debug("findById() called with id = {}", id);
+        DaoOperationEvent event = DaoOperationEvent.begin(JdbcProductDao.class, "findById");
 
         try (Connection connection = ConnectionManager.getConnection();
-             PreparedStatement ps = connection.prepareStatement(sql)) {
+             PreparedStatement ps = SqlStatements.PRODUCT_FIND_BY_ID.prepare(connection)) {
             ps.setLong(1, id);
             try (ResultSet rs = ps.executeQuery()) {
                 if (rs.next()) {
                     Product product = mapRowToProduct(rs);
-                    log.info("Product with id = {} found: {}", id, product);
+                    event.rowsAffected(1);
+                    log.debug("Product with id = {} found: {}", id, product);
+                    event.succeeded();
                     return product;
                 } else {
-                    log.info("Product with id = {} not found", id);
+                    log.debug("Product with id = {} not found", id);
+                    event.succeeded();
                     return null;
                 }
             }
         } catch (SQLException e) {
             log.error("SQL error while searching for product by id = {}", id, e);
             throw new DaoException("Error getting product by ID = " + id, e);
+        } finally {
+            event.finish();
+        }
+    }
+
+    @Override
+    public List<Product> findByPriceRange(BigDecimal minPrice, BigDecimal maxPrice) {
+        if (minPrice == null || maxPrice == null) {
+            throw new IllegalArgumentException("minPrice and maxPrice must not be null");
+        }
+        if (minPrice.compareTo(maxPrice) > 0) {
+            throw new IllegalArgumentException("minPrice must not be greater than maxPrice");
+        }
+
+        log.debug("findByPriceRange() called with minPrice = {}, maxPrice = {}", minPrice, maxPrice);
+        DaoOperationEvent event = DaoOperationEvent.begin(JdbcProductDao.class, "findByPriceRange");
+
+        List<Product> products = new ArrayList<>();
+        try (Connection connection = ConnectionManager.getConnection();
+             PreparedStatement ps = SqlStatements.PRODUCT_FIND_BY_PRICE_RANGE.prepare(connection)) {
+            ps.setBigDecimal(1, minPrice);
+            ps.setBigDecimal(2, maxPrice);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    products.add(mapRowToProduct(rs));
+                }
+            }
+
+            event.rowsAffected(products.size());
+            log.debug("{} products found in price range [{}, {}]", products.size(), minPrice, maxPrice);
+            event.succeeded();
+        } catch (SQLException e) {
+            log.error("SQL error while searching for products in price range [{}, {}]", minPrice, maxPrice, e);
+            throw new DaoException("Error getting products in price range [" + minPrice + ", " + maxPrice + "]", e);
+        } finally {
+            event.finish();
+        }
+        return products;
+    }
+
+    @Override
+    public List<Product> findTopByPrice(int n) {
+        if (n <= 0) {
+            throw new IllegalArgumentException("n must be > 0");
         }
+
+        log.debug("findTopByPrice() called with n = {}", n);
+        DaoOperationEvent event = DaoOperationEvent.begin(JdbcProductDao.class, "findTopByPrice");
+
+        List<Product> products = new ArrayList<>();
+        try (Connection connection = ConnectionManager.getConnection();
+             PreparedStatement ps = SqlStatements.PRODUCT_FIND_TOP_BY_PRICE.prepare(connection)) {
+            ps.setInt(1, n);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    products.add(mapRowToProduct(rs));
+                }
+            }
+
+            event.rowsAffected(products.size());
+            log.debug("{} most expensive products found", products.size());
+            event.succeeded();
+        } catch (SQLException e) {
+            log.error("SQL error while getting {} most expensive products", n, e);
+            throw new DaoException("Error getting " + n + " most expensive products", e);
+        } finally {
+            event.finish();
+        }
+        return products;
+    }
+
+    @Override
+    public List<Product> findAbovePrice(BigDecimal price) {
+        if (price == null) {
+            throw new IllegalArgumentException("price must not be null");
+        }
+
+        log.debug("findAbovePrice() called with price = {}", price);
+        DaoOperationEvent event = DaoOperationEvent.begin(JdbcProductDao.class, "findAbovePrice");
+
+        List<Product> products = new ArrayList<>();
+        try (Connection connection = ConnectionManager.getConnection();
+             PreparedStatement ps = SqlStatements.PRODUCT_FIND_ABOVE_PRICE.prepare(connection)) {
+            ps.setBigDecimal(1, price);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    products.add(mapRowToProduct(rs));
+                }
+            }
+
+            event.rowsAffected(products.size());
+            log.debug("{} products found priced above {}", products.size(), price);
+            event.succeeded();
+        } catch (SQLException e) {
+            log.error("SQL error while searching for products priced above {}", price, e);
+            throw new DaoException("Error getting products priced above " + price, e);
+        } finally {
+            event.finish();
+        }
+        return products;
     }
 
     @Override
@@ -97,47 +216,215 @@ public class JdbcProductDao implements ProductDao {
             throw new IllegalArgumentException("You cannot update a product without an ID");
         }
 
-        String sql = "UPDATE products SET product_name = ?, price = ? WHERE id = ?";
         log.debug("updateProduct() called with product = {}", product);
+        DaoOperationEvent event = DaoOperationEvent.begin(JdbcProductDao.class, "updateProduct");
 
+        boolean versioned = product.getVersion() != null;
         try (Connection connection = ConnectionManager.getConnection();
-             PreparedStatement ps = connection.prepareStatement(sql)) {
+             PreparedStatement ps = (versioned ? SqlStatements.PRODUCT_UPDATE_VERSIONED
+                     : SqlStatements.PRODUCT_UPDATE).prepare(connection)) {
             ps.setString(1, product.getProductName());
             ps.setBigDecimal(2, product.getPrice());
             ps.setLong(3, product.getId());
-            int updatedRow = ps.executeUpdate();
-            if (updatedRow == 0) {
-                log.warn("Product with id = {} not found, update failed", product.getId());
-                throw new DaoException("Product with id = " + product.getId() +
-                        " not found, update failed");
+            if (versioned) {
+                ps.setLong(4, product.getVersion());
+            }
+            try (ResultSet rs = ps.executeQuery()) {
+                if (!rs.next()) {
+                    if (versioned && exists(connection, product.getId())) {
+                        log.debug("Product with id = {} was changed concurrently, version {} is stale",
+                                product.getId(), product.getVersion());
+                        throw new OptimisticLockConflictException("Product with id = " + product.getId() +
+                                " was changed concurrently, update failed");
+                    }
+                    log.warn("Product with id = {} not found, update failed", product.getId());
+                    throw new DaoException("Product with id = " + product.getId() +
+                            " not found, update failed");
+                }
+                product.setVersion(rs.getLong("version"));
             }
 
-            log.info("Product with id = {} successfully updated", product.getId());
+            event.rowsAffected(1);
+            log.debug("Product with id = {} successfully updated", product.getId());
+            event.succeeded();
         } catch (SQLException e) {
             log.error("SQL error updating product: {}", product, e);
             throw new DaoException("Error updating product: " + product, e);
+        } finally {
+            event.finish();
+        }
+    }
+
+    @Override
+    public int updatePrices(Map<Long, BigDecimal> prices) {
+        checkPrices(prices);
+        if (prices.isEmpty()) {
+            return 0;
+        }
+
+        log.debug("updatePrices() called for {} products", prices.size());
+        DaoOperationEvent event = DaoOperationEvent.begin(JdbcProductDao.class, "updatePrices");
+
+        try (Connection connection = ConnectionManager.getConnection()) {
+            boolean autoCommit = connection.getAutoCommit();
+            connection.setAutoCommit(false);
+            try {
+                int updated = updatePriceChunks(connection, prices, bulkChunkSize());
+                connection.commit();
+                event.rowsAffected(updated);
+                log.debug("Prices of {} products updated", updated);
+                event.succeeded();
+                return updated;
+            } catch (SQLException | RuntimeException e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                connection.setAutoCommit(autoCommit);
+            }
+        } catch (SQLException e) {
+            log.error("SQL error updating prices of {} products", prices.size(), e);
+            throw new DaoException("Error updating prices of " + prices.size() + " products", e);
+        } finally {
+            event.finish();
+        }
+    }
+
+    @Override
+    public int applyPriceRule(PriceRule rule) {
+        if (rule == null) {
+            throw new IllegalArgumentException("rule must not be null");
+        }
+
+        log.debug("applyPriceRule() called with rule = {}", rule);
+        DaoOperationEvent event = DaoOperationEvent.begin(JdbcProductDao.class, "applyPriceRule");
+
+        try (Connection connection = ConnectionManager.getConnection()) {
+            boolean autoCommit = connection.getAutoCommit();
+            connection.setAutoCommit(false);
+            try {
+                int updated = applyPriceRuleChunks(connection, rule, bulkChunkSize());
+                connection.commit();
+                event.rowsAffected(updated);
+                log.debug("Price rule {} applied to {} products", rule, updated);
+                event.succeeded();
+                return updated;
+            } catch (SQLException | RuntimeException e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                connection.setAutoCommit(autoCommit);
+            }
+        } catch (SQLException e) {
+            log.error("SQL error applying price rule {}", rule, e);
+            throw new DaoException("Error applying price rule " + rule, e);
+        } finally {
+            event.finish();
         }
     }
 
     @Override
     public void deleteById(Long id) {
-        String sql = "DELETE FROM products WHERE id = ?";
         log.debug("deleteById() called with id = {}", id);
+        DaoOperationEvent event = DaoOperationEvent.begin(JdbcProductDao.class, "deleteById");
 
         try (Connection connection = ConnectionManager.getConnection();
-             PreparedStatement ps = connection.prepareStatement(sql)) {
+             PreparedStatement ps = SqlStatements.PRODUCT_DELETE.prepare(connection)) {
             ps.setLong(1, id);
             int deletedRow = ps.executeUpdate();
+            event.rowsAffected(deletedRow);
             if (deletedRow == 0) {
                 log.warn("Product with id = {} not found, deletion failed", id);
                 throw new DaoException("Product with id = " + id +
                         " not found, deletion failed");
             }
 
-            log.info("Product with id = {} successfully deleted", id );
+            log.debug("Product with id = {} successfully deleted", id );
+            event.succeeded();
         } catch (SQLException e) {
             log.error("SQL error when deleting product with id = {}", id, e);
             throw new DaoException("Error deleting product by ID = " + id, e);
+        } finally {
+            event.finish();
+        }
+    }
+
+    static int bulkChunkSize() {
+        return ShopConfig.get().getInt("product.bulk-update.chunk-size", 1000);
+    }
+
+    static void checkPrices(Map<Long, BigDecimal> prices) {
+        if (prices == null) {
+            throw new IllegalArgumentException("prices must not be null");
+        }
+        prices.forEach((id, price) -> {
+            if (id == null || price == null) {
+                throw new IllegalArgumentException("Product ids and prices must not be null");
+            }
+            if (price.signum() < 0) {
+                throw new IllegalArgumentException("Price of product with id = " + id + " must not be negative");
+            }
+        });
+    }
+
+    // One UPDATE ... FROM unnest statement per chunk, in the caller's transaction. Chunks go in id order,
+    // so concurrent repricings of overlapping products lock them in the same order instead of deadlocking.
+    static int updatePriceChunks(Connection connection, Map<Long, BigDecimal> prices, int chunkSize)
+            throws SQLException {
+        int updated = 0;
+        Iterator<Map.Entry<Long, BigDecimal>> entries = new TreeMap<>(prices).entrySet().iterator();
+        int remaining = prices.size();
+        try (PreparedStatement ps = SqlStatements.PRODUCT_UPDATE_PRICES.prepare(connection)) {
+            while (remaining > 0) {
+                int size = Math.min(chunkSize, remaining);
+                Long[] ids = new Long[size];
+                BigDecimal[] values = new BigDecimal[size];
+                for (int i = 0; i < size; i++) {
+                    Map.Entry<Long, BigDecimal> entry = entries.next();
+                    ids[i] = entry.getKey();
+                    values[i] = entry.getValue();
+                }
+                remaining -= size;
+
+                ps.setArray(1, connection.createArrayOf("bigint", ids));
+                ps.setArray(2, connection.createArrayOf("numeric", values));
+                updated += ps.executeUpdate();
+            }
+        }
+        return updated;
+    }
+
+    // Walks matching products in id order, one UPDATE statement per chunk, in the caller's transaction.
+    static int applyPriceRuleChunks(Connection connection, PriceRule rule, int chunkSize) throws SQLException {
+        int updated = 0;
+        long afterId = 0;
+        try (PreparedStatement ps = SqlStatements.PRODUCT_APPLY_PRICE_RULE.prepare(connection)) {
+            while (true) {
+                ps.setBigDecimal(1, rule.multiplier());
+                ps.setLong(2, afterId);
+                ps.setBigDecimal(3, rule.minPrice());
+                ps.setBigDecimal(4, rule.maxPrice());
+                ps.setInt(5, chunkSize);
+                int rows = 0;
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        rows++;
+                        afterId = Math.max(afterId, rs.getLong("id"));
+                    }
+                }
+                updated += rows;
+                if (rows < chunkSize) {
+                    return updated;
+                }
+            }
+        }
+    }
+
+    private static boolean exists(Connection connection, Long id) throws SQLException {
+        try (PreparedStatement ps = SqlStatements.PRODUCT_FIND_BY_ID.prepare(connection)) {
+            ps.setLong(1, id);
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next();
+            }
         }
     }
 
@@ -145,7 +432,8 @@ public class JdbcProductDao implements ProductDao {
         return new Product(
                 rs.getLong("id"),
                 rs.getString("product_name"),
-                rs.getBigDecimal("price")
+                rs.getBigDecimal("price"),
+                rs.getLong("version")
         );
     }
-}
\ No newline at end of file
+}
@@ -1,8 +1,13 @@
 package myshop.product.dao;
 
+import myshop.common.db.OptimisticRetry;
+import myshop.product.model.PriceRule;
 import myshop.product.model.Product;
 
+import java.math.BigDecimal;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
 
 public interface ProductDao {
     Product createProduct(Product product);
@@ -11,7 +16,35 @@ public interface ProductDao {
 
     Product findById(Long id);
 
+    List<Product> findByPriceRange(BigDecimal minPrice, BigDecimal maxPrice);
+
+    List<Product> findTopByPrice(int n);
+
+    List<Product> findAbovePrice(BigDecimal price);
+
+    // With a non-null version the write succeeds only if the row still has it and throws
+    // OptimisticLockConflictException otherwise; the product then carries the new version.
     void updateProduct(Product product);
 
+    // Read-modify-write of one product: re-reads and re-applies the change when a concurrent update wins.
+    default Product modifyProduct(Long id, Consumer<Product> change) {
+        if (id == null || change == null) {
+            throw new IllegalArgumentException("id and change must not be null");
+        }
+
+        return OptimisticRetry.execute("modifyProduct", () -> {
+            Product product = findById(id);
+            change.accept(product);
+            updateProduct(product);
+            return product;
+        });
+    }
+
+    // Sets the given prices in one transaction; unknown ids are skipped. Returns the number of updated products.
+    int updatePrices(Map<Long, BigDecimal> prices);
+
+    // Applies the rule to all matching products in one transaction. Returns the number of updated products.
+    int applyPriceRule(PriceRule rule);
+
     void deleteById(Long id);
 }
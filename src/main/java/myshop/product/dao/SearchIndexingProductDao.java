@@ -0,0 +1,130 @@
+package myshop.product.dao;
+
+import lombok.extern.log4j.Log4j2;
+import myshop.common.db.ReplicaRouting;
+import myshop.product.model.PriceRule;
+import myshop.product.model.Product;
+import myshop.product.search.InMemoryProductSearch;
+import myshop.product.search.ProductSearch;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+@Log4j2
+public class SearchIndexingProductDao implements ProductDao, ProductSearch {
+    private final ProductDao delegate;
+    private final InMemoryProductSearch index;
+    private final Object reloadLock = new Object();
+    // Guarded by this: bumped after every write through this DAO, so a reload can tell its snapshot may miss one.
+    private long generation;
+    private volatile boolean loaded;
+
+    public SearchIndexingProductDao(ProductDao delegate) {
+        this(delegate, new InMemoryProductSearch());
+    }
+
+    public SearchIndexingProductDao(ProductDao delegate, InMemoryProductSearch index) {
+        this.delegate = delegate;
+        this.index = index;
+    }
+
+    // Re-reads all products, e.g. after changes made outside this DAO. Returns false without publishing
+    // when a write through this DAO finished while the products were being read.
+    public boolean reload() {
+        synchronized (reloadLock) {
+            long started;
+            synchronized (this) {
+                started = generation;
+            }
+            // A lagging replica could miss writes already counted in generation.
+            List<Product> products = ReplicaRouting.onPrimary(delegate::findAllProducts);
+            synchronized (this) {
+                if (generation != started) {
+                    log.debug("Product search index reload discarded: products changed while reading");
+                    return false;
+                }
+                index.load(products);
+                loaded = true;
+            }
+            log.debug("Product search index loaded with {} products", products.size());
+            return true;
+        }
+    }
+
+    // There is no database fallback for the search, so a discarded reload is simply repeated.
+    @Override
+    public List<Long> search(String query, int limit) {
+        if (!loaded) {
+            synchronized (reloadLock) {
+                while (!loaded && !reload()) {
+                    log.debug("Retrying product search index reload");
+                }
+            }
+        }
+        return index.search(query, limit);
+    }
+
+    @Override
+    public Product createProduct(Product product) {
+        Product created = delegate.createProduct(product);
+        written(index -> index.put(created));
+        return created;
+    }
+
+    @Override
+    public List<Product> findAllProducts() {
+        return delegate.findAllProducts();
+    }
+
+    @Override
+    public Product findById(Long id) {
+        return delegate.findById(id);
+    }
+
+    @Override
+    public List<Product> findByPriceRange(BigDecimal minPrice, BigDecimal maxPrice) {
+        return delegate.findByPriceRange(minPrice, maxPrice);
+    }
+
+    @Override
+    public List<Product> findTopByPrice(int n) {
+        return delegate.findTopByPrice(n);
+    }
+
+    @Override
+    public List<Product> findAbovePrice(BigDecimal price) {
+        return delegate.findAbovePrice(price);
+    }
+
+    @Override
+    public void updateProduct(Product product) {
+        delegate.updateProduct(product);
+        written(index -> index.put(product));
+    }
+
+    // Bulk price changes leave the names, and so the search index, as they are.
+    @Override
+    public int updatePrices(Map<Long, BigDecimal> prices) {
+        return delegate.updatePrices(prices);
+    }
+
+    @Override
+    public int applyPriceRule(PriceRule rule) {
+        return delegate.applyPriceRule(rule);
+    }
+
+    @Override
+    public void deleteById(Long id) {
+        delegate.deleteById(id);
+        written(index -> index.remove(id));
+    }
+
+    private synchronized void written(Consumer<InMemoryProductSearch> change) {
+        generation++;
+        if (loaded) {
+            change.accept(index);
+        }
+    }
+}
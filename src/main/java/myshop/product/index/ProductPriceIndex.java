@@ -0,0 +1,204 @@
+package myshop.product.index;
+
+import myshop.product.model.Product;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Products sorted by (price in cents, id) in primitive arrays; range queries are two binary searches.
+ * Every change publishes a new copy, so reads never lock and writes cost O(n).
+ */
+public class ProductPriceIndex {
+    private volatile Entries entries = Entries.EMPTY;
+
+    public synchronized void load(Collection<Product> products) {
+        Product[] sorted = products.stream()
+                .map(ProductPriceIndex::stored)
+                .sorted(Comparator.comparingLong((Product p) -> toCents(p.getPrice())).thenComparingLong(Product::getId))
+                .toArray(Product[]::new);
+        long[] cents = new long[sorted.length];
+        long[] ids = new long[sorted.length];
+        for (int i = 0; i < sorted.length; i++) {
+            cents[i] = toCents(sorted[i].getPrice());
+            ids[i] = sorted[i].getId();
+        }
+        entries = new Entries(cents, ids, sorted);
+    }
+
+    public synchronized void put(Product product) {
+        if (product.getId() == null || product.getPrice() == null) {
+            throw new IllegalArgumentException("Indexed product must have id and price");
+        }
+
+        Entries current = remove(entries, product.getId());
+        long cents = toCents(product.getPrice());
+        int position = -(search(current, cents, product.getId()) + 1);
+        int size = current.size();
+
+        long[] newCents = new long[size + 1];
+        long[] newIds = new long[size + 1];
+        Product[] newProducts = new Product[size + 1];
+        copyWithGap(current, position, newCents, newIds, newProducts);
+        newCents[position] = cents;
+        newIds[position] = product.getId();
+        newProducts[position] = stored(product);
+        entries = new Entries(newCents, newIds, newProducts);
+    }
+
+    public synchronized void remove(long id) {
+        entries = remove(entries, id);
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public List<Product> findByPriceRange(BigDecimal minPrice, BigDecimal maxPrice) {
+        Entries current = entries;
+        int from = lowerBound(current.cents, minPrice.movePointRight(2).setScale(0, RoundingMode.CEILING).longValueExact());
+        int to = lowerBound(current.cents, maxPrice.movePointRight(2).setScale(0, RoundingMode.FLOOR).longValueExact() + 1);
+        return copyRange(current, from, to);
+    }
+
+    public List<Product> findAbovePrice(BigDecimal price) {
+        Entries current = entries;
+        int from = lowerBound(current.cents, price.movePointRight(2).setScale(0, RoundingMode.FLOOR).longValueExact() + 1);
+        return copyRange(current, from, current.size());
+    }
+
+    public List<Product> findTopByPrice(int n) {
+        Entries current = entries;
+        int size = current.size();
+        int count = Math.min(n, size);
+        List<Product> result = new ArrayList<>(count);
+        // Equal prices are ordered by id ascending, as in ORDER BY price DESC, id.
+        int end = size;
+        while (result.size() < count) {
+            long cents = current.cents[end - 1];
+            int start = lowerBound(current.cents, cents);
+            for (int i = start; i < end && result.size() < count; i++) {
+                result.add(copyOf(current.products[i]));
+            }
+            end = start;
+        }
+        return result;
+    }
+
+    private static Entries remove(Entries current, long id) {
+        int position = -1;
+        for (int i = 0; i < current.size(); i++) {
+            if (current.ids[i] == id) {
+                position = i;
+                break;
+            }
+        }
+        if (position < 0) {
+            return current;
+        }
+
+        int size = current.size() - 1;
+        long[] cents = new long[size];
+        long[] ids = new long[size];
+        Product[] products = new Product[size];
+        System.arraycopy(current.cents, 0, cents, 0, position);
+        System.arraycopy(current.ids, 0, ids, 0, position);
+        System.arraycopy(current.products, 0, products, 0, position);
+        System.arraycopy(current.cents, position + 1, cents, position, size - position);
+        System.arraycopy(current.ids, position + 1, ids, position, size - position);
+        System.arraycopy(current.products, position + 1, products, position, size - position);
+        return new Entries(cents, ids, products);
+    }
+
+    private static void copyWithGap(Entries current, int position, long[] cents, long[] ids, Product[] products) {
+        int tail = current.size() - position;
+        System.arraycopy(current.cents, 0, cents, 0, position);
+        System.arraycopy(current.ids, 0, ids, 0, position);
+        System.arraycopy(current.products, 0, products, 0, position);
+        System.arraycopy(current.cents, position, cents, position + 1, tail);
+        System.arraycopy(current.ids, position, ids, position + 1, tail);
+        System.arraycopy(current.products, position, products, position + 1, tail);
+    }
+
+    // Binary search on (cents, id); same contract as Arrays.binarySearch.
+    private static int search(Entries current, long cents, long id) {
+        int low = 0;
+        int high = current.size() - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            int cmp = current.cents[middle] != cents
+                    ? Long.compare(current.cents[middle], cents)
+                    : Long.compare(current.ids[middle], id);
+            if (cmp < 0) {
+                low = middle + 1;
+            } else if (cmp > 0) {
+                high = middle - 1;
+            } else {
+                return middle;
+            }
+        }
+        return -(low + 1);
+    }
+
+    // First position whose price is >= cents.
+    private static int lowerBound(long[] cents, long value) {
+        int low = 0;
+        int high = cents.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (cents[middle] < value) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private static List<Product> copyRange(Entries current, int from, int to) {
+        if (from >= to) {
+            return new ArrayList<>();
+        }
+        List<Product> result = new ArrayList<>(to - from);
+        for (int i = from; i < to; i++) {
+            result.add(copyOf(current.products[i]));
+        }
+        return result;
+    }
+
+    // Prices are indexed as NUMERIC(10,2) stores them: rounded half up to whole cents.
+    private static long toCents(BigDecimal price) {
+        return price.setScale(2, RoundingMode.HALF_UP).movePointRight(2).longValueExact();
+    }
+
+    private static Product stored(Product product) {
+        return new Product(product.getId(), product.getProductName(),
+                product.getPrice().setScale(2, RoundingMode.HALF_UP), product.getVersion());
+    }
+
+    private static Product copyOf(Product product) {
+        return new Product(product.getId(), product.getProductName(), product.getPrice(), product.getVersion());
+    }
+
+    private static final class Entries {
+        private static final Entries EMPTY = new Entries(new long[0], new long[0], new Product[0]);
+
+        private final long[] cents;
+        private final long[] ids;
+        private final Product[] products;
+
+        private Entries(long[] cents, long[] ids, Product[] products) {
+            this.cents = cents;
+            this.ids = ids;
+            this.products = products;
+        }
+
+        private int size() {
+            return cents.length;
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package myshop.product.model;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+// Changes the price of every product priced within [minPrice, maxPrice] by percent; the result is rounded to cents.
+public record PriceRule(BigDecimal minPrice, BigDecimal maxPrice, BigDecimal percent) {
+    private static final BigDecimal HUNDRED = BigDecimal.valueOf(100);
+
+    public PriceRule {
+        if (minPrice == null || maxPrice == null || percent == null) {
+            throw new IllegalArgumentException("minPrice, maxPrice and percent must not be null");
+        }
+        if (minPrice.compareTo(maxPrice) > 0) {
+            throw new IllegalArgumentException("minPrice must not be greater than maxPrice");
+        }
+        if (percent.compareTo(HUNDRED.negate()) <= 0) {
+            throw new IllegalArgumentException("percent must be greater than -100");
+        }
+    }
+
+    public BigDecimal multiplier() {
+        return HUNDRED.add(percent).divide(HUNDRED);
+    }
+
+    public BigDecimal apply(BigDecimal price) {
+        return price.multiply(multiplier()).setScale(2, RoundingMode.HALF_UP);
+    }
+}
@@ -13,7 +13,8 @@ import java.math.BigDecimal;
 @AllArgsConstructor
 public class Product {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "products_id_seq")
+    @SequenceGenerator(name = "products_id_seq", sequenceName = "products_id_seq", allocationSize = 50)
     private Long id;
 
     @Column(name = "product_name", length = 50)
@@ -21,4 +22,15 @@ public class Product {
 
     @Column(name = "price", nullable = false, precision = 10, scale = 2)
     private BigDecimal price;
+
+    // null for products built by hand: their update is not version-checked
+    @Version
+    @Column(name = "version", nullable = false)
+    private Long version;
+
+    public Product(Long id, String productName, BigDecimal price) {
+        this.id = id;
+        this.productName = productName;
+        this.price = price;
+    }
 }
\ No newline at end of file
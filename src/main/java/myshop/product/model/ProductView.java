@@ -0,0 +1,17 @@
+package myshop.product.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+// Product row for the catalogue listing; built by the query itself, so it is never managed or snapshotted.
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductView {
+    private Long id;
+    private String productName;
+    private BigDecimal price;
+}
@@ -0,0 +1,492 @@
+package myshop.product.search;
+
+import lombok.extern.log4j.Log4j2;
+import myshop.product.model.Product;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Inverted index over product name tokens. Every query token must match a name token exactly,
+ * as a prefix, or within one edit (for tokens of 4+ characters, via a deletion dictionary);
+ * products are ranked by the summed match quality, then by indexing order.
+ * Removed and updated products leave tombstones in the postings; once they reach a quarter of all
+ * ordinals, the postings are compacted and the live products renumbered in indexing order.
+ */
+@Log4j2
+public class InMemoryProductSearch implements ProductSearch {
+    private static final int EXACT = 4;
+    private static final int PREFIX = 3;
+    private static final int FUZZY = 2;
+    private static final int MIN_PREFIX_LENGTH = 2;
+    private static final int MIN_FUZZY_LENGTH = 4;
+    private static final int MAX_PREFIX_TERMS = 64;
+    private static final int MAX_PREFIX_SCAN = 1024;
+    private static final double MAX_TOMBSTONE_RATIO = 0.25;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final NavigableMap<String, Postings> terms = new TreeMap<>();
+    private final Map<String, List<String>> deletions = new HashMap<>();
+    private final Map<Long, Integer> ordinalById = new HashMap<>();
+    private final BitSet removed = new BitSet();
+    private long[] idByOrdinal = new long[1024];
+    private int ordinals;
+    private int tombstones;
+
+    public void load(Collection<Product> products) {
+        lock.writeLock().lock();
+        try {
+            terms.clear();
+            deletions.clear();
+            ordinalById.clear();
+            removed.clear();
+            idByOrdinal = new long[Math.max(1024, products.size())];
+            ordinals = 0;
+            tombstones = 0;
+            for (Product product : products) {
+                add(product);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.debug("Product search index loaded with {} products, {} terms", products.size(), terms.size());
+    }
+
+    public void put(Product product) {
+        if (product.getId() == null) {
+            throw new IllegalArgumentException("Indexed product must have an id");
+        }
+
+        lock.writeLock().lock();
+        try {
+            tombstone(product.getId());
+            add(product);
+            compactIfNeeded();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(long id) {
+        lock.writeLock().lock();
+        try {
+            tombstone(id);
+            compactIfNeeded();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return ordinalById.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Ordinals in use, tombstones included.
+    int indexedOrdinals() {
+        lock.readLock().lock();
+        try {
+            return ordinals;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public List<Long> search(String query, int limit) {
+        if (limit <= 0) {
+            throw new IllegalArgumentException("limit must be > 0");
+        }
+
+        Set<String> tokens = Tokenizer.tokenize(query);
+        if (tokens.isEmpty()) {
+            return List.of();
+        }
+
+        lock.readLock().lock();
+        try {
+            List<List<Match>> tokenMatches = new ArrayList<>(tokens.size());
+            for (String token : tokens) {
+                List<Match> matches = match(token);
+                if (matches.isEmpty()) {
+                    return List.of();
+                }
+                tokenMatches.add(matches);
+            }
+            // Intersect starting from the most selective token.
+            tokenMatches.sort((a, b) -> Long.compare(postingsSize(a), postingsSize(b)));
+            return rank(tokenMatches, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Matches are ordered by descending weight.
+    private List<Match> match(String token) {
+        List<Match> matches = new ArrayList<>();
+        Postings exact = terms.get(token);
+        if (exact != null) {
+            matches.add(new Match(exact, EXACT));
+        }
+
+        if (token.length() >= MIN_PREFIX_LENGTH) {
+            List<Postings> prefixed = new ArrayList<>();
+            int scanned = 0;
+            for (Map.Entry<String, Postings> entry : terms.tailMap(token, false).entrySet()) {
+                if (!entry.getKey().startsWith(token) || scanned++ == MAX_PREFIX_SCAN) {
+                    break;
+                }
+                prefixed.add(entry.getValue());
+            }
+            prefixed.sort((a, b) -> Integer.compare(b.size, a.size));
+            for (int i = 0; i < Math.min(MAX_PREFIX_TERMS, prefixed.size()); i++) {
+                matches.add(new Match(prefixed.get(i), PREFIX));
+            }
+        }
+
+        if (exact == null && token.length() >= MIN_FUZZY_LENGTH) {
+            for (String term : fuzzyCandidates(token)) {
+                matches.add(new Match(terms.get(term), FUZZY));
+            }
+        }
+        return matches;
+    }
+
+    private Set<String> fuzzyCandidates(String token) {
+        Set<String> candidates = new LinkedHashSet<>(deletions.getOrDefault(token, List.of()));
+        for (String deletion : deletionsOf(token)) {
+            if (terms.containsKey(deletion)) {
+                candidates.add(deletion);
+            }
+            candidates.addAll(deletions.getOrDefault(deletion, List.of()));
+        }
+        candidates.removeIf(term -> term.startsWith(token) || !withinOneEdit(token, term));
+        return candidates;
+    }
+
+    private List<Long> rank(List<List<Match>> tokenMatches, int limit) {
+        List<Match> driver = tokenMatches.get(0);
+        int[] candidates;
+        int[] driverWeights = null;
+        int candidateCount;
+        if (driver.size() == 1) {
+            candidates = driver.get(0).postings().ordinals;
+            candidateCount = driver.get(0).postings().size;
+        } else {
+            candidates = new int[(int) postingsSize(driver)];
+            driverWeights = new int[candidates.length];
+            candidateCount = 0;
+            long[] seen = new long[(ordinals >>> 6) + 1];
+            for (Match match : driver) {
+                Postings postings = match.postings();
+                for (int i = 0; i < postings.size; i++) {
+                    int ordinal = postings.ordinals[i];
+                    if ((seen[ordinal >>> 6] & (1L << ordinal)) == 0) {
+                        seen[ordinal >>> 6] |= 1L << ordinal;
+                        driverWeights[candidateCount] = match.weight();
+                        candidates[candidateCount++] = ordinal;
+                    }
+                }
+            }
+        }
+
+        TokenFilter[] filters = new TokenFilter[tokenMatches.size()];
+        int maxScore = driver.get(0).weight();
+        for (int t = 1; t < tokenMatches.size(); t++) {
+            filters[t] = new TokenFilter(tokenMatches.get(t), ordinals);
+            maxScore += tokenMatches.get(t).get(0).weight();
+        }
+
+        // A single driver list yields ordinals in ascending order, so once `limit` products reach the best
+        // possible score no later product can outrank them.
+        boolean ordered = driverWeights == null;
+        int bestScored = 0;
+        TopScores top = new TopScores(limit);
+        for (int c = 0; c < candidateCount; c++) {
+            int ordinal = candidates[c];
+            if (removed.get(ordinal)) {
+                continue;
+            }
+            int score = ordered ? driver.get(0).weight() : driverWeights[c];
+            for (int t = 1; t < filters.length && score > 0; t++) {
+                int weight = filters[t].weightOf(ordinal);
+                score = weight == 0 ? 0 : score + weight;
+            }
+            if (score == 0) {
+                continue;
+            }
+            top.offer(score, ordinal);
+            if (ordered && score == maxScore && ++bestScored == limit) {
+                break;
+            }
+        }
+
+        int[] ranked = top.ordinalsBestFirst();
+        List<Long> ids = new ArrayList<>(ranked.length);
+        for (int ordinal : ranked) {
+            ids.add(idByOrdinal[ordinal]);
+        }
+        return ids;
+    }
+
+    private void add(Product product) {
+        int ordinal = ordinals++;
+        if (ordinal == idByOrdinal.length) {
+            idByOrdinal = Arrays.copyOf(idByOrdinal, ordinal * 2);
+        }
+        idByOrdinal[ordinal] = product.getId();
+        ordinalById.put(product.getId(), ordinal);
+
+        for (String token : Tokenizer.tokenize(product.getProductName())) {
+            Postings postings = terms.get(token);
+            if (postings == null) {
+                postings = new Postings();
+                terms.put(token, postings);
+                if (token.length() >= MIN_FUZZY_LENGTH) {
+                    for (String deletion : deletionsOf(token)) {
+                        deletions.computeIfAbsent(deletion, key -> new ArrayList<>(1)).add(token);
+                    }
+                }
+            }
+            postings.add(ordinal);
+        }
+    }
+
+    private void tombstone(long id) {
+        Integer ordinal = ordinalById.remove(id);
+        if (ordinal != null) {
+            removed.set(ordinal);
+            tombstones++;
+        }
+    }
+
+    private void compactIfNeeded() {
+        if (tombstones > ordinals * MAX_TOMBSTONE_RATIO) {
+            compact();
+        }
+    }
+
+    // Drops tombstoned ordinals and terms left without products; the order of live ordinals is kept.
+    private void compact() {
+        int[] remap = new int[ordinals];
+        int live = 0;
+        for (int ordinal = 0; ordinal < ordinals; ordinal++) {
+            if (removed.get(ordinal)) {
+                remap[ordinal] = -1;
+            } else {
+                remap[ordinal] = live;
+                idByOrdinal[live++] = idByOrdinal[ordinal];
+            }
+        }
+
+        int termsBefore = terms.size();
+        Iterator<Map.Entry<String, Postings>> iterator = terms.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<String, Postings> entry = iterator.next();
+            String term = entry.getKey();
+            entry.getValue().renumber(remap);
+            if (entry.getValue().size == 0) {
+                // Read the key first: TreeMap may reuse the removed entry for its successor.
+                iterator.remove();
+                forgetDeletions(term);
+            }
+        }
+        ordinalById.replaceAll((id, ordinal) -> remap[ordinal]);
+        removed.clear();
+        log.debug("Product search index compacted: {} -> {} ordinals, {} -> {} terms",
+                ordinals, live, termsBefore, terms.size());
+        ordinals = live;
+        tombstones = 0;
+    }
+
+    private void forgetDeletions(String term) {
+        if (term.length() < MIN_FUZZY_LENGTH) {
+            return;
+        }
+        for (String deletion : deletionsOf(term)) {
+            List<String> sources = deletions.get(deletion);
+            if (sources != null && sources.remove(term) && sources.isEmpty()) {
+                deletions.remove(deletion);
+            }
+        }
+    }
+
+    private static long postingsSize(List<Match> matches) {
+        long size = 0;
+        for (Match match : matches) {
+            size += match.postings().size;
+        }
+        return size;
+    }
+
+    private static Set<String> deletionsOf(String term) {
+        Set<String> result = new LinkedHashSet<>();
+        for (int i = 0; i < term.length(); i++) {
+            result.add(term.substring(0, i) + term.substring(i + 1));
+        }
+        return result;
+    }
+
+    // Optimal string alignment distance <= 1: one insertion, deletion, substitution or adjacent transposition.
+    static boolean withinOneEdit(String a, String b) {
+        int lengthDiff = a.length() - b.length();
+        if (Math.abs(lengthDiff) > 1) {
+            return false;
+        }
+
+        int i = 0;
+        while (i < a.length() && i < b.length() && a.charAt(i) == b.charAt(i)) {
+            i++;
+        }
+        if (lengthDiff > 0) {
+            return a.regionMatches(i + 1, b, i, b.length() - i);
+        }
+        if (lengthDiff < 0) {
+            return b.regionMatches(i + 1, a, i, a.length() - i);
+        }
+        if (i == a.length()) {
+            return true;
+        }
+        if (a.regionMatches(i + 1, b, i + 1, a.length() - i - 1)) {
+            return true;
+        }
+        return i + 1 < a.length()
+                && a.charAt(i) == b.charAt(i + 1) && a.charAt(i + 1) == b.charAt(i)
+                && a.regionMatches(i + 2, b, i + 2, a.length() - i - 2);
+    }
+
+    private record Match(Postings postings, int weight) {
+    }
+
+    // Weight of one non-driver query token for a candidate ordinal.
+    private static final class TokenFilter {
+        private final List<Match> matches;
+        private final long[][] bitmaps;
+
+        private TokenFilter(List<Match> matches, int ordinals) {
+            this.matches = matches;
+            if (matches.size() == 1) {
+                this.bitmaps = null;
+            } else {
+                this.bitmaps = new long[matches.size()][];
+                for (int m = 0; m < matches.size(); m++) {
+                    Postings postings = matches.get(m).postings();
+                    long[] bitmap = new long[(ordinals >>> 6) + 1];
+                    for (int i = 0; i < postings.size; i++) {
+                        bitmap[postings.ordinals[i] >>> 6] |= 1L << postings.ordinals[i];
+                    }
+                    bitmaps[m] = bitmap;
+                }
+            }
+        }
+
+        private int weightOf(int ordinal) {
+            for (int m = 0; m < matches.size(); m++) {
+                boolean contains = bitmaps == null
+                        ? matches.get(m).postings().contains(ordinal)
+                        : (bitmaps[m][ordinal >>> 6] & (1L << ordinal)) != 0;
+                if (contains) {
+                    return matches.get(m).weight();
+                }
+            }
+            return 0;
+        }
+    }
+
+    // Bounded min-heap of (score, ordinal) keys; higher score wins, then lower ordinal.
+    private static final class TopScores {
+        private final long[] heap;
+        private int size;
+
+        private TopScores(int limit) {
+            this.heap = new long[limit];
+        }
+
+        private void offer(int score, int ordinal) {
+            long key = ((long) score << 32) | (Integer.MAX_VALUE - ordinal);
+            if (size < heap.length) {
+                int i = size++;
+                while (i > 0 && heap[(i - 1) / 2] > key) {
+                    heap[i] = heap[(i - 1) / 2];
+                    i = (i - 1) / 2;
+                }
+                heap[i] = key;
+            } else if (key > heap[0]) {
+                int i = 0;
+                while (true) {
+                    int child = 2 * i + 1;
+                    if (child >= size) {
+                        break;
+                    }
+                    if (child + 1 < size && heap[child + 1] < heap[child]) {
+                        child++;
+                    }
+                    if (heap[child] >= key) {
+                        break;
+                    }
+                    heap[i] = heap[child];
+                    i = child;
+                }
+                heap[i] = key;
+            }
+        }
+
+        private int[] ordinalsBestFirst() {
+            long[] keys = Arrays.copyOf(heap, size);
+            Arrays.sort(keys);
+            int[] result = new int[size];
+            for (int i = 0; i < size; i++) {
+                result[i] = Integer.MAX_VALUE - (int) keys[size - 1 - i];
+            }
+            return result;
+        }
+    }
+
+    // Ordinals grow monotonically, so appended postings stay sorted.
+    private static final class Postings {
+        private int[] ordinals = new int[2];
+        private int size;
+
+        private void add(int ordinal) {
+            if (size == ordinals.length) {
+                ordinals = Arrays.copyOf(ordinals, size * 2);
+            }
+            ordinals[size++] = ordinal;
+        }
+
+        private boolean contains(int ordinal) {
+            return Arrays.binarySearch(ordinals, 0, size, ordinal) >= 0;
+        }
+
+        // The mapping is increasing, so the postings stay sorted; removed ordinals map to -1.
+        private void renumber(int[] remap) {
+            int kept = 0;
+            for (int i = 0; i < size; i++) {
+                int ordinal = remap[ordinals[i]];
+                if (ordinal >= 0) {
+                    ordinals[kept++] = ordinal;
+                }
+            }
+            size = kept;
+            if (kept > 0 && kept * 4 < ordinals.length) {
+                ordinals = Arrays.copyOf(ordinals, kept);
+            }
+        }
+    }
+}
@@ -0,0 +1,8 @@
+package myshop.product.search;
+
+import java.util.List;
+
+public interface ProductSearch {
+    // Ids of the best matching products, best first.
+    List<Long> search(String query, int limit);
+}
@@ -0,0 +1,57 @@
+package myshop.product.search;
+
+import lombok.extern.log4j.Log4j2;
+import myshop.common.db.ConnectionManager;
+import myshop.common.db.SqlStatements;
+import myshop.common.exception.DaoException;
+import myshop.common.jfr.DaoOperationEvent;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Database-backed search for processes that do not keep {@link InMemoryProductSearch} loaded.
+ * Relies on pg_trgm and the trigram index from migration V2.
+ */
+@Log4j2
+public class TrigramProductSearch implements ProductSearch {
+    @Override
+    public List<Long> search(String query, int limit) {
+        if (limit <= 0) {
+            throw new IllegalArgumentException("limit must be > 0");
+        }
+        if (query == null || query.isBlank()) {
+            return List.of();
+        }
+
+        log.debug("search() called with query = {}, limit = {}", query, limit);
+        DaoOperationEvent event = DaoOperationEvent.begin(TrigramProductSearch.class, "search");
+
+        List<Long> ids = new ArrayList<>();
+        try (Connection connection = ConnectionManager.getConnection();
+             PreparedStatement ps = SqlStatements.PRODUCT_SEARCH_TRIGRAM.prepare(connection)) {
+            ps.setString(1, query);
+            ps.setString(2, query);
+            ps.setInt(3, limit);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    ids.add(rs.getLong("id"));
+                }
+            }
+
+            event.rowsAffected(ids.size());
+            log.debug("{} products found for query {}", ids.size(), query);
+            event.succeeded();
+        } catch (SQLException e) {
+            log.error("SQL error searching products by name: {}", query, e);
+            throw new DaoException("Error searching products by name: " + query, e);
+        } finally {
+            event.finish();
+        }
+        return ids;
+    }
+}
@@ -0,0 +1,10 @@
+package myshop.report.advisor;
+
+import java.util.Arrays;
+import java.util.List;
+
+public record AdvisedQuery(String name, String sql, List<Object> parameters) {
+    public static AdvisedQuery of(String name, String sql, Object... parameters) {
+        return new AdvisedQuery(name, sql, Arrays.asList(parameters));
+    }
+}
@@ -0,0 +1,11 @@
+package myshop.report.advisor;
+
+import java.util.List;
+
+public record PlanAnalysis(String query, String plan, double executionMillis, List<SeqScanFinding> seqScans) {
+    public List<SeqScanFinding> seqScansAbove(long rowThreshold) {
+        return seqScans.stream()
+                .filter(finding -> finding.rowsScanned() > rowThreshold)
+                .toList();
+    }
+}
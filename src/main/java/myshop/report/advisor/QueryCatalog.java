@@ -0,0 +1,107 @@
+package myshop.report.advisor;
+
+import myshop.common.db.NamedSql;
+import myshop.common.db.SqlStatements;
+import myshop.report.dao.JdbcReportDao;
+
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The SQL the application actually runs, taken from {@link SqlStatements} and {@link JdbcReportDao}, with
+ * representative parameters (user 3 as in 03_queries.sql). Inserts are left out: they have no access path
+ * to advise on. A new statement without sample parameters fails {@link #daoQueries()} instead of being skipped.
+ */
+public final class QueryCatalog {
+    private static final long SAMPLE_USER_ID = 3L;
+    private static final long SAMPLE_PRODUCT_ID = 1L;
+    private static final BigDecimal SAMPLE_PRICE = new BigDecimal("500");
+
+    private QueryCatalog() {
+    }
+
+    public static List<AdvisedQuery> all() {
+        List<AdvisedQuery> queries = new ArrayList<>(daoQueries());
+        queries.addAll(reportQueries());
+        return queries;
+    }
+
+    public static List<AdvisedQuery> daoQueries() {
+        List<AdvisedQuery> queries = new ArrayList<>();
+        for (NamedSql statement : SqlStatements.all()) {
+            if (statement.sql().startsWith("INSERT")) {
+                continue;
+            }
+            queries.add(AdvisedQuery.of(statement.name(), statement.sql(), sampleParameters(statement.name())));
+        }
+        return queries;
+    }
+
+    public static List<AdvisedQuery> reportQueries() {
+        return List.of(
+                AdvisedQuery.of("3.1 allUsers", JdbcReportDao.ALL_USERS_SQL),
+                AdvisedQuery.of("3.2 usersByUsernameContaining",
+                        JdbcReportDao.USERS_BY_USERNAME_CONTAINING_SQL, "%a%"),
+                AdvisedQuery.of("3.3 productsPricedAbove", JdbcReportDao.PRODUCTS_PRICED_ABOVE_SQL, SAMPLE_PRICE),
+                AdvisedQuery.of("3.4 usersWithoutDetails", JdbcReportDao.USERS_WITHOUT_DETAILS_SQL),
+                AdvisedQuery.of("3.5 productCartUserCounts", JdbcReportDao.PRODUCT_CART_USER_COUNTS_SQL),
+                AdvisedQuery.of("3.5 topCartedProducts", JdbcReportDao.TOP_CARTED_PRODUCTS_SQL, 10),
+                AdvisedQuery.of("3.6 orderTotalsPerUser", JdbcReportDao.ORDER_TOTALS_PER_USER_SQL),
+                AdvisedQuery.of("3.7 cartItems", JdbcReportDao.CART_ITEMS_SQL, SAMPLE_USER_ID),
+                AdvisedQuery.of("3.8 usersWithOrderTotalAbove",
+                        JdbcReportDao.USERS_WITH_ORDER_TOTAL_ABOVE_SQL, SAMPLE_PRICE),
+                AdvisedQuery.of("3.9 topBuyersByPurchasedQuantity",
+                        JdbcReportDao.TOP_BUYERS_BY_PURCHASED_QUANTITY_SQL, 1),
+                AdvisedQuery.of("3.10 mostExpensiveProducts", JdbcReportDao.MOST_EXPENSIVE_PRODUCTS_SQL, 10),
+                AdvisedQuery.of("3.11 productsPricedAboveAverage", JdbcReportDao.PRODUCTS_PRICED_ABOVE_AVERAGE_SQL),
+                AdvisedQuery.of("3.12 usersWithCartValueAboveAverage",
+                        JdbcReportDao.USERS_WITH_CART_VALUE_ABOVE_AVERAGE_SQL),
+                AdvisedQuery.of("3.13 usersWithAllCartItemsPricedAbove",
+                        JdbcReportDao.USERS_WITH_ALL_CART_ITEMS_PRICED_ABOVE_SQL, new BigDecimal("100")),
+                AdvisedQuery.of("3.14 productsInEveryCart", JdbcReportDao.PRODUCTS_IN_EVERY_CART_SQL),
+                AdvisedQuery.of("3.15 usersWithCartQuantityAbove",
+                        JdbcReportDao.USERS_WITH_CART_QUANTITY_ABOVE_SQL, 2L),
+                AdvisedQuery.of("3.16 topSpenders", JdbcReportDao.TOP_SPENDERS_SQL),
+                AdvisedQuery.of("3.17 usersWithCartQuantityAboveAverage",
+                        JdbcReportDao.USERS_WITH_CART_QUANTITY_ABOVE_AVERAGE_SQL),
+                AdvisedQuery.of("3.18 productsInExactlyOneCart", JdbcReportDao.PRODUCTS_IN_EXACTLY_ONE_CART_SQL),
+                AdvisedQuery.of("3.19 usersWithOrderTotalAndCountAbove",
+                        JdbcReportDao.USERS_WITH_ORDER_TOTAL_AND_COUNT_ABOVE_SQL, SAMPLE_PRICE, 1L),
+                AdvisedQuery.of("3.20 productsByCartValue", JdbcReportDao.PRODUCTS_BY_CART_VALUE_SQL, 10)
+        );
+    }
+
+    // Array parameters are passed as literals and cast by the statement itself (?::bigint[]).
+    private static Object[] sampleParameters(String statement) {
+        return switch (statement) {
+            case "user.findAll", "userDetails.findAll", "product.findAll", "order.findAll", "order.findIdRange" ->
+                    new Object[0];
+            case "user.findById", "user.delete", "userDetails.findByUserId", "userDetails.delete",
+                 "userProfile.findByUserId", "cart.findByUserId", "cart.clear", "order.findByUserId" ->
+                    new Object[]{SAMPLE_USER_ID};
+            case "user.findByUsername", "user.existsByUsername" -> new Object[]{"alice"};
+            case "user.findByEmail", "user.existsByEmail" -> new Object[]{"alice@example.com"};
+            case "user.update" -> new Object[]{"advisor_sample", "advisor_sample@example.com", SAMPLE_USER_ID};
+            case "userDetails.update" -> new Object[]{"Alice", "Smith", "1 Main St", "555-0100", SAMPLE_USER_ID};
+            case "userProfile.findPage" -> new Object[]{0L, 50};
+            case "product.findById", "product.delete" -> new Object[]{SAMPLE_PRODUCT_ID};
+            case "product.findByPriceRange" -> new Object[]{new BigDecimal("100"), SAMPLE_PRICE};
+            case "product.findTopByPrice" -> new Object[]{10};
+            case "product.findAbovePrice" -> new Object[]{SAMPLE_PRICE};
+            case "product.update" -> new Object[]{"advisor_sample", SAMPLE_PRICE, SAMPLE_PRODUCT_ID};
+            case "product.updateVersioned" -> new Object[]{"advisor_sample", SAMPLE_PRICE, SAMPLE_PRODUCT_ID, 0L};
+            case "product.updatePrices" -> new Object[]{"{" + SAMPLE_PRODUCT_ID + "}", "{" + SAMPLE_PRICE + "}"};
+            case "product.applyPriceRule" ->
+                    new Object[]{new BigDecimal("1.10"), 0L, new BigDecimal("100"), SAMPLE_PRICE, 100};
+            case "product.searchTrigram" -> new Object[]{"phone", "phone", 20};
+            case "cart.deleteItem" -> new Object[]{SAMPLE_USER_ID, SAMPLE_PRODUCT_ID};
+            case "cart.updateQuantity" -> new Object[]{2, SAMPLE_USER_ID, SAMPLE_PRODUCT_ID};
+            case "cart.updateQuantityVersioned" -> new Object[]{2, SAMPLE_USER_ID, SAMPLE_PRODUCT_ID, 0L};
+            case "order.streamColumnsCreatedAfter" -> new Object[]{OffsetDateTime.now().minusMinutes(1)};
+            case "order.findByIdRange" -> new Object[]{1L, 1000L};
+            default -> throw new IllegalStateException("No sample parameters for statement " + statement);
+        };
+    }
+}
@@ -0,0 +1,149 @@
+package myshop.report.advisor;
+
+import lombok.extern.log4j.Log4j2;
+import myshop.common.config.ShopConfig;
+import myshop.common.db.ConnectionManager;
+import myshop.common.exception.DaoException;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Runs {@code EXPLAIN (ANALYZE, BUFFERS)} for each query and reports sequential scans that read more
+ * rows than the threshold. Queries are executed inside a transaction that is always rolled back.
+ */
+@Log4j2
+public class QueryPlanAdvisor {
+    private static final Pattern SEQ_SCAN = Pattern.compile(
+            "(?:Parallel )?Seq Scan on (\\w+).*\\(actual time=[\\d.]+\\.\\.[\\d.]+ rows=([\\d.]+) loops=(\\d+)\\)");
+    private static final Pattern ROWS_REMOVED = Pattern.compile("Rows Removed by Filter: (\\d+)");
+    private static final Pattern BUFFERS = Pattern.compile("Buffers: shared(?: hit=(\\d+))?(?: read=(\\d+))?");
+    private static final Pattern EXECUTION_TIME = Pattern.compile("Execution Time: ([\\d.]+) ms");
+
+    private final long rowThreshold;
+
+    public QueryPlanAdvisor() {
+        this(ShopConfig.get().getLong("advisor.seq-scan.row-threshold", 10_000));
+    }
+
+    public QueryPlanAdvisor(long rowThreshold) {
+        this.rowThreshold = rowThreshold;
+    }
+
+    public static void main(String[] args) {
+        QueryPlanAdvisor advisor = new QueryPlanAdvisor();
+        List<PlanAnalysis> analyses = advisor.explainAll(QueryCatalog.all());
+        List<SeqScanFinding> flagged = advisor.flagged(analyses);
+
+        for (PlanAnalysis analysis : analyses) {
+            System.out.printf("%-45s %9.3f ms  seq scans: %s%n", analysis.query(), analysis.executionMillis(),
+                    analysis.seqScans().stream().map(SeqScanFinding::relation).toList());
+        }
+        System.out.println();
+        if (flagged.isEmpty()) {
+            System.out.println("No sequential scans above " + advisor.rowThreshold + " rows");
+            return;
+        }
+        for (SeqScanFinding finding : flagged) {
+            System.out.printf("SEQ SCAN  %-45s on %-20s rows=%d buffers hit=%d read=%d%n", finding.query(),
+                    finding.relation(), finding.rowsScanned(), finding.sharedHit(), finding.sharedRead());
+        }
+        System.exit(1);
+    }
+
+    public List<PlanAnalysis> explainAll(List<AdvisedQuery> queries) {
+        List<PlanAnalysis> analyses = new ArrayList<>(queries.size());
+        for (AdvisedQuery query : queries) {
+            analyses.add(explain(query));
+        }
+        return analyses;
+    }
+
+    public List<SeqScanFinding> flagged(List<PlanAnalysis> analyses) {
+        List<SeqScanFinding> flagged = new ArrayList<>();
+        for (PlanAnalysis analysis : analyses) {
+            flagged.addAll(analysis.seqScansAbove(rowThreshold));
+        }
+        return flagged;
+    }
+
+    public PlanAnalysis explain(AdvisedQuery query) {
+        log.debug("explain() called for {}", query.name());
+        try (Connection connection = ConnectionManager.getConnection()) {
+            boolean autoCommit = connection.getAutoCommit();
+            connection.setAutoCommit(false);
+            try (PreparedStatement ps = connection.prepareStatement("EXPLAIN (ANALYZE, BUFFERS) " + query.sql())) {
+                List<Object> parameters = query.parameters();
+                for (int i = 0; i < parameters.size(); i++) {
+                    ps.setObject(i + 1, parameters.get(i));
+                }
+
+                StringBuilder plan = new StringBuilder();
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        plan.append(rs.getString(1)).append('\n');
+                    }
+                }
+                return parsePlan(query.name(), plan.toString());
+            } finally {
+                connection.rollback();
+                connection.setAutoCommit(autoCommit);
+            }
+        } catch (SQLException e) {
+            log.error("SQL error explaining query {}", query.name(), e);
+            throw new DaoException("Error explaining query " + query.name(), e);
+        }
+    }
+
+    static PlanAnalysis parsePlan(String query, String plan) {
+        List<SeqScanFinding> seqScans = new ArrayList<>();
+        double executionMillis = 0;
+        String[] lines = plan.split("\\R");
+
+        for (int i = 0; i < lines.length; i++) {
+            Matcher time = EXECUTION_TIME.matcher(lines[i]);
+            if (time.find()) {
+                executionMillis = Double.parseDouble(time.group(1));
+                continue;
+            }
+
+            Matcher scan = SEQ_SCAN.matcher(lines[i]);
+            if (!scan.find()) {
+                continue;
+            }
+
+            double rows = Double.parseDouble(scan.group(2));
+            long loops = Long.parseLong(scan.group(3));
+            long removed = 0;
+            long hit = 0;
+            long read = 0;
+            // Node details follow the node line until the next plan node or a top-level section.
+            for (int j = i + 1; j < lines.length && isNodeDetail(lines[j]); j++) {
+                Matcher removedMatcher = ROWS_REMOVED.matcher(lines[j]);
+                if (removedMatcher.find()) {
+                    removed = Long.parseLong(removedMatcher.group(1));
+                }
+                Matcher buffers = BUFFERS.matcher(lines[j]);
+                if (buffers.find()) {
+                    hit = buffers.group(1) == null ? 0 : Long.parseLong(buffers.group(1));
+                    read = buffers.group(2) == null ? 0 : Long.parseLong(buffers.group(2));
+                }
+            }
+            long rowsScanned = Math.round((rows + removed) * loops);
+            seqScans.add(new SeqScanFinding(query, scan.group(1), rowsScanned, hit, read));
+        }
+        return new PlanAnalysis(query, plan, executionMillis, seqScans);
+    }
+
+    private static boolean isNodeDetail(String line) {
+        String trimmed = line.strip();
+        return !line.isEmpty() && Character.isWhitespace(line.charAt(0)) && !trimmed.startsWith("->")
+                && !trimmed.startsWith("InitPlan") && !trimmed.startsWith("SubPlan");
+    }
+}
@@ -0,0 +1,4 @@
+package myshop.report.advisor;
+
+public record SeqScanFinding(String query, String relation, long rowsScanned, long sharedHit, long sharedRead) {
+}
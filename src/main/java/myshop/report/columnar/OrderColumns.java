@@ -0,0 +1,198 @@
+package myshop.report.columnar;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Immutable view of the first {@code size} rows of the snapshot columns.
+ * Operators are plain loops over primitive arrays; filters return selection vectors (row indexes).
+ */
+public final class OrderColumns {
+    static final OrderColumns EMPTY = new OrderColumns(new long[0], new long[0], new long[0], 0);
+
+    private static final Comparator<UserOrderAggregate> BY_TOTAL_DESC =
+            Comparator.comparingLong(UserOrderAggregate::totalAmountCents).reversed()
+                    .thenComparingLong(UserOrderAggregate::userId);
+
+    private final long[] ids;
+    private final long[] userIds;
+    private final long[] totalAmountCents;
+    private final int size;
+
+    OrderColumns(long[] ids, long[] userIds, long[] totalAmountCents, int size) {
+        this.ids = ids;
+        this.userIds = userIds;
+        this.totalAmountCents = totalAmountCents;
+        this.size = size;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public long idAt(int row) {
+        checkRow(row);
+        return ids[row];
+    }
+
+    public long userIdAt(int row) {
+        checkRow(row);
+        return userIds[row];
+    }
+
+    public long totalAmountCentsAt(int row) {
+        checkRow(row);
+        return totalAmountCents[row];
+    }
+
+    public int[] selectAll() {
+        int[] selection = new int[size];
+        for (int i = 0; i < size; i++) {
+            selection[i] = i;
+        }
+        return selection;
+    }
+
+    public int[] filterTotalAbove(long cents) {
+        long[] amounts = totalAmountCents;
+        int[] selection = new int[size];
+        int selected = 0;
+        for (int i = 0; i < size; i++) {
+            selection[selected] = i;
+            selected += amounts[i] > cents ? 1 : 0;
+        }
+        return Arrays.copyOf(selection, selected);
+    }
+
+    public int[] filterByUser(long userId) {
+        long[] users = userIds;
+        int[] selection = new int[size];
+        int selected = 0;
+        for (int i = 0; i < size; i++) {
+            selection[selected] = i;
+            selected += users[i] == userId ? 1 : 0;
+        }
+        return Arrays.copyOf(selection, selected);
+    }
+
+    public long sumCents() {
+        long[] amounts = totalAmountCents;
+        long sum = 0;
+        for (int i = 0; i < size; i++) {
+            sum += amounts[i];
+        }
+        return sum;
+    }
+
+    public long sumCents(int[] selection) {
+        long[] amounts = totalAmountCents;
+        long sum = 0;
+        for (int row : selection) {
+            sum += amounts[row];
+        }
+        return sum;
+    }
+
+    public List<UserOrderAggregate> groupByUser() {
+        return groupByUser(selectAll());
+    }
+
+    public List<UserOrderAggregate> groupByUser(int[] selection) {
+        UserGroups groups = new UserGroups(selection.length);
+        long[] users = userIds;
+        long[] amounts = totalAmountCents;
+        for (int row : selection) {
+            groups.add(users[row], amounts[row]);
+        }
+        return groups.toList();
+    }
+
+    // 3.8
+    public List<UserOrderAggregate> findUsersWithOrderTotalAbove(BigDecimal amount) {
+        return findUsersWithOrderTotalAndCountAbove(amount, 0);
+    }
+
+    // 3.19
+    public List<UserOrderAggregate> findUsersWithOrderTotalAndCountAbove(BigDecimal amount, long ordersCount) {
+        if (amount == null) {
+            throw new IllegalArgumentException("amount must not be null");
+        }
+
+        long thresholdCents = amount.movePointRight(2).setScale(0, RoundingMode.FLOOR).longValueExact();
+        List<UserOrderAggregate> result = new ArrayList<>();
+        for (UserOrderAggregate aggregate : groupByUser()) {
+            if (aggregate.totalAmountCents() > thresholdCents && aggregate.ordersCount() > ordersCount) {
+                result.add(aggregate);
+            }
+        }
+        result.sort(BY_TOTAL_DESC);
+        return result;
+    }
+
+    private void checkRow(int row) {
+        if (row < 0 || row >= size) {
+            throw new IndexOutOfBoundsException("row " + row + " out of " + size);
+        }
+    }
+
+    // Open addressing map userId -> group index, so grouping does not box keys.
+    private static final class UserGroups {
+        private final long[] slotKeys;
+        private final int[] slotGroups;
+        private final int mask;
+        private long[] groupUserIds;
+        private long[] groupTotals;
+        private long[] groupCounts;
+        private int groupCount;
+
+        private UserGroups(int expectedRows) {
+            int slots = Integer.highestOneBit(Math.max(16, expectedRows * 2 - 1)) << 1;
+            slotKeys = new long[slots];
+            slotGroups = new int[slots];
+            Arrays.fill(slotGroups, -1);
+            mask = slots - 1;
+            int initialGroups = Math.max(16, Math.min(expectedRows, 1024));
+            groupUserIds = new long[initialGroups];
+            groupTotals = new long[initialGroups];
+            groupCounts = new long[initialGroups];
+        }
+
+        private void add(long userId, long cents) {
+            int slot = Long.hashCode(userId * 0x9E3779B97F4A7C15L) & mask;
+            while (slotGroups[slot] != -1 && slotKeys[slot] != userId) {
+                slot = (slot + 1) & mask;
+            }
+            int group = slotGroups[slot];
+            if (group == -1) {
+                group = newGroup(userId);
+                slotKeys[slot] = userId;
+                slotGroups[slot] = group;
+            }
+            groupTotals[group] += cents;
+            groupCounts[group]++;
+        }
+
+        private int newGroup(long userId) {
+            if (groupCount == groupUserIds.length) {
+                int capacity = groupCount * 2;
+                groupUserIds = Arrays.copyOf(groupUserIds, capacity);
+                groupTotals = Arrays.copyOf(groupTotals, capacity);
+                groupCounts = Arrays.copyOf(groupCounts, capacity);
+            }
+            groupUserIds[groupCount] = userId;
+            return groupCount++;
+        }
+
+        private List<UserOrderAggregate> toList() {
+            List<UserOrderAggregate> result = new ArrayList<>(groupCount);
+            for (int i = 0; i < groupCount; i++) {
+                result.add(new UserOrderAggregate(groupUserIds[i], groupTotals[i], groupCounts[i]));
+            }
+            return result;
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package myshop.report.columnar;
+
+import lombok.extern.log4j.Log4j2;
+import myshop.common.config.ShopConfig;
+import myshop.order.dao.JdbcOrderDao;
+import myshop.order.dao.OrderColumnsConsumer;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * In-process columnar copy of {@code orders} (id, user_id, total_amount in cents).
+ * {@link #refresh()} appends orders created after the newest one already loaded. Neither ids (pooled sequence
+ * blocks) nor created_at follow commit order, so every refresh re-reads an overlap window before that watermark
+ * and skips the ids it has already loaded there. An order whose transaction stayed open longer than the overlap
+ * ({@code report.columnar.overlap-seconds}) is missed, and so are deletions, until {@link #rebuild()}.
+ */
+@Log4j2
+public class OrdersColumnarSnapshot {
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private final JdbcOrderDao orderDao;
+    private final long overlapMicros;
+    private Buffer buffer = new Buffer(INITIAL_CAPACITY);
+    // Loaded orders that are still inside the overlap window: id -> created_at.
+    private Map<Long, Long> recent = new HashMap<>();
+    private long watermarkMicros;
+    private volatile OrderColumns columns = OrderColumns.EMPTY;
+
+    public OrdersColumnarSnapshot(JdbcOrderDao orderDao) {
+        this(orderDao, Duration.ofSeconds(ShopConfig.get().getLong("report.columnar.overlap-seconds", 60)));
+    }
+
+    public OrdersColumnarSnapshot(JdbcOrderDao orderDao, Duration overlap) {
+        this.orderDao = orderDao;
+        this.overlapMicros = overlap.toNanos() / 1000;
+    }
+
+    public OrderColumns columns() {
+        return columns;
+    }
+
+    public synchronized int refresh() {
+        long since = columns.size() == 0 ? 0 : watermarkMicros - overlapMicros;
+        long start = System.nanoTime();
+        int published = buffer.size;
+        Batch batch = new Batch(buffer, recent);
+        try {
+            orderDao.streamOrderColumnsCreatedAfter(since, batch);
+        } catch (RuntimeException e) {
+            buffer.size = published;
+            throw e;
+        }
+        // New rows are written past the published size, so readers of the previous view are unaffected.
+        publish(batch);
+        log.debug("Orders snapshot refreshed: {} rows appended, {} rows total, {} ms",
+                batch.appended, buffer.size, (System.nanoTime() - start) / 1_000_000);
+        return batch.appended;
+    }
+
+    // Readers keep the previous view until the complete re-read is published.
+    public synchronized int rebuild() {
+        long start = System.nanoTime();
+        Batch batch = new Batch(new Buffer(Math.max(INITIAL_CAPACITY, columns.size())), Map.of());
+        orderDao.streamOrderColumnsCreatedAfter(0, batch);
+
+        buffer = batch.target;
+        recent = new HashMap<>();
+        watermarkMicros = 0;
+        publish(batch);
+        log.debug("Orders snapshot rebuilt: {} rows, {} ms", buffer.size, (System.nanoTime() - start) / 1_000_000);
+        return batch.appended;
+    }
+
+    private void publish(Batch batch) {
+        recent.putAll(batch.loaded);
+        watermarkMicros = Math.max(watermarkMicros, batch.newestMicros);
+        long horizon = watermarkMicros - overlapMicros;
+        recent.values().removeIf(createdAt -> createdAt <= horizon);
+        columns = new OrderColumns(buffer.ids, buffer.userIds, buffer.totalAmountCents, buffer.size);
+    }
+
+    private static final class Buffer {
+        private long[] ids;
+        private long[] userIds;
+        private long[] totalAmountCents;
+        private int size;
+
+        private Buffer(int capacity) {
+            ids = new long[capacity];
+            userIds = new long[capacity];
+            totalAmountCents = new long[capacity];
+        }
+
+        private void append(long id, long userId, long cents) {
+            if (size == ids.length) {
+                int capacity = ids.length * 2;
+                ids = Arrays.copyOf(ids, capacity);
+                userIds = Arrays.copyOf(userIds, capacity);
+                totalAmountCents = Arrays.copyOf(totalAmountCents, capacity);
+            }
+            ids[size] = id;
+            userIds[size] = userId;
+            totalAmountCents[size] = cents;
+            size++;
+        }
+    }
+
+    // Rows of one read; orders already loaded from the overlap window are skipped.
+    private static final class Batch implements OrderColumnsConsumer {
+        private final Buffer target;
+        private final Map<Long, Long> known;
+        private final Map<Long, Long> loaded = new HashMap<>();
+        private long newestMicros;
+        private int appended;
+
+        private Batch(Buffer target, Map<Long, Long> known) {
+            this.target = target;
+            this.known = known;
+        }
+
+        @Override
+        public void accept(long id, long userId, long totalAmountCents, long createdAtMicros) {
+            if (known.containsKey(id) || loaded.containsKey(id)) {
+                return;
+            }
+            target.append(id, userId, totalAmountCents);
+            loaded.put(id, createdAtMicros);
+            newestMicros = Math.max(newestMicros, createdAtMicros);
+            appended++;
+        }
+    }
+}
@@ -0,0 +1,9 @@
+package myshop.report.columnar;
+
+import java.math.BigDecimal;
+
+public record UserOrderAggregate(long userId, long totalAmountCents, long ordersCount) {
+    public BigDecimal totalAmount() {
+        return BigDecimal.valueOf(totalAmountCents, 2);
+    }
+}
@@ -0,0 +1,521 @@
+package myshop.report.dao;
+
+import lombok.extern.log4j.Log4j2;
+import myshop.common.db.ConnectionManager;
+import myshop.common.exception.DaoException;
+import myshop.common.jfr.DaoOperationEvent;
+import myshop.product.model.Product;
+import myshop.report.metrics.ReportMetrics;
+import myshop.report.model.CartItemView;
+import myshop.report.model.ProductCartValue;
+import myshop.report.model.ProductUserCount;
+import myshop.report.model.UserCartQuantity;
+import myshop.report.model.UserCartValue;
+import myshop.report.model.UserOrderTotal;
+import myshop.report.model.UserPurchasedQuantity;
+import myshop.user.model.User;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+@Log4j2
+public class JdbcReportDao implements ReportDao {
+    // 3.1
+    public static final String ALL_USERS_SQL = "SELECT id, username, email FROM users ORDER BY id";
+    // 3.2
+    public static final String USERS_BY_USERNAME_CONTAINING_SQL =
+            "SELECT id, username, email FROM users WHERE username LIKE ? ESCAPE '\\' ORDER BY id";
+    // 3.3
+    public static final String PRODUCTS_PRICED_ABOVE_SQL =
+            "SELECT id, product_name, price FROM products WHERE price > ? ORDER BY id";
+    // 3.4
+    public static final String USERS_WITHOUT_DETAILS_SQL =
+            "SELECT u.id, u.username, u.email " +
+            "FROM users u " +
+            "LEFT JOIN user_details ud ON u.id = ud.user_id " +
+            "WHERE ud.user_id IS NULL " +
+            "ORDER BY u.id";
+    // 3.5
+    public static final String PRODUCT_CART_USER_COUNTS_SQL =
+            "SELECT p.id, p.product_name, COUNT(DISTINCT sc.user_id) AS users_count " +
+            "FROM products p " +
+            "LEFT JOIN shopping_cart sc ON p.id = sc.product_id " +
+            "GROUP BY p.id, p.product_name " +
+            "ORDER BY users_count DESC, p.id";
+    public static final String TOP_CARTED_PRODUCTS_SQL =
+            "SELECT p.id, p.product_name, COUNT(*) AS users_count " +
+            "FROM shopping_cart sc " +
+            "JOIN products p ON p.id = sc.product_id " +
+            "GROUP BY p.id, p.product_name " +
+            "ORDER BY users_count DESC, p.id " +
+            "LIMIT ?";
+    // 3.6
+    public static final String ORDER_TOTALS_PER_USER_SQL =
+            "SELECT u.id, u.username, " +
+            "COALESCE(s.total_amount, 0) AS total_amount, COALESCE(s.orders_count, 0) AS orders_count " +
+            "FROM users u " +
+            "LEFT JOIN user_order_stats s ON u.id = s.user_id " +
+            "ORDER BY u.id";
+    // 3.7
+    public static final String CART_ITEMS_SQL =
+            "SELECT p.id, p.product_name, p.price, sc.quantity " +
+            "FROM shopping_cart sc " +
+            "JOIN products p ON p.id = sc.product_id " +
+            "WHERE sc.user_id = ? " +
+            "ORDER BY p.id";
+    // 3.8
+    public static final String USERS_WITH_ORDER_TOTAL_ABOVE_SQL =
+            "SELECT u.id, u.username, s.total_amount, s.orders_count " +
+            "FROM user_order_stats s " +
+            "JOIN users u ON u.id = s.user_id " +
+            "WHERE s.orders_count > 0 AND s.total_amount > ? " +
+            "ORDER BY s.total_amount DESC, u.id";
+    // 3.9
+    public static final String TOP_BUYERS_BY_PURCHASED_QUANTITY_SQL =
+            "SELECT u.id, u.username, SUM(oi.quantity) AS purchased_quantity " +
+            "FROM users u " +
+            "JOIN orders o ON u.id = o.user_id " +
+            "JOIN order_items oi ON o.id = oi.order_id " +
+            "GROUP BY u.id, u.username " +
+            "ORDER BY purchased_quantity DESC, u.id " +
+            "LIMIT ?";
+    // 3.10
+    public static final String MOST_EXPENSIVE_PRODUCTS_SQL =
+            "SELECT id, product_name, price FROM products ORDER BY price DESC, id LIMIT ?";
+    // 3.11
+    public static final String PRODUCTS_PRICED_ABOVE_AVERAGE_SQL =
+            "SELECT id, product_name, price FROM products " +
+            "WHERE price > (SELECT AVG(price) FROM products) " +
+            "ORDER BY id";
+    // 3.12
+    public static final String USERS_WITH_CART_VALUE_ABOVE_AVERAGE_SQL =
+            "SELECT u.id, u.username, s.cart_total " +
+            "FROM user_cart_summary s " +
+            "JOIN users u ON u.id = s.user_id " +
+            "WHERE s.cart_total > (SELECT AVG(cart_total) FROM user_cart_summary) " +
+            "ORDER BY s.cart_total DESC, u.id";
+    // 3.13
+    public static final String USERS_WITH_ALL_CART_ITEMS_PRICED_ABOVE_SQL =
+            "SELECT u.id, u.username, u.email " +
+            "FROM user_cart_summary s " +
+            "JOIN users u ON u.id = s.user_id " +
+            "WHERE s.min_price > ? " +
+            "ORDER BY u.id";
+    // 3.14
+    public static final String PRODUCTS_IN_EVERY_CART_SQL =
+            "SELECT p.id, p.product_name, p.price " +
+            "FROM products p " +
+            "WHERE EXISTS (SELECT 1 FROM shopping_cart sc WHERE sc.product_id = p.id) " +
+            "AND NOT EXISTS (" +
+            "SELECT 1 FROM users u " +
+            "WHERE NOT EXISTS (" +
+            "SELECT 1 FROM shopping_cart sc2 " +
+            "WHERE sc2.user_id = u.id AND sc2.product_id = p.id)) " +
+            "ORDER BY p.id";
+    // 3.15
+    public static final String USERS_WITH_CART_QUANTITY_ABOVE_SQL =
+            "SELECT u.id, u.username, s.total_quantity " +
+            "FROM user_cart_summary s " +
+            "JOIN users u ON u.id = s.user_id " +
+            "WHERE s.total_quantity > ? " +
+            "ORDER BY s.total_quantity DESC, u.id";
+    // 3.16
+    public static final String TOP_SPENDERS_SQL =
+            "SELECT u.id, u.username, s.total_amount, s.orders_count " +
+            "FROM user_order_stats s " +
+            "JOIN users u ON u.id = s.user_id " +
+            "WHERE s.orders_count > 0 " +
+            "AND s.total_amount = (SELECT MAX(total_amount) FROM user_order_stats WHERE orders_count > 0) " +
+            "ORDER BY u.id";
+    // 3.17
+    public static final String USERS_WITH_CART_QUANTITY_ABOVE_AVERAGE_SQL =
+            "SELECT u.id, u.username, s.total_quantity " +
+            "FROM user_cart_summary s " +
+            "JOIN users u ON u.id = s.user_id " +
+            "WHERE s.total_quantity > (SELECT AVG(total_quantity) FROM user_cart_summary) " +
+            "ORDER BY s.total_quantity DESC, u.id";
+    // 3.18
+    public static final String PRODUCTS_IN_EXACTLY_ONE_CART_SQL =
+            "SELECT p.id, p.product_name, p.price " +
+            "FROM products p " +
+            "JOIN shopping_cart sc ON p.id = sc.product_id " +
+            "GROUP BY p.id, p.product_name, p.price " +
+            "HAVING COUNT(DISTINCT sc.user_id) = 1 " +
+            "ORDER BY p.id";
+    // 3.19
+    public static final String USERS_WITH_ORDER_TOTAL_AND_COUNT_ABOVE_SQL =
+            "SELECT u.id, u.username, s.total_amount, s.orders_count " +
+            "FROM user_order_stats s " +
+            "JOIN users u ON u.id = s.user_id " +
+            "WHERE s.orders_count > 0 AND s.total_amount > ? AND s.orders_count > ? " +
+            "ORDER BY s.total_amount DESC, u.id";
+    // 3.20
+    public static final String PRODUCTS_BY_CART_VALUE_SQL =
+            "SELECT p.id, p.product_name, SUM(p.price * sc.quantity) AS total_value_in_carts " +
+            "FROM products p " +
+            "JOIN shopping_cart sc ON p.id = sc.product_id " +
+            "GROUP BY p.id, p.product_name " +
+            "ORDER BY total_value_in_carts DESC, p.id " +
+            "LIMIT ?";
+
+    private static final int FETCH_SIZE = 500;
+    private static final StatementBinder NO_PARAMETERS = ps -> {
+    };
+
+    private final ReportMetrics metrics;
+
+    public JdbcReportDao() {
+        this(new ReportMetrics());
+    }
+
+    public JdbcReportDao(ReportMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    @Override
+    public List<User> findAllUsers() {
+        List<User> users = new ArrayList<>();
+        streamAllUsers(users::add);
+        return users;
+    }
+
+    @Override
+    public void streamAllUsers(Consumer<? super User> consumer) {
+        stream("allUsers", ALL_USERS_SQL, NO_PARAMETERS, JdbcReportDao::mapRowToUser, consumer);
+    }
+
+    @Override
+    public List<User> findUsersByUsernameContaining(String fragment) {
+        if (fragment == null) {
+            throw new IllegalArgumentException("fragment must not be null");
+        }
+
+        return query("usersByUsernameContaining", USERS_BY_USERNAME_CONTAINING_SQL,
+                ps -> ps.setString(1, "%" + escapeLike(fragment) + "%"),
+                JdbcReportDao::mapRowToUser);
+    }
+
+    @Override
+    public List<Product> findProductsPricedAbove(BigDecimal price) {
+        List<Product> products = new ArrayList<>();
+        streamProductsPricedAbove(price, products::add);
+        return products;
+    }
+
+    @Override
+    public void streamProductsPricedAbove(BigDecimal price, Consumer<? super Product> consumer) {
+        if (price == null) {
+            throw new IllegalArgumentException("price must not be null");
+        }
+
+        stream("productsPricedAbove", PRODUCTS_PRICED_ABOVE_SQL, ps -> ps.setBigDecimal(1, price),
+                JdbcReportDao::mapRowToProduct, consumer);
+    }
+
+    @Override
+    public List<User> findUsersWithoutDetails() {
+        return query("usersWithoutDetails", USERS_WITHOUT_DETAILS_SQL, NO_PARAMETERS, JdbcReportDao::mapRowToUser);
+    }
+
+    @Override
+    public List<ProductUserCount> findProductCartUserCounts() {
+        return query("productCartUserCounts", PRODUCT_CART_USER_COUNTS_SQL,
+                NO_PARAMETERS, JdbcReportDao::mapRowToProductUserCount);
+    }
+
+    @Override
+    public List<ProductUserCount> findTopCartedProducts(int limit) {
+        checkLimit(limit);
+
+        return query("topCartedProducts", TOP_CARTED_PRODUCTS_SQL,
+                ps -> ps.setInt(1, limit), JdbcReportDao::mapRowToProductUserCount);
+    }
+
+    @Override
+    public List<UserOrderTotal> findOrderTotalsPerUser() {
+        List<UserOrderTotal> totals = new ArrayList<>();
+        streamOrderTotalsPerUser(totals::add);
+        return totals;
+    }
+
+    @Override
+    public void streamOrderTotalsPerUser(Consumer<? super UserOrderTotal> consumer) {
+        stream("orderTotalsPerUser", ORDER_TOTALS_PER_USER_SQL,
+                NO_PARAMETERS, JdbcReportDao::mapRowToUserOrderTotal, consumer);
+    }
+
+    @Override
+    public List<CartItemView> findCartItems(Long userId) {
+        if (userId == null) {
+            throw new IllegalArgumentException("userId must not be null");
+        }
+
+        return query("cartItems", CART_ITEMS_SQL, ps -> ps.setLong(1, userId), rs -> new CartItemView(
+                rs.getLong("id"),
+                rs.getString("product_name"),
+                rs.getBigDecimal("price"),
+                rs.getInt("quantity")
+        ));
+    }
+
+    @Override
+    public List<UserOrderTotal> findUsersWithOrderTotalAbove(BigDecimal amount) {
+        if (amount == null) {
+            throw new IllegalArgumentException("amount must not be null");
+        }
+
+        return query("usersWithOrderTotalAbove", USERS_WITH_ORDER_TOTAL_ABOVE_SQL, ps -> ps.setBigDecimal(1, amount),
+                JdbcReportDao::mapRowToUserOrderTotal);
+    }
+
+    @Override
+    public List<UserPurchasedQuantity> findTopBuyersByPurchasedQuantity(int limit) {
+        checkLimit(limit);
+
+        return query("topBuyersByPurchasedQuantity", TOP_BUYERS_BY_PURCHASED_QUANTITY_SQL, ps -> ps.setInt(1, limit),
+                rs -> new UserPurchasedQuantity(
+                        rs.getLong("id"),
+                        rs.getString("username"),
+                        rs.getLong("purchased_quantity")
+                ));
+    }
+
+    @Override
+    public List<Product> findMostExpensiveProducts(int limit) {
+        checkLimit(limit);
+
+        return query("mostExpensiveProducts", MOST_EXPENSIVE_PRODUCTS_SQL,
+                ps -> ps.setInt(1, limit), JdbcReportDao::mapRowToProduct);
+    }
+
+    @Override
+    public List<Product> findProductsPricedAboveAverage() {
+        return query("productsPricedAboveAverage", PRODUCTS_PRICED_ABOVE_AVERAGE_SQL,
+                NO_PARAMETERS, JdbcReportDao::mapRowToProduct);
+    }
+
+    @Override
+    public List<UserCartValue> findUsersWithCartValueAboveAverage() {
+        return query("usersWithCartValueAboveAverage", USERS_WITH_CART_VALUE_ABOVE_AVERAGE_SQL,
+                NO_PARAMETERS, rs -> new UserCartValue(
+                rs.getLong("id"),
+                rs.getString("username"),
+                rs.getBigDecimal("cart_total")
+        ));
+    }
+
+    @Override
+    public List<User> findUsersWithAllCartItemsPricedAbove(BigDecimal price) {
+        if (price == null) {
+            throw new IllegalArgumentException("price must not be null");
+        }
+
+        return query("usersWithAllCartItemsPricedAbove", USERS_WITH_ALL_CART_ITEMS_PRICED_ABOVE_SQL,
+                ps -> ps.setBigDecimal(1, price),
+                JdbcReportDao::mapRowToUser);
+    }
+
+    @Override
+    public List<Product> findProductsInEveryCart() {
+        return query("productsInEveryCart", PRODUCTS_IN_EVERY_CART_SQL, NO_PARAMETERS, JdbcReportDao::mapRowToProduct);
+    }
+
+    @Override
+    public List<UserCartQuantity> findUsersWithCartQuantityAbove(long quantity) {
+        return query("usersWithCartQuantityAbove", USERS_WITH_CART_QUANTITY_ABOVE_SQL, ps -> ps.setLong(1, quantity),
+                JdbcReportDao::mapRowToUserCartQuantity);
+    }
+
+    @Override
+    public List<UserOrderTotal> findTopSpenders() {
+        return query("topSpenders", TOP_SPENDERS_SQL, NO_PARAMETERS, JdbcReportDao::mapRowToUserOrderTotal);
+    }
+
+    @Override
+    public List<UserCartQuantity> findUsersWithCartQuantityAboveAverage() {
+        return query("usersWithCartQuantityAboveAverage", USERS_WITH_CART_QUANTITY_ABOVE_AVERAGE_SQL, NO_PARAMETERS,
+                JdbcReportDao::mapRowToUserCartQuantity);
+    }
+
+    @Override
+    public List<Product> findProductsInExactlyOneCart() {
+        return query("productsInExactlyOneCart", PRODUCTS_IN_EXACTLY_ONE_CART_SQL,
+                NO_PARAMETERS, JdbcReportDao::mapRowToProduct);
+    }
+
+    @Override
+    public List<UserOrderTotal> findUsersWithOrderTotalAndCountAbove(BigDecimal amount, long ordersCount) {
+        if (amount == null) {
+            throw new IllegalArgumentException("amount must not be null");
+        }
+
+        return query("usersWithOrderTotalAndCountAbove", USERS_WITH_ORDER_TOTAL_AND_COUNT_ABOVE_SQL, ps -> {
+            ps.setBigDecimal(1, amount);
+            ps.setLong(2, ordersCount);
+        }, JdbcReportDao::mapRowToUserOrderTotal);
+    }
+
+    @Override
+    public List<ProductCartValue> findProductsByCartValue(int limit) {
+        checkLimit(limit);
+
+        return query("productsByCartValue", PRODUCTS_BY_CART_VALUE_SQL,
+                ps -> ps.setInt(1, limit), rs -> new ProductCartValue(
+                rs.getLong("id"),
+                rs.getString("product_name"),
+                rs.getBigDecimal("total_value_in_carts")
+        ));
+    }
+
+    @Override
+    public int rebuildUserOrderStats() {
+        log.debug("rebuildUserOrderStats() called");
+        DaoOperationEvent event = DaoOperationEvent.begin(JdbcReportDao.class, "rebuildUserOrderStats");
+
+        try (Connection connection = ConnectionManager.getConnection()) {
+            boolean autoCommit = connection.getAutoCommit();
+            connection.setAutoCommit(false);
+            try (Statement st = connection.createStatement()) {
+                st.executeUpdate("DELETE FROM user_order_stats");
+                int rows = st.executeUpdate("INSERT INTO user_order_stats (user_id, total_amount, orders_count) " +
+                        "SELECT user_id, SUM(total_amount), COUNT(*) FROM orders GROUP BY user_id");
+                connection.commit();
+                event.rowsAffected(rows);
+                log.debug("user_order_stats rebuilt, {} rows", rows);
+                event.succeeded();
+                return rows;
+            } catch (SQLException | RuntimeException e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                connection.setAutoCommit(autoCommit);
+            }
+        } catch (SQLException e) {
+            log.error("SQL error rebuilding user_order_stats", e);
+            throw new DaoException("Error rebuilding user_order_stats", e);
+        } finally {
+            event.finish();
+        }
+    }
+
+    @Override
+    public ReportMetrics getMetrics() {
+        return metrics;
+    }
+
+    private <T> List<T> query(String report, String sql, StatementBinder binder, RowMapper<T> mapper) {
+        List<T> rows = new ArrayList<>();
+        stream(report, sql, binder, mapper, rows::add);
+        return rows;
+    }
+
+    private <T> void stream(String report, String sql, StatementBinder binder, RowMapper<T> mapper,
+                            Consumer<? super T> consumer) {
+        log.debug("Report {} started", report);
+        DaoOperationEvent event = DaoOperationEvent.begin(JdbcReportDao.class, report);
+        long start = System.nanoTime();
+        int rows = 0;
+
+        try (Connection connection = ConnectionManager.getConnection()) {
+            boolean autoCommit = connection.getAutoCommit();
+            // PostgreSQL only honours the fetch size (cursor-based streaming) outside auto-commit mode.
+            connection.setAutoCommit(false);
+            try (PreparedStatement ps = connection.prepareStatement(sql)) {
+                ps.setFetchSize(FETCH_SIZE);
+                binder.bind(ps);
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        consumer.accept(mapper.map(rs));
+                        rows++;
+                    }
+                }
+                connection.commit();
+            } catch (SQLException | RuntimeException e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                connection.setAutoCommit(autoCommit);
+            }
+            event.succeeded();
+        } catch (SQLException e) {
+            log.error("SQL error running report {}", report, e);
+            throw new DaoException("Error running report " + report, e);
+        } finally {
+            long elapsed = System.nanoTime() - start;
+            metrics.record(report, elapsed, rows);
+            event.rowsAffected(rows);
+            event.finish();
+            log.debug("Report {} returned {} rows in {} ms", report, rows, elapsed / 1_000_000);
+        }
+    }
+
+    private static void checkLimit(int limit) {
+        if (limit <= 0) {
+            throw new IllegalArgumentException("limit must be > 0");
+        }
+    }
+
+    private static String escapeLike(String value) {
+        return value.replace("\\", "\\\\")
+                .replace("%", "\\%")
+                .replace("_", "\\_");
+    }
+
+    private static User mapRowToUser(ResultSet rs) throws SQLException {
+        return new User(
+                rs.getLong("id"),
+                rs.getString("username"),
+                rs.getString("email")
+        );
+    }
+
+    private static Product mapRowToProduct(ResultSet rs) throws SQLException {
+        return new Product(
+                rs.getLong("id"),
+                rs.getString("product_name"),
+                rs.getBigDecimal("price")
+        );
+    }
+
+    private static ProductUserCount mapRowToProductUserCount(ResultSet rs) throws SQLException {
+        return new ProductUserCount(
+                rs.getLong("id"),
+                rs.getString("product_name"),
+                rs.getLong("users_count")
+        );
+    }
+
+    private static UserOrderTotal mapRowToUserOrderTotal(ResultSet rs) throws SQLException {
+        return new UserOrderTotal(
+                rs.getLong("id"),
+                rs.getString("username"),
+                rs.getBigDecimal("total_amount"),
+                rs.getLong("orders_count")
+        );
+    }
+
+    private static UserCartQuantity mapRowToUserCartQuantity(ResultSet rs) throws SQLException {
+        return new UserCartQuantity(
+                rs.getLong("id"),
+                rs.getString("username"),
+                rs.getLong("total_quantity")
+        );
+    }
+
+    @FunctionalInterface
+    private interface StatementBinder {
+        void bind(PreparedStatement ps) throws SQLException;
+    }
+
+    @FunctionalInterface
+    private interface RowMapper<T> {
+        T map(ResultSet rs) throws SQLException;
+    }
+}
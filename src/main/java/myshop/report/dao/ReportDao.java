@@ -0,0 +1,92 @@
+package myshop.report.dao;
+
+import myshop.product.model.Product;
+import myshop.report.metrics.ReportMetrics;
+import myshop.report.model.CartItemView;
+import myshop.report.model.ProductCartValue;
+import myshop.report.model.ProductUserCount;
+import myshop.report.model.UserCartQuantity;
+import myshop.report.model.UserCartValue;
+import myshop.report.model.UserOrderTotal;
+import myshop.report.model.UserPurchasedQuantity;
+import myshop.user.model.User;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.function.Consumer;
+
+public interface ReportDao {
+    // 3.1
+    List<User> findAllUsers();
+
+    void streamAllUsers(Consumer<? super User> consumer);
+
+    // 3.2
+    List<User> findUsersByUsernameContaining(String fragment);
+
+    // 3.3
+    List<Product> findProductsPricedAbove(BigDecimal price);
+
+    void streamProductsPricedAbove(BigDecimal price, Consumer<? super Product> consumer);
+
+    // 3.4
+    List<User> findUsersWithoutDetails();
+
+    // 3.5
+    List<ProductUserCount> findProductCartUserCounts();
+
+    List<ProductUserCount> findTopCartedProducts(int limit);
+
+    // 3.6
+    List<UserOrderTotal> findOrderTotalsPerUser();
+
+    void streamOrderTotalsPerUser(Consumer<? super UserOrderTotal> consumer);
+
+    // 3.7
+    List<CartItemView> findCartItems(Long userId);
+
+    // 3.8
+    List<UserOrderTotal> findUsersWithOrderTotalAbove(BigDecimal amount);
+
+    // 3.9
+    List<UserPurchasedQuantity> findTopBuyersByPurchasedQuantity(int limit);
+
+    // 3.10
+    List<Product> findMostExpensiveProducts(int limit);
+
+    // 3.11
+    List<Product> findProductsPricedAboveAverage();
+
+    // 3.12, 3.13, 3.15, 3.17 read user_cart_summary and are as fresh as its last refresh
+    // 3.12
+    List<UserCartValue> findUsersWithCartValueAboveAverage();
+
+    // 3.13
+    List<User> findUsersWithAllCartItemsPricedAbove(BigDecimal price);
+
+    // 3.14
+    List<Product> findProductsInEveryCart();
+
+    // 3.15
+    List<UserCartQuantity> findUsersWithCartQuantityAbove(long quantity);
+
+    // 3.16
+    List<UserOrderTotal> findTopSpenders();
+
+    // 3.17
+    List<UserCartQuantity> findUsersWithCartQuantityAboveAverage();
+
+    // 3.18
+    List<Product> findProductsInExactlyOneCart();
+
+    // 3.19
+    List<UserOrderTotal> findUsersWithOrderTotalAndCountAbove(BigDecimal amount, long ordersCount);
+
+    // 3.20
+    List<ProductCartValue> findProductsByCartValue(int limit);
+
+    // Recomputes user_order_stats from orders, e.g. after writes that bypass OrderDao
+    int rebuildUserOrderStats();
+
+    ReportMetrics getMetrics();
+}
@@ -0,0 +1,58 @@
+package myshop.report.metrics;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+public class ReportMetrics {
+    private final ConcurrentMap<String, Counter> counters = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, LongSupplier> gauges = new ConcurrentHashMap<>();
+
+    public void record(String report, long elapsedNanos, long rows) {
+        Counter counter = counters.computeIfAbsent(report, name -> new Counter());
+        counter.calls.increment();
+        counter.rows.add(rows);
+        counter.totalNanos.add(elapsedNanos);
+        counter.maxNanos.accumulateAndGet(elapsedNanos, Math::max);
+    }
+
+    public ReportTiming get(String report) {
+        Counter counter = counters.get(report);
+        return counter == null ? new ReportTiming(report, 0, 0, 0, 0) : counter.snapshot(report);
+    }
+
+    public Map<String, ReportTiming> snapshot() {
+        Map<String, ReportTiming> result = new TreeMap<>();
+        counters.forEach((report, counter) -> result.put(report, counter.snapshot(report)));
+        return result;
+    }
+
+    public void registerGauge(String name, LongSupplier value) {
+        gauges.put(name, value);
+    }
+
+    public Map<String, Long> gauges() {
+        Map<String, Long> result = new TreeMap<>();
+        gauges.forEach((name, value) -> result.put(name, value.getAsLong()));
+        return result;
+    }
+
+    public void reset() {
+        counters.clear();
+    }
+
+    private static class Counter {
+        private final LongAdder calls = new LongAdder();
+        private final LongAdder rows = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private final AtomicLong maxNanos = new AtomicLong();
+
+        private ReportTiming snapshot(String report) {
+            return new ReportTiming(report, calls.sum(), rows.sum(), totalNanos.sum(), maxNanos.get());
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package myshop.report.metrics;
+
+public record ReportTiming(String report, long calls, long rows, long totalNanos, long maxNanos) {
+    public double averageMillis() {
+        return calls == 0 ? 0.0 : totalNanos / 1_000_000.0 / calls;
+    }
+
+    public double maxMillis() {
+        return maxNanos / 1_000_000.0;
+    }
+}
@@ -0,0 +1,17 @@
+package myshop.report.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CartItemView {
+    private Long productId;
+    private String productName;
+    private BigDecimal price;
+    private Integer quantity;
+}
@@ -0,0 +1,16 @@
+package myshop.report.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductCartValue {
+    private Long productId;
+    private String productName;
+    private BigDecimal totalValueInCarts;
+}
@@ -0,0 +1,17 @@
+package myshop.report.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserOrderTotal {
+    private Long userId;
+    private String username;
+    private BigDecimal totalAmount;
+    private Long ordersCount;
+}
@@ -0,0 +1,14 @@
+package myshop.report.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserPurchasedQuantity {
+    private Long userId;
+    private String username;
+    private Long purchasedQuantity;
+}
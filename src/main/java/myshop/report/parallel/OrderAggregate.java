@@ -0,0 +1,8 @@
+package myshop.report.parallel;
+
+import java.math.BigDecimal;
+import java.util.Map;
+
+public record OrderAggregate(BigDecimal totalAmount, long ordersCount, Map<Long, UserRevenue> perUser) {
+    public static final OrderAggregate EMPTY = new OrderAggregate(BigDecimal.ZERO, 0, Map.of());
+}
@@ -0,0 +1,153 @@
+package myshop.report.parallel;
+
+import lombok.extern.log4j.Log4j2;
+import myshop.common.config.ShopConfig;
+import myshop.common.db.ConnectionManager;
+import myshop.common.db.SqlStatements;
+import myshop.common.exception.DaoException;
+import myshop.common.jfr.DaoOperationEvent;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Aggregates {@code orders} by splitting the id range into partitions that are read concurrently,
+ * each over its own connection, and merging the partial BigDecimal sums in a fork-join tree.
+ */
+@Log4j2
+public class ParallelOrderAggregator {
+    private static final int PARTITIONS_PER_THREAD = 4;
+    private static final int FETCH_SIZE = 1000;
+
+    private final int parallelism;
+
+    public ParallelOrderAggregator() {
+        this(defaultParallelism());
+    }
+
+    public ParallelOrderAggregator(int parallelism) {
+        if (parallelism <= 0) {
+            throw new IllegalArgumentException("parallelism must be > 0");
+        }
+        this.parallelism = parallelism;
+    }
+
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    public OrderAggregate aggregate() {
+        log.debug("aggregate() called with parallelism = {}", parallelism);
+        long start = System.nanoTime();
+        long[] range = findIdRange();
+        if (range == null) {
+            return OrderAggregate.EMPTY;
+        }
+
+        long minId = range[0];
+        long maxId = range[1];
+        long partitions = (long) parallelism * PARTITIONS_PER_THREAD;
+        long partitionSize = Math.max(1, (maxId - minId + partitions) / partitions);
+
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            OrderAggregate result = pool.invoke(new RangeTask(minId, maxId, partitionSize)).toResult();
+            log.debug("Aggregated {} orders of {} users in {} ms", result.ordersCount(), result.perUser().size(),
+                    (System.nanoTime() - start) / 1_000_000);
+            return result;
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private static int defaultParallelism() {
+        ShopConfig config = ShopConfig.get();
+        int configured = config.getInt("report.parallel.threads", 0);
+        if (configured > 0) {
+            return configured;
+        }
+
+        int cores = Runtime.getRuntime().availableProcessors();
+        return config.isPoolEnabled() ? Math.min(cores, config.getPoolSize()) : cores;
+    }
+
+    private static long[] findIdRange() {
+        try (Connection connection = ConnectionManager.getConnection();
+             PreparedStatement ps = SqlStatements.ORDER_FIND_ID_RANGE.prepare(connection);
+             ResultSet rs = ps.executeQuery()) {
+            rs.next();
+            long maxId = rs.getLong("max_id");
+            return rs.wasNull() ? null : new long[]{rs.getLong("min_id"), maxId};
+        } catch (SQLException e) {
+            log.error("SQL error reading orders id range", e);
+            throw new DaoException("Error reading orders id range", e);
+        }
+    }
+
+    private static PartialAggregate readPartition(long fromId, long toId) {
+        DaoOperationEvent event = DaoOperationEvent.begin(ParallelOrderAggregator.class, "readPartition");
+        PartialAggregate partial = new PartialAggregate();
+        int rows = 0;
+
+        try (Connection connection = ConnectionManager.getConnection()) {
+            boolean autoCommit = connection.getAutoCommit();
+            connection.setAutoCommit(false);
+            try (PreparedStatement ps = SqlStatements.ORDER_FIND_BY_ID_RANGE.prepare(connection)) {
+                ps.setFetchSize(FETCH_SIZE);
+                ps.setLong(1, fromId);
+                ps.setLong(2, toId);
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        partial.add(rs.getLong("user_id"), rs.getBigDecimal("total_amount"));
+                        rows++;
+                    }
+                }
+                connection.commit();
+            } catch (SQLException | RuntimeException e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                connection.setAutoCommit(autoCommit);
+            }
+            event.rowsAffected(rows);
+            log.debug("Partition [{}, {}] read, {} orders", fromId, toId, rows);
+            event.succeeded();
+            return partial;
+        } catch (SQLException e) {
+            log.error("SQL error reading orders partition [{}, {}]", fromId, toId, e);
+            throw new DaoException("Error reading orders partition [" + fromId + ", " + toId + "]", e);
+        } finally {
+            event.finish();
+        }
+    }
+
+    private static class RangeTask extends RecursiveTask<PartialAggregate> {
+        private final long fromId;
+        private final long toId;
+        private final long partitionSize;
+
+        private RangeTask(long fromId, long toId, long partitionSize) {
+            this.fromId = fromId;
+            this.toId = toId;
+            this.partitionSize = partitionSize;
+        }
+
+        @Override
+        protected PartialAggregate compute() {
+            if (toId - fromId < partitionSize) {
+                return readPartition(fromId, toId);
+            }
+
+            long middle = fromId + (toId - fromId) / 2;
+            RangeTask left = new RangeTask(fromId, middle, partitionSize);
+            RangeTask right = new RangeTask(middle + 1, toId, partitionSize);
+            left.fork();
+            PartialAggregate rightResult = right.compute();
+            return left.join().merge(rightResult);
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package myshop.report.parallel;
+
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+class PartialAggregate {
+    private final Map<Long, Accumulator> perUser = new HashMap<>();
+    private BigDecimal totalAmount = BigDecimal.ZERO;
+    private long ordersCount;
+
+    void add(long userId, BigDecimal amount) {
+        totalAmount = totalAmount.add(amount);
+        ordersCount++;
+        Accumulator accumulator = perUser.computeIfAbsent(userId, id -> new Accumulator());
+        accumulator.totalAmount = accumulator.totalAmount.add(amount);
+        accumulator.ordersCount++;
+    }
+
+    PartialAggregate merge(PartialAggregate other) {
+        PartialAggregate target = perUser.size() >= other.perUser.size() ? this : other;
+        PartialAggregate source = target == this ? other : this;
+        target.totalAmount = target.totalAmount.add(source.totalAmount);
+        target.ordersCount += source.ordersCount;
+        source.perUser.forEach((userId, accumulator) -> target.perUser.merge(userId, accumulator, (a, b) -> {
+            a.totalAmount = a.totalAmount.add(b.totalAmount);
+            a.ordersCount += b.ordersCount;
+            return a;
+        }));
+        return target;
+    }
+
+    OrderAggregate toResult() {
+        Map<Long, UserRevenue> users = new TreeMap<>();
+        perUser.forEach((userId, accumulator) ->
+                users.put(userId, new UserRevenue(userId, accumulator.totalAmount, accumulator.ordersCount)));
+        return new OrderAggregate(totalAmount, ordersCount, users);
+    }
+
+    private static class Accumulator {
+        private BigDecimal totalAmount = BigDecimal.ZERO;
+        private long ordersCount;
+    }
+}
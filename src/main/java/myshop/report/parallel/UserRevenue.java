@@ -0,0 +1,6 @@
+package myshop.report.parallel;
+
+import java.math.BigDecimal;
+
+public record UserRevenue(long userId, BigDecimal totalAmount, long ordersCount) {
+}
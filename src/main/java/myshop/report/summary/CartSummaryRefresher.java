@@ -0,0 +1,89 @@
+package myshop.report.summary;
+
+import lombok.extern.log4j.Log4j2;
+import myshop.common.config.ShopConfig;
+import myshop.common.db.ConnectionManager;
+import myshop.common.exception.DaoException;
+import myshop.common.jfr.DaoOperationEvent;
+import myshop.report.metrics.ReportMetrics;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+@Log4j2
+public class CartSummaryRefresher implements AutoCloseable {
+    public static final String STALENESS_GAUGE = "userCartSummary.stalenessMillis";
+    static final String REFRESH_REPORT = "refreshUserCartSummary";
+    private static final String REFRESH_SQL = "REFRESH MATERIALIZED VIEW CONCURRENTLY user_cart_summary";
+
+    private final ReportMetrics metrics;
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "cart-summary-refresher");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private volatile long lastRefreshMillis = -1;
+
+    public CartSummaryRefresher(ReportMetrics metrics) {
+        this.metrics = metrics;
+        metrics.registerGauge(STALENESS_GAUGE, this::getStalenessMillis);
+    }
+
+    public void start() {
+        start(Duration.ofSeconds(ShopConfig.get().getLong("report.cart-summary.refresh-seconds", 60)));
+    }
+
+    public void start(Duration period) {
+        long millis = period.toMillis();
+        if (millis <= 0) {
+            throw new IllegalArgumentException("period must be positive");
+        }
+        scheduler.scheduleWithFixedDelay(this::refreshQuietly, 0, millis, TimeUnit.MILLISECONDS);
+        log.debug("user_cart_summary refresh scheduled every {} ms", millis);
+    }
+
+    public synchronized void refreshNow() {
+        log.debug("refreshNow() called");
+        DaoOperationEvent event = DaoOperationEvent.begin(CartSummaryRefresher.class, "refreshNow");
+        long startedAt = System.currentTimeMillis();
+        long start = System.nanoTime();
+
+        try (Connection connection = ConnectionManager.getConnection();
+             Statement st = connection.createStatement()) {
+            st.execute(REFRESH_SQL);
+            lastRefreshMillis = startedAt;
+            metrics.record(REFRESH_REPORT, System.nanoTime() - start, 0);
+            log.debug("user_cart_summary refreshed in {} ms", (System.nanoTime() - start) / 1_000_000);
+            event.succeeded();
+        } catch (SQLException e) {
+            log.error("SQL error refreshing user_cart_summary", e);
+            throw new DaoException("Error refreshing user_cart_summary", e);
+        } finally {
+            event.finish();
+        }
+    }
+
+    // Age of the data the view was built from; -1 until the first refresh by this process.
+    public long getStalenessMillis() {
+        long last = lastRefreshMillis;
+        return last < 0 ? -1 : System.currentTimeMillis() - last;
+    }
+
+    @Override
+    public void close() {
+        scheduler.shutdownNow();
+    }
+
+    private void refreshQuietly() {
+        try {
+            refreshNow();
+        } catch (RuntimeException e) {
+            log.warn("user_cart_summary refresh failed, serving stale data", e);
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package myshop.user.dao;
+
+import lombok.extern.log4j.Log4j2;
+import myshop.common.config.ShopConfig;
+
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+// Reloads the Bloom filters on a schedule, so users created by other instances, the bulk importer
+// or plain SQL are no longer reported as free after at most one period.
+@Log4j2
+public class BloomFilterRefresher implements AutoCloseable {
+    private final BloomFilteredUserDao userDao;
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "user-bloom-refresher");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public BloomFilterRefresher(BloomFilteredUserDao userDao) {
+        this.userDao = userDao;
+    }
+
+    public void start() {
+        start(Duration.ofSeconds(ShopConfig.get().getLong("user.bloom.refresh-seconds", 300)));
+    }
+
+    public void start(Duration period) {
+        long millis = period.toMillis();
+        if (millis <= 0) {
+            throw new IllegalArgumentException("period must be positive");
+        }
+        scheduler.scheduleWithFixedDelay(this::reloadQuietly, 0, millis, TimeUnit.MILLISECONDS);
+        log.debug("User Bloom filter reload scheduled every {} ms", millis);
+    }
+
+    @Override
+    public void close() {
+        scheduler.shutdownNow();
+    }
+
+    private void reloadQuietly() {
+        try {
+            userDao.reload();
+        } catch (RuntimeException e) {
+            log.warn("User Bloom filter reload failed, keeping the previous filters", e);
+        }
+    }
+}
@@ -0,0 +1,177 @@
+package myshop.user.dao;
+
+import lombok.extern.log4j.Log4j2;
+import myshop.common.bloom.BloomFilter;
+import myshop.common.config.ShopConfig;
+import myshop.user.model.User;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Answers "username/email is free" without a database round trip when the Bloom filters have never
+ * seen the value. Filters cover users loaded by {@link #reload()} and users written through this DAO;
+ * users created elsewhere are only seen after the next reload (see {@link BloomFilterRefresher}), so only
+ * the exists checks use the filters and lookups always go to the database. Deleted and renamed values stay
+ * in the filters and only cost a database check until the next reload.
+ */
+@Log4j2
+public class BloomFilteredUserDao implements UserDao {
+    private final UserDao delegate;
+    private final long expectedInsertions;
+    private final double falsePositiveProbability;
+    private final AtomicLong skippedLookups = new AtomicLong();
+    private final Object filtersLock = new Object();
+    // Guarded by filtersLock, like the publication of filters: users written while a reload reads the table.
+    private List<User> writtenDuringReload;
+    private volatile Filters filters;
+
+    public BloomFilteredUserDao(UserDao delegate) {
+        this(delegate,
+                ShopConfig.get().getLong("user.bloom.expected-insertions", 100_000),
+                Double.parseDouble(ShopConfig.get().get("user.bloom.false-positive-probability", "0.01")));
+    }
+
+    public BloomFilteredUserDao(UserDao delegate, long expectedInsertions, double falsePositiveProbability) {
+        this.delegate = delegate;
+        this.expectedInsertions = expectedInsertions;
+        this.falsePositiveProbability = falsePositiveProbability;
+    }
+
+    // Rebuilds the filters from all users, sized for twice the users read. Writes made during the rebuild
+    // are added to the new filters before they are published.
+    public synchronized void reload() {
+        List<User> users;
+        Filters next;
+        try {
+            synchronized (filtersLock) {
+                writtenDuringReload = new ArrayList<>();
+            }
+            users = delegate.findAllUsers();
+            next = new Filters(Math.max(expectedInsertions, 2L * users.size()), falsePositiveProbability);
+            for (User user : users) {
+                next.put(user);
+            }
+            synchronized (filtersLock) {
+                for (User user : writtenDuringReload) {
+                    next.put(user);
+                }
+                filters = next;
+            }
+        } finally {
+            synchronized (filtersLock) {
+                writtenDuringReload = null;
+            }
+        }
+        log.debug("User Bloom filters loaded with {} users, {} bits and {} hash functions each",
+                users.size(), next.usernames.getBitSize(), next.usernames.getHashFunctions());
+    }
+
+    public long getSkippedLookups() {
+        return skippedLookups.get();
+    }
+
+    @Override
+    public User createUser(User user) {
+        User created = delegate.createUser(user);
+        remember(created);
+        return created;
+    }
+
+    @Override
+    public List<User> findAllUsers() {
+        return delegate.findAllUsers();
+    }
+
+    @Override
+    public User findById(Long id) {
+        return delegate.findById(id);
+    }
+
+    @Override
+    public User findByUsername(String username) {
+        return delegate.findByUsername(username);
+    }
+
+    @Override
+    public User findByEmail(String email) {
+        return delegate.findByEmail(email);
+    }
+
+    @Override
+    public boolean existsByUsername(String username) {
+        if (username == null) {
+            throw new IllegalArgumentException("username must not be null");
+        }
+
+        if (!filters().usernames.mightContain(username)) {
+            skippedLookups.incrementAndGet();
+            return false;
+        }
+        return delegate.existsByUsername(username);
+    }
+
+    @Override
+    public boolean existsByEmail(String email) {
+        if (email == null) {
+            throw new IllegalArgumentException("email must not be null");
+        }
+
+        if (!filters().emails.mightContain(email)) {
+            skippedLookups.incrementAndGet();
+            return false;
+        }
+        return delegate.existsByEmail(email);
+    }
+
+    @Override
+    public void updateUser(User user) {
+        delegate.updateUser(user);
+        remember(user);
+    }
+
+    @Override
+    public void deleteById(Long id) {
+        delegate.deleteById(id);
+    }
+
+    private void remember(User user) {
+        synchronized (filtersLock) {
+            if (writtenDuringReload != null) {
+                writtenDuringReload.add(user);
+            }
+            if (filters != null) {
+                filters.put(user);
+            }
+        }
+    }
+
+    private Filters filters() {
+        Filters current = filters;
+        if (current == null) {
+            synchronized (this) {
+                if (filters == null) {
+                    reload();
+                }
+                current = filters;
+            }
+        }
+        return current;
+    }
+
+    private static final class Filters {
+        private final BloomFilter usernames;
+        private final BloomFilter emails;
+
+        private Filters(long expectedInsertions, double falsePositiveProbability) {
+            this.usernames = BloomFilter.create(expectedInsertions, falsePositiveProbability);
+            this.emails = BloomFilter.create(expectedInsertions, falsePositiveProbability);
+        }
+
+        private void put(User user) {
+            usernames.put(user.getUsername());
+            emails.put(user.getEmail());
+        }
+    }
+}
@@ -2,15 +2,27 @@ package myshop.user.dao;
 
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.EntityTransaction;
+import jakarta.persistence.TypedQuery;
 import lombok.extern.log4j.Log4j2;
 import myshop.common.exception.DaoException;
+import myshop.common.jfr.DaoOperationEvent;
+import myshop.common.jfr.TransactionCommitEvent;
 import myshop.common.jpa.JpaUtil;
 import myshop.user.model.User;
+import myshop.user.model.UserView;
 
 import java.util.List;
 
 @Log4j2
 public class HibernateUserDao implements UserDao {
+    public static final String FIND_ALL_USERS_JPQL = "SELECT u FROM User u";
+    public static final String FIND_ALL_USER_VIEWS_JPQL =
+            "SELECT new myshop.user.model.UserView(u.id, u.username, u.email) FROM User u";
+    public static final String FIND_BY_USERNAME_JPQL = "SELECT u FROM User u WHERE u.username = :value";
+    public static final String FIND_BY_EMAIL_JPQL = "SELECT u FROM User u WHERE u.email = :value";
+    public static final String COUNT_BY_USERNAME_JPQL = "SELECT COUNT(u) FROM User u WHERE u.username = :value";
+    public static final String COUNT_BY_EMAIL_JPQL = "SELECT COUNT(u) FROM User u WHERE u.email = :value";
+
     @Override
     public User createUser(User user) {
         if (user.getId() != null) {
@@ -18,6 +30,7 @@ public class HibernateUserDao implements UserDao {
         }
 
         log.debug("createUser() called with user = {}", user);
+        DaoOperationEvent event = DaoOperationEvent.begin(HibernateUserDao.class, "createUser");
 
         EntityManager em = JpaUtil.getEntityManager();
         EntityTransaction transaction = em.getTransaction();
@@ -25,8 +38,10 @@ public class HibernateUserDao implements UserDao {
         try {
             transaction.begin();
             em.persist(user);
-            transaction.commit();
-            log.info("User successfully created with id = {}", user.getId());
+            TransactionCommitEvent.commit(transaction, HibernateUserDao.class, "createUser");
+            event.rowsAffected(1);
+            log.debug("User successfully created with id = {}", user.getId());
+            event.succeeded();
             return user;
         } catch (Exception e) {
             if (transaction.isActive()) {
@@ -37,31 +52,58 @@ public class HibernateUserDao implements UserDao {
             throw new DaoException("Error creating user: " + user, e);
         } finally {
             em.close();
+            event.finish();
         }
     }
 
     @Override
     public List<User> findAllUsers() {
         log.debug("findAllUsers() called");
+        DaoOperationEvent event = DaoOperationEvent.begin(HibernateUserDao.class, "findAllUsers");
         EntityManager em = JpaUtil.getEntityManager();
 
         try {
-            String jpql = "SELECT u FROM User u";
-            List<User> userList = em.createQuery(jpql, User.class).getResultList();
-            log.info("{} userList found", userList.size());
+            TypedQuery<User> query = em.createQuery(FIND_ALL_USERS_JPQL, User.class);
+            JpaUtil.setReadOnlyOutsideUnitOfWork(query);
+            List<User> userList = query.getResultList();
+            event.rowsAffected(userList.size());
+            log.debug("{} userList found", userList.size());
+            event.succeeded();
             return userList;
         } catch (Exception e) {
             log.error("Error getting all users", e);
             throw new DaoException("Error getting all users", e);
         } finally {
             em.close();
+            event.finish();
         }
     }
 
+    // DTO projection: rows are built by the query and never enter the persistence context.
+    public List<UserView> findAllUserViews() {
+        log.debug("findAllUserViews() called");
+        DaoOperationEvent event = DaoOperationEvent.begin(HibernateUserDao.class, "findAllUserViews");
+        EntityManager em = JpaUtil.getEntityManager();
+
+        try {
+            List<UserView> views = em.createQuery(FIND_ALL_USER_VIEWS_JPQL, UserView.class).getResultList();
+            event.rowsAffected(views.size());
+            log.debug("{} user views found", views.size());
+            event.succeeded();
+            return views;
+        } catch (Exception e) {
+            log.error("Error getting all user views", e);
+            throw new DaoException("Error getting all user views", e);
+        } finally {
+            em.close();
+            event.finish();
+        }
+    }
 
     @Override
     public User findById(Long id) {
         log.debug("findById() called with id = {}", id);
+        DaoOperationEvent event = DaoOperationEvent.begin(HibernateUserDao.class, "findById");
         EntityManager em = JpaUtil.getEntityManager();
 
         try {
@@ -71,16 +113,59 @@ public class HibernateUserDao implements UserDao {
                 throw new DaoException("User with id = " + id + " not found");
             }
 
-            log.info("User with id = {} found: {}", id, foundUser);
+            event.rowsAffected(1);
+            log.debug("User with id = {} found: {}", id, foundUser);
+            event.succeeded();
             return foundUser;
         } catch (Exception e) {
             log.error("Error finding user by id = {}", id, e);
             throw new DaoException("Error finding user by id = " + id, e);
         } finally {
             em.close();
+            event.finish();
         }
     }
 
+    @Override
+    public User findByUsername(String username) {
+        if (username == null) {
+            throw new IllegalArgumentException("username must not be null");
+        }
+
+        log.debug("findByUsername() called with username = {}", username);
+        return findOneBy("findByUsername", FIND_BY_USERNAME_JPQL, "username", username);
+    }
+
+    @Override
+    public User findByEmail(String email) {
+        if (email == null) {
+            throw new IllegalArgumentException("email must not be null");
+        }
+
+        log.debug("findByEmail() called with email = {}", email);
+        return findOneBy("findByEmail", FIND_BY_EMAIL_JPQL, "email", email);
+    }
+
+    @Override
+    public boolean existsByUsername(String username) {
+        if (username == null) {
+            throw new IllegalArgumentException("username must not be null");
+        }
+
+        log.debug("existsByUsername() called with username = {}", username);
+        return exists("existsByUsername", COUNT_BY_USERNAME_JPQL, "username", username);
+    }
+
+    @Override
+    public boolean existsByEmail(String email) {
+        if (email == null) {
+            throw new IllegalArgumentException("email must not be null");
+        }
+
+        log.debug("existsByEmail() called with email = {}", email);
+        return exists("existsByEmail", COUNT_BY_EMAIL_JPQL, "email", email);
+    }
+
     @Override
     public void updateUser(User user) {
         if (user.getId() == null) {
@@ -88,6 +173,7 @@ public class HibernateUserDao implements UserDao {
         }
 
         log.debug("updateUser() called for user = {}", user);
+        DaoOperationEvent event = DaoOperationEvent.begin(HibernateUserDao.class, "updateUser");
 
         EntityManager em = JpaUtil.getEntityManager();
         EntityTransaction transaction = em.getTransaction();
@@ -95,8 +181,10 @@ public class HibernateUserDao implements UserDao {
         try {
             transaction.begin();
             em.merge(user);
-            transaction.commit();
-            log.info("User with id = {} successfully updated", user.getId());
+            TransactionCommitEvent.commit(transaction, HibernateUserDao.class, "updateUser");
+            event.rowsAffected(1);
+            log.debug("User with id = {} successfully updated", user.getId());
+            event.succeeded();
         } catch (Exception e) {
             if (transaction.isActive()) {
                 transaction.rollback();
@@ -106,12 +194,14 @@ public class HibernateUserDao implements UserDao {
             throw new DaoException("Error updating user: " + user, e);
         } finally {
             em.close();
+            event.finish();
         }
     }
 
     @Override
     public void deleteById(Long id) {
         log.debug("deleteById() called with id = {}", id);
+        DaoOperationEvent event = DaoOperationEvent.begin(HibernateUserDao.class, "deleteById");
         EntityManager em = JpaUtil.getEntityManager();
         EntityTransaction transaction = em.getTransaction();
 
@@ -124,8 +214,10 @@ public class HibernateUserDao implements UserDao {
             }
 
             em.remove(userToDelete);
-            transaction.commit();
-            log.info("User with id = {} successfully deleted", id);
+            TransactionCommitEvent.commit(transaction, HibernateUserDao.class, "deleteById");
+            event.rowsAffected(1);
+            log.debug("User with id = {} successfully deleted", id);
+            event.succeeded();
         } catch (Exception e) {
             if (transaction.isActive()) {
                 transaction.rollback();
@@ -134,6 +226,55 @@ public class HibernateUserDao implements UserDao {
             throw new DaoException("Error deleting user by id = " + id, e);
         } finally {
             em.close();
+            event.finish();
+        }
+    }
+
+    private User findOneBy(String method, String jpql, String attribute, String value) {
+        DaoOperationEvent event = DaoOperationEvent.begin(HibernateUserDao.class, method);
+        EntityManager em = JpaUtil.getEntityManager();
+
+        try {
+            List<User> users = em.createQuery(jpql, User.class)
+                    .setParameter("value", value)
+                    .getResultList();
+            event.rowsAffected(users.size());
+            if (users.isEmpty()) {
+                log.debug("User with {} = {} not found", attribute, value);
+                event.succeeded();
+                return null;
+            }
+
+            log.debug("User with {} = {} found: {}", attribute, value, users.get(0));
+            event.succeeded();
+            return users.get(0);
+        } catch (Exception e) {
+            log.error("Error finding user by {} = {}", attribute, value, e);
+            throw new DaoException("Error finding user by " + attribute + " = " + value, e);
+        } finally {
+            em.close();
+            event.finish();
+        }
+    }
+
+    private boolean exists(String method, String jpql, String attribute, String value) {
+        DaoOperationEvent event = DaoOperationEvent.begin(HibernateUserDao.class, method);
+        EntityManager em = JpaUtil.getEntityManager();
+
+        try {
+            boolean exists = em.createQuery(jpql, Long.class)
+                    .setParameter("value", value)
+                    .getSingleResult() > 0;
+            event.rowsAffected(exists ? 1 : 0);
+            log.debug("User with {} = {} exists: {}", attribute, value, exists);
+            event.succeeded();
+            return exists;
+        } catch (Exception e) {
+            log.error("Error checking user by {} = {}", attribute, value, e);
+            throw new DaoException("Error checking user by " + attribute + " = " + value, e);
+        } finally {
+            em.close();
+            event.finish();
         }
     }
-}
\ No newline at end of file
+}
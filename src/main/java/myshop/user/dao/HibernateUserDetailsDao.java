@@ -4,6 +4,8 @@ import jakarta.persistence.EntityManager;
 import jakarta.persistence.EntityTransaction;
 import lombok.extern.log4j.Log4j2;
 import myshop.common.exception.DaoException;
+import myshop.common.jfr.DaoOperationEvent;
+import myshop.common.jfr.TransactionCommitEvent;
 import myshop.common.jpa.JpaUtil;
 import myshop.user.model.UserDetails;
 
@@ -11,6 +13,8 @@ import java.util.List;
 
 @Log4j2
 public class HibernateUserDetailsDao implements UserDetailsDao {
+    public static final String FIND_ALL_USER_DETAILS_JPQL = "SELECT ud FROM UserDetails ud";
+
     @Override
     public void createUserDetails(UserDetails userDetails) {
         if (userDetails.getUserId() == null) {
@@ -18,6 +22,7 @@ public class HibernateUserDetailsDao implements UserDetailsDao {
         }
 
         log.debug("createUserDetails() called with userDetails = {}", userDetails);
+        DaoOperationEvent event = DaoOperationEvent.begin(HibernateUserDetailsDao.class, "createUserDetails");
 
         EntityManager em = JpaUtil.getEntityManager();
         EntityTransaction transaction = em.getTransaction();
@@ -25,9 +30,11 @@ public class HibernateUserDetailsDao implements UserDetailsDao {
         try {
             transaction.begin();
             em.persist(userDetails);
-            transaction.commit();
-            log.info("userDetails: {} created for userId = {}, ",
+            TransactionCommitEvent.commit(transaction, HibernateUserDetailsDao.class, "createUserDetails");
+            event.rowsAffected(1);
+            log.debug("userDetails: {} created for userId = {}, ",
                     userDetails, userDetails.getUserId());
+            event.succeeded();
         } catch (Exception e) {
             if (transaction.isActive()) {
                 transaction.rollback();
@@ -37,30 +44,36 @@ public class HibernateUserDetailsDao implements UserDetailsDao {
             throw new DaoException("Error creating userDetails: " + userDetails, e);
         } finally {
             em.close();
+            event.finish();
         }
     }
 
     @Override
     public List<UserDetails> findAllUserDetails() {
         log.debug("findAllUserDetails() called");
+        DaoOperationEvent event = DaoOperationEvent.begin(HibernateUserDetailsDao.class, "findAllUserDetails");
 
         EntityManager em = JpaUtil.getEntityManager();
         try {
-            String jpql = "SELECT ud FROM UserDetails ud";
-            List<UserDetails> userDetailsList = em.createQuery(jpql, UserDetails.class).getResultList();
-            log.info("{} entries found in userDetails", userDetailsList.size());
+            List<UserDetails> userDetailsList = em.createQuery(FIND_ALL_USER_DETAILS_JPQL, UserDetails.class).getResultList();
+            event.rowsAffected(userDetailsList.size());
+            log.debug("{} entries found in userDetails", userDetailsList.size());
+            event.succeeded();
             return userDetailsList;
         } catch (Exception e) {
             log.error("Error getting all userDetails", e);
             throw new DaoException("Error getting all userDetails", e);
         } finally {
             em.close();
+            event.finish();
         }
     }
 
     @Override
     public UserDetails findByUserId(Long userId) {
         log.debug("findByUserId() called with userId = {}", userId);
+        DaoOperationEvent event = DaoOperationEvent.begin(HibernateUserDetailsDao.class, "findByUserId")
+                .userId(userId);
 
         EntityManager em = JpaUtil.getEntityManager();
 
@@ -70,13 +83,16 @@ public class HibernateUserDetailsDao implements UserDetailsDao {
                 throw new DaoException("UserDetails with userId = " + userId + " not found");
             }
 
-            log.info("UserDetails for userId = {} found: {}", userId, foundUserDetails);
+            event.rowsAffected(1);
+            log.debug("UserDetails for userId = {} found: {}", userId, foundUserDetails);
+            event.succeeded();
             return foundUserDetails;
         } catch (Exception e) {
             log.error("Error finding userDetails by userId = {}", userId, e);
             throw new DaoException("Error finding userDetails by userId = " + userId, e);
         } finally {
             em.close();
+            event.finish();
         }
     }
 
@@ -87,6 +103,7 @@ public class HibernateUserDetailsDao implements UserDetailsDao {
         }
 
         log.debug("updateUserDetails() called with userDetails = {}", userDetails);
+        DaoOperationEvent event = DaoOperationEvent.begin(HibernateUserDetailsDao.class, "updateUserDetails");
 
         EntityManager em = JpaUtil.getEntityManager();
         EntityTransaction transaction = em.getTransaction();
@@ -94,9 +111,11 @@ public class HibernateUserDetailsDao implements UserDetailsDao {
         try {
             transaction.begin();
             em.merge(userDetails);
-            transaction.commit();
-            log.info("UserDetails with userId = {} has been updated successfully",
+            TransactionCommitEvent.commit(transaction, HibernateUserDetailsDao.class, "updateUserDetails");
+            event.rowsAffected(1);
+            log.debug("UserDetails with userId = {} has been updated successfully",
                     userDetails.getUserId());
+            event.succeeded();
         } catch (Exception e) {
             if (transaction.isActive()) {
                 transaction.rollback();
@@ -106,12 +125,15 @@ public class HibernateUserDetailsDao implements UserDetailsDao {
             throw new DaoException("Error updating userDetails: " + userDetails, e);
         } finally {
             em.close();
+            event.finish();
         }
     }
 
     @Override
     public void deleteByUserId(Long userId) {
         log.debug("deleteByUserId() called with userId = {}", userId);
+        DaoOperationEvent event = DaoOperationEvent.begin(HibernateUserDetailsDao.class, "deleteByUserId")
+                .userId(userId);
 
         EntityManager em = JpaUtil.getEntityManager();
         EntityTransaction transaction = em.getTransaction();
@@ -125,8 +147,10 @@ public class HibernateUserDetailsDao implements UserDetailsDao {
             }
 
             em.remove(userDetailsToDelete);
-            transaction.commit();
-            log.info("UserDetails with userId = {} successfully deleted", userId);
+            TransactionCommitEvent.commit(transaction, HibernateUserDetailsDao.class, "deleteByUserId");
+            event.rowsAffected(1);
+            log.debug("UserDetails with userId = {} successfully deleted", userId);
+            event.succeeded();
         } catch (Exception e) {
             if (transaction.isActive()) {
                 transaction.rollback();
@@ -135,6 +159,7 @@ public class HibernateUserDetailsDao implements UserDetailsDao {
             throw new DaoException("Error deleting userDetails by userId = " + userId, e);
         } finally {
             em.close();
+            event.finish();
         }
     }
 }
\ No newline at end of file
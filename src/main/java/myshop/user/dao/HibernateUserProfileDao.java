@@ -0,0 +1,81 @@
+package myshop.user.dao;
+
+import jakarta.persistence.EntityManager;
+import lombok.extern.log4j.Log4j2;
+import myshop.common.exception.DaoException;
+import myshop.common.jfr.DaoOperationEvent;
+import myshop.common.jpa.JpaUtil;
+import myshop.user.model.UserProfile;
+
+import java.util.List;
+
+@Log4j2
+public class HibernateUserProfileDao implements UserProfileDao {
+    private static final String SELECT_PROFILE_JPQL = "SELECT new myshop.user.model.UserProfile("
+            + "u.id, u.username, u.email, d.firstName, d.lastName, d.address, d.phone) "
+            + "FROM User u LEFT JOIN UserDetails d ON d.userId = u.id ";
+    public static final String FIND_BY_USER_ID_JPQL = SELECT_PROFILE_JPQL + "WHERE u.id = :userId";
+    public static final String FIND_PROFILES_JPQL = SELECT_PROFILE_JPQL + "WHERE u.id > :afterUserId ORDER BY u.id";
+
+    @Override
+    public UserProfile findByUserId(Long userId) {
+        if (userId == null) {
+            throw new IllegalArgumentException("userId must not be null");
+        }
+
+        log.debug("findByUserId() called with userId = {}", userId);
+        DaoOperationEvent event = DaoOperationEvent.begin(HibernateUserProfileDao.class, "findByUserId")
+                .userId(userId);
+        EntityManager em = JpaUtil.getEntityManager();
+
+        try {
+            List<UserProfile> profiles = em.createQuery(FIND_BY_USER_ID_JPQL, UserProfile.class)
+                    .setParameter("userId", userId)
+                    .getResultList();
+            event.rowsAffected(profiles.size());
+            if (profiles.isEmpty()) {
+                log.debug("User with id = {} not found", userId);
+                event.succeeded();
+                return null;
+            }
+
+            log.debug("Profile of user with id = {} found: {}", userId, profiles.get(0));
+            event.succeeded();
+            return profiles.get(0);
+        } catch (Exception e) {
+            log.error("Error getting profile of user with id = {}", userId, e);
+            throw new DaoException("Error getting profile of user with id = " + userId, e);
+        } finally {
+            em.close();
+            event.finish();
+        }
+    }
+
+    @Override
+    public List<UserProfile> findProfiles(long afterUserId, int limit) {
+        if (limit <= 0) {
+            throw new IllegalArgumentException("limit must be > 0");
+        }
+
+        log.debug("findProfiles() called with afterUserId = {}, limit = {}", afterUserId, limit);
+        DaoOperationEvent event = DaoOperationEvent.begin(HibernateUserProfileDao.class, "findProfiles");
+        EntityManager em = JpaUtil.getEntityManager();
+
+        try {
+            List<UserProfile> profiles = em.createQuery(FIND_PROFILES_JPQL, UserProfile.class)
+                    .setParameter("afterUserId", afterUserId)
+                    .setMaxResults(limit)
+                    .getResultList();
+            event.rowsAffected(profiles.size());
+            log.debug("{} user profiles found", profiles.size());
+            event.succeeded();
+            return profiles;
+        } catch (Exception e) {
+            log.error("Error getting user profiles after id = {}", afterUserId, e);
+            throw new DaoException("Error getting user profiles after id = " + afterUserId, e);
+        } finally {
+            em.close();
+            event.finish();
+        }
+    }
+}
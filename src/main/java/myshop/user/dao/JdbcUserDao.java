@@ -2,7 +2,10 @@ package myshop.user.dao;
 
 import lombok.extern.log4j.Log4j2;
 import myshop.common.db.ConnectionManager;
+import myshop.common.db.NamedSql;
+import myshop.common.db.SqlStatements;
 import myshop.common.exception.DaoException;
+import myshop.common.jfr.DaoOperationEvent;
 import myshop.user.model.User;
 
 import java.sql.Connection;
@@ -22,12 +25,12 @@ public class JdbcUserDao implements UserDao {
         }
 
         log.debug("createUser() called with user = {}", user);
+        DaoOperationEvent event = DaoOperationEvent.begin(JdbcUserDao.class, "createUser");
 
-        String sql = "INSERT INTO users (username, email) VALUES (?, ?) RETURNING id";
         try (Connection connection = ConnectionManager.getConnection();
-             PreparedStatement ps = connection.prepareStatement(sql)) {
+             PreparedStatement ps = SqlStatements.USER_INSERT.prepare(connection)) {
 
-            log.trace("Preparing request: {}", sql);
+            log.trace("Preparing request: {}", SqlStatements.USER_INSERT.sql());
 
             ps.setString(1, user.getUsername());
             ps.setString(2, user.getEmail());
@@ -35,7 +38,9 @@ public class JdbcUserDao implements UserDao {
                 if (rs.next()) {
                     Long generatedId = rs.getLong("id");
                     user.setId(generatedId);
-                    log.info("User successfully created, id = {}", generatedId);
+                    event.rowsAffected(1);
+                    log.debug("User successfully created, id = {}", generatedId);
+                    event.succeeded();
                     return user;
                 } else {
                     log.error("ResultSet is empty when creating user: {}", user);
@@ -46,101 +51,209 @@ public class JdbcUserDao implements UserDao {
         } catch (SQLException e) {
             log.error("SQL error creating user: {}", user, e);
             throw new DaoException("Error creating user: " + user, e);
+        } finally {
+            event.finish();
         }
     }
 
     @Override
     public List<User> findAllUsers() {
-        String sql = "SELECT id, username, email FROM users";
         log.debug("findAllUsers() called");
+        DaoOperationEvent event = DaoOperationEvent.begin(JdbcUserDao.class, "findAllUsers");
 
         List<User> users = new ArrayList<>();
         try (Connection connection = ConnectionManager.getConnection();
-             PreparedStatement ps = connection.prepareStatement(sql);
+             PreparedStatement ps = SqlStatements.USER_FIND_ALL.prepare(connection);
              ResultSet rs = ps.executeQuery()) {
             while (rs.next()) {
                 users.add(mapRowToUser(rs));
             }
 
-            log.info("{} users found", users.size());
+            event.rowsAffected(users.size());
+            log.debug("{} users found", users.size());
+            event.succeeded();
         } catch (SQLException e) {
             log.error("SQL error while getting all users", e);
             throw new DaoException("Error getting list of all users", e);
+        } finally {
+            event.finish();
         }
         return users;
     }
 
     @Override
     public User findById(Long id) {
-        String sql = "SELECT id, username, email FROM users WHERE id = ?";
         log.debug("findById() called with id = {}", id);
+        DaoOperationEvent event = DaoOperationEvent.begin(JdbcUserDao.class, "findById");
 
         try (Connection connection = ConnectionManager.getConnection();
-             PreparedStatement ps = connection.prepareStatement(sql)) {
+             PreparedStatement ps = SqlStatements.USER_FIND_BY_ID.prepare(connection)) {
             ps.setLong(1, id);
             try (ResultSet rs = ps.executeQuery()) {
                 if (rs.next()) {
                     User user = mapRowToUser(rs);
-                    log.info("User with id = {} found: {}", id, user);
+                    event.rowsAffected(1);
+                    log.debug("User with id = {} found: {}", id, user);
+                    event.succeeded();
                     return user;
                 } else {
-                    log.info("User with id = {} not found", id);
+                    log.debug("User with id = {} not found", id);
+                    event.succeeded();
                     return null;
                 }
             }
         } catch (SQLException e) {
             log.error("SQL error while searching for user by id = {}", id, e);
             throw new DaoException("Error getting user by id = " + id, e);
+        } finally {
+            event.finish();
         }
     }
 
+    @Override
+    public User findByUsername(String username) {
+        if (username == null) {
+            throw new IllegalArgumentException("username must not be null");
+        }
+
+        log.debug("findByUsername() called with username = {}", username);
+        return findOneBy("findByUsername", SqlStatements.USER_FIND_BY_USERNAME, "username", username);
+    }
+
+    @Override
+    public User findByEmail(String email) {
+        if (email == null) {
+            throw new IllegalArgumentException("email must not be null");
+        }
+
+        log.debug("findByEmail() called with email = {}", email);
+        return findOneBy("findByEmail", SqlStatements.USER_FIND_BY_EMAIL, "email", email);
+    }
+
+    @Override
+    public boolean existsByUsername(String username) {
+        if (username == null) {
+            throw new IllegalArgumentException("username must not be null");
+        }
+
+        log.debug("existsByUsername() called with username = {}", username);
+        return exists("existsByUsername", SqlStatements.USER_EXISTS_BY_USERNAME, "username", username);
+    }
+
+    @Override
+    public boolean existsByEmail(String email) {
+        if (email == null) {
+            throw new IllegalArgumentException("email must not be null");
+        }
+
+        log.debug("existsByEmail() called with email = {}", email);
+        return exists("existsByEmail", SqlStatements.USER_EXISTS_BY_EMAIL, "email", email);
+    }
+
     @Override
     public void updateUser(User user) {
         if (user.getId() == null) {
             throw new IllegalArgumentException("You can't update user without ID");
         }
 
-        String sql = "UPDATE users SET username = ?, email = ? WHERE id = ?";
         log.debug("updateUser() called for user = {}", user);
+        DaoOperationEvent event = DaoOperationEvent.begin(JdbcUserDao.class, "updateUser");
 
         try (Connection connection = ConnectionManager.getConnection();
-             PreparedStatement ps = connection.prepareStatement(sql)) {
+             PreparedStatement ps = SqlStatements.USER_UPDATE.prepare(connection)) {
             ps.setString(1, user.getUsername());
             ps.setString(2, user.getEmail());
             ps.setLong(3, user.getId());
             int updatedRow = ps.executeUpdate();
+            event.rowsAffected(updatedRow);
             if (updatedRow == 0) {
                 log.warn("User with id = {} not found, update failed", user.getId());
                 throw new DaoException("User with id = " + user.getId()
                         + " not found, update failed");
             }
 
-            log.info("User with id = {} successfully updated", user.getId());
+            log.debug("User with id = {} successfully updated", user.getId());
+            event.succeeded();
         } catch (SQLException e) {
             log.error("SQL error updating user: {}", user, e);
             throw new DaoException("Error updating user: " + user, e);
+        } finally {
+            event.finish();
         }
     }
 
     @Override
     public void deleteById(Long id) {
-        String sql = "DELETE FROM users WHERE id = ?";
         log.debug("deleteById() called with id = {}", id);
+        DaoOperationEvent event = DaoOperationEvent.begin(JdbcUserDao.class, "deleteById");
 
         try (Connection connection = ConnectionManager.getConnection();
-             PreparedStatement ps = connection.prepareStatement(sql)) {
+             PreparedStatement ps = SqlStatements.USER_DELETE.prepare(connection)) {
             ps.setLong(1, id);
             int deletedRow = ps.executeUpdate();
+            event.rowsAffected(deletedRow);
             if (deletedRow == 0) {
                 log.warn("User with id = {} not found, deletion failed", id);
                 throw new DaoException("User with id = " + id
                         + " not found, deletion failed");
             }
 
-            log.info("User with id = {} successfully deleted", id);
+            log.debug("User with id = {} successfully deleted", id);
+            event.succeeded();
         } catch (SQLException e) {
             log.error("SQL error when deleting user with id = {}", id, e);
             throw new DaoException("Error deleting user by ID = " + id, e);
+        } finally {
+            event.finish();
+        }
+    }
+
+    private User findOneBy(String method, NamedSql statement, String column, String value) {
+        DaoOperationEvent event = DaoOperationEvent.begin(JdbcUserDao.class, method);
+
+        try (Connection connection = ConnectionManager.getConnection();
+             PreparedStatement ps = statement.prepare(connection)) {
+            ps.setString(1, value);
+            try (ResultSet rs = ps.executeQuery()) {
+                if (rs.next()) {
+                    User user = mapRowToUser(rs);
+                    event.rowsAffected(1);
+                    log.debug("User with {} = {} found: {}", column, value, user);
+                    event.succeeded();
+                    return user;
+                } else {
+                    log.debug("User with {} = {} not found", column, value);
+                    event.succeeded();
+                    return null;
+                }
+            }
+        } catch (SQLException e) {
+            log.error("SQL error while searching for user by {} = {}", column, value, e);
+            throw new DaoException("Error getting user by " + column + " = " + value, e);
+        } finally {
+            event.finish();
+        }
+    }
+
+    private boolean exists(String method, NamedSql statement, String column, String value) {
+        DaoOperationEvent event = DaoOperationEvent.begin(JdbcUserDao.class, method);
+
+        try (Connection connection = ConnectionManager.getConnection();
+             PreparedStatement ps = statement.prepare(connection)) {
+            ps.setString(1, value);
+            try (ResultSet rs = ps.executeQuery()) {
+                rs.next();
+                boolean exists = rs.getBoolean(1);
+                event.rowsAffected(exists ? 1 : 0);
+                log.debug("User with {} = {} exists: {}", column, value, exists);
+                event.succeeded();
+                return exists;
+            }
+        } catch (SQLException e) {
+            log.error("SQL error while checking user by {} = {}", column, value, e);
+            throw new DaoException("Error checking user by " + column + " = " + value, e);
+        } finally {
+            event.finish();
         }
     }
 
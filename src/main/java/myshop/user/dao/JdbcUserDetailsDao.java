@@ -2,7 +2,9 @@ package myshop.user.dao;
 
 import lombok.extern.log4j.Log4j2;
 import myshop.common.db.ConnectionManager;
+import myshop.common.db.SqlStatements;
 import myshop.common.exception.DaoException;
+import myshop.common.jfr.DaoOperationEvent;
 import myshop.user.model.UserDetails;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -23,69 +25,80 @@ public class JdbcUserDetailsDao implements UserDetailsDao {
             throw new IllegalArgumentException("When creating userDetails, userId must not be null.");
         }
 
-        String sql = "INSERT INTO user_details (user_id, first_name, last_name, address, phone) " +
-                "VALUES (?, ?, ?, ?, ?)";
         log.debug("createUserDetails() called with userDetails = {}", userDetails);
+        DaoOperationEvent event = DaoOperationEvent.begin(JdbcUserDetailsDao.class, "createUserDetails");
 
         try (Connection connection = ConnectionManager.getConnection();
-             PreparedStatement ps = connection.prepareStatement(sql)) {
+             PreparedStatement ps = SqlStatements.USER_DETAILS_INSERT.prepare(connection)) {
             ps.setLong(1, userDetails.getUserId());
             ps.setString(2, userDetails.getFirstName());
             ps.setString(3, userDetails.getLastName());
             ps.setString(4, userDetails.getAddress());
             ps.setString(5, userDetails.getPhone());
             int inserted = ps.executeUpdate();
-            log.info("userDetails created for userId = {}, rows inserted: {}",
+            event.rowsAffected(inserted);
+            log.debug("userDetails created for userId = {}, rows inserted: {}",
                     userDetails.getUserId(), inserted);
+            event.succeeded();
         } catch (SQLException e) {
             log.error("SQL error creating userDetails: {}", userDetails, e);
             throw new DaoException("Error creating userDetails: " + userDetails, e);
+        } finally {
+            event.finish();
         }
     }
 
     @Override
     public List<UserDetails> findAllUserDetails() {
-        String sql = "SELECT user_id, first_name, last_name, address, phone " +
-                "FROM user_details";
         log.debug("findAllUserDetails() called");
+        DaoOperationEvent event = DaoOperationEvent.begin(JdbcUserDetailsDao.class, "findAllUserDetails");
 
         List<UserDetails> userDetailsList = new ArrayList<>();
         try (Connection connection = ConnectionManager.getConnection();
-             PreparedStatement ps = connection.prepareStatement(sql);
+             PreparedStatement ps = SqlStatements.USER_DETAILS_FIND_ALL.prepare(connection);
              ResultSet rs = ps.executeQuery()) {
             while (rs.next()) {
                 userDetailsList.add(mapRowToUserDetails(rs));
             }
-            log.info("{} entries found in userDetails", userDetailsList.size());
+            event.rowsAffected(userDetailsList.size());
+            log.debug("{} entries found in userDetails", userDetailsList.size());
+            event.succeeded();
         } catch (SQLException e) {
             log.error("SQL error while retrieving all userDetails", e);
             throw new DaoException("Error retrieving all userDetails", e);
+        } finally {
+            event.finish();
         }
         return userDetailsList;
     }
 
     @Override
     public UserDetails findByUserId(Long userId) {
-        String sql = "SELECT user_id, first_name, last_name, address, phone " +
-                "FROM user_details WHERE user_id = ?";
         log.debug("findByUserId() called with userId = {}", userId);
+        DaoOperationEvent event = DaoOperationEvent.begin(JdbcUserDetailsDao.class, "findByUserId")
+                .userId(userId);
 
         try (Connection connection = ConnectionManager.getConnection();
-             PreparedStatement ps = connection.prepareStatement(sql)) {
+             PreparedStatement ps = SqlStatements.USER_DETAILS_FIND_BY_USER_ID.prepare(connection)) {
             ps.setLong(1, userId);
             try (ResultSet rs = ps.executeQuery()) {
                 if (rs.next()) {
                     UserDetails details = mapRowToUserDetails(rs);
-                    log.info("UserDetails for userId = {} found: {}", userId, details);
+                    event.rowsAffected(1);
+                    log.debug("UserDetails for userId = {} found: {}", userId, details);
+                    event.succeeded();
                     return details;
                 } else {
-                    log.info("UserDetails for userId = {} not found", userId);
+                    log.debug("UserDetails for userId = {} not found", userId);
+                    event.succeeded();
                     return null;
                 }
             }
         } catch (SQLException e) {
             log.error("SQL error while retrieving userDetails by userId = {}", userId, e);
             throw new DaoException("Error retrieving userDetails by userId = " + userId, e);
+        } finally {
+            event.finish();
         }
     }
 
@@ -95,50 +108,58 @@ public class JdbcUserDetailsDao implements UserDetailsDao {
             throw new IllegalArgumentException("Cannot update userDetails without userId");
         }
 
-        String sql = "UPDATE user_details SET first_name = ?, last_name = ?, address = ?, phone = ? " +
-                "WHERE user_id = ?";
         log.debug("updateUserDetails() called with userDetails = {}", userDetails);
+        DaoOperationEvent event = DaoOperationEvent.begin(JdbcUserDetailsDao.class, "updateUserDetails");
 
         try (Connection connection = ConnectionManager.getConnection();
-             PreparedStatement ps = connection.prepareStatement(sql)) {
+             PreparedStatement ps = SqlStatements.USER_DETAILS_UPDATE.prepare(connection)) {
             ps.setString(1, userDetails.getFirstName());
             ps.setString(2, userDetails.getLastName());
             ps.setString(3, userDetails.getAddress());
             ps.setString(4, userDetails.getPhone());
             ps.setLong(5, userDetails.getUserId());
             int updatedRow = ps.executeUpdate();
+            event.rowsAffected(updatedRow);
             if (updatedRow == 0) {
                 log.warn("UserDetails with userId = {} not found, update failed", userDetails.getUserId());
                 throw new DaoException("UserDetails with userId = " + userDetails.getUserId()
                         + " not found, update failed");
             }
 
-            log.info("UserDetails with userId = {} has been updated successfully", userDetails.getUserId());
+            log.debug("UserDetails with userId = {} has been updated successfully", userDetails.getUserId());
+            event.succeeded();
         } catch (SQLException e) {
             log.error("SQL error updating userDetails = {}", userDetails, e);
             throw new DaoException("Error updating userDetails " + userDetails, e);
+        } finally {
+            event.finish();
         }
     }
 
     @Override
     public void deleteByUserId(Long userId) {
-        String sql = "DELETE FROM user_details WHERE user_id = ?";
         log.debug("deleteByUserId() called with userId = {}", userId);
+        DaoOperationEvent event = DaoOperationEvent.begin(JdbcUserDetailsDao.class, "deleteByUserId")
+                .userId(userId);
 
         try (Connection connection = ConnectionManager.getConnection();
-             PreparedStatement ps = connection.prepareStatement(sql)) {
+             PreparedStatement ps = SqlStatements.USER_DETAILS_DELETE.prepare(connection)) {
             ps.setLong(1, userId);
             int deletedRow = ps.executeUpdate();
+            event.rowsAffected(deletedRow);
             if (deletedRow == 0) {
                 log.warn("UserDetails with userId = {} not found, deletion failed", userId);
                 throw new DaoException("UserDetails with userId = " + userId
                         + " not found, deletion failed");
             }
 
-            log.info("UserDetails with userId = {} successfully deleted", userId);
+            log.debug("UserDetails with userId = {} successfully deleted", userId);
+            event.succeeded();
         } catch (SQLException e) {
             log.error("SQL error deleting userDetails by userId = {}", userId, e);
             throw new DaoException("Error deleting userDetails by userId = " + userId, e);
+        } finally {
+            event.finish();
         }
     }
 
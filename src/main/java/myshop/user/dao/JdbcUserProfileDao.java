@@ -0,0 +1,96 @@
+package myshop.user.dao;
+
+import lombok.extern.log4j.Log4j2;
+import myshop.common.db.ConnectionManager;
+import myshop.common.db.SqlStatements;
+import myshop.common.exception.DaoException;
+import myshop.common.jfr.DaoOperationEvent;
+import myshop.user.model.UserProfile;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+@Log4j2
+public class JdbcUserProfileDao implements UserProfileDao {
+
+    @Override
+    public UserProfile findByUserId(Long userId) {
+        if (userId == null) {
+            throw new IllegalArgumentException("userId must not be null");
+        }
+
+        log.debug("findByUserId() called with userId = {}", userId);
+        DaoOperationEvent event = DaoOperationEvent.begin(JdbcUserProfileDao.class, "findByUserId").userId(userId);
+
+        try (Connection connection = ConnectionManager.getConnection();
+             PreparedStatement ps = SqlStatements.USER_PROFILE_FIND_BY_USER_ID.prepare(connection)) {
+            ps.setLong(1, userId);
+            try (ResultSet rs = ps.executeQuery()) {
+                if (rs.next()) {
+                    UserProfile profile = mapRowToUserProfile(rs);
+                    event.rowsAffected(1);
+                    log.debug("Profile of user with id = {} found: {}", userId, profile);
+                    event.succeeded();
+                    return profile;
+                } else {
+                    log.debug("User with id = {} not found", userId);
+                    event.succeeded();
+                    return null;
+                }
+            }
+        } catch (SQLException e) {
+            log.error("SQL error while getting profile of user with id = {}", userId, e);
+            throw new DaoException("Error getting profile of user with id = " + userId, e);
+        } finally {
+            event.finish();
+        }
+    }
+
+    @Override
+    public List<UserProfile> findProfiles(long afterUserId, int limit) {
+        if (limit <= 0) {
+            throw new IllegalArgumentException("limit must be > 0");
+        }
+
+        log.debug("findProfiles() called with afterUserId = {}, limit = {}", afterUserId, limit);
+        DaoOperationEvent event = DaoOperationEvent.begin(JdbcUserProfileDao.class, "findProfiles");
+
+        List<UserProfile> profiles = new ArrayList<>();
+        try (Connection connection = ConnectionManager.getConnection();
+             PreparedStatement ps = SqlStatements.USER_PROFILE_FIND_PAGE.prepare(connection)) {
+            ps.setLong(1, afterUserId);
+            ps.setInt(2, limit);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    profiles.add(mapRowToUserProfile(rs));
+                }
+            }
+
+            event.rowsAffected(profiles.size());
+            log.debug("{} user profiles found", profiles.size());
+            event.succeeded();
+        } catch (SQLException e) {
+            log.error("SQL error while getting user profiles after id = {}", afterUserId, e);
+            throw new DaoException("Error getting user profiles after id = " + afterUserId, e);
+        } finally {
+            event.finish();
+        }
+        return profiles;
+    }
+
+    private static UserProfile mapRowToUserProfile(ResultSet rs) throws SQLException {
+        return new UserProfile(
+                rs.getLong("id"),
+                rs.getString("username"),
+                rs.getString("email"),
+                rs.getString("first_name"),
+                rs.getString("last_name"),
+                rs.getString("address"),
+                rs.getString("phone")
+        );
+    }
+}
@@ -11,6 +11,16 @@ public interface UserDao {
 
     User findById(Long id);
 
+    // Returns null when no user has this username.
+    User findByUsername(String username);
+
+    // Returns null when no user has this email.
+    User findByEmail(String email);
+
+    boolean existsByUsername(String username);
+
+    boolean existsByEmail(String email);
+
     void updateUser(User user);
 
     void deleteById(Long id);
@@ -0,0 +1,13 @@
+package myshop.user.dao;
+
+import myshop.user.model.UserProfile;
+
+import java.util.List;
+
+public interface UserProfileDao {
+    // Returns null when the user does not exist.
+    UserProfile findByUserId(Long userId);
+
+    // Keyset page ordered by user id: profiles with id > afterUserId.
+    List<UserProfile> findProfiles(long afterUserId, int limit);
+}
@@ -0,0 +1,4 @@
+package myshop.user.importer;
+
+public record ImportedUser(long rowNumber, long userId) {
+}
@@ -0,0 +1,14 @@
+package myshop.user.importer;
+
+class InvalidRowException extends RuntimeException {
+    private final long rowNumber;
+
+    InvalidRowException(long rowNumber, String message) {
+        super(message);
+        this.rowNumber = rowNumber;
+    }
+
+    long getRowNumber() {
+        return rowNumber;
+    }
+}
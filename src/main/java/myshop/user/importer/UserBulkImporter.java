@@ -0,0 +1,257 @@
+package myshop.user.importer;
+
+import lombok.extern.log4j.Log4j2;
+import myshop.common.config.ShopConfig;
+import myshop.common.db.ConnectionManager;
+import myshop.common.exception.DaoException;
+import myshop.common.jfr.DaoOperationEvent;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Imports users with optional details from a CSV or NDJSON stream. Rows are validated in memory,
+ * then each batch is copied into a temporary staging table with COPY and merged into users and
+ * user_details in one transaction. Rows whose username or email is already taken are reported as
+ * errors; every committed batch stays imported even if a later batch fails.
+ */
+@Log4j2
+public class UserBulkImporter {
+    static final String CREATE_STAGING_SQL = "CREATE TEMP TABLE user_import_staging ("
+            + "row_number BIGINT PRIMARY KEY, username VARCHAR(50) NOT NULL, email VARCHAR(100) NOT NULL, "
+            + "first_name VARCHAR(50), last_name VARCHAR(50), address TEXT, phone VARCHAR(20), user_id BIGINT"
+            + ") ON COMMIT DROP";
+    static final String COPY_SQL = "COPY user_import_staging "
+            + "(row_number, username, email, first_name, last_name, address, phone) FROM STDIN (FORMAT csv)";
+    static final String MERGE_USERS_SQL = "WITH inserted AS ("
+            + "INSERT INTO users (username, email) "
+            + "SELECT username, email FROM user_import_staging ORDER BY row_number "
+            + "ON CONFLICT DO NOTHING RETURNING id, username) "
+            + "UPDATE user_import_staging s SET user_id = i.id FROM inserted i WHERE s.username = i.username";
+    static final String MERGE_USER_DETAILS_SQL = "INSERT INTO user_details "
+            + "(user_id, first_name, last_name, address, phone) "
+            + "SELECT user_id, first_name, last_name, address, phone FROM user_import_staging "
+            + "WHERE user_id IS NOT NULL AND num_nonnulls(first_name, last_name, address, phone) > 0";
+    static final String SELECT_MERGED_SQL = "SELECT row_number, user_id FROM user_import_staging ORDER BY row_number";
+
+    private static final int COPY_BUFFER_CHARS = 64 * 1024;
+
+    private final int batchSize;
+
+    public UserBulkImporter() {
+        this(ShopConfig.get().getInt("user.import.batch-size", 10_000));
+    }
+
+    public UserBulkImporter(int batchSize) {
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("batchSize must be > 0");
+        }
+        this.batchSize = batchSize;
+    }
+
+    public UserImportResult importUsers(Reader source, UserImportFormat format) {
+        if (source == null || format == null) {
+            throw new IllegalArgumentException("source and format must not be null");
+        }
+
+        log.debug("importUsers() called with format = {}, batchSize = {}", format, batchSize);
+        long start = System.nanoTime();
+        List<ImportedUser> imported = new ArrayList<>();
+        List<UserImportError> errors = new ArrayList<>();
+        Set<String> usernames = new HashSet<>();
+        Set<String> emails = new HashSet<>();
+        List<UserImportRow> batch = new ArrayList<>(batchSize);
+        long rowsRead = 0;
+
+        try {
+            UserImportReader reader = UserImportReader.open(source, format);
+            while (true) {
+                UserImportRow row;
+                try {
+                    row = reader.next();
+                } catch (InvalidRowException e) {
+                    rowsRead++;
+                    errors.add(new UserImportError(e.getRowNumber(), e.getMessage()));
+                    continue;
+                }
+                if (row == null) {
+                    break;
+                }
+
+                rowsRead++;
+                String error = validate(row, usernames, emails);
+                if (error != null) {
+                    errors.add(new UserImportError(row.rowNumber(), error));
+                    continue;
+                }
+                batch.add(row);
+                if (batch.size() == batchSize) {
+                    importBatch(batch, imported, errors);
+                    batch.clear();
+                }
+            }
+            if (!batch.isEmpty()) {
+                importBatch(batch, imported, errors);
+            }
+        } catch (IOException e) {
+            log.error("Error reading user import source after {} rows", rowsRead, e);
+            throw new UncheckedIOException("Error reading user import source after " + rowsRead + " rows", e);
+        }
+
+        errors.sort(Comparator.comparingLong(UserImportError::rowNumber));
+        UserImportResult result = new UserImportResult(imported, errors, rowsRead, System.nanoTime() - start);
+        log.info("User import finished: {} rows read, {} imported, {} rejected in {} ms ({} rows/s)",
+                rowsRead, imported.size(), errors.size(), result.elapsedNanos() / 1_000_000,
+                Math.round(result.rowsPerSecond()));
+        return result;
+    }
+
+    private static String validate(UserImportRow row, Set<String> usernames, Set<String> emails) {
+        if (row.username() == null || row.username().isBlank()) {
+            return "username is required";
+        }
+        if (row.email() == null || row.email().isBlank()) {
+            return "email is required";
+        }
+        int at = row.email().indexOf('@');
+        if (at <= 0 || at == row.email().length() - 1) {
+            return "email is invalid";
+        }
+        String tooLong = tooLong(row);
+        if (tooLong != null) {
+            return tooLong;
+        }
+        if (usernames.contains(row.username())) {
+            return "duplicate username in source: " + row.username();
+        }
+        if (emails.contains(row.email())) {
+            return "duplicate email in source: " + row.email();
+        }
+
+        usernames.add(row.username());
+        emails.add(row.email());
+        return null;
+    }
+
+    private static String tooLong(UserImportRow row) {
+        if (row.username().length() > 50) {
+            return "username is longer than 50 characters";
+        }
+        if (row.email().length() > 100) {
+            return "email is longer than 100 characters";
+        }
+        if (row.firstName() != null && row.firstName().length() > 50) {
+            return "first_name is longer than 50 characters";
+        }
+        if (row.lastName() != null && row.lastName().length() > 50) {
+            return "last_name is longer than 50 characters";
+        }
+        if (row.phone() != null && row.phone().length() > 20) {
+            return "phone is longer than 20 characters";
+        }
+        return null;
+    }
+
+    private void importBatch(List<UserImportRow> batch, List<ImportedUser> imported, List<UserImportError> errors) {
+        long firstRow = batch.get(0).rowNumber();
+        DaoOperationEvent event = DaoOperationEvent.begin(UserBulkImporter.class, "importBatch");
+        long start = System.nanoTime();
+
+        List<ImportedUser> batchImported = new ArrayList<>(batch.size());
+        List<UserImportError> batchErrors = new ArrayList<>();
+        try (Connection connection = ConnectionManager.getConnection()) {
+            boolean autoCommit = connection.getAutoCommit();
+            connection.setAutoCommit(false);
+            try (Statement st = connection.createStatement()) {
+                st.execute(CREATE_STAGING_SQL);
+                copy(connection, batch);
+                // Temporary tables are never auto-analyzed; without statistics the merge join is planned for ~1000 rows.
+                st.execute("ANALYZE user_import_staging");
+                st.executeUpdate(MERGE_USERS_SQL);
+                st.executeUpdate(MERGE_USER_DETAILS_SQL);
+                try (ResultSet rs = st.executeQuery(SELECT_MERGED_SQL)) {
+                    while (rs.next()) {
+                        long rowNumber = rs.getLong("row_number");
+                        long userId = rs.getLong("user_id");
+                        if (rs.wasNull()) {
+                            batchErrors.add(new UserImportError(rowNumber, "username or email already exists"));
+                        } else {
+                            batchImported.add(new ImportedUser(rowNumber, userId));
+                        }
+                    }
+                }
+                connection.commit();
+            } catch (SQLException | RuntimeException e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                connection.setAutoCommit(autoCommit);
+            }
+
+            imported.addAll(batchImported);
+            errors.addAll(batchErrors);
+            event.rowsAffected(batchImported.size());
+            log.debug("User import batch from row {}: {} imported, {} rejected in {} ms", firstRow,
+                    batchImported.size(), batchErrors.size(), (System.nanoTime() - start) / 1_000_000);
+            event.succeeded();
+        } catch (SQLException e) {
+            log.error("SQL error importing batch of {} users starting at row {}", batch.size(), firstRow, e);
+            throw new DaoException("Error importing batch of users starting at row " + firstRow, e);
+        } finally {
+            event.finish();
+        }
+    }
+
+    private static void copy(Connection connection, List<UserImportRow> batch) throws SQLException {
+        CopyIn copyIn = connection.unwrap(PGConnection.class).getCopyAPI().copyIn(COPY_SQL);
+        try {
+            StringBuilder buffer = new StringBuilder(COPY_BUFFER_CHARS + 1024);
+            for (UserImportRow row : batch) {
+                buffer.append(row.rowNumber());
+                appendField(buffer, row.username());
+                appendField(buffer, row.email());
+                appendField(buffer, row.firstName());
+                appendField(buffer, row.lastName());
+                appendField(buffer, row.address());
+                appendField(buffer, row.phone());
+                buffer.append('\n');
+                if (buffer.length() >= COPY_BUFFER_CHARS) {
+                    write(copyIn, buffer);
+                }
+            }
+            write(copyIn, buffer);
+            copyIn.endCopy();
+        } finally {
+            if (copyIn.isActive()) {
+                copyIn.cancelCopy();
+            }
+        }
+    }
+
+    // In COPY CSV an unquoted empty field is NULL and a quoted one is an empty string.
+    private static void appendField(StringBuilder buffer, String value) {
+        buffer.append(',');
+        if (value != null) {
+            buffer.append('"').append(value.replace("\"", "\"\"")).append('"');
+        }
+    }
+
+    private static void write(CopyIn copyIn, StringBuilder buffer) throws SQLException {
+        byte[] bytes = buffer.toString().getBytes(StandardCharsets.UTF_8);
+        copyIn.writeToCopy(bytes, 0, bytes.length);
+        buffer.setLength(0);
+    }
+}
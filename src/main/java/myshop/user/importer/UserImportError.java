@@ -0,0 +1,4 @@
+package myshop.user.importer;
+
+public record UserImportError(long rowNumber, String message) {
+}
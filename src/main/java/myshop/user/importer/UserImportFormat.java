@@ -0,0 +1,8 @@
+package myshop.user.importer;
+
+public enum UserImportFormat {
+    // Header line with column names, RFC 4180 quoting.
+    CSV,
+    // One flat JSON object per line with string or null values.
+    NDJSON
+}
@@ -0,0 +1,271 @@
+package myshop.user.importer;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.PushbackReader;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+// Streams rows from a CSV or NDJSON source; a malformed row is reported as InvalidRowException and skipped.
+abstract class UserImportReader {
+    static final List<String> COLUMNS = List.of("username", "email", "first_name", "last_name", "address", "phone");
+
+    private long rowNumber;
+
+    static UserImportReader open(Reader source, UserImportFormat format) throws IOException {
+        return switch (format) {
+            case CSV -> new CsvReader(source);
+            case NDJSON -> new NdjsonReader(source);
+        };
+    }
+
+    // Returns null at the end of the source.
+    final UserImportRow next() throws IOException {
+        Map<String, String> values = nextValues();
+        if (values == null) {
+            return null;
+        }
+        return new UserImportRow(rowNumber, values.get("username"), values.get("email"),
+                values.get("first_name"), values.get("last_name"), values.get("address"), values.get("phone"));
+    }
+
+    // Advances to the next non-blank row; returns null at the end of the source.
+    abstract Map<String, String> nextValues() throws IOException;
+
+    long startRow() {
+        return ++rowNumber;
+    }
+
+    InvalidRowException invalid(String message) {
+        return new InvalidRowException(rowNumber, message);
+    }
+
+    private static final class CsvReader extends UserImportReader {
+        private final PushbackReader in;
+        private final List<String> header;
+
+        private CsvReader(Reader source) throws IOException {
+            this.in = new PushbackReader(source instanceof BufferedReader ? source : new BufferedReader(source));
+            List<String> names = readRecord();
+            if (names == null) {
+                throw new IllegalArgumentException("CSV source has no header line");
+            }
+
+            this.header = new ArrayList<>(names.size());
+            for (String name : names) {
+                String column = name == null ? "" : name.trim().toLowerCase(Locale.ROOT);
+                if (!COLUMNS.contains(column) || header.contains(column)) {
+                    throw new IllegalArgumentException("Unknown or duplicate CSV column: '" + name + "'");
+                }
+                header.add(column);
+            }
+            if (!header.contains("username") || !header.contains("email")) {
+                throw new IllegalArgumentException("CSV header must contain username and email columns");
+            }
+        }
+
+        @Override
+        Map<String, String> nextValues() throws IOException {
+            List<String> fields;
+            do {
+                fields = readRecord();
+                if (fields == null) {
+                    return null;
+                }
+            } while (fields.size() == 1 && fields.get(0) == null);
+
+            startRow();
+            if (fields.size() != header.size()) {
+                throw invalid("expected " + header.size() + " columns but found " + fields.size());
+            }
+            Map<String, String> values = new HashMap<>();
+            for (int i = 0; i < fields.size(); i++) {
+                values.put(header.get(i), fields.get(i));
+            }
+            return values;
+        }
+
+        // Unquoted empty fields are read as null, quoted fields may span lines.
+        private List<String> readRecord() throws IOException {
+            List<String> fields = new ArrayList<>();
+            StringBuilder field = new StringBuilder();
+            boolean quoted = false;
+            boolean inQuotes = false;
+            int c = in.read();
+            if (c == -1) {
+                return null;
+            }
+
+            while (true) {
+                if (c == -1) {
+                    if (inQuotes) {
+                        startRow();
+                        throw invalid("unterminated quoted field");
+                    }
+                    fields.add(quoted || field.length() > 0 ? field.toString() : null);
+                    return fields;
+                }
+                if (inQuotes) {
+                    if (c == '"') {
+                        int next = in.read();
+                        if (next == '"') {
+                            field.append('"');
+                        } else {
+                            inQuotes = false;
+                            if (next != -1) {
+                                in.unread(next);
+                            }
+                        }
+                    } else {
+                        field.append((char) c);
+                    }
+                } else if (c == '"' && field.length() == 0 && !quoted) {
+                    inQuotes = true;
+                    quoted = true;
+                } else if (c == ',' || c == '\n') {
+                    fields.add(quoted || field.length() > 0 ? field.toString() : null);
+                    if (c == '\n') {
+                        return fields;
+                    }
+                    field.setLength(0);
+                    quoted = false;
+                } else if (c != '\r') {
+                    field.append((char) c);
+                }
+                c = in.read();
+            }
+        }
+    }
+
+    private static final class NdjsonReader extends UserImportReader {
+        private final BufferedReader in;
+
+        private NdjsonReader(Reader source) {
+            this.in = source instanceof BufferedReader bufferedReader ? bufferedReader : new BufferedReader(source);
+        }
+
+        @Override
+        Map<String, String> nextValues() throws IOException {
+            String line;
+            do {
+                line = in.readLine();
+                if (line == null) {
+                    return null;
+                }
+            } while (line.isBlank());
+
+            startRow();
+            return new ObjectParser(line).parse();
+        }
+
+        // Flat JSON object whose values are strings or null.
+        private final class ObjectParser {
+            private final String text;
+            private int pos;
+
+            private ObjectParser(String text) {
+                this.text = text;
+            }
+
+            private Map<String, String> parse() {
+                Map<String, String> values = new HashMap<>();
+                expect('{');
+                if (peek() == '}') {
+                    pos++;
+                } else {
+                    while (true) {
+                        String key = parseString();
+                        if (!COLUMNS.contains(key) || values.containsKey(key)) {
+                            throw invalid("unknown or duplicate field '" + key + "'");
+                        }
+                        expect(':');
+                        if (text.startsWith("null", skipWhitespace())) {
+                            pos += 4;
+                            values.put(key, null);
+                        } else {
+                            values.put(key, parseString());
+                        }
+                        char c = peek();
+                        pos++;
+                        if (c == '}') {
+                            break;
+                        }
+                        if (c != ',') {
+                            throw invalid("expected ',' or '}' at position " + pos);
+                        }
+                    }
+                }
+                if (skipWhitespace() != text.length()) {
+                    throw invalid("unexpected content after JSON object");
+                }
+                return values;
+            }
+
+            private String parseString() {
+                expect('"');
+                StringBuilder value = new StringBuilder();
+                while (pos < text.length()) {
+                    char c = text.charAt(pos++);
+                    if (c == '"') {
+                        return value.toString();
+                    }
+                    if (c != '\\') {
+                        value.append(c);
+                        continue;
+                    }
+                    if (pos == text.length()) {
+                        break;
+                    }
+                    char escaped = text.charAt(pos++);
+                    switch (escaped) {
+                        case '"', '\\', '/' -> value.append(escaped);
+                        case 'b' -> value.append('\b');
+                        case 'f' -> value.append('\f');
+                        case 'n' -> value.append('\n');
+                        case 'r' -> value.append('\r');
+                        case 't' -> value.append('\t');
+                        case 'u' -> {
+                            if (pos + 4 > text.length()) {
+                                throw invalid("truncated \\u escape");
+                            }
+                            try {
+                                value.append((char) Integer.parseInt(text.substring(pos, pos + 4), 16));
+                            } catch (NumberFormatException e) {
+                                throw invalid("invalid \\u escape");
+                            }
+                            pos += 4;
+                        }
+                        default -> throw invalid("invalid escape '\\" + escaped + "'");
+                    }
+                }
+                throw invalid("unterminated string");
+            }
+
+            private void expect(char expected) {
+                if (peek() != expected) {
+                    throw invalid("expected '" + expected + "' at position " + pos);
+                }
+                pos++;
+            }
+
+            private char peek() {
+                skipWhitespace();
+                if (pos == text.length()) {
+                    throw invalid("unexpected end of line");
+                }
+                return text.charAt(pos);
+            }
+
+            private int skipWhitespace() {
+                while (pos < text.length() && Character.isWhitespace(text.charAt(pos))) {
+                    pos++;
+                }
+                return pos;
+            }
+        }
+    }
+}
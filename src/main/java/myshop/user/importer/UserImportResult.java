@@ -0,0 +1,12 @@
+package myshop.user.importer;
+
+import java.util.List;
+
+// Imported users and errors are ordered by row number; rowsRead counts valid and invalid rows.
+public record UserImportResult(List<ImportedUser> imported, List<UserImportError> errors,
+                               long rowsRead, long elapsedNanos) {
+
+    public double rowsPerSecond() {
+        return elapsedNanos == 0 ? 0 : rowsRead * 1_000_000_000.0 / elapsedNanos;
+    }
+}
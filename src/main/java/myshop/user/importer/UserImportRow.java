@@ -0,0 +1,5 @@
+package myshop.user.importer;
+
+public record UserImportRow(long rowNumber, String username, String email,
+                            String firstName, String lastName, String address, String phone) {
+}
@@ -0,0 +1,19 @@
+package myshop.user.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Read model of a user with optional details; detail fields are null when the user has no user_details row.
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserProfile {
+    private Long userId;
+    private String username;
+    private String email;
+    private String firstName;
+    private String lastName;
+    private String address;
+    private String phone;
+}
@@ -0,0 +1,15 @@
+package myshop.user.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// User row without the persistence-context bookkeeping of User (see HibernateUserDao.findAllUserViews).
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserView {
+    private Long id;
+    private String username;
+    private String email;
+}
@@ -0,0 +1,13 @@
+-- Индексы для горячих запросов DAO и отчётов
+
+-- findAllOrdersByUserId, 3.6, 3.8, 3.9, 3.16, 3.19
+CREATE INDEX IF NOT EXISTS orders_user_id_idx ON orders (user_id);
+
+-- Соединения order_items с products (3.9), каскадное удаление товара
+CREATE INDEX IF NOT EXISTS order_items_product_id_idx ON order_items (product_id);
+
+-- Поиск корзин по товару (3.5, 3.14, 3.18, 3.20): первичный ключ начинается с user_id
+CREATE INDEX IF NOT EXISTS shopping_cart_product_id_idx ON shopping_cart (product_id);
+
+-- Диапазоны и сортировка по цене (3.3, 3.10, 3.11)
+CREATE INDEX IF NOT EXISTS products_price_idx ON products (price);
@@ -0,0 +1,4 @@
+-- Триграммный индекс для поиска товаров по названию (TrigramProductSearch)
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+CREATE INDEX IF NOT EXISTS products_product_name_trgm_idx ON products USING gin (product_name gin_trgm_ops);
@@ -0,0 +1,5 @@
+-- Шаг 50 для последовательностей id товаров и заказов: Hibernate (allocationSize = 50) получает
+-- диапазон id одним nextval и может отправлять INSERT пакетами (массовые вставки через StatelessSession).
+-- JDBC DAO по-прежнему берут id из DEFAULT nextval, поэтому их id идут с шагом 50, но не пересекаются.
+ALTER SEQUENCE products_id_seq INCREMENT BY 50;
+ALTER SEQUENCE orders_id_seq INCREMENT BY 50;
@@ -0,0 +1,5 @@
+-- Номер версии строки для оптимистической блокировки товаров и позиций корзины (@Version в Product и ShoppingCart).
+-- Каждое изменение строки увеличивает version; запись с устаревшей версией не обновляет ни одной строки
+-- и повторяется DAO заново после перечитывания.
+ALTER TABLE products ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE shopping_cart ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
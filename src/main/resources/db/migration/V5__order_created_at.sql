@@ -0,0 +1,8 @@
+-- Время создания заказа для OrdersColumnarSnapshot: снимок дочитывает заказы по created_at с перекрытием,
+-- потому что ни id (блоки по 50 из V3 у разных экземпляров), ни время вставки не совпадают с порядком фиксации.
+-- Существующие заказы получают время миграции (значение по умолчанию без перезаписи таблицы),
+-- новые - момент вставки строки.
+ALTER TABLE orders ADD COLUMN IF NOT EXISTS created_at TIMESTAMPTZ NOT NULL DEFAULT now();
+ALTER TABLE orders ALTER COLUMN created_at SET DEFAULT clock_timestamp();
+
+CREATE INDEX IF NOT EXISTS orders_created_at_idx ON orders (created_at);
@@ -0,0 +1,16 @@
+-- Итоги заказов по пользователю для отчётов 3.6, 3.8, 3.16 и 3.19 (суммы и число заказов на пользователя).
+-- DAO заказов увеличивают строку пользователя в той же транзакции, что и вставку заказа.
+CREATE TABLE IF NOT EXISTS user_order_stats (
+	user_id BIGINT PRIMARY KEY REFERENCES users(id) ON DELETE CASCADE,
+	total_amount NUMERIC(14,2) NOT NULL DEFAULT 0,
+	orders_count BIGINT NOT NULL DEFAULT 0
+);
+
+-- Заполнение по уже существующим заказам; повторный запуск пересчитывает итоги заново.
+INSERT INTO user_order_stats (user_id, total_amount, orders_count)
+SELECT user_id, SUM(total_amount), COUNT(*)
+FROM orders
+GROUP BY user_id
+ON CONFLICT (user_id) DO UPDATE
+SET total_amount = EXCLUDED.total_amount,
+    orders_count = EXCLUDED.orders_count;
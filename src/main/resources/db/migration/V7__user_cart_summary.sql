@@ -0,0 +1,17 @@
+-- Сводка корзин по пользователю для отчётов 3.12, 3.13, 3.15 и 3.17.
+-- Обновляется CartSummaryRefresher (REFRESH ... CONCURRENTLY), для которого нужен уникальный индекс.
+CREATE MATERIALIZED VIEW IF NOT EXISTS user_cart_summary AS
+SELECT
+	sc.user_id,
+	SUM(sc.quantity) AS total_quantity,
+	SUM(p.price * sc.quantity) AS cart_total,
+	COUNT(*) AS items_count,
+	MIN(p.price) AS min_price
+FROM shopping_cart sc
+JOIN products p
+	ON p.id = sc.product_id
+GROUP BY sc.user_id;
+
+CREATE UNIQUE INDEX IF NOT EXISTS user_cart_summary_user_id_idx ON user_cart_summary (user_id);
+
+REFRESH MATERIALIZED VIEW user_cart_summary;
@@ -0,0 +1,124 @@
+package myshop;
+
+import myshop.cart.dao.JdbcShoppingCartDao;
+import myshop.common.config.ShopConfig;
+import myshop.common.db.ConnectionManager;
+import myshop.common.db.ReplicaRouter;
+import myshop.product.dao.JdbcProductDao;
+import myshop.product.dao.SearchIndexingProductDao;
+import myshop.product.model.Product;
+import myshop.report.dao.ReportDao;
+import myshop.report.summary.CartSummaryRefresher;
+import myshop.user.dao.JdbcUserDao;
+import myshop.user.dao.UserDao;
+import myshop.user.model.User;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.AdditionalAnswers;
+import org.mockito.MockedStatic;
+import org.postgresql.ds.PGSimpleDataSource;
+
+import javax.sql.DataSource;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class AppBootstrapTest {
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        try (Connection connection = ConnectionManager.getConnection();
+             Statement st = connection.createStatement()) {
+            st.executeUpdate("DELETE FROM shopping_cart");
+            st.executeUpdate("DELETE FROM products");
+            st.executeUpdate("DELETE FROM users");
+            st.execute("REFRESH MATERIALIZED VIEW user_cart_summary");
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        AppBootstrap.shutdown();
+    }
+
+    @Test
+    void startBackgroundJobs_checkThatCartSummaryReportsFollowCartChanges() throws InterruptedException {
+        AppBootstrap.startBackgroundJobs(Duration.ofMillis(50), Duration.ofMinutes(5));
+        ReportDao reportDao = AppBootstrap.reportDao();
+        Long userId = new JdbcUserDao().createUser(new User(null, "bootstrap_user", "bootstrap@gmail.com")).getId();
+        Long productId = new JdbcProductDao()
+                .createProduct(new Product(null, "bootstrap_product", new BigDecimal("100.00"))).getId();
+
+        new JdbcShoppingCartDao().addProduct(userId, productId, 2);
+
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (reportDao.findUsersWithCartQuantityAbove(1).isEmpty() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+        assertEquals(userId, reportDao.findUsersWithCartQuantityAbove(1).get(0).getUserId());
+        long staleness = reportDao.getMetrics().gauges().get(CartSummaryRefresher.STALENESS_GAUGE);
+        assertTrue(staleness >= 0, "The refresher must publish its staleness to the report metrics");
+    }
+
+    @Test
+    void startBackgroundJobs_checkThatUserFiltersFollowUsersCreatedElsewhere() throws InterruptedException {
+        UserDao userDao = AppBootstrap.userDao();
+        assertFalse(userDao.existsByUsername("bootstrap_user"));
+
+        AppBootstrap.startBackgroundJobs(Duration.ofMinutes(5), Duration.ofMillis(50));
+        new JdbcUserDao().createUser(new User(null, "bootstrap_user", "bootstrap@gmail.com"));
+
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (!userDao.existsByUsername("bootstrap_user") && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+        assertTrue(userDao.existsByUsername("bootstrap_user"));
+        assertEquals("bootstrap@gmail.com", userDao.findByUsername("bootstrap_user").getEmail());
+    }
+
+    // Stand-in replica: the local shop database behind a data source that records the connections it hands out.
+    @Test
+    void reportDao_checkThatReportReadsGoToTheReplica() throws SQLException {
+        ShopConfig config = ShopConfig.get();
+        PGSimpleDataSource standIn = new PGSimpleDataSource();
+        standIn.setURL(config.getDbUrl());
+        standIn.setUser(config.getDbUser());
+        standIn.setPassword(config.getDbPassword());
+        standIn.setReadOnly(true);
+        DataSource replica = mock(DataSource.class, AdditionalAnswers.delegatesTo(standIn));
+        ReplicaRouter router = new ReplicaRouter(List.of(new ReplicaRouter.Replica("stand-in", replica)),
+                ReplicaRouter.Selection.ROUND_ROBIN, 5000, 1000);
+        new JdbcUserDao().createUser(new User(null, "bootstrap_user", "bootstrap@gmail.com"));
+
+        try (MockedStatic<ConnectionManager> connectionManager =
+                     mockStatic(ConnectionManager.class, CALLS_REAL_METHODS)) {
+            connectionManager.when(ConnectionManager::getReplicaRouter).thenReturn(router);
+            ReportDao reportDao = AppBootstrap.reportDao();
+
+            assertEquals(1, reportDao.findAllUsers().size());
+            verify(replica, times(1)).getConnection();
+
+            reportDao.rebuildUserOrderStats();
+            verify(replica, times(1)).getConnection();
+        }
+    }
+
+    @Test
+    void productDao_checkThatWritesReachTheSharedSearchIndex() {
+        SearchIndexingProductDao productDao = AppBootstrap.productDao();
+        assertSame(productDao, AppBootstrap.productDao());
+        assertTrue(productDao.search("bootstrap", 5).isEmpty());
+
+        Product created = productDao.createProduct(new Product(null, "Bootstrap lamp", new BigDecimal("15.00")));
+
+        assertEquals(List.of(created.getId()), AppBootstrap.productDao().search("lamp", 5));
+    }
+}
@@ -2,12 +2,17 @@ package myshop.cart.dao;
 
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.EntityTransaction;
+import jakarta.persistence.OptimisticLockException;
 import jakarta.persistence.Query;
+import jakarta.persistence.RollbackException;
 import jakarta.persistence.TypedQuery;
 import myshop.cart.model.ShoppingCart;
 import myshop.cart.model.ShoppingCartId;
+import myshop.common.db.SqlStatements;
 import myshop.common.exception.DaoException;
+import myshop.common.exception.OptimisticLockConflictException;
 import myshop.common.jpa.JpaUtil;
+import org.hibernate.exception.ConstraintViolationException;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -20,6 +25,7 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import org.mockito.junit.jupiter.MockitoSettings;
 import org.mockito.quality.Strictness;
 
+import java.sql.SQLException;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -50,6 +56,7 @@ class HibernateShoppingCartDaoTest {
         shoppingCartDao = new HibernateShoppingCartDao();
         jpaUtilMock = Mockito.mockStatic(JpaUtil.class);
         jpaUtilMock.when(JpaUtil::getEntityManager).thenReturn(em);
+        jpaUtilMock.when(() -> JpaUtil.isOptimisticLockFailure(any())).thenCallRealMethod();
         when(em.getTransaction()).thenReturn(transaction);
     }
 
@@ -68,7 +75,7 @@ class HibernateShoppingCartDaoTest {
 
         when(em.find(ShoppingCart.class, id)).thenReturn(null);
 
-        shoppingCartDao.addProduct(userId, productId, quantity);
+        assertTrue(shoppingCartDao.addProduct(userId, productId, quantity));
 
         verify(transaction).begin();
         verify(transaction).commit();
@@ -94,18 +101,81 @@ class HibernateShoppingCartDaoTest {
 
         when(em.find(ShoppingCart.class, id)).thenReturn(existing);
 
-        shoppingCartDao.addProduct(userId, productId, quantityToAdd);
+        assertFalse(shoppingCartDao.addProduct(userId, productId, quantityToAdd));
 
         assertEquals(7, existing.getQuantity());
 
         verify(transaction).begin();
-        verify(em).merge(existing);
+        verify(em, never()).merge(any());
         verify(transaction).commit();
         verify(em).close();
 
         verify(em, never()).persist(any(ShoppingCart.class));
     }
 
+    @Test
+    void addProduct_checkThatConcurrentIncrementIsRetried() {
+        ShoppingCartId id = new ShoppingCartId(1L, 2L);
+        ShoppingCart stale = new ShoppingCart(1L, 2L, 5, 0L);
+        ShoppingCart fresh = new ShoppingCart(1L, 2L, 6, 1L);
+        when(em.find(ShoppingCart.class, id)).thenReturn(stale).thenReturn(fresh);
+        doThrow(new RollbackException("commit failed", new OptimisticLockException("stale")))
+                .doNothing()
+                .when(transaction).commit();
+        when(transaction.isActive()).thenReturn(true);
+
+        shoppingCartDao.addProduct(1L, 2L, 2);
+
+        assertEquals(8, fresh.getQuantity());
+        verify(transaction, times(2)).commit();
+        verify(transaction).rollback();
+        verify(em, times(2)).close();
+    }
+
+    @Test
+    void addProduct_checkThatConcurrentFirstInsertIsRetriedAsIncrement() {
+        ShoppingCartId id = new ShoppingCartId(1L, 2L);
+        ShoppingCart inserted = new ShoppingCart(1L, 2L, 1, 0L);
+        when(em.find(ShoppingCart.class, id)).thenReturn(null).thenReturn(inserted);
+        doThrow(new RollbackException("commit failed", new ConstraintViolationException("duplicate key",
+                new SQLException("duplicate key", "23505"), ConstraintViolationException.ConstraintKind.UNIQUE, "shopping_cart_pkey")))
+                .doNothing()
+                .when(transaction).commit();
+
+        shoppingCartDao.addProduct(1L, 2L, 2);
+
+        assertEquals(3, inserted.getQuantity());
+        verify(transaction, times(2)).commit();
+    }
+
+    @Test
+    void updateQuantity_checkThatThrowConflictWhenVersionIsStale() {
+        ShoppingCartId id = new ShoppingCartId(1L, 2L);
+        when(em.find(ShoppingCart.class, id)).thenReturn(new ShoppingCart(1L, 2L, 5, 4L));
+        when(transaction.isActive()).thenReturn(true);
+
+        assertThrows(OptimisticLockConflictException.class,
+                () -> shoppingCartDao.updateQuantity(new ShoppingCart(1L, 2L, 9, 3L)));
+
+        verify(transaction, never()).commit();
+        verify(transaction).rollback();
+        verify(em).close();
+    }
+
+    @Test
+    void updateQuantity_checkThatQuantityAndVersionAreUpdated() {
+        ShoppingCartId id = new ShoppingCartId(1L, 2L);
+        ShoppingCart current = new ShoppingCart(1L, 2L, 5, 4L);
+        when(em.find(ShoppingCart.class, id)).thenReturn(current);
+        ShoppingCart item = new ShoppingCart(1L, 2L, 9, 4L);
+
+        shoppingCartDao.updateQuantity(item);
+
+        assertEquals(9, current.getQuantity());
+        assertEquals(4L, item.getVersion());
+        verify(transaction).commit();
+    }
+
     @Test
     void addProduct_checkThatRollbackAndThrowDaoExceptionWhenError() {
         Long userId = 1L;
@@ -311,15 +381,14 @@ class HibernateShoppingCartDaoTest {
     void clearCart_checkThatDeleteAndCommitCartByUserId() {
         Long userId = 1L;
 
-        when(em.createQuery("DELETE FROM ShoppingCart sc WHERE sc.userId = :userId"))
-                .thenReturn(query);
-        when(query.setParameter("userId", userId)).thenReturn(query);
-        when(query.executeUpdate()).thenReturn(3);
+        when(em.createNativeQuery(SqlStatements.CART_CLEAR.sql(), Long.class)).thenReturn(query);
+        when(query.setParameter(1, userId)).thenReturn(query);
+        when(query.getResultList()).thenReturn(List.of(4L, 5L, 6L));
 
-        shoppingCartDao.clearCart(userId);
+        assertEquals(List.of(4L, 5L, 6L), shoppingCartDao.clearCart(userId));
 
         verify(transaction).begin();
-        verify(query).executeUpdate();
+        verify(query).getResultList();
         verify(transaction).commit();
         verify(em).close();
     }
@@ -328,7 +397,7 @@ class HibernateShoppingCartDaoTest {
     void clearCart_checkThatRollbackAndThrowDaoExceptionWhenError() {
         Long userId = 1L;
 
-        when(em.createQuery("DELETE FROM ShoppingCart sc WHERE sc.userId = :userId"))
+        when(em.createNativeQuery(SqlStatements.CART_CLEAR.sql(), Long.class))
                 .thenThrow(new RuntimeException("DB error"));
         when(transaction.isActive()).thenReturn(true);
 
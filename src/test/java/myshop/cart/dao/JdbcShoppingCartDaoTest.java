@@ -3,6 +3,7 @@ package myshop.cart.dao;
 import myshop.cart.model.ShoppingCart;
 import myshop.common.db.ConnectionManager;
 import myshop.common.exception.DaoException;
+import myshop.common.exception.OptimisticLockConflictException;
 import myshop.product.dao.JdbcProductDao;
 import myshop.product.dao.ProductDao;
 import myshop.product.model.Product;
@@ -19,6 +20,7 @@ import java.sql.Connection;
 import java.sql.SQLException;
 import java.sql.Statement;
 import java.util.List;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -65,7 +67,7 @@ class JdbcShoppingCartDaoTest {
 
     @Test
     void addProduct_checkThatProductAddToShoppingCart() {
-        shoppingCartDao.addProduct(userId1, productId1, 1);
+        assertTrue(shoppingCartDao.addProduct(userId1, productId1, 1));
         List<ShoppingCart> productsList = shoppingCartDao.findByUserId(userId1);
         assertEquals(1, productsList.size(),
                 "Shopping cart must contain one product");
@@ -77,6 +79,31 @@ class JdbcShoppingCartDaoTest {
         assertEquals(1, productInShoppingCart.getQuantity());
     }
 
+    @Test
+    void updateQuantity_checkThatStaleItemIsRejected() {
+        shoppingCartDao.addProduct(userId1, productId1, 1);
+        ShoppingCart first = shoppingCartDao.findByUserId(userId1).getFirst();
+        ShoppingCart second = shoppingCartDao.findByUserId(userId1).getFirst();
+
+        first.setQuantity(3);
+        shoppingCartDao.updateQuantity(first);
+        second.setQuantity(5);
+
+        assertThrows(OptimisticLockConflictException.class, () -> shoppingCartDao.updateQuantity(second));
+        assertEquals(3, shoppingCartDao.findByUserId(userId1).getFirst().getQuantity());
+    }
+
+    @Test
+    void changeQuantity_checkThatChangeIsAppliedToCurrentQuantity() {
+        shoppingCartDao.addProduct(userId1, productId1, 2);
+
+        ShoppingCart item = shoppingCartDao.changeQuantity(userId1, productId1, quantity -> quantity + 3);
+
+        assertEquals(5, item.getQuantity());
+        assertEquals(5, shoppingCartDao.findByUserId(userId1).getFirst().getQuantity());
+        assertThrows(DaoException.class, () -> shoppingCartDao.changeQuantity(userId2, productId1, q -> q + 1));
+    }
+
     @Test
     void addProduct_checkThatWrapSqlExceptionIntoDaoException() {
         try (MockedStatic<ConnectionManager> mockedStatic = Mockito.mockStatic(ConnectionManager.class)) {
@@ -165,7 +192,11 @@ class JdbcShoppingCartDaoTest {
         shoppingCartDao.addProduct(userId1, productId1, 1);
         shoppingCartDao.addProduct(userId1, productId2, 1);
         shoppingCartDao.addProduct(userId2, productId1, 2);
-        shoppingCartDao.clearCart(userId1);
+
+        List<Long> deleted = shoppingCartDao.clearCart(userId1);
+
+        assertEquals(Set.of(productId1, productId2), Set.copyOf(deleted),
+                "clearCart must report the products it deleted");
         List<ShoppingCart> user1Products = shoppingCartDao.findByUserId(userId1);
         assertTrue(user1Products.isEmpty(), "After clearCart, user1 shopping cart must be empty");
 
@@ -0,0 +1,190 @@
+package myshop.cart.popularity;
+
+import myshop.cart.dao.PopularityTrackingShoppingCartDao;
+import myshop.cart.dao.ShoppingCartDao;
+import myshop.report.dao.ReportDao;
+import myshop.report.model.ProductUserCount;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class CartPopularityTrackerTest {
+
+    @Test
+    void top_checkThatProductsAreRankedByCount() {
+        CartPopularityTracker tracker = new CartPopularityTracker(10);
+        tracker.increment(1L);
+        tracker.increment(2L);
+        tracker.increment(2L);
+        tracker.increment(3L);
+        tracker.increment(3L);
+        tracker.increment(3L);
+
+        assertEquals(List.of(3L, 2L), tracker.top(2).stream().map(ProductPopularity::productId).toList());
+        assertEquals(3, tracker.top(100).size());
+    }
+
+    @Test
+    void increment_checkThatMinimumIsEvictedWhenCapacityReached() {
+        CartPopularityTracker tracker = new CartPopularityTracker(2);
+        tracker.increment(1L);
+        tracker.increment(1L);
+        tracker.increment(2L);
+        tracker.increment(3L);
+
+        assertEquals(2, tracker.size());
+        List<ProductPopularity> top = tracker.top(2);
+        assertEquals(new ProductPopularity(1L, 2, 0), top.get(0));
+        assertEquals(new ProductPopularity(3L, 2, 1), top.get(1));
+        assertEquals(1, top.get(1).guaranteedCount());
+    }
+
+    @Test
+    void increment_checkThatSpaceSavingBoundsHoldUnderManyEvictions() {
+        CartPopularityTracker tracker = new CartPopularityTracker(50);
+        Map<Long, Long> exact = new HashMap<>();
+        Random random = new Random(42);
+        int adds = 20_000;
+        for (int i = 0; i < adds; i++) {
+            // Skewed stream: a few hot products and a long tail that keeps evicting the minimum.
+            long productId = random.nextInt(4) == 0 ? random.nextInt(5) : 5 + random.nextInt(2_000);
+            tracker.increment(productId);
+            exact.merge(productId, 1L, Long::sum);
+        }
+
+        List<ProductPopularity> all = tracker.top(50);
+        assertEquals(50, all.size());
+        assertEquals(adds, all.stream().mapToLong(ProductPopularity::count).sum(),
+                "Space-Saving counts always add up to the stream length");
+        for (ProductPopularity popularity : all) {
+            long trueCount = exact.get(popularity.productId());
+            assertTrue(popularity.count() >= trueCount, "A count never underestimates");
+            assertTrue(popularity.guaranteedCount() <= trueCount, "count - error never overestimates");
+        }
+        assertEquals(Set.of(0L, 1L, 2L, 3L, 4L),
+                tracker.top(5).stream().map(ProductPopularity::productId).collect(Collectors.toSet()));
+    }
+
+    @Test
+    void decrement_checkThatCountsMoveDownAndUpAgain() {
+        CartPopularityTracker tracker = new CartPopularityTracker(2);
+        for (int i = 0; i < 3; i++) {
+            tracker.increment(1L);
+        }
+        tracker.increment(2L);
+        tracker.decrement(1L);
+        tracker.decrement(1L);
+        tracker.increment(2L);
+        tracker.increment(4L);
+
+        assertEquals(List.of(new ProductPopularity(2L, 2, 0), new ProductPopularity(4L, 2, 1)), tracker.top(5));
+    }
+
+    @Test
+    void decrement_checkThatProductIsDroppedAtZero() {
+        CartPopularityTracker tracker = new CartPopularityTracker(10);
+        tracker.increment(1L);
+        tracker.decrement(1L);
+        tracker.decrement(42L);
+
+        assertEquals(0, tracker.size());
+        assertTrue(tracker.top(5).isEmpty());
+    }
+
+    @Test
+    void reconcile_checkThatExactCountsReplaceApproximateOnes() {
+        CartPopularityTracker tracker = new CartPopularityTracker(2);
+        tracker.increment(1L);
+        tracker.reconcile(Map.of(5L, 3L, 6L, 7L, 7L, 1L));
+
+        assertEquals(List.of(new ProductPopularity(6L, 7, 0), new ProductPopularity(5L, 3, 0)), tracker.top(5));
+    }
+
+    @Test
+    void increment_checkThatConcurrentUpdatesAreNotLost() throws InterruptedException {
+        CartPopularityTracker tracker = new CartPopularityTracker(10);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        for (int i = 0; i < 4; i++) {
+            executor.submit(() -> {
+                for (int j = 0; j < 10_000; j++) {
+                    tracker.increment(j % 5);
+                    tracker.top(3);
+                }
+            });
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(30, TimeUnit.SECONDS));
+
+        assertEquals(8_000L, tracker.top(1).get(0).count());
+    }
+
+    @Test
+    void trackingDao_checkThatCartChangesFeedTracker() {
+        ShoppingCartDao delegate = mock(ShoppingCartDao.class);
+        when(delegate.addProduct(anyLong(), anyLong(), anyInt())).thenReturn(true);
+        when(delegate.clearCart(1L)).thenReturn(List.of(10L));
+        CartPopularityTracker tracker = new CartPopularityTracker(10);
+        ShoppingCartDao cartDao = new PopularityTrackingShoppingCartDao(delegate, tracker);
+
+        cartDao.addProduct(1L, 10L, 2);
+        cartDao.addProduct(2L, 10L, 1);
+        cartDao.addProduct(2L, 20L, 1);
+        cartDao.removeProduct(2L, 20L);
+        cartDao.clearCart(1L);
+
+        verify(delegate).clearCart(1L);
+        verify(delegate, never()).findByUserId(any());
+        assertEquals(List.of(new ProductPopularity(10L, 1, 0)), tracker.top(5));
+    }
+
+    @Test
+    void trackingDao_checkThatQuantityIncreaseIsNotCountedAsAnotherCart() {
+        ShoppingCartDao delegate = mock(ShoppingCartDao.class);
+        when(delegate.addProduct(1L, 10L, 1)).thenReturn(true, false);
+        CartPopularityTracker tracker = new CartPopularityTracker(10);
+        ShoppingCartDao cartDao = new PopularityTrackingShoppingCartDao(delegate, tracker);
+
+        assertTrue(cartDao.addProduct(1L, 10L, 1));
+        assertFalse(cartDao.addProduct(1L, 10L, 1));
+
+        assertEquals(List.of(new ProductPopularity(10L, 1, 0)), tracker.top(5));
+    }
+
+    @Test
+    void trackingDao_checkThatFailedAddIsNotCounted() {
+        ShoppingCartDao delegate = mock(ShoppingCartDao.class);
+        doThrow(new RuntimeException("DB error")).when(delegate).addProduct(1L, 10L, 1);
+        CartPopularityTracker tracker = new CartPopularityTracker(10);
+        ShoppingCartDao cartDao = new PopularityTrackingShoppingCartDao(delegate, tracker);
+
+        assertThrows(RuntimeException.class, () -> cartDao.addProduct(1L, 10L, 1));
+        assertEquals(0, tracker.size());
+    }
+
+    @Test
+    void reconcileNow_checkThatTrackerIsLoadedFromReportDao() {
+        ReportDao reportDao = mock(ReportDao.class);
+        List<ProductUserCount> exact = new ArrayList<>();
+        exact.add(new ProductUserCount(10L, "phone", 4L));
+        exact.add(new ProductUserCount(20L, "cable", 1L));
+        when(reportDao.findTopCartedProducts(3)).thenReturn(exact);
+        CartPopularityTracker tracker = new CartPopularityTracker(3);
+
+        try (CartPopularityReconciler reconciler = new CartPopularityReconciler(tracker, reportDao)) {
+            assertEquals(2, reconciler.reconcileNow());
+        }
+        assertEquals(new ProductPopularity(10L, 4, 0), tracker.top(1).get(0));
+    }
+}
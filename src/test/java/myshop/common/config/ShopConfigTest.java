@@ -0,0 +1,84 @@
+package myshop.common.config;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.Properties;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Every test loads with an explicit environment, so SHOP_* variables of the build machine do not leak in.
+class ShopConfigTest {
+
+    @Test
+    void load_checkThatDevProfileIsUsedByDefault() {
+        ShopConfig config = ShopConfig.load(Map.of(), new Properties());
+
+        assertEquals("dev", config.getProfile());
+        assertFalse(config.isPoolEnabled(), "The dev profile must not use a connection pool");
+        assertEquals("validate", config.get("hibernate.hbm2ddl.auto"));
+        assertNotNull(config.getDbPassword(), "The dev profile has a local password");
+    }
+
+    @Test
+    void load_checkThatProfileIsTakenFromEnvironment() {
+        ShopConfig config = ShopConfig.load(Map.of("SHOP_PROFILE", "prod"), new Properties());
+
+        assertEquals("prod", config.getProfile());
+    }
+
+    @Test
+    void load_checkThatProdProfileOverridesBaseProperties() {
+        ShopConfig config = ShopConfig.load(Map.of(), profile("prod"));
+
+        assertEquals("prod", config.getProfile());
+        assertTrue(config.isPoolEnabled(), "The prod profile must share a connection pool");
+        assertEquals("none", config.get("hibernate.hbm2ddl.auto"),
+                "The prod profile must skip schema validation");
+        assertNotNull(config.getDbUrl());
+    }
+
+    @Test
+    void getDbPassword_checkThatOnlyDevProfileHasBundledPassword() {
+        for (String profile : new String[]{"prod", "bench"}) {
+            ShopConfig config = ShopConfig.load(Map.of(), profile(profile));
+
+            assertThrows(IllegalStateException.class, config::getDbPassword,
+                    "The " + profile + " profile must not ship a database password");
+        }
+    }
+
+    @Test
+    void getDbPassword_checkThatPasswordComesFromEnvironmentOrSystemProperty() {
+        assertEquals("from-env",
+                ShopConfig.load(Map.of("SHOP_DB_PASSWORD", "from-env"), profile("prod")).getDbPassword());
+
+        Properties systemProperties = profile("prod");
+        systemProperties.setProperty("db.password", "from-property");
+        assertEquals("from-property",
+                ShopConfig.load(Map.of("SHOP_DB_PASSWORD", "from-env"), systemProperties).getDbPassword());
+    }
+
+    @Test
+    void load_checkThatSystemPropertyOverridesProfileValue() {
+        Properties systemProperties = profile("prod");
+        systemProperties.setProperty("db.pool.size", "3");
+        ShopConfig config = ShopConfig.load(Map.of(), systemProperties);
+
+        assertEquals(3, config.getPoolSize());
+    }
+
+    @Test
+    void getJpaProperties_checkThatOnlyJpaKeysArePassed() {
+        Map<String, Object> jpaProperties = ShopConfig.load(Map.of(), profile("bench")).getJpaProperties();
+
+        assertEquals("none", jpaProperties.get("hibernate.hbm2ddl.auto"));
+        assertFalse(jpaProperties.containsKey("db.url"), "Only hibernate.* and jakarta.persistence.* keys are expected");
+    }
+
+    private static Properties profile(String profile) {
+        Properties systemProperties = new Properties();
+        systemProperties.setProperty(ShopConfig.PROFILE_PROPERTY, profile);
+        return systemProperties;
+    }
+}
@@ -0,0 +1,114 @@
+package myshop.common.db;
+
+import myshop.common.config.ShopConfig;
+import org.junit.jupiter.api.Test;
+import org.postgresql.ds.PGSimpleDataSource;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Stand-in replicas: the local shop database, told apart by the connection's application_name.
+class ReplicaRouterTest {
+
+    @Test
+    void getConnection_checkThatRoundRobinAlternatesBetweenReplicas() throws SQLException {
+        ReplicaRouter router = new ReplicaRouter(List.of(standIn("replica-a"), standIn("replica-b")),
+                ReplicaRouter.Selection.ROUND_ROBIN, 5000, 1000);
+
+        List<String> served = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            try (Connection connection = router.getConnection()) {
+                served.add(applicationName(connection));
+            }
+        }
+
+        assertEquals(List.of("replica-a", "replica-b", "replica-a", "replica-b"), served);
+    }
+
+    @Test
+    void getConnection_checkThatLeastLoadedPicksReplicaWithFewestOpenConnections() throws SQLException {
+        ReplicaRouter router = new ReplicaRouter(List.of(standIn("replica-a"), standIn("replica-b")),
+                ReplicaRouter.Selection.LEAST_LOADED, 5000, 1000);
+
+        try (Connection first = router.getConnection();
+             Connection second = router.getConnection()) {
+            assertNotEquals(applicationName(first), applicationName(second));
+            first.close();
+
+            try (Connection third = router.getConnection()) {
+                assertNotEquals(applicationName(second), applicationName(third));
+            }
+        }
+        for (ReplicaRouter.Replica replica : router.getReplicas()) {
+            assertEquals(0, replica.getConnectionsInUse());
+        }
+    }
+
+    @Test
+    void getConnection_checkThatLaggingReplicaIsSkipped() throws SQLException {
+        ReplicaRouter.Replica lagging = standIn("replica-lagging");
+        ReplicaRouter router = new ReplicaRouter(List.of(lagging, standIn("replica-fresh")),
+                ReplicaRouter.Selection.ROUND_ROBIN, 5000, 60_000,
+                connection -> applicationName(connection).equals("replica-lagging") ? 30_000 : 0);
+
+        for (int i = 0; i < 3; i++) {
+            try (Connection connection = router.getConnection()) {
+                assertEquals("replica-fresh", applicationName(connection));
+            }
+        }
+        assertEquals(30_000, lagging.getLagMillis());
+    }
+
+    @Test
+    void getConnection_checkThatNullIsReturnedWhenNoReplicaIsUsable() {
+        PGSimpleDataSource unreachable = new PGSimpleDataSource();
+        unreachable.setURL("jdbc:postgresql://localhost:1/shop_db");
+        unreachable.setConnectTimeout(1);
+        ReplicaRouter router = new ReplicaRouter(List.of(new ReplicaRouter.Replica("down", unreachable)),
+                ReplicaRouter.Selection.ROUND_ROBIN, 5000, 1000);
+
+        assertNull(router.getConnection());
+        assertNull(new ReplicaRouter(List.of(), ReplicaRouter.Selection.ROUND_ROBIN, 5000, 1000).getConnection());
+    }
+
+    @Test
+    void replicationLagSql_checkThatServerOutsideRecoveryHasNoLag() throws SQLException {
+        try (Connection connection = ConnectionManager.getPrimaryConnection();
+             Statement st = connection.createStatement();
+             ResultSet rs = st.executeQuery(ReplicaRouter.REPLICATION_LAG_SQL)) {
+            assertTrue(rs.next());
+            assertEquals(0, rs.getLong(1));
+        }
+    }
+
+    @Test
+    void selection_checkThatConfigValuesAreParsed() {
+        assertEquals(ReplicaRouter.Selection.ROUND_ROBIN, ReplicaRouter.Selection.of("round-robin"));
+        assertEquals(ReplicaRouter.Selection.LEAST_LOADED, ReplicaRouter.Selection.of(" Least-Loaded "));
+    }
+
+    private static ReplicaRouter.Replica standIn(String name) throws SQLException {
+        ShopConfig config = ShopConfig.get();
+        PGSimpleDataSource dataSource = new PGSimpleDataSource();
+        dataSource.setURL(config.getDbUrl());
+        dataSource.setUser(config.getDbUser());
+        dataSource.setPassword(config.getDbPassword());
+        dataSource.setApplicationName(name);
+        dataSource.setReadOnly(true);
+        return new ReplicaRouter.Replica(name, dataSource);
+    }
+
+    private static String applicationName(Connection connection) throws SQLException {
+        try (Statement st = connection.createStatement();
+             ResultSet rs = st.executeQuery("SELECT current_setting('application_name')")) {
+            rs.next();
+            return rs.getString(1);
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package myshop.common.db;
+
+import myshop.common.exception.DaoException;
+import myshop.product.dao.ProductDao;
+import myshop.product.model.Product;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class ReplicaRoutingTest {
+
+    @Test
+    void routeReads_checkThatOnlyFindMethodsReadFromReplica() {
+        List<Boolean> replicaReads = new ArrayList<>();
+        ProductDao dao = mock(ProductDao.class);
+        when(dao.findAllProducts()).thenAnswer(invocation -> {
+            replicaReads.add(ReplicaRouting.isReplicaRead());
+            return List.of();
+        });
+        doAnswer(invocation -> replicaReads.add(ReplicaRouting.isReplicaRead()))
+                .when(dao).updateProduct(any());
+
+        ProductDao routed = ReplicaRouting.routeReads(ProductDao.class, dao);
+        routed.findAllProducts();
+        routed.updateProduct(new Product(1L, "product", BigDecimal.ONE));
+
+        assertEquals(List.of(true, false), replicaReads);
+        assertFalse(ReplicaRouting.isReplicaRead());
+    }
+
+    @Test
+    void onPrimary_checkThatNestedReadsStayOnPrimary() {
+        ProductDao dao = mock(ProductDao.class);
+        when(dao.findById(1L)).thenAnswer(invocation -> {
+            assertFalse(ReplicaRouting.isReplicaRead());
+            return new Product(1L, "product", BigDecimal.ONE);
+        });
+        ProductDao routed = ReplicaRouting.routeReads(ProductDao.class, dao);
+
+        Product product = ReplicaRouting.onPrimary(() -> routed.findById(1L));
+
+        assertEquals(1L, product.getId());
+        verify(dao).findById(1L);
+    }
+
+    @Test
+    void routeReads_checkThatDaoExceptionIsRethrownUnwrapped() {
+        ProductDao dao = mock(ProductDao.class);
+        when(dao.findById(1L)).thenThrow(new DaoException("Product with id = 1 not found"));
+        ProductDao routed = ReplicaRouting.routeReads(ProductDao.class, dao);
+
+        DaoException e = assertThrows(DaoException.class, () -> routed.findById(1L));
+
+        assertEquals("Product with id = 1 not found", e.getMessage());
+        assertFalse(ReplicaRouting.isReplicaRead());
+    }
+}
@@ -0,0 +1,56 @@
+package myshop.common.db;
+
+import org.junit.jupiter.api.Test;
+import org.postgresql.PGStatement;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SqlStatementsTest {
+
+    @Test
+    void all_checkThatStatementNamesAndSqlAreUnique() {
+        Set<String> names = new HashSet<>();
+        Set<String> sql = new HashSet<>();
+        for (NamedSql statement : SqlStatements.all()) {
+            assertTrue(names.add(statement.name()), "Duplicate name: " + statement.name());
+            assertTrue(sql.add(statement.sql()), "Duplicate SQL: " + statement.sql());
+        }
+        assertTrue(SqlStatements.all().contains(SqlStatements.PRODUCT_FIND_BY_ID));
+    }
+
+    @Test
+    void prepare_checkThatHotStatementIsServerPreparedOncePerConnection() throws SQLException {
+        try (Connection connection = ConnectionManager.getConnection()) {
+            for (int i = 0; i < 3; i++) {
+                try (PreparedStatement ps = SqlStatements.PRODUCT_FIND_BY_ID.prepare(connection)) {
+                    assertTrue(ps.unwrap(PGStatement.class).isUseServerPrepare());
+                    ps.setLong(1, 1L);
+                    ps.executeQuery().close();
+                }
+            }
+
+            try (Statement st = connection.createStatement();
+                 ResultSet rs = st.executeQuery("SELECT count(*) FROM pg_prepared_statements "
+                         + "WHERE statement = 'SELECT id, product_name, price, version FROM products WHERE id = $1'")) {
+                rs.next();
+                assertEquals(1, rs.getInt(1), "Statement must be parsed once and reused from the driver cache");
+            }
+        }
+    }
+
+    @Test
+    void prepare_checkThatRegularStatementKeepsDefaultThreshold() throws SQLException {
+        try (Connection connection = ConnectionManager.getConnection();
+             PreparedStatement ps = SqlStatements.PRODUCT_FIND_ALL.prepare(connection)) {
+            assertEquals(5, ps.unwrap(PGStatement.class).getPrepareThreshold());
+        }
+    }
+}
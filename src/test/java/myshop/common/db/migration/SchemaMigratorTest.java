@@ -0,0 +1,45 @@
+package myshop.common.db.migration;
+
+import myshop.common.db.ConnectionManager;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SchemaMigratorTest {
+
+    @Test
+    void loadMigrations_checkThatMigrationsAreOrderedByVersion() {
+        List<SchemaMigrator.Migration> migrations = SchemaMigrator.loadMigrations();
+        assertFalse(migrations.isEmpty());
+        assertEquals(1, migrations.get(0).version());
+        assertEquals("add query indexes", migrations.get(0).description());
+    }
+
+    @Test
+    void migrate_checkThatMigrationsAreAppliedOnceAndIndexesExist() throws SQLException {
+        SchemaMigrator migrator = new SchemaMigrator();
+        migrator.migrate();
+        assertEquals(0, migrator.migrate(), "Second run must not apply anything");
+        assertEquals(SchemaMigrator.loadMigrations().size(), migrator.currentVersion());
+
+        Set<String> indexes = new HashSet<>();
+        try (Connection connection = ConnectionManager.getConnection();
+             Statement st = connection.createStatement();
+             ResultSet rs = st.executeQuery("SELECT indexname FROM pg_indexes WHERE schemaname = 'public'")) {
+            while (rs.next()) {
+                indexes.add(rs.getString(1));
+            }
+        }
+        assertTrue(indexes.containsAll(Set.of("orders_user_id_idx", "order_items_product_id_idx",
+                "shopping_cart_product_id_idx", "products_price_idx", "user_cart_summary_user_id_idx")),
+                "Indexes: " + indexes);
+    }
+}
@@ -0,0 +1,63 @@
+package myshop.common.jpa;
+
+import myshop.cart.model.ShoppingCart;
+import myshop.order.model.Order;
+import myshop.product.model.Product;
+import myshop.user.model.User;
+import myshop.user.model.UserDetails;
+import org.hibernate.engine.spi.ManagedEntity;
+import org.hibernate.engine.spi.SelfDirtinessTracker;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EntityEnhancementTest {
+
+    @Test
+    void entities_checkThatAllEntitiesAreEnhancedAtBuildTime() {
+        for (Class<?> entity : List.of(User.class, UserDetails.class, Product.class, Order.class, ShoppingCart.class)) {
+            assertTrue(SelfDirtinessTracker.class.isAssignableFrom(entity), entity + " has no dirty tracking");
+            assertTrue(ManagedEntity.class.isAssignableFrom(entity), entity + " is not a managed entity");
+        }
+    }
+
+    @Test
+    void setter_checkThatOnlyChangedAttributesAreTracked() {
+        Product product = new Product(1L, "Laptop", new BigDecimal("999.99"));
+        SelfDirtinessTracker tracker = (SelfDirtinessTracker) product;
+        tracker.$$_hibernate_clearDirtyAttributes();
+
+        product.setPrice(new BigDecimal("899.99"));
+        product.setProductName("Laptop");
+
+        assertArrayEquals(new String[]{"price"}, tracker.$$_hibernate_getDirtyAttributes());
+    }
+
+    @Test
+    void lombokEqualsAndHashCode_checkThatEnhancementStateIsIgnored() {
+        Product tracked = new Product(1L, "Laptop", new BigDecimal("999.99"));
+        Product plain = new Product(1L, "Laptop", new BigDecimal("999.99"));
+        ((SelfDirtinessTracker) tracked).$$_hibernate_trackChange("price");
+        ((ManagedEntity) tracked).$$_hibernate_setInstanceId(42);
+
+        assertEquals(plain, tracked);
+        assertEquals(plain.hashCode(), tracked.hashCode());
+        assertEquals("Product(id=1, productName=Laptop, price=999.99, version=null)", tracked.toString());
+
+        tracked.setPrice(new BigDecimal("899.99"));
+        assertNotEquals(plain, tracked);
+    }
+
+    @Test
+    void lombokEquals_checkThatCompositeKeyEntityComparesByState() {
+        ShoppingCart first = new ShoppingCart(1L, 2L, 3);
+        ShoppingCart second = new ShoppingCart(1L, 2L, 3);
+        ((SelfDirtinessTracker) first).$$_hibernate_trackChange("quantity");
+
+        assertEquals(second, first);
+        assertEquals(second.hashCode(), first.hashCode());
+    }
+}
@@ -0,0 +1,89 @@
+package myshop.common.jpa;
+
+import jakarta.persistence.EntityManager;
+import myshop.AppBootstrap;
+import myshop.common.db.ConnectionManager;
+import myshop.product.model.Product;
+import org.hibernate.engine.spi.SelfDirtinessTracker;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+
+/**
+ * Measures flush time of a large persistence context where only a few entities change.
+ * With build-time enhancement (mvn process-classes) flush asks each entity for its dirty attributes;
+ * with classes from a plain mvn compile it compares every attribute against the loaded snapshot.
+ * <p>
+ * Run with {@code mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=myshop.common.jpa.HibernateFlushBenchmark -Dlog4j2.configurationFile=log4j2-prod.xml}.
+ */
+public class HibernateFlushBenchmark {
+    private static final int PRODUCTS = 50_000;
+    private static final int CHANGED = 10;
+    private static final int WARM_UP = 5;
+    private static final int ITERATIONS = 20;
+
+    public static void main(String[] args) throws SQLException {
+        AppBootstrap.start().join();
+        seed();
+        try {
+            System.out.println("Product enhanced: " + SelfDirtinessTracker.class.isAssignableFrom(Product.class));
+            for (int i = 0; i < WARM_UP; i++) {
+                flush();
+            }
+            long total = 0;
+            for (int i = 0; i < ITERATIONS; i++) {
+                total += flush();
+            }
+            System.out.printf("flush of %d managed products, %d changed: %.2f ms%n",
+                    PRODUCTS, CHANGED, total / 1_000_000.0 / ITERATIONS);
+        } finally {
+            cleanUp();
+            JpaUtil.shutdown();
+            ConnectionManager.shutdown();
+        }
+    }
+
+    private static long flush() {
+        EntityManager em = JpaUtil.getEntityManager();
+        try {
+            em.getTransaction().begin();
+            List<Product> products = em.createQuery(
+                            "SELECT p FROM Product p WHERE p.productName LIKE 'flushbench%'", Product.class)
+                    .getResultList();
+            for (int i = 0; i < CHANGED; i++) {
+                Product product = products.get(i * (products.size() / CHANGED));
+                product.setPrice(product.getPrice().add(BigDecimal.ONE));
+            }
+            long start = System.nanoTime();
+            em.flush();
+            long elapsed = System.nanoTime() - start;
+            em.getTransaction().rollback();
+            return elapsed;
+        } finally {
+            em.close();
+        }
+    }
+
+    private static void seed() throws SQLException {
+        cleanUp();
+        try (Connection connection = ConnectionManager.getConnection();
+             Statement st = connection.createStatement()) {
+            st.executeUpdate("INSERT INTO products (product_name, price) "
+                    + "SELECT 'flushbench_' || i, (i % 1000) + 0.99 FROM generate_series(1, " + PRODUCTS + ") i");
+        }
+    }
+
+    private static void cleanUp() throws SQLException {
+        try (Connection connection = ConnectionManager.getConnection();
+             Statement st = connection.createStatement()) {
+            st.executeUpdate("DELETE FROM products WHERE product_name LIKE 'flushbench\\_%'");
+        }
+    }
+
+    private HibernateFlushBenchmark() {
+    }
+}
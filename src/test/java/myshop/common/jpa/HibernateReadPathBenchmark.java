@@ -0,0 +1,141 @@
+package myshop.common.jpa;
+
+import jakarta.persistence.EntityManager;
+import myshop.AppBootstrap;
+import myshop.common.db.ConnectionManager;
+import myshop.order.dao.HibernateOrderDao;
+import myshop.order.model.Order;
+import myshop.product.dao.HibernateProductDao;
+import myshop.product.model.Product;
+import myshop.user.dao.HibernateUserDao;
+import myshop.user.model.User;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Compares the Hibernate listing paths: managed entities (the previous behaviour), read-only entities
+ * (current findAllProducts/findAllUsers/findAllOrdersByUserId) and DTO projections (find*Views).
+ * Seeds its own rows with the prefix {@code readbench_} and removes them afterwards.
+ * <p>
+ * Run with {@code mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=myshop.common.jpa.HibernateReadPathBenchmark -Dlog4j2.configurationFile=log4j2-prod.xml}.
+ */
+public class HibernateReadPathBenchmark {
+    private static final int PRODUCTS = 20_000;
+    private static final int USERS = 20_000;
+    private static final int ORDERS = 5_000;
+    private static final int WARM_UP = 10;
+    private static final int ITERATIONS = 30;
+
+    public static void main(String[] args) throws SQLException {
+        AppBootstrap.start().join();
+        long userId = seed();
+        try {
+            HibernateProductDao productDao = new HibernateProductDao();
+            HibernateUserDao userDao = new HibernateUserDao();
+            HibernateOrderDao orderDao = new HibernateOrderDao();
+
+            run("products managed", () -> managed(HibernateProductDao.FIND_ALL_PRODUCTS_JPQL, Product.class, null));
+            run("products read-only", productDao::findAllProducts);
+            run("products dto", productDao::findAllProductViews);
+            run("users managed", () -> managed(HibernateUserDao.FIND_ALL_USERS_JPQL, User.class, null));
+            run("users read-only", userDao::findAllUsers);
+            run("users dto", userDao::findAllUserViews);
+            run("orders managed", () -> managed(HibernateOrderDao.FIND_ALL_ORDERS_BY_USER_ID_JPQL, Order.class, userId));
+            run("orders read-only", () -> orderDao.findAllOrdersByUserId(userId));
+            run("orders dto", () -> orderDao.findOrderViewsByUserId(userId));
+        } finally {
+            cleanUp();
+            JpaUtil.shutdown();
+            ConnectionManager.shutdown();
+        }
+    }
+
+    private static <T> List<T> managed(String jpql, Class<T> type, Long userId) {
+        EntityManager em = JpaUtil.getEntityManager();
+        try {
+            var query = em.createQuery(jpql, type);
+            if (userId != null) {
+                query.setParameter("userId", userId);
+            }
+            return query.getResultList();
+        } finally {
+            em.close();
+        }
+    }
+
+    private static void run(String name, Supplier<List<?>> listing) {
+        for (int i = 0; i < WARM_UP; i++) {
+            listing.get();
+        }
+        System.gc();
+
+        com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long allocatedBefore = threads.getCurrentThreadAllocatedBytes();
+        long gcCountBefore = gcCount();
+        long gcTimeBefore = gcTime();
+        long rows = 0;
+        long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            rows += listing.get().size();
+        }
+        long elapsed = System.nanoTime() - start;
+        long allocated = threads.getCurrentThreadAllocatedBytes() - allocatedBefore;
+
+        System.out.printf("%-20s: %7.2f ms/call, %6d B/row, %3d GCs (%d ms)%n", name,
+                elapsed / 1_000_000.0 / ITERATIONS, allocated / rows,
+                gcCount() - gcCountBefore, gcTime() - gcTimeBefore);
+    }
+
+    private static long gcCount() {
+        return ManagementFactory.getGarbageCollectorMXBeans().stream()
+                .mapToLong(GarbageCollectorMXBean::getCollectionCount).sum();
+    }
+
+    private static long gcTime() {
+        return ManagementFactory.getGarbageCollectorMXBeans().stream()
+                .mapToLong(GarbageCollectorMXBean::getCollectionTime).sum();
+    }
+
+    private static long seed() throws SQLException {
+        cleanUp();
+        try (Connection connection = ConnectionManager.getConnection();
+             Statement st = connection.createStatement()) {
+            st.executeUpdate("INSERT INTO products (product_name, price) "
+                    + "SELECT 'readbench_' || i, (i % 1000) + 0.99 FROM generate_series(1, " + PRODUCTS + ") i");
+            st.executeUpdate("INSERT INTO users (username, email) "
+                    + "SELECT 'readbench_' || i, 'readbench_' || i || '@bench.local' "
+                    + "FROM generate_series(1, " + USERS + ") i");
+            try (PreparedStatement ps = connection.prepareStatement(
+                    "SELECT id FROM users WHERE username = 'readbench_1'");
+                 ResultSet rs = ps.executeQuery()) {
+                rs.next();
+                long userId = rs.getLong(1);
+                st.executeUpdate("INSERT INTO orders (user_id, ordered_products, total_amount) "
+                        + "SELECT " + userId + ", 'readbench product ' || i, 10.00 "
+                        + "FROM generate_series(1, " + ORDERS + ") i");
+                return userId;
+            }
+        }
+    }
+
+    private static void cleanUp() throws SQLException {
+        try (Connection connection = ConnectionManager.getConnection();
+             Statement st = connection.createStatement()) {
+            st.executeUpdate("DELETE FROM users WHERE username LIKE 'readbench\\_%'");
+            st.executeUpdate("DELETE FROM products WHERE product_name LIKE 'readbench\\_%'");
+        }
+    }
+
+    private HibernateReadPathBenchmark() {
+    }
+}
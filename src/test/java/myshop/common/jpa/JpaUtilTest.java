@@ -0,0 +1,63 @@
+package myshop.common.jpa;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.MockedStatic;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class JpaUtilTest {
+
+    @AfterEach
+    void tearDown() {
+        JpaUtil.shutdown();
+    }
+
+    @Test
+    void getEntityManager_checkThatFailedBootstrapIsRetriedOnNextCall() {
+        EntityManagerFactory emf = mock(EntityManagerFactory.class);
+        EntityManager em = mock(EntityManager.class);
+        when(emf.createEntityManager()).thenReturn(em);
+        AtomicInteger attempts = new AtomicInteger();
+
+        try (MockedStatic<JpaUtil> jpaUtil = mockStatic(JpaUtil.class, invocation -> {
+            if ("buildEntityManagerFactory".equals(invocation.getMethod().getName())) {
+                if (attempts.incrementAndGet() == 1) {
+                    throw new RuntimeException("Failed to initialize EntityManagerFactory");
+                }
+                return emf;
+            }
+            return invocation.callRealMethod();
+        })) {
+            assertThrows(RuntimeException.class, JpaUtil::getEntityManager, "The database is down at startup");
+            assertFalse(JpaUtil.isReady(), "A failed bootstrap must not count as ready");
+
+            assertSame(em, JpaUtil.getEntityManager(), "The next call must bootstrap again");
+            assertTrue(JpaUtil.isReady());
+            assertSame(em, JpaUtil.getEntityManager());
+            assertEquals(2, attempts.get(), "A successful bootstrap must be reused");
+        }
+    }
+
+    @Test
+    void initializeAsync_checkThatFactoryIsBuiltInBackgroundAndClosedOnShutdown() {
+        JpaUtil.initializeAsync().join();
+
+        assertTrue(JpaUtil.isReady());
+        assertNull(JpaUtil.initializeAsync().join(), "A second call must reuse the ready factory");
+        EntityManager em = JpaUtil.getEntityManager();
+        try {
+            assertEquals(1, em.createNativeQuery("SELECT 1").getSingleResult());
+        } finally {
+            em.close();
+        }
+
+        JpaUtil.shutdown();
+        assertFalse(JpaUtil.isReady(), "After shutdown the factory must be built again on demand");
+    }
+}
@@ -0,0 +1,78 @@
+package myshop.common.jpa;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Parameter;
+import jakarta.persistence.PersistenceException;
+import jakarta.persistence.TypedQuery;
+import myshop.common.jpa.JpaWarmUp.WarmUpQuery;
+import myshop.product.model.Product;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.MockedStatic;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class JpaWarmUpTest {
+    private MockedStatic<JpaUtil> jpaUtil;
+    private EntityManager em;
+
+    @BeforeEach
+    void setUp() {
+        em = mock(EntityManager.class);
+        jpaUtil = mockStatic(JpaUtil.class);
+        jpaUtil.when(JpaUtil::getEntityManager).thenReturn(em);
+    }
+
+    @AfterEach
+    void tearDown() {
+        jpaUtil.close();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void warmUp_checkThatSelectsRunWithDummyParametersAndUpdatesAreOnlyCompiled() {
+        TypedQuery<Product> select = mock(TypedQuery.class);
+        when(em.createQuery("select by range", Product.class)).thenReturn(select);
+        when(select.setMaxResults(1)).thenReturn(select);
+        Parameter<BigDecimal> minPrice = parameter("minPrice", BigDecimal.class);
+        Parameter<Long> id = parameter("id", Long.class);
+        when(select.getParameters()).thenReturn(Set.of(minPrice, id));
+
+        JpaWarmUp.warmUp(List.of(
+                WarmUpQuery.select("select by range", Product.class),
+                WarmUpQuery.update("delete cart")));
+
+        verify(select).setParameter("minPrice", BigDecimal.ONE.negate());
+        verify(select).setParameter("id", -1L);
+        verify(select).getResultList();
+        verify(em).createQuery("delete cart");
+        verify(em, never()).createQuery(eq("delete cart"), any());
+        verify(em).close();
+    }
+
+    @Test
+    void warmUp_checkThatFailingQueryDoesNotStopTheRest() {
+        when(em.createQuery("broken", Product.class)).thenThrow(new PersistenceException("Test exception"));
+
+        assertDoesNotThrow(() -> JpaWarmUp.warmUp(List.of(
+                WarmUpQuery.select("broken", Product.class),
+                WarmUpQuery.update("delete cart"))));
+
+        verify(em).createQuery("delete cart");
+        verify(em).close();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> Parameter<T> parameter(String name, Class<T> type) {
+        Parameter<T> parameter = mock(Parameter.class);
+        when(parameter.getName()).thenReturn(name);
+        when(parameter.getParameterType()).thenReturn(type);
+        return parameter;
+    }
+}
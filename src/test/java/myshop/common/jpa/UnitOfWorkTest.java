@@ -0,0 +1,139 @@
+package myshop.common.jpa;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityTransaction;
+import jakarta.persistence.Query;
+import myshop.common.exception.DaoException;
+import org.hibernate.jpa.HibernateHints;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.MockedStatic;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class UnitOfWorkTest {
+    private MockedStatic<JpaUtil> jpaUtil;
+    private EntityManager em;
+    private EntityTransaction transaction;
+
+    @BeforeEach
+    void setUp() {
+        em = mock(EntityManager.class);
+        transaction = mock(EntityTransaction.class);
+        when(em.getTransaction()).thenReturn(transaction);
+        jpaUtil = mockStatic(JpaUtil.class, invocation -> "createEntityManager".equals(invocation.getMethod().getName())
+                ? em
+                : invocation.callRealMethod());
+    }
+
+    @AfterEach
+    void tearDown() {
+        jpaUtil.close();
+    }
+
+    @Test
+    void execute_checkThatDaoCallsShareOneEntityManagerAndOneCommit() {
+        when(transaction.isActive()).thenReturn(true);
+
+        String result = UnitOfWork.execute(() -> {
+            assertTrue(UnitOfWork.isActive());
+            EntityManager first = daoStyleCall();
+            EntityManager second = daoStyleCall();
+            assertSame(first, second);
+            verify(em, never()).close();
+            return "done";
+        });
+
+        assertEquals("done", result);
+        assertFalse(UnitOfWork.isActive());
+        verify(transaction, times(1)).begin();
+        verify(transaction, times(1)).commit();
+        verify(em, times(2)).flush();
+        verify(em, times(1)).close();
+        jpaUtil.verify(JpaUtil::createEntityManager, times(1));
+    }
+
+    @Test
+    void afterCommit_checkThatActionsRunOnlyOnceTheUnitHasCommitted() {
+        when(transaction.isActive()).thenReturn(true);
+        List<String> actions = new ArrayList<>();
+
+        UnitOfWork.run(() -> {
+            UnitOfWork.afterCommit(() -> actions.add("committed"));
+            verify(transaction, never()).commit();
+            assertTrue(actions.isEmpty());
+        });
+        assertEquals(List.of("committed"), actions);
+
+        assertThrows(DaoException.class, () -> UnitOfWork.run(() -> {
+            UnitOfWork.afterCommit(() -> actions.add("rolled back"));
+            throw new DaoException("Test exception");
+        }));
+        assertEquals(List.of("committed"), actions);
+
+        UnitOfWork.afterCommit(() -> actions.add("no unit"));
+        assertEquals(List.of("committed", "no unit"), actions);
+    }
+
+    @Test
+    void execute_checkThatDaoRollbackMarksTransactionAndUnitRollsBack() {
+        when(transaction.isActive()).thenReturn(true);
+
+        assertThrows(DaoException.class, () -> UnitOfWork.run(() -> {
+            EntityManager shared = JpaUtil.getEntityManager();
+            EntityTransaction tx = shared.getTransaction();
+            tx.begin();
+            if (tx.isActive()) {
+                tx.rollback();
+            }
+            shared.close();
+            throw new DaoException("Test exception");
+        }));
+
+        verify(transaction).setRollbackOnly();
+        verify(transaction, times(1)).rollback();
+        verify(transaction, never()).commit();
+        verify(em).close();
+        assertFalse(UnitOfWork.isActive());
+    }
+
+    @Test
+    void execute_checkThatNestedUnitJoinsOuterOne() {
+        UnitOfWork.run(() -> UnitOfWork.run(() -> assertTrue(UnitOfWork.isActive())));
+
+        jpaUtil.verify(JpaUtil::createEntityManager, times(1));
+        verify(transaction, times(1)).begin();
+        verify(transaction, times(1)).commit();
+    }
+
+    @Test
+    void getEntityManager_checkThatNewEntityManagerIsCreatedOutsideUnit() {
+        assertSame(em, JpaUtil.getEntityManager());
+        assertFalse(UnitOfWork.isActive());
+    }
+
+    private static EntityManager daoStyleCall() {
+        EntityManager shared = JpaUtil.getEntityManager();
+        EntityTransaction tx = shared.getTransaction();
+        tx.begin();
+        tx.commit();
+        shared.close();
+        return shared;
+    }
+
+    @Test
+    void setReadOnlyOutsideUnitOfWork_checkThatHintIsSetOnlyOutsideUnit() {
+        Query outside = mock(Query.class);
+        JpaUtil.setReadOnlyOutsideUnitOfWork(outside);
+        verify(outside).setHint(HibernateHints.HINT_READ_ONLY, true);
+
+        Query inside = mock(Query.class);
+        UnitOfWork.run(() -> JpaUtil.setReadOnlyOutsideUnitOfWork(inside));
+        verifyNoInteractions(inside);
+    }
+}
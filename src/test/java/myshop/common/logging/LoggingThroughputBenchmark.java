@@ -0,0 +1,74 @@
+package myshop.common.logging;
+
+import myshop.product.model.Product;
+import org.apache.logging.log4j.Logger;
+import org.apache.logging.log4j.core.LoggerContext;
+import org.apache.logging.log4j.core.config.Configurator;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * Compares the DAO hot-path logging cost of the default synchronous configuration
+ * with the asynchronous {@code log4j2-prod.xml} profile.
+ * <p>
+ * Run with {@code mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=myshop.common.logging.LoggingThroughputBenchmark}.
+ * Console output of the synchronous run is large; redirect stdout to a file.
+ */
+public class LoggingThroughputBenchmark {
+    private static final int THREADS = 4;
+    private static final int OPERATIONS_PER_THREAD = 100_000;
+
+    public static void main(String[] args) throws Exception {
+        List<String> results = new ArrayList<>();
+        results.add(run("log4j2.xml", true));
+        results.add(run("log4j2-prod.xml", true));
+        results.add(run("log4j2-prod.xml", false));
+        results.forEach(System.err::println);
+    }
+
+    private static String run(String configFile, boolean infoPerRow) throws Exception {
+        LoggerContext context = Configurator.initialize(configFile, null,
+                LoggingThroughputBenchmark.class.getClassLoader().getResource(configFile).toURI());
+        Logger logger = context.getLogger("myshop.product.dao.JdbcProductDao");
+
+        Product product = new Product(1L, "Смартфон Apple iPhone 15 128GB", new BigDecimal("799.00"));
+        runThreads(logger, product, infoPerRow, OPERATIONS_PER_THREAD / 10);
+
+        long start = System.nanoTime();
+        runThreads(logger, product, infoPerRow, OPERATIONS_PER_THREAD);
+        long elapsed = System.nanoTime() - start;
+
+        Configurator.shutdown(context);
+
+        double opsPerSecond = (double) THREADS * OPERATIONS_PER_THREAD / (elapsed / 1_000_000_000.0);
+        return String.format("%-16s per-row %-5s : %,12.0f ops/s",
+                configFile, infoPerRow ? "INFO" : "DEBUG", opsPerSecond);
+    }
+
+    private static void runThreads(Logger logger, Product product, boolean infoPerRow, int operations)
+            throws InterruptedException {
+        CountDownLatch done = new CountDownLatch(THREADS);
+        for (int t = 0; t < THREADS; t++) {
+            Thread thread = new Thread(() -> {
+                for (long id = 0; id < operations; id++) {
+                    logger.debug("findById() called with id = {}", id);
+                    if (infoPerRow) {
+                        logger.info("Product with id = {} found: {}", id, product);
+                    } else {
+                        logger.debug("Product with id = {} found: {}", id, product);
+                    }
+                }
+                done.countDown();
+            });
+            thread.start();
+        }
+        done.await();
+    }
+
+    private LoggingThroughputBenchmark() {
+    }
+}
@@ -2,10 +2,19 @@ package myshop.order.dao;
 
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.EntityTransaction;
+import jakarta.persistence.Query;
 import jakarta.persistence.TypedQuery;
+import myshop.common.db.SqlStatements;
 import myshop.common.exception.DaoException;
 import myshop.common.jpa.JpaUtil;
 import myshop.order.model.Order;
+import myshop.order.model.OrderView;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
+import org.hibernate.StatelessSession;
+import org.hibernate.Transaction;
+import org.hibernate.jdbc.Work;
+import org.hibernate.query.SelectionQuery;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -18,9 +27,11 @@ import org.mockito.junit.jupiter.MockitoSettings;
 import org.mockito.quality.Strictness;
 
 import java.math.BigDecimal;
+import java.util.ArrayList;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -35,6 +46,9 @@ class HibernateOrderDaoTest {
     @Mock
     private TypedQuery<Order> typedQuery;
 
+    @Mock
+    private Query nativeQuery;
+
     private OrderDao orderDao;
 
     private MockedStatic<JpaUtil> jpaUtilMock;
@@ -45,6 +59,8 @@ class HibernateOrderDaoTest {
         jpaUtilMock = Mockito.mockStatic(JpaUtil.class);
         jpaUtilMock.when(JpaUtil::getEntityManager).thenReturn(em);
         when(em.getTransaction()).thenReturn(transaction);
+        when(em.createNativeQuery(anyString())).thenReturn(nativeQuery);
+        when(nativeQuery.setParameter(anyInt(), any())).thenReturn(nativeQuery);
     }
 
     @AfterEach
@@ -66,6 +82,10 @@ class HibernateOrderDaoTest {
         assertSame(expected, result);
         verify(transaction).begin();
         verify(em).persist(expected);
+        verify(em).createNativeQuery(SqlStatements.USER_ORDER_STATS_UPSERT.sql());
+        verify(nativeQuery).setParameter(1, 1L);
+        verify(nativeQuery).setParameter(2, new BigDecimal("100.00"));
+        verify(nativeQuery).executeUpdate();
         verify(transaction).commit();
         verify(em).close();
     }
@@ -180,4 +200,84 @@ class HibernateOrderDaoTest {
 
         verify(em).close();
     }
-}
\ No newline at end of file
+
+    @Test
+    void saveOrders_checkThatOrdersAndStatsAreWrittenInOneStatelessTransaction() {
+        StatelessSession session = mock(StatelessSession.class);
+        Transaction tx = mock(Transaction.class);
+        jpaUtilMock.when(JpaUtil::openStatelessSession).thenReturn(session);
+        when(session.beginTransaction()).thenReturn(tx);
+        List<Order> orders = List.of(new Order(1L, "product1", BigDecimal.ONE),
+                new Order(2L, "product2", BigDecimal.TEN));
+
+        assertEquals(2, new HibernateOrderDao().saveOrders(orders));
+
+        verify(session).insertMultiple(orders);
+        verify(session).doWork(any(Work.class));
+        verify(tx).commit();
+        verify(session).close();
+        verifyNoInteractions(em);
+    }
+
+    @Test
+    void saveOrders_checkThatRollbackAndThrowDaoExceptionWhenStatsUpdateFails() {
+        StatelessSession session = mock(StatelessSession.class);
+        Transaction tx = mock(Transaction.class);
+        jpaUtilMock.when(JpaUtil::openStatelessSession).thenReturn(session);
+        when(session.beginTransaction()).thenReturn(tx);
+        when(tx.isActive()).thenReturn(true);
+        doThrow(new RuntimeException("DB error")).when(session).doWork(any(Work.class));
+        Order order = new Order(1L, "product1", BigDecimal.ONE);
+
+        assertThrows(DaoException.class, () -> new HibernateOrderDao().saveOrders(List.of(order)));
+
+        assertNull(order.getId());
+        verify(tx).rollback();
+        verify(tx, never()).commit();
+        verify(session).close();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void streamAllOrders_checkThatRowsArePassedToConsumer() {
+        StatelessSession session = mock(StatelessSession.class);
+        Transaction tx = mock(Transaction.class);
+        SelectionQuery<Order> query = mock(SelectionQuery.class);
+        ScrollableResults<Order> results = mock(ScrollableResults.class);
+        Order order = new Order(1L, 1L, "product1", BigDecimal.ONE);
+        jpaUtilMock.when(JpaUtil::openStatelessSession).thenReturn(session);
+        when(session.beginTransaction()).thenReturn(tx);
+        when(session.createSelectionQuery(HibernateOrderDao.STREAM_ALL_ORDERS_JPQL, Order.class)).thenReturn(query);
+        when(query.setFetchSize(anyInt())).thenReturn(query);
+        when(query.scroll(ScrollMode.FORWARD_ONLY)).thenReturn(results);
+        when(results.next()).thenReturn(true, false);
+        when(results.get()).thenReturn(order);
+
+        List<Order> streamed = new ArrayList<>();
+        assertEquals(1, new HibernateOrderDao().streamAllOrders(streamed::add));
+
+        assertEquals(List.of(order), streamed);
+        verify(tx).commit();
+        verify(session).close();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void findOrderViewsByUserId_checkThatUserIdIsBound() {
+        TypedQuery<OrderView> viewQuery = mock(TypedQuery.class);
+        List<OrderView> expected = List.of(new OrderView(1L, 1L, "product1", BigDecimal.ONE));
+        when(em.createQuery(HibernateOrderDao.FIND_ORDER_VIEWS_BY_USER_ID_JPQL, OrderView.class)).thenReturn(viewQuery);
+        when(viewQuery.setParameter("userId", 1L)).thenReturn(viewQuery);
+        when(viewQuery.getResultList()).thenReturn(expected);
+
+        assertEquals(expected, new HibernateOrderDao().findOrderViewsByUserId(1L));
+        verify(viewQuery).setParameter("userId", 1L);
+        verify(em).close();
+    }
+
+    @Test
+    void findOrderViewsByUserId_checkThatThrowIllegalArgumentExceptionWhenUserIdIsNull() {
+        assertThrows(IllegalArgumentException.class, () -> new HibernateOrderDao().findOrderViewsByUserId(null));
+        jpaUtilMock.verifyNoInteractions();
+    }
+}
@@ -1,6 +1,7 @@
 package myshop.order.dao;
 
 import myshop.common.db.ConnectionManager;
+import myshop.common.db.SqlStatements;
 import myshop.common.exception.DaoException;
 import myshop.order.model.Order;
 import myshop.user.dao.JdbcUserDao;
@@ -17,8 +18,7 @@ import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.anyString;
-import static org.mockito.Mockito.mock;
-import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.*;
 
 class JdbcOrderDaoTest {
     private OrderDao orderDao;
@@ -135,6 +135,79 @@ class JdbcOrderDaoTest {
         }
     }
 
+    @Test
+    void saveOrder_checkThatUserOrderStatsAreUpdated() throws SQLException {
+        orderDao.saveOrder(new Order(userId1, "product1", new BigDecimal("10.00")));
+        orderDao.saveOrder(new Order(userId1, "product2", new BigDecimal("20.50")));
+
+        try (Connection connection = ConnectionManager.getConnection();
+             PreparedStatement ps = connection.prepareStatement(
+                     "SELECT total_amount, orders_count FROM user_order_stats WHERE user_id = ?")) {
+            ps.setLong(1, userId1);
+            try (ResultSet rs = ps.executeQuery()) {
+                assertTrue(rs.next(), "Stats row must exist after saving an order");
+                assertEquals(new BigDecimal("30.50"), rs.getBigDecimal("total_amount"));
+                assertEquals(2L, rs.getLong("orders_count"));
+            }
+        }
+    }
+
+    @Test
+    void updateUserOrderStats_checkThatOrdersAreAggregatedPerUser() throws SQLException {
+        orderDao.saveOrder(new Order(userId1, "product1", new BigDecimal("10.00")));
+        List<Order> orders = List.of(
+                new Order(userId1, "product2", new BigDecimal("20.50")),
+                new Order(userId2, "product3", new BigDecimal("5.00")),
+                new Order(userId1, "product4", new BigDecimal("1.25")));
+
+        try (Connection connection = ConnectionManager.getConnection()) {
+            JdbcOrderDao.updateUserOrderStats(connection, orders);
+        }
+
+        try (Connection connection = ConnectionManager.getConnection();
+             PreparedStatement ps = connection.prepareStatement(
+                     "SELECT total_amount, orders_count FROM user_order_stats WHERE user_id = ?")) {
+            ps.setLong(1, userId1);
+            try (ResultSet rs = ps.executeQuery()) {
+                assertTrue(rs.next());
+                assertEquals(new BigDecimal("31.75"), rs.getBigDecimal("total_amount"));
+                assertEquals(3L, rs.getLong("orders_count"));
+            }
+            ps.setLong(1, userId2);
+            try (ResultSet rs = ps.executeQuery()) {
+                assertTrue(rs.next());
+                assertEquals(new BigDecimal("5.00"), rs.getBigDecimal("total_amount"));
+                assertEquals(1L, rs.getLong("orders_count"));
+            }
+        }
+    }
+
+    @Test
+    void saveOrder_checkThatRollbackWhenStatsUpdateFails() throws SQLException {
+        Order order = new Order(userId1, "product1", new BigDecimal("10.00"));
+
+        try (MockedStatic<ConnectionManager> mockedStatic = Mockito.mockStatic(ConnectionManager.class)) {
+            Connection mockConnection = mock(Connection.class);
+            PreparedStatement insertPs = mock(PreparedStatement.class);
+            PreparedStatement statsPs = mock(PreparedStatement.class);
+            ResultSet mockRs = mock(ResultSet.class);
+            mockedStatic.when(ConnectionManager::getConnection).thenReturn(mockConnection);
+            when(mockConnection.getAutoCommit()).thenReturn(true);
+            when(mockConnection.prepareStatement(anyString())).thenReturn(insertPs);
+            when(mockConnection.prepareStatement(SqlStatements.USER_ORDER_STATS_UPSERT.sql())).thenReturn(statsPs);
+            when(insertPs.executeQuery()).thenReturn(mockRs);
+            when(mockRs.next()).thenReturn(true);
+            when(mockRs.getLong("id")).thenReturn(42L);
+            when(statsPs.executeUpdate()).thenThrow(new SQLException("Test SQL error"));
+
+            assertThrows(DaoException.class, () -> orderDao.saveOrder(order));
+            verify(mockConnection).rollback();
+            verify(mockConnection, never()).commit();
+            verify(mockConnection).setAutoCommit(true);
+            assertNull(order.getId(), "A rolled back order must not keep the generated id");
+        }
+    }
+
     @Test
     void findAllOrders_checkThatReturnAllOrders() {
         orderDao.saveOrder(new Order(userId1, "product1", new BigDecimal("10.00")));
@@ -2,11 +2,23 @@ package myshop.product.dao;
 
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.EntityTransaction;
+import jakarta.persistence.OptimisticLockException;
+import jakarta.persistence.RollbackException;
 import jakarta.persistence.TypedQuery;
 import myshop.common.exception.DaoException;
+import myshop.common.exception.OptimisticLockConflictException;
 import myshop.common.jpa.JpaUtil;
+import myshop.product.model.PriceRule;
 import myshop.product.model.Product;
+import myshop.product.model.ProductView;
 import myshop.user.model.User;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
+import org.hibernate.Session;
+import org.hibernate.StatelessSession;
+import org.hibernate.Transaction;
+import org.hibernate.jdbc.ReturningWork;
+import org.hibernate.query.SelectionQuery;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -19,9 +31,12 @@ import org.mockito.junit.jupiter.MockitoSettings;
 import org.mockito.quality.Strictness;
 
 import java.math.BigDecimal;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.verify;
@@ -48,6 +63,7 @@ class HibernateProductDaoTest {
         productDao = new HibernateProductDao();
         jpaUtilMock = Mockito.mockStatic(JpaUtil.class);
         jpaUtilMock.when(JpaUtil::getEntityManager).thenReturn(em);
+        jpaUtilMock.when(() -> JpaUtil.isOptimisticLockFailure(any())).thenCallRealMethod();
         when(em.getTransaction()).thenReturn(transaction);
     }
 
@@ -159,17 +175,61 @@ class HibernateProductDaoTest {
     }
 
     @Test
-    void updateProduct_checkThatMergeAndCommitWhenIdNotNull() {
+    void updateProduct_checkThatCopyStateToLoadedProductAndCommitWhenIdNotNull() {
         Product product = new Product(1L, "product", new BigDecimal("100.00"));
+        Product current = new Product(1L, "old product", new BigDecimal("90.00"), 3L);
+        when(em.find(Product.class, 1L)).thenReturn(current);
 
         productDao.updateProduct(product);
 
+        assertEquals("product", current.getProductName());
+        assertEquals(new BigDecimal("100.00"), current.getPrice());
+        assertEquals(3L, product.getVersion());
         verify(transaction).begin();
-        verify(em).merge(product);
         verify(transaction).commit();
+        verify(em, never()).merge(any());
         verify(em).close();
     }
 
+    @Test
+    void updateProduct_checkThatThrowConflictAndRollbackWhenVersionIsStale() {
+        Product product = new Product(1L, "product", new BigDecimal("100.00"), 2L);
+        Product current = new Product(1L, "old product", new BigDecimal("90.00"), 3L);
+        when(em.find(Product.class, 1L)).thenReturn(current);
+        when(transaction.isActive()).thenReturn(true);
+
+        assertThrows(OptimisticLockConflictException.class, () -> productDao.updateProduct(product));
+
+        assertEquals("old product", current.getProductName());
+        verify(transaction, never()).commit();
+        verify(transaction).rollback();
+        verify(em).close();
+    }
+
+    @Test
+    void updateProduct_checkThatStaleVersionAtCommitIsReportedAsConflict() {
+        Product product = new Product(1L, "product", new BigDecimal("100.00"), 3L);
+        when(em.find(Product.class, 1L)).thenReturn(new Product(1L, "old product", new BigDecimal("90.00"), 3L));
+        doThrow(new RollbackException("commit failed", new OptimisticLockException("stale")))
+                .when(transaction).commit();
+
+        assertThrows(OptimisticLockConflictException.class, () -> productDao.updateProduct(product));
+    }
+
+    @Test
+    void modifyProduct_checkThatChangeIsReappliedAfterConflict() {
+        when(em.find(Product.class, 1L))
+                .thenReturn(new Product(1L, "product", new BigDecimal("100.00"), 1L))
+                .thenReturn(new Product(1L, "product", new BigDecimal("100.00"), 2L))
+                .thenReturn(new Product(1L, "product", new BigDecimal("110.00"), 2L))
+                .thenReturn(new Product(1L, "product", new BigDecimal("110.00"), 2L));
+
+        Product result = productDao.modifyProduct(1L, product -> product.setPrice(product.getPrice().add(BigDecimal.TEN)));
+
+        assertEquals(new BigDecimal("120.00"), result.getPrice());
+        verify(transaction, times(1)).commit();
+    }
+
     @Test
     void updateProduct_checkThatThrowIllegalArgumentExceptionWhenIdIsNull() {
         Product product = new Product(null, "product", new BigDecimal("100.00"));
@@ -182,11 +242,10 @@ class HibernateProductDaoTest {
     }
 
     @Test
-    void updateProduct_checkThatRollbackAndThrowDaoExceptionWhenMergeFails() {
+    void updateProduct_checkThatRollbackAndThrowDaoExceptionWhenFindFails() {
         Product product = new Product(1L, "product", new BigDecimal("100.00"));
 
-        doThrow(new RuntimeException("DB error"))
-                .when(em).merge(product);
+        when(em.find(Product.class, 1L)).thenThrow(new RuntimeException("DB error"));
 
         when(transaction.isActive()).thenReturn(true);
 
@@ -242,4 +301,161 @@ class HibernateProductDaoTest {
         verify(transaction).rollback();
         verify(em).close();
     }
-}
\ No newline at end of file
+
+    @Test
+    void findByPriceRange_checkThatParametersAreBound() {
+        List<Product> expected = List.of(new Product(1L, "product1", new BigDecimal("100.00")));
+        when(em.createQuery(HibernateProductDao.FIND_BY_PRICE_RANGE_JPQL, Product.class)).thenReturn(typedQuery);
+        when(typedQuery.setParameter(anyString(), any())).thenReturn(typedQuery);
+        when(typedQuery.getResultList()).thenReturn(expected);
+
+        List<Product> result = productDao.findByPriceRange(new BigDecimal("50"), new BigDecimal("150"));
+
+        assertEquals(expected, result);
+        verify(typedQuery).setParameter("minPrice", new BigDecimal("50"));
+        verify(typedQuery).setParameter("maxPrice", new BigDecimal("150"));
+        verify(em).close();
+    }
+
+    @Test
+    void findTopByPrice_checkThatMaxResultsIsApplied() {
+        List<Product> expected = List.of(new Product(1L, "product1", new BigDecimal("100.00")));
+        when(em.createQuery(HibernateProductDao.FIND_TOP_BY_PRICE_JPQL, Product.class)).thenReturn(typedQuery);
+        when(typedQuery.setMaxResults(anyInt())).thenReturn(typedQuery);
+        when(typedQuery.getResultList()).thenReturn(expected);
+
+        assertEquals(expected, productDao.findTopByPrice(10));
+        verify(typedQuery).setMaxResults(10);
+        verify(em).close();
+    }
+
+    @Test
+    void findAbovePrice_checkThatThrowDaoExceptionWhenQueryFails() {
+        when(em.createQuery(HibernateProductDao.FIND_ABOVE_PRICE_JPQL, Product.class))
+                .thenThrow(new RuntimeException("DB error"));
+
+        assertThrows(DaoException.class,
+                () -> productDao.findAbovePrice(BigDecimal.TEN)
+        );
+
+        verify(em).close();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void updatePrices_checkThatJdbcWorkRunsInTransaction() {
+        Session session = mock(Session.class);
+        when(em.unwrap(Session.class)).thenReturn(session);
+        when(session.doReturningWork(any(ReturningWork.class))).thenReturn(2);
+
+        assertEquals(2, productDao.updatePrices(Map.of(1L, BigDecimal.ONE, 2L, BigDecimal.TEN)));
+
+        verify(transaction).begin();
+        verify(transaction).commit();
+        verify(em).close();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void applyPriceRule_checkThatRollbackAndThrowDaoExceptionWhenWorkFails() {
+        Session session = mock(Session.class);
+        when(em.unwrap(Session.class)).thenReturn(session);
+        when(session.doReturningWork(any(ReturningWork.class))).thenThrow(new RuntimeException("DB error"));
+        when(transaction.isActive()).thenReturn(true);
+
+        assertThrows(DaoException.class, () -> productDao.applyPriceRule(
+                new PriceRule(BigDecimal.ZERO, BigDecimal.TEN, BigDecimal.ONE)));
+
+        verify(transaction).rollback();
+        verify(em).close();
+    }
+
+    @Test
+    void updatePrices_checkThatEmptyMapSkipsDatabase() {
+        assertEquals(0, productDao.updatePrices(Map.of()));
+        jpaUtilMock.verifyNoInteractions();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void createProducts_checkThatInsertMultipleAndCommitInStatelessSession() {
+        StatelessSession session = mock(StatelessSession.class);
+        Transaction tx = mock(Transaction.class);
+        jpaUtilMock.when(JpaUtil::openStatelessSession).thenReturn(session);
+        when(session.beginTransaction()).thenReturn(tx);
+        List<Product> products = List.of(new Product(null, "product1", BigDecimal.ONE),
+                new Product(null, "product2", BigDecimal.TEN));
+
+        assertEquals(2, new HibernateProductDao().createProducts(products));
+
+        verify(session).insertMultiple(products);
+        verify(tx).commit();
+        verify(session).close();
+        verifyNoInteractions(em);
+    }
+
+    @Test
+    void createProducts_checkThatRollbackAndResetIdsWhenInsertFails() {
+        StatelessSession session = mock(StatelessSession.class);
+        Transaction tx = mock(Transaction.class);
+        jpaUtilMock.when(JpaUtil::openStatelessSession).thenReturn(session);
+        when(session.beginTransaction()).thenReturn(tx);
+        when(tx.isActive()).thenReturn(true);
+        Product product = new Product(null, "product", BigDecimal.ONE);
+        doAnswer(invocation -> {
+            product.setId(1L);
+            throw new RuntimeException("DB error");
+        }).when(session).insertMultiple(anyList());
+
+        assertThrows(DaoException.class, () -> new HibernateProductDao().createProducts(List.of(product)));
+
+        assertNull(product.getId());
+        verify(tx).rollback();
+        verify(session).close();
+    }
+
+    @Test
+    void createProducts_checkThatThrowIllegalArgumentExceptionWhenIdIsNotNull() {
+        assertThrows(IllegalArgumentException.class, () -> new HibernateProductDao()
+                .createProducts(List.of(new Product(1L, "product", BigDecimal.ONE))));
+        jpaUtilMock.verifyNoInteractions();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void streamAllProducts_checkThatRowsArePassedToConsumerInOrder() {
+        StatelessSession session = mock(StatelessSession.class);
+        Transaction tx = mock(Transaction.class);
+        SelectionQuery<Product> query = mock(SelectionQuery.class);
+        ScrollableResults<Product> results = mock(ScrollableResults.class);
+        Product first = new Product(1L, "product1", BigDecimal.ONE);
+        Product second = new Product(2L, "product2", BigDecimal.TEN);
+        jpaUtilMock.when(JpaUtil::openStatelessSession).thenReturn(session);
+        when(session.beginTransaction()).thenReturn(tx);
+        when(session.createSelectionQuery(HibernateProductDao.STREAM_ALL_PRODUCTS_JPQL, Product.class))
+                .thenReturn(query);
+        when(query.setFetchSize(anyInt())).thenReturn(query);
+        when(query.scroll(ScrollMode.FORWARD_ONLY)).thenReturn(results);
+        when(results.next()).thenReturn(true, true, false);
+        when(results.get()).thenReturn(first, second);
+
+        List<Product> streamed = new ArrayList<>();
+        assertEquals(2, new HibernateProductDao().streamAllProducts(streamed::add));
+
+        assertEquals(List.of(first, second), streamed);
+        verify(results).close();
+        verify(tx).commit();
+        verify(session).close();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void findAllProductViews_checkThatThrowDaoExceptionWhenQueryFails() {
+        TypedQuery<ProductView> viewQuery = mock(TypedQuery.class);
+        when(em.createQuery(HibernateProductDao.FIND_ALL_PRODUCT_VIEWS_JPQL, ProductView.class)).thenReturn(viewQuery);
+        when(viewQuery.getResultList()).thenThrow(new RuntimeException("DB error"));
+
+        assertThrows(DaoException.class, () -> new HibernateProductDao().findAllProductViews());
+        verify(em).close();
+    }
+}
@@ -4,15 +4,31 @@ import myshop.cart.dao.JdbcShoppingCartDao;
 import myshop.cart.dao.ShoppingCartDao;
 import myshop.common.db.ConnectionManager;
 import myshop.common.exception.DaoException;
+import myshop.common.exception.OptimisticLockConflictException;
+import myshop.product.model.PriceRule;
 import myshop.product.model.Product;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.AdditionalAnswers;
 import org.mockito.MockedStatic;
 import org.mockito.Mockito;
 
+import java.io.IOException;
 import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.sql.*;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.anyString;
@@ -207,6 +223,53 @@ class JdbcProductDaoTest {
         assertEquals(new BigDecimal("2000.00"), productFromDb.getPrice());
     }
 
+    @Test
+    void updateProduct_checkThatStaleVersionIsRejectedAndCurrentOneAccepted() {
+        Product product = new Product(null, "test_product_name", new BigDecimal("1000.00"));
+        productDao.createProduct(product);
+        Product first = productDao.findById(product.getId());
+        Product second = productDao.findById(product.getId());
+
+        first.setPrice(new BigDecimal("1100.00"));
+        productDao.updateProduct(first);
+        second.setPrice(new BigDecimal("900.00"));
+
+        assertThrows(OptimisticLockConflictException.class, () -> productDao.updateProduct(second));
+        assertEquals(new BigDecimal("1100.00"), productDao.findById(product.getId()).getPrice());
+        assertEquals(first.getVersion(), productDao.findById(product.getId()).getVersion());
+    }
+
+    @Test
+    void modifyProduct_checkThatConcurrentIncrementsAreNotLost() throws InterruptedException {
+        Product product = new Product(null, "test_product_name", new BigDecimal("0.00"));
+        productDao.createProduct(product);
+
+        // A call that loses every retry fails loudly; only its increment may be missing, never a successful one.
+        AtomicInteger succeeded = new AtomicInteger();
+        AtomicInteger gaveUp = new AtomicInteger();
+        Thread[] threads = new Thread[4];
+        for (int i = 0; i < threads.length; i++) {
+            threads[i] = new Thread(() -> {
+                for (int j = 0; j < 5; j++) {
+                    try {
+                        productDao.modifyProduct(product.getId(), p -> p.setPrice(p.getPrice().add(BigDecimal.ONE)));
+                        succeeded.incrementAndGet();
+                    } catch (OptimisticLockConflictException e) {
+                        gaveUp.incrementAndGet();
+                    }
+                }
+            });
+            threads[i].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertEquals(20, succeeded.get() + gaveUp.get());
+        assertTrue(succeeded.get() > 0);
+        assertEquals(new BigDecimal(succeeded.get()).setScale(2), productDao.findById(product.getId()).getPrice());
+    }
+
     @Test
     void updateProduct_checkThatThrowDaoExceptionWhenProductNotFoundById() {
         Product product = new Product();
@@ -262,6 +325,39 @@ class JdbcProductDaoTest {
         );
     }
 
+    @Test
+    void daoOperationEvent_checkThatNotFoundIsRecordedAsFailedAndSuccessWithRowCount() throws IOException {
+        Product product = productDao.createProduct(new Product(null, "jfr_product", new BigDecimal("10.00")));
+        List<RecordedEvent> events;
+        try (Recording recording = new Recording()) {
+            recording.enable("myshop.DaoOperation");
+            recording.start();
+            productDao.findById(product.getId());
+            assertThrows(DaoException.class, () -> productDao.deleteById(Long.MAX_VALUE));
+            recording.stop();
+
+            Path file = Files.createTempFile("dao-operations", ".jfr");
+            try {
+                recording.dump(file);
+                events = RecordingFile.readAllEvents(file).stream()
+                        .filter(e -> e.getEventType().getName().equals("myshop.DaoOperation")).toList();
+            } finally {
+                Files.deleteIfExists(file);
+            }
+        }
+
+        RecordedEvent found = events.stream()
+                .filter(e -> "findById".equals(e.getString("operation"))).findFirst().orElseThrow();
+        assertEquals(JdbcProductDao.class.getName(), found.getClass("dao").getName());
+        assertEquals(1, found.getInt("rowsAffected"));
+        assertFalse(found.getBoolean("failed"));
+
+        RecordedEvent notFound = events.stream()
+                .filter(e -> "deleteById".equals(e.getString("operation"))).findFirst().orElseThrow();
+        assertTrue(notFound.getBoolean("failed"), "A not-found DaoException must be recorded as a failure");
+        assertEquals(0, notFound.getInt("rowsAffected"));
+    }
+
     @Test
     void deleteById_checkThatWrapSqlExceptionIntoDaoException() {
         Product product = new Product();
@@ -279,4 +375,163 @@ class JdbcProductDaoTest {
             );
         }
     }
-}
\ No newline at end of file
+
+    @Test
+    void findByPriceRange_checkThatProductsInRangeReturnedOrderedByPrice() {
+        Product cheap = productDao.createProduct(new Product(null, "cheap", new BigDecimal("10.00")));
+        Product middle = productDao.createProduct(new Product(null, "middle", new BigDecimal("50.00")));
+        Product expensive = productDao.createProduct(new Product(null, "expensive", new BigDecimal("100.00")));
+
+        List<Product> products = productDao.findByPriceRange(new BigDecimal("10.00"), new BigDecimal("50.00"));
+        assertEquals(List.of(cheap, middle), products);
+        assertTrue(productDao.findByPriceRange(new BigDecimal("100.01"), new BigDecimal("200")).isEmpty());
+        assertEquals(List.of(expensive), productDao.findByPriceRange(new BigDecimal("99.99"), new BigDecimal("100")));
+    }
+
+    @Test
+    void findByPriceRange_checkThatThrowIllegalArgumentExceptionWhenRangeIsInverted() {
+        assertThrows(IllegalArgumentException.class,
+                () -> productDao.findByPriceRange(new BigDecimal("2"), new BigDecimal("1")));
+    }
+
+    @Test
+    void findTopByPrice_checkThatMostExpensiveProductsReturned() {
+        productDao.createProduct(new Product(null, "cheap", new BigDecimal("10.00")));
+        Product middle = productDao.createProduct(new Product(null, "middle", new BigDecimal("50.00")));
+        Product expensive = productDao.createProduct(new Product(null, "expensive", new BigDecimal("100.00")));
+
+        assertEquals(List.of(expensive, middle), productDao.findTopByPrice(2));
+        assertEquals(3, productDao.findTopByPrice(10).size());
+        assertThrows(IllegalArgumentException.class, () -> productDao.findTopByPrice(0));
+    }
+
+    @Test
+    void findAbovePrice_checkThatOnlyMoreExpensiveProductsReturned() {
+        productDao.createProduct(new Product(null, "cheap", new BigDecimal("10.00")));
+        Product middle = productDao.createProduct(new Product(null, "middle", new BigDecimal("50.00")));
+
+        assertEquals(List.of(middle), productDao.findAbovePrice(new BigDecimal("10.00")));
+    }
+
+    @Test
+    void findAbovePrice_checkThatWrapSqlExceptionIntoDaoException() {
+        try (MockedStatic<ConnectionManager> mockedStatic = Mockito.mockStatic(ConnectionManager.class)) {
+            mockedStatic.when(ConnectionManager::getConnection)
+                    .thenThrow(new SQLException("Test SQL error"));
+
+            assertThrows(DaoException.class,
+                    () -> productDao.findAbovePrice(BigDecimal.ONE),
+                    "When SQLException is thrown, DaoException must be thrown."
+            );
+        }
+    }
+
+    @Test
+    void updatePrices_checkThatPricesAreSetAndUnknownIdsSkipped() {
+        Product cable = productDao.createProduct(new Product(null, "cable", new BigDecimal("10.00")));
+        Product phone = productDao.createProduct(new Product(null, "phone", new BigDecimal("600.00")));
+        Product laptop = productDao.createProduct(new Product(null, "laptop", new BigDecimal("1500.00")));
+
+        Map<Long, BigDecimal> prices = new LinkedHashMap<>();
+        prices.put(cable.getId(), new BigDecimal("12.50"));
+        prices.put(laptop.getId(), new BigDecimal("1399.99"));
+        prices.put(Long.MAX_VALUE, BigDecimal.ONE);
+
+        assertEquals(2, productDao.updatePrices(prices));
+        assertEquals(new BigDecimal("12.50"), productDao.findById(cable.getId()).getPrice());
+        assertEquals(new BigDecimal("600.00"), productDao.findById(phone.getId()).getPrice());
+        assertEquals(new BigDecimal("1399.99"), productDao.findById(laptop.getId()).getPrice());
+        assertEquals(0, productDao.updatePrices(Map.of()));
+    }
+
+    @Test
+    void updatePriceChunks_checkThatEveryChunkIsApplied() throws SQLException {
+        Map<Long, BigDecimal> prices = new LinkedHashMap<>();
+        for (int i = 1; i <= 5; i++) {
+            Product product = productDao.createProduct(new Product(null, "p" + i, BigDecimal.ONE));
+            prices.put(product.getId(), BigDecimal.valueOf(i));
+        }
+
+        try (Connection connection = ConnectionManager.getConnection()) {
+            assertEquals(5, JdbcProductDao.updatePriceChunks(connection, prices, 2));
+        }
+        prices.forEach((id, price) -> assertEquals(0, price.compareTo(productDao.findById(id).getPrice())));
+    }
+
+    @Test
+    void updatePriceChunks_checkThatChunksGoInIdOrder() throws SQLException {
+        Map<Long, BigDecimal> prices = new LinkedHashMap<>();
+        for (int i = 1; i <= 5; i++) {
+            Product product = productDao.createProduct(new Product(null, "p" + i, BigDecimal.ONE));
+            prices.put(product.getId(), BigDecimal.valueOf(i));
+        }
+        Map<Long, BigDecimal> descending = new LinkedHashMap<>();
+        prices.keySet().stream().sorted(Comparator.reverseOrder()).forEach(id -> descending.put(id, prices.get(id)));
+
+        List<Object> ids = new ArrayList<>();
+        try (Connection connection = ConnectionManager.getConnection()) {
+            Connection recording = mock(Connection.class, AdditionalAnswers.delegatesTo(connection));
+            doAnswer(invocation -> {
+                ids.addAll(List.of((Object[]) invocation.getArgument(1)));
+                return connection.createArrayOf("bigint", invocation.getArgument(1));
+            }).when(recording).createArrayOf(eq("bigint"), any());
+            assertEquals(5, JdbcProductDao.updatePriceChunks(recording, descending, 2));
+        }
+        assertEquals(List.copyOf(new TreeMap<>(prices).keySet()), ids,
+                "Concurrent repricings must lock products in the same (id) order");
+    }
+
+    @Test
+    void updatePrices_checkThatInvalidPricesAreRejected() {
+        Map<Long, BigDecimal> negative = Map.of(1L, new BigDecimal("-1.00"));
+        Map<Long, BigDecimal> nullPrice = new HashMap<>();
+        nullPrice.put(1L, null);
+
+        assertThrows(IllegalArgumentException.class, () -> productDao.updatePrices(negative));
+        assertThrows(IllegalArgumentException.class, () -> productDao.updatePrices(nullPrice));
+        assertThrows(IllegalArgumentException.class, () -> productDao.updatePrices(null));
+    }
+
+    @Test
+    void updatePrices_checkThatFailedChunkRollsBackWholeUpdate() {
+        Product cable = productDao.createProduct(new Product(null, "cable", new BigDecimal("10.00")));
+        Product phone = productDao.createProduct(new Product(null, "phone", new BigDecimal("600.00")));
+        Map<Long, BigDecimal> prices = new LinkedHashMap<>();
+        prices.put(cable.getId(), new BigDecimal("11.00"));
+        prices.put(phone.getId(), new BigDecimal("100000000.00"));
+
+        assertThrows(DaoException.class, () -> productDao.updatePrices(prices));
+        assertEquals(new BigDecimal("10.00"), productDao.findById(cable.getId()).getPrice());
+    }
+
+    @Test
+    void applyPriceRuleChunks_checkThatEachMatchingProductIsRepricedOnce() throws SQLException {
+        Product cheap = productDao.createProduct(new Product(null, "cheap", new BigDecimal("5.00")));
+        Product first = productDao.createProduct(new Product(null, "first", new BigDecimal("10.00")));
+        Product second = productDao.createProduct(new Product(null, "second", new BigDecimal("19.99")));
+        Product third = productDao.createProduct(new Product(null, "third", new BigDecimal("90.00")));
+        Product expensive = productDao.createProduct(new Product(null, "expensive", new BigDecimal("150.00")));
+        PriceRule rule = new PriceRule(new BigDecimal("10"), new BigDecimal("100"), new BigDecimal("10"));
+
+        try (Connection connection = ConnectionManager.getConnection()) {
+            assertEquals(3, JdbcProductDao.applyPriceRuleChunks(connection, rule, 2));
+        }
+
+        assertEquals(new BigDecimal("5.00"), productDao.findById(cheap.getId()).getPrice());
+        assertEquals(new BigDecimal("11.00"), productDao.findById(first.getId()).getPrice());
+        assertEquals(rule.apply(new BigDecimal("19.99")), productDao.findById(second.getId()).getPrice());
+        assertEquals(new BigDecimal("99.00"), productDao.findById(third.getId()).getPrice());
+        assertEquals(new BigDecimal("150.00"), productDao.findById(expensive.getId()).getPrice());
+    }
+
+    @Test
+    void applyPriceRule_checkThatDiscountIsApplied() {
+        Product phone = productDao.createProduct(new Product(null, "phone", new BigDecimal("600.00")));
+
+        assertEquals(1, productDao.applyPriceRule(
+                new PriceRule(BigDecimal.ZERO, new BigDecimal("1000"), new BigDecimal("-12.5"))));
+        assertEquals(new BigDecimal("525.00"), productDao.findById(phone.getId()).getPrice());
+        assertThrows(IllegalArgumentException.class,
+                () -> new PriceRule(BigDecimal.ZERO, BigDecimal.TEN, new BigDecimal("-100")));
+    }
+}
@@ -0,0 +1,195 @@
+package myshop.product.index;
+
+import myshop.product.dao.IndexedProductDao;
+import myshop.product.dao.ProductDao;
+import myshop.product.model.Product;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class ProductPriceIndexTest {
+    private ProductPriceIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new ProductPriceIndex();
+        index.load(List.of(
+                new Product(1L, "cable", new BigDecimal("10.00")),
+                new Product(2L, "phone", new BigDecimal("600.00")),
+                new Product(3L, "case", new BigDecimal("10.00")),
+                new Product(4L, "laptop", new BigDecimal("1500.00"))
+        ));
+    }
+
+    @Test
+    void findByPriceRange_checkThatBoundsAreInclusive() {
+        assertEquals(List.of(1L, 3L, 2L), ids(index.findByPriceRange(new BigDecimal("10"), new BigDecimal("600.00"))));
+        assertEquals(List.of(2L), ids(index.findByPriceRange(new BigDecimal("10.001"), new BigDecimal("1499.999"))));
+        assertTrue(index.findByPriceRange(new BigDecimal("700"), new BigDecimal("800")).isEmpty());
+    }
+
+    @Test
+    void findAbovePrice_checkThatBoundIsExclusive() {
+        assertEquals(List.of(2L, 4L), ids(index.findAbovePrice(new BigDecimal("10.00"))));
+        assertEquals(List.of(1L, 3L, 2L, 4L), ids(index.findAbovePrice(new BigDecimal("9.999"))));
+    }
+
+    @Test
+    void findTopByPrice_checkThatTiesAreOrderedById() {
+        assertEquals(List.of(4L, 2L, 1L), ids(index.findTopByPrice(3)));
+        assertEquals(4, index.findTopByPrice(100).size());
+    }
+
+    @Test
+    void putAndRemove_checkThatIndexStaysSorted() {
+        index.put(new Product(2L, "phone", new BigDecimal("5.00")));
+        index.put(new Product(5L, "tablet", new BigDecimal("700.00")));
+        index.remove(4L);
+        index.remove(42L);
+
+        assertEquals(4, index.size());
+        assertEquals(List.of(2L, 1L, 3L, 5L), ids(index.findAbovePrice(BigDecimal.ZERO)));
+    }
+
+    @Test
+    void put_checkThatPriceIsRoundedAsTheColumnStoresIt() {
+        index.put(new Product(5L, "pen", new BigDecimal("9.999")));
+        index.put(new Product(6L, "clip", new BigDecimal("9.994")));
+
+        List<Product> tens = index.findByPriceRange(new BigDecimal("10.00"), new BigDecimal("10.00"));
+        assertEquals(List.of(1L, 3L, 5L), ids(tens));
+        assertEquals(new BigDecimal("10.00"), tens.get(2).getPrice());
+        List<Product> belowTen = index.findByPriceRange(BigDecimal.ZERO, new BigDecimal("9.99"));
+        assertEquals(new BigDecimal("9.99"), belowTen.get(0).getPrice());
+    }
+
+    @Test
+    void find_checkThatReturnedProductsAreCopies() {
+        index.findTopByPrice(1).get(0).setPrice(BigDecimal.ZERO);
+        assertEquals(new BigDecimal("1500.00"), index.findTopByPrice(1).get(0).getPrice());
+    }
+
+    @Test
+    void find_checkThatResultsMatchLinearScanOnRandomData() {
+        Random random = new Random(42);
+        List<Product> products = new ArrayList<>();
+        for (long id = 1; id <= 2000; id++) {
+            products.add(new Product(id, "p" + id, BigDecimal.valueOf(random.nextInt(100_000), 2)));
+        }
+        index.load(products);
+
+        BigDecimal min = new BigDecimal("250.50");
+        BigDecimal max = new BigDecimal("499.99");
+        Comparator<Product> byPrice = Comparator.comparing(Product::getPrice).thenComparing(Product::getId);
+        List<Product> expected = products.stream()
+                .filter(p -> p.getPrice().compareTo(min) >= 0 && p.getPrice().compareTo(max) <= 0)
+                .sorted(byPrice)
+                .toList();
+        assertEquals(expected, index.findByPriceRange(min, max));
+
+        List<Product> expectedTop = products.stream()
+                .sorted(Comparator.comparing(Product::getPrice).reversed().thenComparing(Product::getId))
+                .limit(25)
+                .toList();
+        assertEquals(expectedTop, index.findTopByPrice(25));
+    }
+
+    @Test
+    void indexedDao_checkThatIndexIsLoadedOnceAndKeptInSync() {
+        ProductDao delegate = mock(ProductDao.class);
+        when(delegate.findAllProducts()).thenReturn(List.of(new Product(1L, "cable", new BigDecimal("10.00"))));
+        when(delegate.createProduct(any())).thenAnswer(invocation -> {
+            Product product = invocation.getArgument(0);
+            product.setId(2L);
+            return product;
+        });
+        ProductDao productDao = new IndexedProductDao(delegate);
+
+        assertEquals(List.of(1L), ids(productDao.findTopByPrice(5)));
+        productDao.createProduct(new Product(null, "phone", new BigDecimal("600.00")));
+        productDao.updateProduct(new Product(1L, "cable", new BigDecimal("700.00")));
+        assertEquals(List.of(1L, 2L), ids(productDao.findTopByPrice(5)));
+        productDao.deleteById(2L);
+        assertEquals(List.of(1L), ids(productDao.findAbovePrice(BigDecimal.ZERO)));
+
+        verify(delegate, times(1)).findAllProducts();
+        verify(delegate, never()).findTopByPrice(anyInt());
+    }
+
+    @Test
+    void indexedDao_checkThatBulkPriceUpdateReloadsIndex() {
+        ProductDao delegate = mock(ProductDao.class);
+        when(delegate.findAllProducts())
+                .thenReturn(List.of(new Product(1L, "cable", new BigDecimal("10.00"))))
+                .thenReturn(List.of(new Product(1L, "cable", new BigDecimal("12.00"))));
+        ProductDao productDao = new IndexedProductDao(delegate);
+
+        assertEquals(new BigDecimal("10.00"), productDao.findTopByPrice(1).get(0).getPrice());
+        productDao.updatePrices(Map.of(1L, new BigDecimal("12.00")));
+        assertEquals(new BigDecimal("12.00"), productDao.findTopByPrice(1).get(0).getPrice());
+
+        verify(delegate, times(2)).findAllProducts();
+    }
+
+    @Test
+    void indexedDao_checkThatReloadRacingWithBulkUpdateIsNotPublished() {
+        ProductDao delegate = mock(ProductDao.class);
+        AtomicInteger reads = new AtomicInteger();
+        ProductDao[] productDao = new ProductDao[1];
+        when(delegate.findAllProducts()).thenAnswer(invocation -> {
+            if (reads.incrementAndGet() == 1) {
+                // The bulk update commits after this read took its snapshot.
+                CompletableFuture.runAsync(() -> productDao[0].updatePrices(Map.of(1L, new BigDecimal("12.00"))))
+                        .join();
+                return List.of(new Product(1L, "cable", new BigDecimal("10.00")));
+            }
+            return List.of(new Product(1L, "cable", new BigDecimal("12.00")));
+        });
+        when(delegate.findTopByPrice(1)).thenReturn(List.of(new Product(1L, "cable", new BigDecimal("12.00"))));
+        productDao[0] = new IndexedProductDao(delegate);
+
+        assertEquals(new BigDecimal("12.00"), productDao[0].findTopByPrice(1).get(0).getPrice(),
+                "A stale snapshot must not be published; the query goes to the database instead");
+        assertEquals(new BigDecimal("12.00"), productDao[0].findAbovePrice(BigDecimal.ZERO).get(0).getPrice());
+
+        verify(delegate, times(2)).findAllProducts();
+        verify(delegate, times(1)).findTopByPrice(1);
+    }
+
+    @Test
+    void indexedDao_checkThatProductCreatedDuringReloadIsNotLost() {
+        ProductDao delegate = mock(ProductDao.class);
+        Product cable = new Product(1L, "cable", new BigDecimal("10.00"));
+        Product phone = new Product(2L, "phone", new BigDecimal("600.00"));
+        AtomicInteger reads = new AtomicInteger();
+        IndexedProductDao[] productDao = new IndexedProductDao[1];
+        when(delegate.createProduct(any())).thenReturn(phone);
+        when(delegate.findAllProducts()).thenAnswer(invocation -> {
+            if (reads.incrementAndGet() == 1) {
+                CompletableFuture.runAsync(() -> productDao[0].createProduct(new Product(null, "phone", null))).join();
+                return List.of(cable);
+            }
+            return List.of(cable, phone);
+        });
+        productDao[0] = new IndexedProductDao(delegate);
+
+        assertFalse(productDao[0].reload(), "The snapshot was read before the insert committed");
+        assertTrue(productDao[0].reload());
+        assertEquals(List.of(2L, 1L), ids(productDao[0].findTopByPrice(5)));
+    }
+
+    private static List<Long> ids(List<Product> products) {
+        return products.stream().map(Product::getId).toList();
+    }
+}
@@ -0,0 +1,170 @@
+package myshop.product.search;
+
+import myshop.product.dao.ProductDao;
+import myshop.product.dao.SearchIndexingProductDao;
+import myshop.product.model.Product;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class InMemoryProductSearchTest {
+    private InMemoryProductSearch search;
+
+    @BeforeEach
+    void setUp() {
+        search = new InMemoryProductSearch();
+        search.load(List.of(
+                product(1L, "Apple iPhone 15 Pro"),
+                product(2L, "Phone case, leather"),
+                product(3L, "USB-C cable"),
+                product(4L, "Gaming laptop"),
+                product(5L, "Ноутбук игровой"),
+                product(6L, "Phone charger")
+        ));
+    }
+
+    @Test
+    void search_checkThatAllTokensMustMatch() {
+        assertEquals(List.of(2L), search.search("phone LEATHER", 10));
+        assertEquals(List.of(3L), search.search("usb c", 10));
+        assertTrue(search.search("phone laptop", 10).isEmpty());
+        assertTrue(search.search("  ,. ", 10).isEmpty());
+    }
+
+    @Test
+    void search_checkThatExactMatchesRankAbovePrefixMatches() {
+        search.put(product(7L, "Phones holder"));
+
+        assertEquals(List.of(2L, 6L, 7L), search.search("phone", 10));
+        assertEquals(List.of(2L, 6L), search.search("phone", 2));
+        assertEquals(List.of(1L), search.search("iph", 10));
+        assertEquals(List.of(5L), search.search("ноут", 10));
+    }
+
+    @Test
+    void search_checkThatSingleTyposAreTolerated() {
+        assertEquals(List.of(4L), search.search("labtop", 10));
+        assertEquals(List.of(4L), search.search("lpatop", 10));
+        assertEquals(List.of(3L), search.search("cabel", 10));
+        assertEquals(List.of(4L), search.search("gamming laptop", 10));
+        assertTrue(search.search("lbtpo", 10).isEmpty());
+        assertTrue(search.search("cbl", 10).isEmpty());
+    }
+
+    @Test
+    void putAndRemove_checkThatIndexFollowsChanges() {
+        search.put(product(4L, "Office notebook"));
+        search.put(product(7L, "Laptop stand"));
+        search.remove(3L);
+        search.remove(42L);
+
+        assertEquals(List.of(7L), search.search("laptop", 10));
+        assertEquals(List.of(4L), search.search("notebook", 10));
+        assertTrue(search.search("cable", 10).isEmpty());
+        assertEquals(6, search.size());
+    }
+
+    @Test
+    void put_checkThatTombstonesAreCompacted() {
+        for (int i = 0; i < 1000; i++) {
+            search.put(product(4L, "Gaming laptop model" + i));
+        }
+        search.remove(3L);
+        search.put(product(7L, "Phone stand"));
+
+        assertEquals(6, search.size());
+        assertTrue(search.indexedOrdinals() <= 8, "Ordinals in use: " + search.indexedOrdinals());
+        assertEquals(List.of(4L), search.search("laptop model999", 10));
+        assertTrue(search.search("model5", 10).isEmpty());
+        assertTrue(search.search("cable", 10).isEmpty());
+        assertEquals(List.of(2L, 6L, 7L), search.search("phone", 10), "Indexing order survives compaction");
+        assertEquals(List.of(4L), search.search("gamming", 10));
+    }
+
+    @Test
+    void search_checkThatEarlyExitKeepsIndexingOrder() {
+        List<Product> products = new ArrayList<>();
+        for (long id = 1; id <= 500; id++) {
+            products.add(product(id, (id % 2 == 0 ? "red " : "blue ") + "shirt " + id));
+        }
+        search.load(products);
+        search.remove(2L);
+
+        assertEquals(List.of(4L, 6L, 8L), search.search("red", 3));
+        assertEquals(List.of(1L, 3L), search.search("shirt", 2));
+        assertEquals(List.of(10L), search.search("shirt 10", 1));
+        assertEquals(249, search.search("red shirt", 1000).size());
+    }
+
+    @Test
+    void withinOneEdit_checkAllEditKinds() {
+        assertTrue(InMemoryProductSearch.withinOneEdit("laptop", "laptop"));
+        assertTrue(InMemoryProductSearch.withinOneEdit("laptop", "lapto"));
+        assertTrue(InMemoryProductSearch.withinOneEdit("lapto", "laptop"));
+        assertTrue(InMemoryProductSearch.withinOneEdit("laptop", "labtop"));
+        assertTrue(InMemoryProductSearch.withinOneEdit("laptop", "lpatop"));
+        assertFalse(InMemoryProductSearch.withinOneEdit("laptop", "lpatpo"));
+        assertFalse(InMemoryProductSearch.withinOneEdit("laptop", "lapt"));
+    }
+
+    @Test
+    void search_whenLimitIsNotPositive_thenThrowIllegalArgumentException() {
+        assertThrows(IllegalArgumentException.class, () -> search.search("phone", 0));
+    }
+
+    @Test
+    void searchIndexingDao_checkThatIndexIsLoadedOnceAndKeptInSync() {
+        ProductDao delegate = mock(ProductDao.class);
+        when(delegate.findAllProducts()).thenReturn(List.of(product(1L, "USB cable")));
+        when(delegate.createProduct(any())).thenAnswer(invocation -> {
+            Product product = invocation.getArgument(0);
+            product.setId(2L);
+            return product;
+        });
+        SearchIndexingProductDao productDao = new SearchIndexingProductDao(delegate);
+
+        assertEquals(List.of(1L), productDao.search("cable", 5));
+        productDao.createProduct(product(null, "HDMI cable"));
+        productDao.updateProduct(product(1L, "USB hub"));
+        assertEquals(List.of(2L), productDao.search("cable", 5));
+        productDao.deleteById(2L);
+        assertTrue(productDao.search("cable", 5).isEmpty());
+
+        verify(delegate, times(1)).findAllProducts();
+    }
+
+    @Test
+    void searchIndexingDao_checkThatProductCreatedDuringReloadIsNotLost() {
+        ProductDao delegate = mock(ProductDao.class);
+        Product cable = product(1L, "USB-C cable");
+        Product hdmi = product(2L, "HDMI cable");
+        AtomicInteger reads = new AtomicInteger();
+        SearchIndexingProductDao[] productDao = new SearchIndexingProductDao[1];
+        when(delegate.createProduct(any())).thenReturn(hdmi);
+        when(delegate.findAllProducts()).thenAnswer(invocation -> {
+            if (reads.incrementAndGet() == 1) {
+                // The insert commits after this read took its snapshot.
+                CompletableFuture.runAsync(() -> productDao[0].createProduct(product(null, "HDMI cable"))).join();
+                return List.of(cable);
+            }
+            return List.of(cable, hdmi);
+        });
+        productDao[0] = new SearchIndexingProductDao(delegate);
+
+        assertEquals(List.of(1L, 2L), productDao[0].search("cable", 5),
+                "A stale snapshot must not be published; the search reloads instead");
+        verify(delegate, times(2)).findAllProducts();
+    }
+
+    private static Product product(Long id, String name) {
+        return new Product(id, name, BigDecimal.TEN);
+    }
+}
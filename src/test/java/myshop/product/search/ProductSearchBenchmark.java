@@ -0,0 +1,53 @@
+package myshop.product.search;
+
+import myshop.product.model.Product;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Measures {@link InMemoryProductSearch} query latency over a million generated product names.
+ * <p>
+ * Run with {@code mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=myshop.product.search.ProductSearchBenchmark}.
+ */
+public class ProductSearchBenchmark {
+    private static final int PRODUCTS = 1_000_000;
+    private static final int ITERATIONS = 2_000;
+    private static final String[] BRANDS = {"Apple", "Samsung", "Xiaomi", "Lenovo", "Asus", "Acer", "Sony", "Huawei",
+            "Logitech", "Philips", "Bosch", "Makita", "Canon", "Nikon", "Dell", "Razer"};
+    private static final String[] TYPES = {"phone", "laptop", "tablet", "monitor", "keyboard", "mouse", "headphones",
+            "speaker", "camera", "charger", "cable", "case", "watch", "router", "drill", "kettle", "ноутбук", "смартфон"};
+    private static final String[] COLORS = {"black", "white", "silver", "blue", "red", "green", "gold", "graphite"};
+    private static final String[] QUERIES = {"laptop", "samsung phone", "lap", "samsng", "logitech mouse black",
+            "headphnes sony", "смартфон xiaomi", "camera canon 1234", "rou", "graphite watch ap"};
+
+    public static void main(String[] args) {
+        Random random = new Random(42);
+        List<Product> products = new ArrayList<>(PRODUCTS);
+        for (long id = 1; id <= PRODUCTS; id++) {
+            String name = BRANDS[random.nextInt(BRANDS.length)] + " " + TYPES[random.nextInt(TYPES.length)]
+                    + " " + random.nextInt(10_000) + " " + COLORS[random.nextInt(COLORS.length)];
+            products.add(new Product(id, name, BigDecimal.ONE));
+        }
+
+        InMemoryProductSearch search = new InMemoryProductSearch();
+        long start = System.nanoTime();
+        search.load(products);
+        System.err.printf("load: %,d ms%n", (System.nanoTime() - start) / 1_000_000);
+
+        for (String query : QUERIES) {
+            for (int i = 0; i < ITERATIONS; i++) {
+                search.search(query, 20);
+            }
+            start = System.nanoTime();
+            for (int i = 0; i < ITERATIONS; i++) {
+                search.search(query, 20);
+            }
+            double micros = (System.nanoTime() - start) / 1_000.0 / ITERATIONS;
+            System.err.printf("%-24s : %,10.1f us/query%n", query, micros);
+        }
+    }
+}
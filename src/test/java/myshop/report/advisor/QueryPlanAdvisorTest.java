@@ -0,0 +1,79 @@
+package myshop.report.advisor;
+
+import myshop.common.db.NamedSql;
+import myshop.common.db.SqlStatements;
+import myshop.report.dao.JdbcReportDao;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class QueryPlanAdvisorTest {
+    private static final String PLAN = """
+            Sort  (cost=2.01..2.02 rows=3 width=44) (actual time=0.050..0.051 rows=3 loops=1)
+              Sort Key: o.total_amount DESC
+              Buffers: shared hit=2
+              ->  Hash Join  (cost=1.07..1.99 rows=3 width=44) (actual time=0.030..0.040 rows=3 loops=1)
+                    Hash Cond: (o.user_id = u.id)
+                    ->  Seq Scan on orders o  (cost=0.00..1.46 rows=3 width=20) (actual time=0.010..0.020 rows=3 loops=1)
+                          Filter: (total_amount > '500'::numeric)
+                          Rows Removed by Filter: 12000
+                          Buffers: shared hit=1 read=40
+                    ->  Hash  (cost=1.03..1.03 rows=3 width=16) (actual time=0.005..0.005 rows=20 loops=1)
+                          ->  Seq Scan on users u  (cost=0.00..1.03 rows=3 width=16) (actual time=0.002..0.003 rows=20 loops=1)
+                                Buffers: shared hit=1
+            Planning:
+              Buffers: shared hit=10
+            Planning Time: 0.200 ms
+            Execution Time: 0.123 ms
+            """;
+
+    @Test
+    void parsePlan_checkThatSeqScansAreFoundWithScannedRows() {
+        PlanAnalysis analysis = QueryPlanAdvisor.parsePlan("test", PLAN);
+
+        assertEquals(0.123, analysis.executionMillis(), 1e-9);
+        assertEquals(List.of(
+                new SeqScanFinding("test", "orders", 12_003, 1, 40),
+                new SeqScanFinding("test", "users", 20, 1, 0)
+        ), analysis.seqScans());
+        assertEquals(List.of("orders"),
+                analysis.seqScansAbove(10_000).stream().map(SeqScanFinding::relation).toList());
+    }
+
+    @Test
+    void explainAll_checkThatEveryCatalogQueryIsExplained() {
+        QueryPlanAdvisor advisor = new QueryPlanAdvisor(-1);
+        List<PlanAnalysis> analyses = advisor.explainAll(QueryCatalog.all());
+
+        assertEquals(QueryCatalog.all().size(), analyses.size());
+        for (PlanAnalysis analysis : analyses) {
+            assertTrue(analysis.plan().contains("Execution Time"), analysis.query());
+        }
+        assertFalse(advisor.flagged(analyses).isEmpty(), "With a negative threshold every seq scan is flagged");
+    }
+
+    @Test
+    void all_checkThatCatalogHoldsTheSqlTheDaosRun() throws IllegalAccessException {
+        Set<String> expected = new HashSet<>();
+        for (NamedSql statement : SqlStatements.all()) {
+            if (!statement.sql().startsWith("INSERT")) {
+                expected.add(statement.sql());
+            }
+        }
+        for (Field field : JdbcReportDao.class.getDeclaredFields()) {
+            if (Modifier.isPublic(field.getModifiers()) && field.getName().endsWith("_SQL")) {
+                expected.add((String) field.get(null));
+            }
+        }
+
+        Set<String> catalogued = new HashSet<>();
+        QueryCatalog.all().forEach(query -> catalogued.add(query.sql()));
+        assertEquals(expected, catalogued);
+    }
+}
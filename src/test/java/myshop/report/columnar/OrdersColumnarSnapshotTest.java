@@ -0,0 +1,187 @@
+package myshop.report.columnar;
+
+import myshop.common.db.ConnectionManager;
+import myshop.order.dao.JdbcOrderDao;
+import myshop.order.dao.OrderColumnsConsumer;
+import myshop.order.model.Order;
+import myshop.report.dao.JdbcReportDao;
+import myshop.report.dao.ReportDao;
+import myshop.report.model.UserOrderTotal;
+import myshop.user.dao.JdbcUserDao;
+import myshop.user.dao.UserDao;
+import myshop.user.model.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OrdersColumnarSnapshotTest {
+    private JdbcOrderDao orderDao;
+    private OrdersColumnarSnapshot snapshot;
+    private Long userId1;
+    private Long userId2;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        orderDao = new JdbcOrderDao();
+        snapshot = new OrdersColumnarSnapshot(orderDao);
+        UserDao userDao = new JdbcUserDao();
+
+        try (Connection connection = ConnectionManager.getConnection();
+             Statement st = connection.createStatement()) {
+            st.executeUpdate("DELETE FROM users");
+            st.executeUpdate("DELETE FROM orders");
+        }
+
+        userId1 = userDao.createUser(new User(null, "snapshot_user1", "snapshot1@gmail.com")).getId();
+        userId2 = userDao.createUser(new User(null, "snapshot_user2", "snapshot2@gmail.com")).getId();
+    }
+
+    @Test
+    void refresh_checkThatOnlyNewOrdersAreAppended() {
+        orderDao.saveOrder(new Order(userId1, "product1", new BigDecimal("10.50")));
+        orderDao.saveOrder(new Order(userId2, "product2", new BigDecimal("20.00")));
+        assertEquals(2, snapshot.refresh());
+
+        OrderColumns before = snapshot.columns();
+        orderDao.saveOrder(new Order(userId1, "product3", new BigDecimal("0.01")));
+        assertEquals(1, snapshot.refresh());
+        assertEquals(0, snapshot.refresh());
+
+        assertEquals(2, before.size(), "Previously published view must not change");
+        assertEquals(3, snapshot.columns().size());
+        assertEquals(3051L, snapshot.columns().sumCents());
+        assertEquals(1L, snapshot.columns().totalAmountCentsAt(2));
+    }
+
+    @Test
+    void refresh_checkThatOrderCommittedAfterNewerOneIsNotMissed() throws SQLException {
+        try (Connection slow = ConnectionManager.getConnection()) {
+            slow.setAutoCommit(false);
+            long slowId;
+            try (Statement st = slow.createStatement();
+                 ResultSet rs = st.executeQuery("INSERT INTO orders (user_id, ordered_products, total_amount) "
+                         + "VALUES (" + userId1 + ", 'slow', 1.00) RETURNING id")) {
+                rs.next();
+                slowId = rs.getLong(1);
+            }
+
+            Order fast = orderDao.saveOrder(new Order(userId2, "fast", new BigDecimal("2.00")));
+            assertEquals(1, snapshot.refresh());
+            slow.commit();
+
+            assertEquals(1, snapshot.refresh(), "The order created earlier but committed later must be appended");
+            assertEquals(0, snapshot.refresh());
+            OrderColumns columns = snapshot.columns();
+            assertEquals(Set.of(slowId, fast.getId()), Set.of(columns.idAt(0), columns.idAt(1)));
+            assertEquals(300L, columns.sumCents());
+        }
+    }
+
+    @Test
+    void refresh_checkThatIdFromEarlierPooledBlockIsNotMissed() throws SQLException {
+        long earlierBlockId;
+        try (Connection connection = ConnectionManager.getConnection();
+             Statement st = connection.createStatement();
+             ResultSet rs = st.executeQuery("SELECT nextval('orders_id_seq')")) {
+            rs.next();
+            earlierBlockId = rs.getLong(1);
+        }
+        Order laterBlock = orderDao.saveOrder(new Order(userId1, "later block", new BigDecimal("1.00")));
+        assertTrue(laterBlock.getId() > earlierBlockId);
+        snapshot.refresh();
+
+        // Another instance still inserting from the block it allocated before.
+        try (Connection connection = ConnectionManager.getConnection();
+             Statement st = connection.createStatement()) {
+            st.executeUpdate("INSERT INTO orders (id, user_id, ordered_products, total_amount) VALUES ("
+                    + (earlierBlockId + 1) + ", " + userId2 + ", 'earlier block', 2.00)");
+        }
+
+        assertEquals(1, snapshot.refresh());
+        assertEquals(earlierBlockId + 1, snapshot.columns().idAt(1));
+    }
+
+    @Test
+    void rebuild_checkThatReadersKeepPreviousViewUntilRebuildIsPublished() {
+        orderDao.saveOrder(new Order(userId1, "product1", new BigDecimal("10.00")));
+        AtomicInteger sizeSeenDuringRead = new AtomicInteger(-1);
+        OrdersColumnarSnapshot[] observed = new OrdersColumnarSnapshot[1];
+        observed[0] = new OrdersColumnarSnapshot(new JdbcOrderDao() {
+            @Override
+            public int streamOrderColumnsCreatedAfter(long createdAfterMicros, OrderColumnsConsumer consumer) {
+                sizeSeenDuringRead.set(observed[0].columns().size());
+                return super.streamOrderColumnsCreatedAfter(createdAfterMicros, consumer);
+            }
+        });
+        observed[0].refresh();
+        orderDao.saveOrder(new Order(userId2, "product2", new BigDecimal("5.00")));
+
+        assertEquals(2, observed[0].rebuild());
+        assertEquals(1, sizeSeenDuringRead.get(), "The old view must stay published while the rebuild reads");
+        assertEquals(2, observed[0].columns().size());
+        assertEquals(0, observed[0].refresh(), "Rows loaded by the rebuild must not be appended again");
+    }
+
+    @Test
+    void filterAndGroup_checkResult() {
+        orderDao.saveOrder(new Order(userId1, "product1", new BigDecimal("600.00")));
+        orderDao.saveOrder(new Order(userId1, "product2", new BigDecimal("5.00")));
+        orderDao.saveOrder(new Order(userId2, "product3", new BigDecimal("100.00")));
+        snapshot.refresh();
+        OrderColumns columns = snapshot.columns();
+
+        int[] expensive = columns.filterTotalAbove(10_000L);
+        assertEquals(1, expensive.length);
+        assertEquals(userId1, columns.userIdAt(expensive[0]));
+        assertEquals(60_500L, columns.sumCents(columns.filterByUser(userId1)));
+
+        List<UserOrderAggregate> groups = columns.groupByUser();
+        assertEquals(2, groups.size());
+        assertEquals(new UserOrderAggregate(userId1, 60_500L, 2), groups.get(0));
+    }
+
+    @Test
+    void findUsersWithOrderTotalAbove_checkThatResultMatchesDatabaseReport() {
+        for (int i = 0; i < 3000; i++) {
+            Long userId = i % 3 == 0 ? userId2 : userId1;
+            orderDao.saveOrder(new Order(userId, "product", new BigDecimal(i % 7 + ".25")));
+        }
+        snapshot.refresh();
+
+        ReportDao reportDao = new JdbcReportDao();
+        List<UserOrderTotal> expected = reportDao.findUsersWithOrderTotalAndCountAbove(new BigDecimal("3000"), 900);
+        List<UserOrderAggregate> actual = snapshot.columns()
+                .findUsersWithOrderTotalAndCountAbove(new BigDecimal("3000"), 900);
+
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.get(i).getUserId(), actual.get(i).userId());
+            assertEquals(0, expected.get(i).getTotalAmount().compareTo(actual.get(i).totalAmount()));
+            assertEquals(expected.get(i).getOrdersCount(), actual.get(i).ordersCount());
+        }
+        assertEquals(1, snapshot.columns().findUsersWithOrderTotalAbove(new BigDecimal("5000")).size());
+    }
+
+    @Test
+    void rebuild_checkThatDeletedOrdersDisappear() throws SQLException {
+        orderDao.saveOrder(new Order(userId1, "product1", new BigDecimal("10.00")));
+        snapshot.refresh();
+        try (Connection connection = ConnectionManager.getConnection();
+             Statement st = connection.createStatement()) {
+            st.executeUpdate("DELETE FROM orders");
+        }
+
+        assertEquals(0, snapshot.rebuild());
+        assertEquals(0, snapshot.columns().size());
+    }
+}
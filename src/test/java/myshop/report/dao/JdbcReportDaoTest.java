@@ -0,0 +1,240 @@
+package myshop.report.dao;
+
+import myshop.common.db.ConnectionManager;
+import myshop.common.exception.DaoException;
+import myshop.product.model.Product;
+import myshop.report.metrics.ReportTiming;
+import myshop.report.model.CartItemView;
+import myshop.report.model.ProductCartValue;
+import myshop.report.model.ProductUserCount;
+import myshop.report.model.UserCartValue;
+import myshop.report.model.UserOrderTotal;
+import myshop.report.model.UserPurchasedQuantity;
+import myshop.user.model.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.MockedStatic;
+import org.mockito.Mockito;
+
+import java.math.BigDecimal;
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+class JdbcReportDaoTest {
+    private ReportDao reportDao;
+    private long aliceId;
+    private long bobId;
+    private long carolId;
+    private long phoneId;
+    private long laptopId;
+    private long cableId;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        reportDao = new JdbcReportDao();
+        try (Connection connection = ConnectionManager.getConnection();
+             Statement st = connection.createStatement()) {
+            st.executeUpdate("DELETE FROM order_items");
+            st.executeUpdate("DELETE FROM orders");
+            st.executeUpdate("DELETE FROM shopping_cart");
+            st.executeUpdate("DELETE FROM user_details");
+            st.executeUpdate("DELETE FROM products");
+            st.executeUpdate("DELETE FROM users");
+
+            aliceId = insertId(st, "INSERT INTO users (username, email) VALUES ('alice', 'alice@test.com') RETURNING id");
+            bobId = insertId(st, "INSERT INTO users (username, email) VALUES ('bob', 'bob@test.com') RETURNING id");
+            carolId = insertId(st, "INSERT INTO users (username, email) VALUES ('carol_a', 'carol@test.com') RETURNING id");
+            st.executeUpdate("INSERT INTO user_details (user_id, first_name) VALUES (" + aliceId + ", 'Alice')");
+
+            phoneId = insertId(st, "INSERT INTO products (product_name, price) VALUES ('phone', 600.00) RETURNING id");
+            laptopId = insertId(st, "INSERT INTO products (product_name, price) VALUES ('laptop', 1500.00) RETURNING id");
+            cableId = insertId(st, "INSERT INTO products (product_name, price) VALUES ('cable', 10.00) RETURNING id");
+
+            st.executeUpdate("INSERT INTO shopping_cart (user_id, product_id, quantity) VALUES " +
+                    "(" + aliceId + ", " + phoneId + ", 1), " +
+                    "(" + aliceId + ", " + laptopId + ", 2), " +
+                    "(" + bobId + ", " + phoneId + ", 1), " +
+                    "(" + bobId + ", " + cableId + ", 5)");
+
+            long aliceOrder = insertId(st, "INSERT INTO orders (user_id, total_amount) VALUES (" + aliceId + ", 2100.00) RETURNING id");
+            long bobOrder = insertId(st, "INSERT INTO orders (user_id, total_amount) VALUES (" + bobId + ", 30.00) RETURNING id");
+            st.executeUpdate("INSERT INTO user_order_stats (user_id, total_amount, orders_count) VALUES " +
+                    "(" + aliceId + ", 2100.00, 1), (" + bobId + ", 30.00, 1)");
+            st.execute("REFRESH MATERIALIZED VIEW user_cart_summary");
+            st.executeUpdate("INSERT INTO order_items (order_id, product_id, quantity, price) VALUES " +
+                    "(" + aliceOrder + ", " + phoneId + ", 1, 600.00), " +
+                    "(" + aliceOrder + ", " + laptopId + ", 1, 1500.00), " +
+                    "(" + bobOrder + ", " + cableId + ", 3, 10.00)");
+        }
+    }
+
+    private static long insertId(Statement st, String sql) throws SQLException {
+        try (ResultSet rs = st.executeQuery(sql)) {
+            rs.next();
+            return rs.getLong(1);
+        }
+    }
+
+    @Test
+    void findUsersByUsernameContaining_checkThatLikeWildcardsAreEscaped() {
+        assertEquals(List.of("carol_a"),
+                reportDao.findUsersByUsernameContaining("_").stream().map(User::getUsername).toList());
+        assertEquals(2, reportDao.findUsersByUsernameContaining("a").size());
+    }
+
+    @Test
+    void findProductsPricedAbove_checkThatOnlyMoreExpensiveProductsReturned() {
+        List<Product> products = reportDao.findProductsPricedAbove(new BigDecimal("500.00"));
+        assertEquals(List.of(phoneId, laptopId), products.stream().map(Product::getId).toList());
+    }
+
+    @Test
+    void streamAllUsers_checkThatEveryRowIsPassedToConsumer() {
+        List<User> users = new ArrayList<>();
+        reportDao.streamAllUsers(users::add);
+        assertEquals(List.of(aliceId, bobId, carolId), users.stream().map(User::getId).toList());
+    }
+
+    @Test
+    void findUsersWithoutDetails_checkResult() {
+        assertEquals(List.of(bobId, carolId),
+                reportDao.findUsersWithoutDetails().stream().map(User::getId).toList());
+    }
+
+    @Test
+    void findTopCartedProducts_checkOrderAndLimit() {
+        List<ProductUserCount> top = reportDao.findTopCartedProducts(2);
+        assertEquals(2, top.size());
+        assertEquals(phoneId, top.get(0).getProductId());
+        assertEquals(2L, top.get(0).getUsersCount());
+        assertEquals(laptopId, top.get(1).getProductId());
+    }
+
+    @Test
+    void findOrderTotalsPerUser_checkThatUsersWithoutOrdersHaveZeroTotal() {
+        List<UserOrderTotal> totals = reportDao.findOrderTotalsPerUser();
+        assertEquals(3, totals.size());
+        assertEquals(0, new BigDecimal("2100.00").compareTo(totals.get(0).getTotalAmount()));
+        assertEquals(0, BigDecimal.ZERO.compareTo(totals.get(2).getTotalAmount()));
+        assertEquals(0L, totals.get(2).getOrdersCount());
+    }
+
+    @Test
+    void findCartItems_checkThatItemsOfGivenUserReturned() {
+        List<CartItemView> items = reportDao.findCartItems(aliceId);
+        assertEquals(2, items.size());
+        assertEquals("laptop", items.get(1).getProductName());
+        assertEquals(2, items.get(1).getQuantity());
+    }
+
+    @Test
+    void findUsersWithOrderTotalAbove_checkResult() {
+        List<UserOrderTotal> totals = reportDao.findUsersWithOrderTotalAbove(new BigDecimal("500"));
+        assertEquals(1, totals.size());
+        assertEquals(aliceId, totals.get(0).getUserId());
+    }
+
+    @Test
+    void findTopBuyersByPurchasedQuantity_checkOrderAndLimit() {
+        List<UserPurchasedQuantity> buyers = reportDao.findTopBuyersByPurchasedQuantity(1);
+        assertEquals(1, buyers.size());
+        assertEquals(bobId, buyers.get(0).getUserId());
+        assertEquals(3L, buyers.get(0).getPurchasedQuantity());
+    }
+
+    @Test
+    void findTopBuyersByPurchasedQuantity_checkThatThrowIllegalArgumentExceptionWhenLimitNotPositive() {
+        assertThrows(IllegalArgumentException.class, () -> reportDao.findTopBuyersByPurchasedQuantity(0));
+    }
+
+    @Test
+    void findMostExpensiveProducts_checkOrder() {
+        assertEquals(List.of(laptopId, phoneId),
+                reportDao.findMostExpensiveProducts(2).stream().map(Product::getId).toList());
+    }
+
+    @Test
+    void findUsersWithCartValueAboveAverage_checkResult() {
+        assertEquals(List.of(aliceId),
+                reportDao.findUsersWithCartValueAboveAverage().stream().map(UserCartValue::getUserId).toList());
+    }
+
+    @Test
+    void findUsersWithAllCartItemsPricedAbove_checkResult() {
+        assertEquals(List.of(aliceId),
+                reportDao.findUsersWithAllCartItemsPricedAbove(new BigDecimal("100"))
+                        .stream().map(User::getId).toList());
+    }
+
+    @Test
+    void findProductsInEveryCartAndExactlyOneCart_checkResult() {
+        assertTrue(reportDao.findProductsInEveryCart().isEmpty(), "carol has an empty cart");
+        assertEquals(List.of(laptopId, cableId),
+                reportDao.findProductsInExactlyOneCart().stream().map(Product::getId).toList());
+    }
+
+    @Test
+    void findTopSpenders_checkResult() {
+        assertEquals(List.of(aliceId),
+                reportDao.findTopSpenders().stream().map(UserOrderTotal::getUserId).toList());
+    }
+
+    @Test
+    void findUsersWithOrderTotalAndCountAbove_checkResult() {
+        assertEquals(2, reportDao.findUsersWithOrderTotalAndCountAbove(new BigDecimal("10"), 0).size());
+        assertTrue(reportDao.findUsersWithOrderTotalAndCountAbove(new BigDecimal("10"), 1).isEmpty());
+    }
+
+    @Test
+    void findProductsByCartValue_checkOrder() {
+        List<ProductCartValue> values = reportDao.findProductsByCartValue(10);
+        assertEquals(laptopId, values.get(0).getProductId());
+        assertEquals(0, new BigDecimal("3000.00").compareTo(values.get(0).getTotalValueInCarts()));
+    }
+
+    @Test
+    void rebuildUserOrderStats_checkThatStatsMatchOrders() throws SQLException {
+        try (Connection connection = ConnectionManager.getConnection();
+             Statement st = connection.createStatement()) {
+            st.executeUpdate("INSERT INTO orders (user_id, total_amount) VALUES (" + bobId + ", 5000.00)");
+        }
+
+        assertEquals(List.of(aliceId),
+                reportDao.findTopSpenders().stream().map(UserOrderTotal::getUserId).toList(),
+                "Stats are not updated by direct inserts into orders");
+        assertEquals(2, reportDao.rebuildUserOrderStats());
+
+        List<UserOrderTotal> topSpenders = reportDao.findTopSpenders();
+        assertEquals(List.of(bobId), topSpenders.stream().map(UserOrderTotal::getUserId).toList());
+        assertEquals(2L, topSpenders.get(0).getOrdersCount());
+        assertEquals(0, new BigDecimal("5030.00").compareTo(topSpenders.get(0).getTotalAmount()));
+    }
+
+    @Test
+    void getMetrics_checkThatEveryCallIsTimed() {
+        reportDao.findAllUsers();
+        reportDao.findAllUsers();
+        ReportTiming timing = reportDao.getMetrics().get("allUsers");
+        assertNotNull(timing);
+        assertEquals(2L, timing.calls());
+        assertEquals(6L, timing.rows());
+    }
+
+    @Test
+    void findAllUsers_checkThatThrowDaoExceptionWhenSQLException() throws SQLException {
+        try (MockedStatic<ConnectionManager> mockedStatic = Mockito.mockStatic(ConnectionManager.class)) {
+            Connection mockConnection = mock(Connection.class);
+            mockedStatic.when(ConnectionManager::getConnection).thenReturn(mockConnection);
+            when(mockConnection.getAutoCommit()).thenReturn(true);
+            when(mockConnection.prepareStatement(anyString())).thenThrow(new SQLException("Test exception"));
+            assertThrows(DaoException.class, () -> reportDao.findAllUsers());
+            verify(mockConnection).rollback();
+            verify(mockConnection).setAutoCommit(true);
+        }
+    }
+}
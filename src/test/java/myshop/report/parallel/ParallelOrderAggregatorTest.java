@@ -0,0 +1,84 @@
+package myshop.report.parallel;
+
+import myshop.common.db.ConnectionManager;
+import myshop.common.exception.DaoException;
+import myshop.order.dao.JdbcOrderDao;
+import myshop.order.model.Order;
+import myshop.user.dao.JdbcUserDao;
+import myshop.user.dao.UserDao;
+import myshop.user.model.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.MockedStatic;
+import org.mockito.Mockito;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ParallelOrderAggregatorTest {
+    private Long userId1;
+    private Long userId2;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        try (Connection connection = ConnectionManager.getConnection();
+             Statement st = connection.createStatement()) {
+            st.executeUpdate("DELETE FROM users");
+            st.executeUpdate("DELETE FROM orders");
+        }
+
+        UserDao userDao = new JdbcUserDao();
+        userId1 = userDao.createUser(new User(null, "parallel_user1", "parallel1@gmail.com")).getId();
+        userId2 = userDao.createUser(new User(null, "parallel_user2", "parallel2@gmail.com")).getId();
+    }
+
+    @Test
+    void aggregate_checkThatEmptyTableGivesZeroTotals() {
+        OrderAggregate aggregate = new ParallelOrderAggregator(4).aggregate();
+        assertEquals(BigDecimal.ZERO, aggregate.totalAmount());
+        assertEquals(0, aggregate.ordersCount());
+        assertTrue(aggregate.perUser().isEmpty());
+    }
+
+    @Test
+    void aggregate_checkThatTotalsAreExactForEveryParallelism() {
+        JdbcOrderDao orderDao = new JdbcOrderDao();
+        BigDecimal expectedUser1 = BigDecimal.ZERO;
+        BigDecimal expectedUser2 = BigDecimal.ZERO;
+        for (int i = 0; i < 500; i++) {
+            BigDecimal amount = new BigDecimal(i + ".01");
+            if (i % 5 == 0) {
+                orderDao.saveOrder(new Order(userId2, "product", amount));
+                expectedUser2 = expectedUser2.add(amount);
+            } else {
+                orderDao.saveOrder(new Order(userId1, "product", amount));
+                expectedUser1 = expectedUser1.add(amount);
+            }
+        }
+
+        for (int parallelism : new int[]{1, 3, 8}) {
+            OrderAggregate aggregate = new ParallelOrderAggregator(parallelism).aggregate();
+            assertEquals(500, aggregate.ordersCount());
+            assertEquals(expectedUser1.add(expectedUser2), aggregate.totalAmount());
+            assertEquals(new UserRevenue(userId1, expectedUser1, 400), aggregate.perUser().get(userId1));
+            assertEquals(new UserRevenue(userId2, expectedUser2, 100), aggregate.perUser().get(userId2));
+        }
+    }
+
+    @Test
+    void aggregate_checkThatThrowDaoExceptionWhenSQLException() {
+        try (MockedStatic<ConnectionManager> mockedStatic = Mockito.mockStatic(ConnectionManager.class)) {
+            mockedStatic.when(ConnectionManager::getConnection).thenThrow(new SQLException("Test SQL error"));
+            assertThrows(DaoException.class, () -> new ParallelOrderAggregator(2).aggregate());
+        }
+    }
+
+    @Test
+    void constructor_checkThatThrowIllegalArgumentExceptionWhenParallelismNotPositive() {
+        assertThrows(IllegalArgumentException.class, () -> new ParallelOrderAggregator(0));
+    }
+}
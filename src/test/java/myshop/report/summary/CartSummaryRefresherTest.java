@@ -0,0 +1,99 @@
+package myshop.report.summary;
+
+import myshop.cart.dao.JdbcShoppingCartDao;
+import myshop.cart.dao.ShoppingCartDao;
+import myshop.common.db.ConnectionManager;
+import myshop.common.exception.DaoException;
+import myshop.product.dao.JdbcProductDao;
+import myshop.product.model.Product;
+import myshop.report.dao.JdbcReportDao;
+import myshop.report.dao.ReportDao;
+import myshop.report.metrics.ReportMetrics;
+import myshop.user.dao.JdbcUserDao;
+import myshop.user.model.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.MockedStatic;
+import org.mockito.Mockito;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CartSummaryRefresherTest {
+    private ReportMetrics metrics;
+    private ReportDao reportDao;
+    private ShoppingCartDao cartDao;
+    private Long userId;
+    private Long productId;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        metrics = new ReportMetrics();
+        reportDao = new JdbcReportDao(metrics);
+        cartDao = new JdbcShoppingCartDao();
+        try (Connection connection = ConnectionManager.getConnection();
+             Statement st = connection.createStatement()) {
+            st.executeUpdate("DELETE FROM shopping_cart");
+            st.executeUpdate("DELETE FROM products");
+            st.executeUpdate("DELETE FROM users");
+            st.execute("REFRESH MATERIALIZED VIEW user_cart_summary");
+        }
+
+        userId = new JdbcUserDao().createUser(new User(null, "summary_user", "summary@gmail.com")).getId();
+        productId = new JdbcProductDao().createProduct(new Product(null, "summary_product", new BigDecimal("250.00")))
+                .getId();
+    }
+
+    @Test
+    void refreshNow_checkThatReportsSeeCartChangesOnlyAfterRefresh() {
+        cartDao.addProduct(userId, productId, 3);
+        assertTrue(reportDao.findUsersWithCartQuantityAbove(2).isEmpty(), "View is not refreshed yet");
+
+        try (CartSummaryRefresher refresher = new CartSummaryRefresher(metrics)) {
+            refresher.refreshNow();
+        }
+
+        assertEquals(1, reportDao.findUsersWithCartQuantityAbove(2).size());
+        assertEquals(1, reportDao.findUsersWithAllCartItemsPricedAbove(new BigDecimal("200")).size());
+        assertTrue(reportDao.findUsersWithAllCartItemsPricedAbove(new BigDecimal("250")).isEmpty());
+    }
+
+    @Test
+    void getStalenessMillis_checkThatGaugeIsExposed() {
+        try (CartSummaryRefresher refresher = new CartSummaryRefresher(metrics)) {
+            assertEquals(-1L, metrics.gauges().get(CartSummaryRefresher.STALENESS_GAUGE));
+            refresher.refreshNow();
+            long staleness = metrics.gauges().get(CartSummaryRefresher.STALENESS_GAUGE);
+            assertTrue(staleness >= 0 && staleness < 60_000, "Staleness right after refresh: " + staleness);
+            assertEquals(1L, metrics.get(CartSummaryRefresher.REFRESH_REPORT).calls());
+        }
+    }
+
+    @Test
+    void start_checkThatViewIsRefreshedOnSchedule() throws InterruptedException {
+        cartDao.addProduct(userId, productId, 1);
+        try (CartSummaryRefresher refresher = new CartSummaryRefresher(metrics)) {
+            refresher.start(Duration.ofMillis(50));
+            long deadline = System.currentTimeMillis() + 10_000;
+            while (refresher.getStalenessMillis() < 0 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(20);
+            }
+        }
+        assertEquals(1, reportDao.findUsersWithCartQuantityAbove(0).size());
+    }
+
+    @Test
+    void refreshNow_checkThatThrowDaoExceptionWhenSQLException() {
+        try (MockedStatic<ConnectionManager> mockedStatic = Mockito.mockStatic(ConnectionManager.class);
+             CartSummaryRefresher refresher = new CartSummaryRefresher(metrics)) {
+            mockedStatic.when(ConnectionManager::getConnection).thenThrow(new SQLException("Test SQL error"));
+            assertThrows(DaoException.class, refresher::refreshNow);
+            assertEquals(-1L, refresher.getStalenessMillis());
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package myshop.user.dao;
+
+import myshop.user.model.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class BloomFilteredUserDaoTest {
+    private UserDao delegate;
+    private BloomFilteredUserDao userDao;
+
+    @BeforeEach
+    void setUp() {
+        delegate = mock(UserDao.class);
+        when(delegate.findAllUsers()).thenReturn(List.of(new User(1L, "alice", "alice@example.com")));
+        when(delegate.existsByUsername(anyString())).thenReturn(true);
+        when(delegate.existsByEmail(anyString())).thenReturn(true);
+        userDao = new BloomFilteredUserDao(delegate, 1_000, 0.01);
+    }
+
+    @Test
+    void existsByUsername_checkThatUnknownNamesSkipDelegate() {
+        assertFalse(userDao.existsByUsername("bob"));
+        assertFalse(userDao.existsByEmail("bob@example.com"));
+        assertTrue(userDao.existsByUsername("alice"));
+
+        verify(delegate, times(1)).findAllUsers();
+        verify(delegate, never()).existsByUsername("bob");
+        verify(delegate).existsByUsername("alice");
+        assertEquals(2, userDao.getSkippedLookups());
+    }
+
+    @Test
+    void findByUsername_checkThatUsersCreatedElsewhereAreFound() {
+        User bob = new User(2L, "bob", "bob@example.com");
+        when(delegate.findByUsername("bob")).thenReturn(bob);
+        when(delegate.findByEmail("bob@example.com")).thenReturn(bob);
+        userDao.reload();
+
+        assertSame(bob, userDao.findByUsername("bob"));
+        assertSame(bob, userDao.findByEmail("bob@example.com"));
+        assertEquals(0, userDao.getSkippedLookups());
+    }
+
+    @Test
+    void reload_checkThatUsersCreatedElsewhereAreSeenAfterReload() {
+        assertFalse(userDao.existsByUsername("bob"));
+
+        when(delegate.findAllUsers()).thenReturn(List.of(new User(1L, "alice", "alice@example.com"),
+                new User(2L, "bob", "bob@example.com")));
+        userDao.reload();
+
+        assertTrue(userDao.existsByUsername("bob"));
+        verify(delegate).existsByUsername("bob");
+    }
+
+    @Test
+    void createAndUpdate_checkThatNewValuesReachDelegate() {
+        when(delegate.createUser(any())).thenAnswer(invocation -> {
+            User user = invocation.getArgument(0);
+            user.setId(2L);
+            return user;
+        });
+        userDao.reload();
+
+        userDao.createUser(new User(null, "bob", "bob@example.com"));
+        userDao.updateUser(new User(1L, "alice", "alice@new.example.com"));
+
+        assertTrue(userDao.existsByUsername("bob"));
+        assertTrue(userDao.existsByEmail("alice@new.example.com"));
+        verify(delegate).existsByUsername("bob");
+        verify(delegate).existsByEmail("alice@new.example.com");
+    }
+}
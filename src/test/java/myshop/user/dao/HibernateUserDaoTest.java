@@ -6,6 +6,7 @@ import jakarta.persistence.TypedQuery;
 import myshop.common.exception.DaoException;
 import myshop.common.jpa.JpaUtil;
 import myshop.user.model.User;
+import myshop.user.model.UserView;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -153,6 +154,44 @@ class HibernateUserDaoTest {
         verify(em).close();
     }
 
+    @Test
+    void findByUsername_checkThatReturnFirstResultOrNull() {
+        User user = new User(1L, "testUser", "testUser@gmail.com");
+        when(em.createQuery(HibernateUserDao.FIND_BY_USERNAME_JPQL, User.class)).thenReturn(typedQuery);
+        when(typedQuery.setParameter("value", "testUser")).thenReturn(typedQuery);
+        when(typedQuery.getResultList()).thenReturn(List.of(user), List.of());
+
+        assertSame(user, userDao.findByUsername("testUser"));
+        assertNull(userDao.findByUsername("testUser"));
+        verify(em, times(2)).close();
+    }
+
+    @Test
+    void findByEmail_checkThatThrowDaoExceptionWhenQueryFails() {
+        when(em.createQuery(HibernateUserDao.FIND_BY_EMAIL_JPQL, User.class))
+                .thenThrow(new RuntimeException("DB error"));
+
+        assertThrows(DaoException.class,
+                () -> userDao.findByEmail("testUser@gmail.com")
+        );
+
+        verify(em).close();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void existsByUsername_checkThatCountIsCompared() {
+        TypedQuery<Long> countQuery = mock(TypedQuery.class);
+        when(em.createQuery(HibernateUserDao.COUNT_BY_USERNAME_JPQL, Long.class)).thenReturn(countQuery);
+        when(countQuery.setParameter("value", "testUser")).thenReturn(countQuery);
+        when(countQuery.getSingleResult()).thenReturn(1L, 0L);
+
+        assertTrue(userDao.existsByUsername("testUser"));
+        assertFalse(userDao.existsByUsername("testUser"));
+        assertThrows(IllegalArgumentException.class, () -> userDao.existsByUsername(null));
+        verify(em, times(2)).close();
+    }
+
     @Test
     void updateUser_checkThatMergeAndCommitWhenIdNotNull() {
         User user = new User(1L, "testUser", "testUser@gmail.com");
@@ -237,4 +276,16 @@ class HibernateUserDaoTest {
         verify(transaction).rollback();
         verify(em).close();
     }
-}
\ No newline at end of file
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void findAllUserViews_checkThatProjectionIsReturnedAndEntityManagerClosed() {
+        TypedQuery<UserView> viewQuery = mock(TypedQuery.class);
+        List<UserView> expected = List.of(new UserView(1L, "testUser", "testUser@gmail.com"));
+        when(em.createQuery(HibernateUserDao.FIND_ALL_USER_VIEWS_JPQL, UserView.class)).thenReturn(viewQuery);
+        when(viewQuery.getResultList()).thenReturn(expected);
+
+        assertEquals(expected, new HibernateUserDao().findAllUserViews());
+        verify(em).close();
+    }
+}
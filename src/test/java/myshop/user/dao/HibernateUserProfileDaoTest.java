@@ -0,0 +1,85 @@
+package myshop.user.dao;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.TypedQuery;
+import myshop.common.exception.DaoException;
+import myshop.common.jpa.JpaUtil;
+import myshop.user.model.UserProfile;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.MockedStatic;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class HibernateUserProfileDaoTest {
+    @Mock
+    private EntityManager em;
+
+    @Mock
+    private TypedQuery<UserProfile> typedQuery;
+
+    private UserProfileDao userProfileDao;
+
+    private MockedStatic<JpaUtil> jpaUtilMock;
+
+    @BeforeEach
+    void setUp() {
+        userProfileDao = new HibernateUserProfileDao();
+        jpaUtilMock = Mockito.mockStatic(JpaUtil.class);
+        jpaUtilMock.when(JpaUtil::getEntityManager).thenReturn(em);
+        when(typedQuery.setParameter(anyString(), any())).thenReturn(typedQuery);
+        when(typedQuery.setMaxResults(anyInt())).thenReturn(typedQuery);
+    }
+
+    @AfterEach
+    void tearDown() {
+        jpaUtilMock.close();
+    }
+
+    @Test
+    void findByUserId_checkThatSingleQueryResultIsReturned() {
+        UserProfile profile = new UserProfile(1L, "testUser", "testUser@gmail.com", "Ivan", null, null, null);
+        when(em.createQuery(HibernateUserProfileDao.FIND_BY_USER_ID_JPQL, UserProfile.class)).thenReturn(typedQuery);
+        when(typedQuery.getResultList()).thenReturn(List.of(profile), List.of());
+
+        assertSame(profile, userProfileDao.findByUserId(1L));
+        assertNull(userProfileDao.findByUserId(1L));
+
+        verify(typedQuery, times(2)).setParameter("userId", 1L);
+        verify(em, times(2)).close();
+    }
+
+    @Test
+    void findProfiles_checkThatLimitIsApplied() {
+        when(em.createQuery(HibernateUserProfileDao.FIND_PROFILES_JPQL, UserProfile.class)).thenReturn(typedQuery);
+        when(typedQuery.getResultList()).thenReturn(List.of());
+
+        assertTrue(userProfileDao.findProfiles(10L, 50).isEmpty());
+
+        verify(typedQuery).setParameter("afterUserId", 10L);
+        verify(typedQuery).setMaxResults(50);
+        verify(em).close();
+    }
+
+    @Test
+    void findByUserId_checkThatThrowDaoExceptionWhenQueryFails() {
+        when(em.createQuery(HibernateUserProfileDao.FIND_BY_USER_ID_JPQL, UserProfile.class))
+                .thenThrow(new RuntimeException("DB error"));
+
+        assertThrows(DaoException.class, () -> userProfileDao.findByUserId(1L));
+
+        verify(em).close();
+    }
+}
@@ -178,6 +178,38 @@ class JdbcUserDaoTest {
         }
     }
 
+    @Test
+    void findByUsernameAndEmail_checkThatReturnUserOrNull() {
+        User createdUser = userDao.createUser(new User(null, "test_user", "testuser@gmail.com"));
+
+        assertEquals(createdUser, userDao.findByUsername("test_user"));
+        assertEquals(createdUser, userDao.findByEmail("testuser@gmail.com"));
+        assertNull(userDao.findByUsername("Test_User"), "Поиск по username должен быть регистрозависимым");
+        assertNull(userDao.findByEmail("other@gmail.com"));
+    }
+
+    @Test
+    void existsByUsernameAndEmail_checkThatReflectDbState() {
+        userDao.createUser(new User(null, "test_user", "testuser@gmail.com"));
+
+        assertTrue(userDao.existsByUsername("test_user"));
+        assertTrue(userDao.existsByEmail("testuser@gmail.com"));
+        assertFalse(userDao.existsByUsername("other_user"));
+        assertFalse(userDao.existsByEmail("other@gmail.com"));
+        assertThrows(IllegalArgumentException.class, () -> userDao.existsByUsername(null));
+    }
+
+    @Test
+    void findByUsername_checkThatWrapSqlExceptionIntoDaoException() {
+        try (MockedStatic<ConnectionManager> mockedStatic = Mockito.mockStatic(ConnectionManager.class)) {
+            mockedStatic.when(ConnectionManager::getConnection)
+                    .thenThrow(new SQLException("Test SQL error"));
+
+            assertThrows(DaoException.class, () -> userDao.findByUsername("test_user"));
+            assertThrows(DaoException.class, () -> userDao.existsByEmail("testuser@gmail.com"));
+        }
+    }
+
     @Test
     void updateUser_checkThatThrowIllegalArgumentExceptionWhenUserIdIsNull() {
         User user = new User();
@@ -0,0 +1,80 @@
+package myshop.user.dao;
+
+import myshop.common.db.ConnectionManager;
+import myshop.common.exception.DaoException;
+import myshop.user.model.User;
+import myshop.user.model.UserDetails;
+import myshop.user.model.UserProfile;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.MockedStatic;
+import org.mockito.Mockito;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JdbcUserProfileDaoTest {
+    private UserProfileDao userProfileDao;
+    private Long userId1;
+    private Long userId2;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        userProfileDao = new JdbcUserProfileDao();
+        UserDao userDao = new JdbcUserDao();
+        try (Connection connection = ConnectionManager.getConnection();
+             Statement st = connection.createStatement()) {
+            st.executeUpdate("DELETE FROM user_details");
+            st.executeUpdate("DELETE FROM users");
+        }
+
+        userId1 = userDao.createUser(new User(null, "test_user1", "testuser1@gmail.com")).getId();
+        userId2 = userDao.createUser(new User(null, "test_user2", "testuser2@gmail.com")).getId();
+        new JdbcUserDetailsDao().createUserDetails(
+                new UserDetails(userId1, "Ivan", "Petrov", "Kyiv, Main st. 1", "+380501112233"));
+    }
+
+    @Test
+    void findByUserId_checkThatUserAndDetailsAreJoined() {
+        assertEquals(new UserProfile(userId1, "test_user1", "testuser1@gmail.com",
+                "Ivan", "Petrov", "Kyiv, Main st. 1", "+380501112233"), userProfileDao.findByUserId(userId1));
+    }
+
+    @Test
+    void findByUserId_checkThatDetailsAreNullWhenMissing() {
+        assertEquals(new UserProfile(userId2, "test_user2", "testuser2@gmail.com", null, null, null, null),
+                userProfileDao.findByUserId(userId2));
+    }
+
+    @Test
+    void findByUserId_checkThatReturnNullWhenUserDoesNotExist() {
+        assertNull(userProfileDao.findByUserId(Long.MAX_VALUE));
+    }
+
+    @Test
+    void findProfiles_checkThatPagesAreOrderedById() {
+        List<UserProfile> firstPage = userProfileDao.findProfiles(0, 1);
+        assertEquals(List.of(userId1), firstPage.stream().map(UserProfile::getUserId).toList());
+
+        List<UserProfile> secondPage = userProfileDao.findProfiles(firstPage.get(0).getUserId(), 10);
+        assertEquals(List.of(userId2), secondPage.stream().map(UserProfile::getUserId).toList());
+        assertNull(secondPage.get(0).getFirstName());
+
+        assertThrows(IllegalArgumentException.class, () -> userProfileDao.findProfiles(0, 0));
+    }
+
+    @Test
+    void findByUserId_checkThatWrapSqlExceptionIntoDaoException() {
+        try (MockedStatic<ConnectionManager> mockedStatic = Mockito.mockStatic(ConnectionManager.class)) {
+            mockedStatic.when(ConnectionManager::getConnection)
+                    .thenThrow(new SQLException("Test SQL error"));
+
+            assertThrows(DaoException.class, () -> userProfileDao.findByUserId(userId1));
+            assertThrows(DaoException.class, () -> userProfileDao.findProfiles(0, 10));
+        }
+    }
+}
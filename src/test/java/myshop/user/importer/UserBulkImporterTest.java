@@ -0,0 +1,145 @@
+package myshop.user.importer;
+
+import myshop.common.db.ConnectionManager;
+import myshop.common.exception.DaoException;
+import myshop.user.dao.JdbcUserDao;
+import myshop.user.dao.JdbcUserProfileDao;
+import myshop.user.model.User;
+import myshop.user.model.UserProfile;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.MockedStatic;
+import org.mockito.Mockito;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.Locale;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UserBulkImporterTest {
+    private UserBulkImporter importer;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        importer = new UserBulkImporter(2);
+        try (Connection connection = ConnectionManager.getConnection();
+             Statement st = connection.createStatement()) {
+            st.executeUpdate("DELETE FROM user_details");
+            st.executeUpdate("DELETE FROM users");
+        }
+    }
+
+    @Test
+    void importUsers_checkThatCsvRowsAreMergedInOrder() {
+        String csv = """
+                username,email,first_name,last_name,address,phone
+                alice,alice@example.com,Alice,Smith,"Kyiv, ""Main"" st. 1",+380501112233
+                bob,bob@example.com,,,,
+                carol,carol@example.com,Carol,,"line 1
+                line 2",
+                """;
+
+        UserImportResult result = importer.importUsers(new StringReader(csv), UserImportFormat.CSV);
+
+        assertEquals(3, result.rowsRead());
+        assertTrue(result.errors().isEmpty(), result.errors().toString());
+        assertEquals(List.of(1L, 2L, 3L), result.imported().stream().map(ImportedUser::rowNumber).toList());
+
+        JdbcUserProfileDao profileDao = new JdbcUserProfileDao();
+        long aliceId = result.imported().get(0).userId();
+        assertEquals(new UserProfile(aliceId, "alice", "alice@example.com",
+                "Alice", "Smith", "Kyiv, \"Main\" st. 1", "+380501112233"), profileDao.findByUserId(aliceId));
+        long bobId = result.imported().get(1).userId();
+        assertEquals(new UserProfile(bobId, "bob", "bob@example.com", null, null, null, null),
+                profileDao.findByUserId(bobId));
+        assertEquals("line 1\nline 2", profileDao.findByUserId(result.imported().get(2).userId()).getAddress());
+    }
+
+    @Test
+    void importUsers_checkThatInvalidAndConflictingRowsAreReported() {
+        new JdbcUserDao().createUser(new User(null, "taken", "taken@example.com"));
+        String csv = """
+                email,username
+                ok1@example.com,ok1
+                ,no_email
+                not-an-email,bad_email
+                taken@example.com,new_name
+                ok2@example.com,ok1
+                "unterminated,x
+                """;
+
+        UserImportResult result = importer.importUsers(new StringReader(csv), UserImportFormat.CSV);
+
+        assertEquals(6, result.rowsRead());
+        assertEquals(List.of(1L), result.imported().stream().map(ImportedUser::rowNumber).toList());
+        assertEquals(List.of(
+                new UserImportError(2, "email is required"),
+                new UserImportError(3, "email is invalid"),
+                new UserImportError(4, "username or email already exists"),
+                new UserImportError(5, "duplicate username in source: ok1"),
+                new UserImportError(6, "unterminated quoted field")
+        ), result.errors());
+        assertNull(new JdbcUserDao().findByUsername("new_name"));
+    }
+
+    @Test
+    void importUsers_checkThatNdjsonRowsAreImported() {
+        String ndjson = """
+                {"username": "alice", "email": "alice@example.com", "first_name": "Al\\u00EDce", "phone": null}
+
+                {"username": "bob", "email": "bob@example.com", "nickname": "b"}
+                {"username": "carol", "email": "carol@example.com"
+                {"username": "dave", "email": "dave@example.com", "address": "Kyiv\\n\\"Main\\" st."}
+                """;
+
+        UserImportResult result = importer.importUsers(new StringReader(ndjson), UserImportFormat.NDJSON);
+
+        assertEquals(4, result.rowsRead());
+        assertEquals(List.of(1L, 4L), result.imported().stream().map(ImportedUser::rowNumber).toList());
+        assertEquals(List.of(2L, 3L), result.errors().stream().map(UserImportError::rowNumber).toList());
+        assertEquals("unknown or duplicate field 'nickname'", result.errors().get(0).message());
+        assertEquals("Alíce", new JdbcUserProfileDao().findByUserId(result.imported().get(0).userId()).getFirstName());
+        assertEquals("Kyiv\n\"Main\" st.",
+                new JdbcUserProfileDao().findByUserId(result.imported().get(1).userId()).getAddress());
+        assertTrue(result.rowsPerSecond() > 0);
+    }
+
+    @Test
+    void importUsers_checkThatCsvHeaderIsValidated() {
+        assertThrows(IllegalArgumentException.class,
+                () -> importer.importUsers(new StringReader("username,e-mail\n"), UserImportFormat.CSV));
+        assertThrows(IllegalArgumentException.class,
+                () -> importer.importUsers(new StringReader("username,first_name\n"), UserImportFormat.CSV));
+        assertThrows(IllegalArgumentException.class,
+                () -> importer.importUsers(new StringReader(""), UserImportFormat.CSV));
+    }
+
+    @Test
+    void open_checkThatCsvHeaderCaseDoesNotDependOnDefaultLocale() throws IOException {
+        Locale defaultLocale = Locale.getDefault();
+        Locale.setDefault(Locale.forLanguageTag("tr-TR"));
+        try {
+            UserImportReader reader = UserImportReader.open(
+                    new StringReader("USERNAME,EMAIL\nbob,bob@gmail.com\n"), UserImportFormat.CSV);
+            assertEquals("bob@gmail.com", reader.next().email());
+        } finally {
+            Locale.setDefault(defaultLocale);
+        }
+    }
+
+    @Test
+    void importUsers_checkThatWrapSqlExceptionIntoDaoException() {
+        try (MockedStatic<ConnectionManager> mockedStatic = Mockito.mockStatic(ConnectionManager.class)) {
+            mockedStatic.when(ConnectionManager::getConnection)
+                    .thenThrow(new SQLException("Test SQL error"));
+
+            assertThrows(DaoException.class, () -> importer.importUsers(
+                    new StringReader("username,email\nalice,alice@example.com\n"), UserImportFormat.CSV));
+        }
+    }
+}